@@ -0,0 +1,108 @@
+package adris.altoclef;
+
+import adris.altoclef.tasksystem.TaskChain;
+
+/**
+ * A fixed size ring buffer of what an agent's task system did recently (task starts/stops, subtask changes, chain
+ * switches...), one per {@link AltoClefController}.
+ * <p>
+ * Recording only stores references into preallocated arrays, no message is built unless internal logging is enabled
+ * or someone asks for a {@link #dump()}. Because tasks are stored by reference, a dump describes them as they are at
+ * dump time, only debug states are captured as they were when recorded.
+ */
+public class AgentEventLog {
+   private static final int CAPACITY = 256;
+
+   private final AltoClefController mod;
+   private final long[] ticks = new long[CAPACITY];
+   private final EventType[] types = new EventType[CAPACITY];
+   private final Object[] firstArgs = new Object[CAPACITY];
+   private final Object[] secondArgs = new Object[CAPACITY];
+   private final Object[] thirdArgs = new Object[CAPACITY];
+   private int next;
+   private int size;
+
+   public AgentEventLog(AltoClefController mod) {
+      this.mod = mod;
+   }
+
+   public void record(EventType type, Object first, Object second) {
+      this.record(type, first, second, null);
+   }
+
+   public void record(EventType type, Object first, Object second, Object third) {
+      this.ticks[this.next] = this.mod.getWorld().getGameTime();
+      this.types[this.next] = type;
+      this.firstArgs[this.next] = first;
+      this.secondArgs[this.next] = second;
+      this.thirdArgs[this.next] = third;
+      this.next = (this.next + 1) % CAPACITY;
+      this.size = Math.min(this.size + 1, CAPACITY);
+      if (Debug.isInternalLogEnabled()) {
+         Debug.logInternal(type.format(first, second, third));
+      }
+   }
+
+   public void clear() {
+      for (int i = 0; i < CAPACITY; i++) {
+         this.types[i] = null;
+         this.firstArgs[i] = null;
+         this.secondArgs[i] = null;
+         this.thirdArgs[i] = null;
+      }
+
+      this.next = 0;
+      this.size = 0;
+   }
+
+   /**
+    * @return Every recorded event, oldest first.
+    */
+   public String dump() {
+      StringBuilder sb = new StringBuilder();
+      int start = (this.next - this.size + CAPACITY) % CAPACITY;
+
+      for (int i = 0; i < this.size; i++) {
+         int index = (start + i) % CAPACITY;
+         sb.append('[').append(this.ticks[index]).append("] ").append(this.types[index].format(this.firstArgs[index], this.secondArgs[index], this.thirdArgs[index])).append('\n');
+      }
+
+      return sb.toString();
+   }
+
+   public void dumpToLog() {
+      Debug.logDump("Event log of " + this.mod.getEntity().getName().getString(), this.dump());
+   }
+
+   public enum EventType {
+      TASK_START,
+      TASK_STOP,
+      TASK_FAILED,
+      DEBUG_STATE,
+      SUBTASK_START,
+      SUBTASK_CHANGE,
+      SUBTASK_END,
+      CHAIN_SWITCH;
+
+      String format(Object first, Object second, Object third) {
+         return switch (this) {
+            case TASK_START -> "Task START: " + first;
+            case TASK_STOP -> "Task STOP: " + first + ", interrupted by " + second;
+            case TASK_FAILED -> "Task FAILED: " + second + " (" + first + ")";
+            case DEBUG_STATE -> "Debug State [" + simpleName(first) + "]: " + second;
+            case SUBTASK_START -> "Subtask Start [" + simpleName(first) + "]: " + second;
+            case SUBTASK_CHANGE -> "Subtask Change [" + simpleName(first) + "]: " + second + " → " + third;
+            case SUBTASK_END -> "Subtask End [" + simpleName(first) + "]: " + second + " (no replacement)";
+            case CHAIN_SWITCH -> "Chain Switch: " + chainName(first) + " → " + chainName(second);
+         };
+      }
+
+      private static String simpleName(Object obj) {
+         return obj == null ? "null" : obj.getClass().getSimpleName();
+      }
+
+      private static String chainName(Object obj) {
+         return obj instanceof TaskChain chain ? chain.getName() : "None";
+      }
+   }
+}
@@ -0,0 +1,119 @@
+package adris.altoclef;
+
+import net.minecraft.world.entity.LivingEntity;
+
+/**
+ * Caps how much server tick time all {@link AltoClefController}s together may spend on decision making.
+ * <p>
+ * Every controller asks {@link #beginTick} which parts of its pipeline to run this tick. Agents that are idle or far
+ * away from any player run their task chains and expensive subsystems (block scanner, trackers, status) less often,
+ * each agent staggered on its own slot so they don't all land on the same tick. Once the shared budget for the
+ * current server tick is spent, remaining agents defer that work to a later tick, but an agent is never deferred more
+ * than {@link #MAX_DEFERRED_TICKS} ticks in a row. Movement (input controls, pathing, looking) and the survival chains
+ * ({@link adris.altoclef.tasksystem.TaskChain#isSurvivalChain()}) are not scheduled here and keep running every tick.
+ * The budget is set from {@link Settings#getAgentTickBudgetMs()}.
+ */
+public class AgentTickScheduler {
+   public static final int RUN_TASKS = 1;
+   public static final int RUN_SUBSYSTEMS = 2;
+
+   private static final int MAX_DEFERRED_TICKS = 10;
+   private static final int RECLASSIFY_INTERVAL_TICKS = 20;
+   private static final double FAR_FROM_PLAYER_DISTANCE = 96.0;
+   private static final double COST_SMOOTHING = 0.1;
+
+   private static long tickBudgetNanos = 10_000_000L;
+   private static long serverTick;
+   private static long spentThisTick;
+   private static int nextStaggerSlot;
+
+   private final int staggerSlot;
+   private UpdateRate rate = UpdateRate.FULL;
+   private int pendingWork;
+   private int deferredTicks;
+   private double averageCostNanos;
+   private long tickStartNanos;
+
+   public AgentTickScheduler() {
+      this.staggerSlot = nextStaggerSlot++;
+   }
+
+   public static void onServerTickStart() {
+      serverTick++;
+      spentThisTick = 0L;
+   }
+
+   public static void setTickBudgetMillis(double millis) {
+      tickBudgetNanos = (long)(millis * 1000000.0);
+   }
+
+   /**
+    * @return a combination of {@link #RUN_TASKS} and {@link #RUN_SUBSYSTEMS}, the work this agent should do this tick.
+    */
+   public int beginTick(AltoClefController mod) {
+      long tick = serverTick + this.staggerSlot;
+      if (tick % RECLASSIFY_INTERVAL_TICKS == 0) {
+         this.rate = classify(mod);
+      }
+
+      int due = this.pendingWork;
+      if (tick % this.rate.taskInterval == 0) {
+         due |= RUN_TASKS;
+      }
+
+      if (tick % this.rate.subsystemInterval == 0) {
+         due |= RUN_SUBSYSTEMS;
+      }
+
+      // The first agent of a tick always gets to run, otherwise one expensive agent could starve itself forever.
+      boolean overBudget = spentThisTick > 0L && spentThisTick + (long)this.averageCostNanos > tickBudgetNanos;
+      if (due != 0 && overBudget && this.deferredTicks < MAX_DEFERRED_TICKS) {
+         this.pendingWork = due;
+         this.deferredTicks++;
+         return 0;
+      }
+
+      this.pendingWork = 0;
+      this.deferredTicks = 0;
+      this.tickStartNanos = System.nanoTime();
+      return due;
+   }
+
+   /**
+    * Call once the work returned by {@link #beginTick} is done, to charge its cost to the shared budget.
+    */
+   public void endTick(int work) {
+      if (work != 0) {
+         long cost = System.nanoTime() - this.tickStartNanos;
+         spentThisTick += cost;
+         this.averageCostNanos = this.averageCostNanos == 0.0 ? cost : this.averageCostNanos + (cost - this.averageCostNanos) * COST_SMOOTHING;
+      }
+   }
+
+   private static UpdateRate classify(AltoClefController mod) {
+      if (mod.getBaritone().getPathingBehavior().isPathing()) {
+         return UpdateRate.FULL;
+      }
+
+      LivingEntity entity = mod.getEntity();
+      if (entity.level().getNearestPlayer(entity, FAR_FROM_PLAYER_DISTANCE) == null) {
+         return UpdateRate.FAR;
+      }
+
+      return mod.getUserTaskChain().isActive() && !mod.getUserTaskChain().isRunningIdleTask() ? UpdateRate.FULL : UpdateRate.IDLE;
+   }
+
+   public enum UpdateRate {
+      FULL(1, 2),
+      IDLE(2, 4),
+      FAR(5, 20);
+
+      private final int taskInterval;
+      private final int subsystemInterval;
+
+      UpdateRate(int taskInterval, int subsystemInterval) {
+         this.taskInterval = taskInterval;
+         this.subsystemInterval = subsystemInterval;
+      }
+   }
+}
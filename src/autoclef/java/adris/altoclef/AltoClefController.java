@@ -14,12 +14,14 @@ import adris.altoclef.commandsystem.CommandExecutor;
 import adris.altoclef.control.InputControls;
 import adris.altoclef.control.PlayerExtraController;
 import adris.altoclef.control.SlotHandler;
+import adris.altoclef.eventbus.SubscriptionGroup;
 
 import adris.altoclef.player2api.manager.ConversationManager;
 import adris.altoclef.player2api.AIPersistantData;
 import adris.altoclef.player2api.Player2APIService;
 
 import adris.altoclef.player2api.Character;
+import adris.altoclef.player2api.status.StatusSnapshotService;
 import adris.altoclef.tasksystem.Task;
 import adris.altoclef.tasksystem.TaskRunner;
 import adris.altoclef.trackers.CraftingRecipeTracker;
@@ -42,7 +44,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -72,6 +73,10 @@ public class AltoClefController {
    private CraftingRecipeTracker craftingRecipeTracker;
    private EntityStuckTracker entityStuckTracker;
    private UserBlockRangeTracker userBlockRangeTracker;
+   private StatusSnapshotService statusSnapshots;
+   private final AgentTickScheduler tickScheduler = new AgentTickScheduler();
+   private final AgentEventLog eventLog = new AgentEventLog(this);
+   private final SubscriptionGroup eventSubscriptions = new SubscriptionGroup(this::getWorld);
    private InputControls inputControls;
    private SlotHandler slotHandler;
    private PlayerExtraController extraController;
@@ -105,6 +110,7 @@ public class AltoClefController {
       this.craftingRecipeTracker = new CraftingRecipeTracker(this.trackerManager);
       this.entityStuckTracker = new EntityStuckTracker(this.trackerManager);
       this.userBlockRangeTracker = new UserBlockRangeTracker(this.trackerManager);
+      this.statusSnapshots = new StatusSnapshotService(this);
       this.inputControls = new InputControls(this);
       this.slotHandler = new SlotHandler(this);
       this.extraController = new PlayerExtraController(this);
@@ -114,6 +120,8 @@ public class AltoClefController {
       Settings.load(
             newSettings -> {
                this.settings = newSettings;
+               Debug.setLogLevel(newSettings.getLogLevel());
+               AgentTickScheduler.setTickBudgetMillis(newSettings.getAgentTickBudgetMs());
                List<Item> baritoneCanPlace = Arrays.stream(this.settings.getThrowawayItems(this, true)).toList();
                this.getBaritoneSettings().acceptableThrowawayItems.get().addAll(baritoneCanPlace);
                if ((!this.getUserTaskChain().isActive() || this.getUserTaskChain().isRunningIdleTask())
@@ -122,8 +130,8 @@ public class AltoClefController {
                   this.getCommandExecutor().executeWithPrefix(this.getModSettings().getIdleCommand());
                }
 
-               this.getExtraBaritoneSettings().avoidBlockBreak(this.userBlockRangeTracker::isNearUserTrackedBlock);
-               this.getExtraBaritoneSettings().avoidBlockPlace(this.entityStuckTracker::isBlockedByEntity);
+               this.getExtraBaritoneSettings().avoidBlockBreak(this.userBlockRangeTracker, this.userBlockRangeTracker::isNearUserTrackedBlock);
+               this.getExtraBaritoneSettings().avoidBlockPlace(this.entityStuckTracker, this.entityStuckTracker::isBlockedByEntity);
             });
       Playground.IDLE_TEST_INIT_FUNCTION(this);
 
@@ -136,20 +144,32 @@ public class AltoClefController {
 
    public void serverTick() {
       this.inputControls.onTickPre();
+      int work = this.tickScheduler.beginTick(this);
+      // Not budgeted: trackers update lazily so this only marks them dirty, and the survival chains below read the
+      // entity and inventory trackers on every tick, throttled or not.
       this.storageTracker.setDirty();
-      this.miscBlockTracker.tick();
       this.trackerManager.tick();
-      this.blockScanner.tick();
-      this.taskRunner.tick();
+
+      if ((work & AgentTickScheduler.RUN_SUBSYSTEMS) != 0) {
+         this.miscBlockTracker.tick();
+         this.blockScanner.tick();
+         // Its avoider may be asked from other threads, so it's brought up to date here rather than when read
+         this.userBlockRangeTracker.ensureUpdated();
+      }
+
+      if ((work & AgentTickScheduler.RUN_TASKS) != 0) {
+         this.taskRunner.tick();
+      } else {
+         // Survival chains are never throttled, a skipped tick can be the one the agent falls or gets hit on
+         this.taskRunner.tickSurvivalChains();
+      }
+
+      this.tickScheduler.endTick(work);
       this.inputControls.onTickPost();
       this.baritone.serverTick();
       this.player2apiService.trySendHeartbeat();
    }
 
-   static {
-      ServerTickEvents.END_SERVER_TICK.register(AltoClefController::staticServerTick);
-   }
-
    public static void staticServerTick(MinecraftServer server) {
       ConversationManager.injectOnTick(server);
    }
@@ -165,10 +185,19 @@ public class AltoClefController {
       this.getBaritone().getInputOverrideHandler().clearAllKeys();
    }
 
+   /**
+    * Stops everything and detaches this agent from the event bus. Called once the agent's entity is removed, see
+    * {@link ConversationManager#onAgentRemoved}.
+    */
+   public void shutdown() {
+      this.stop();
+      this.eventSubscriptions.unsubscribeAll();
+   }
+
    private void initializeBaritoneSettings() {
       this.getExtraBaritoneSettings().canWalkOnEndPortal(false);
-      this.getExtraBaritoneSettings().avoidBlockPlace(this.entityStuckTracker::isBlockedByEntity);
-      this.getExtraBaritoneSettings().avoidBlockBreak(this.userBlockRangeTracker::isNearUserTrackedBlock);
+      this.getExtraBaritoneSettings().avoidBlockPlace(this.entityStuckTracker, this.entityStuckTracker::isBlockedByEntity);
+      this.getExtraBaritoneSettings().avoidBlockBreak(this.userBlockRangeTracker, this.userBlockRangeTracker::isNearUserTrackedBlock);
       this.getBaritoneSettings().freeLook.set(false);
       this.getBaritoneSettings().overshootTraverse.set(true);
       this.getBaritoneSettings().allowOvershootDiagonalDescend.set(true);
@@ -242,6 +271,17 @@ public class AltoClefController {
       return this.taskRunner;
    }
 
+   public AgentEventLog getEventLog() {
+      return this.eventLog;
+   }
+
+   /**
+    * Event subscriptions of this agent, only receiving events from the level it is in.
+    */
+   public SubscriptionGroup getEventSubscriptions() {
+      return this.eventSubscriptions;
+   }
+
    public UserTaskChain getUserTaskChain() {
       return this.userTaskChain;
    }
@@ -290,6 +330,10 @@ public class AltoClefController {
       return this.miscBlockTracker;
    }
 
+   public StatusSnapshotService getStatusSnapshots() {
+      return this.statusSnapshots;
+   }
+
    public Settings getModSettings() {
       return this.settings;
    }
@@ -0,0 +1,42 @@
+package adris.altoclef;
+
+import adris.altoclef.eventbus.EventBus;
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import adris.altoclef.trackers.ChunkLifecycleHub;
+import adris.altoclef.trackers.CraftingRecipeIndex;
+import adris.altoclef.trackers.ProtectedRegionIndex;
+import adris.altoclef.trackers.storage.ContainerIndex;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+
+/**
+ * Registers the listeners shared by every {@link AltoClefController} at mod init, before any world (or chunk) loads.
+ */
+public class AltoClefInitializer implements ModInitializer {
+   @Override
+   public void onInitialize() {
+      ServerTickEvents.START_SERVER_TICK.register(server -> AgentTickScheduler.onServerTickStart());
+      ServerTickEvents.END_SERVER_TICK.register(AltoClefController::staticServerTick);
+      ServerLifecycleEvents.SERVER_STARTED.register(server -> CraftingRecipeIndex.prebuild(server.getRecipeManager()));
+      ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+         if (success) {
+            CraftingRecipeIndex.prebuild(server.getRecipeManager());
+         }
+      });
+      ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+         CraftingRecipeIndex.invalidate();
+         ContainerIndex.clearLoaded();
+         ProtectedRegionIndex.clearLoaded();
+      });
+      ServerWorldEvents.LOAD.register((server, level) -> ContainerIndex.onLevelLoad(level));
+      ServerWorldEvents.UNLOAD.register((server, level) -> {
+         ContainerIndex.onLevelUnload(level);
+         ProtectedRegionIndex.onLevelUnload(level);
+      });
+      EventBus.subscribe(BlockChangeEvent.class, ContainerIndex::onBlockChange);
+      ChunkLifecycleHub.register();
+      EventBus.subscribe(BlockChangeEvent.class, ProtectedRegionIndex::onBlockChange);
+   }
+}
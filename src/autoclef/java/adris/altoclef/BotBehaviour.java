@@ -2,6 +2,7 @@ package adris.altoclef;
 
 import baritone.api.utils.RayTraceUtils;
 import baritone.autoclef.AltoClefSettings;
+import baritone.autoclef.BlockRules;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -73,27 +74,27 @@ public class BotBehaviour {
    }
 
    public void avoidBlockBreaking(BlockPos pos) {
-      this.current().blocksToAvoidBreaking.add(pos);
+      this.current().breakAvoiders = this.current().breakAvoiders.withPosition(pos);
       this.current().applyState();
    }
 
    public void avoidBlockBreaking(Predicate<BlockPos> pred) {
-      this.current().toAvoidBreaking.add(pred);
+      this.current().breakAvoiders = this.current().breakAvoiders.with(pred, pred);
       this.current().applyState();
    }
 
    public void avoidBlockPlacing(Predicate<BlockPos> pred) {
-      this.current().toAvoidPlacing.add(pred);
+      this.current().placeAvoiders = this.current().placeAvoiders.with(pred, pred);
       this.current().applyState();
    }
 
    public void allowWalkingOn(Predicate<BlockPos> pred) {
-      this.current().allowWalking.add(pred);
+      this.current().allowWalking = this.current().allowWalking.with(pred, pred);
       this.current().applyState();
    }
 
    public void avoidWalkingThrough(Predicate<BlockPos> pred) {
-      this.current().avoidWalkingThrough.add(pred);
+      this.current().avoidWalkingThrough = this.current().avoidWalkingThrough.with(pred, pred);
       this.current().applyState();
    }
 
@@ -233,11 +234,10 @@ public class BotBehaviour {
       public boolean forceFieldPlayers;
       public List<Predicate<Entity>> avoidDodgingProjectile = new ArrayList<>();
       public List<Predicate<Entity>> excludeFromForceField = new ArrayList<>();
-      public HashSet<BlockPos> blocksToAvoidBreaking = new HashSet<>();
-      public List<Predicate<BlockPos>> toAvoidBreaking = new ArrayList<>();
-      public List<Predicate<BlockPos>> toAvoidPlacing = new ArrayList<>();
-      public List<Predicate<BlockPos>> allowWalking = new ArrayList<>();
-      public List<Predicate<BlockPos>> avoidWalkingThrough = new ArrayList<>();
+      public BlockRules breakAvoiders = BlockRules.EMPTY;
+      public BlockRules placeAvoiders = BlockRules.EMPTY;
+      public BlockRules allowWalking = BlockRules.EMPTY;
+      public BlockRules avoidWalkingThrough = BlockRules.EMPTY;
       public List<BiPredicate<BlockState, ItemStack>> forceUseTools = new ArrayList<>();
       public List<BiFunction<Double, BlockPos, Double>> globalHeuristics = new ArrayList<>();
       public boolean allowWalkThroughFlowingWater = false;
@@ -276,15 +276,14 @@ public class BotBehaviour {
       }
 
       private void readExtraState(AltoClefSettings settings) {
+         this.breakAvoiders = settings.getBreakAvoiders();
+         this.placeAvoiders = settings.getPlaceAvoiders();
+         this.allowWalking = settings.getForceWalkOnRules();
+         this.avoidWalkingThrough = settings.getForceAvoidWalkThroughRules();
          synchronized (settings.getBreakMutex()) {
             synchronized (settings.getPlaceMutex()) {
-               this.blocksToAvoidBreaking = new HashSet<>(settings.getBlocksToAvoidBreaking());
-               this.toAvoidBreaking = new ArrayList<>(settings.getBreakAvoiders());
-               this.toAvoidPlacing = new ArrayList<>(settings.getPlaceAvoiders());
                this.protectedItems = new HashSet<>(settings.getProtectedItems());
                synchronized (settings.getPropertiesMutex()) {
-                  this.allowWalking = new ArrayList<>(settings.getForceWalkOnPredicates());
-                  this.avoidWalkingThrough = new ArrayList<>(settings.getForceAvoidWalkThroughPredicates());
                   this.forceUseTools = new ArrayList<>(settings.getForceUseToolPredicates());
                }
             }
@@ -308,21 +307,15 @@ public class BotBehaviour {
          s.allowDiagonalAscend.set(this.allowDiagonalAscend);
          s.blockPlacementPenalty.set(this.blockPlacePenalty);
          s.blockBreakAdditionalPenalty.set(this.blockBreakAdditionalPenalty);
+         sa.setBreakAvoiders(this.breakAvoiders);
+         sa.setPlaceAvoiders(this.placeAvoiders);
+         sa.setForceWalkOnRules(this.allowWalking);
+         sa.setForceAvoidWalkThroughRules(this.avoidWalkingThrough);
          synchronized (sa.getBreakMutex()) {
             synchronized (sa.getPlaceMutex()) {
-               sa.getBreakAvoiders().clear();
-               sa.getBreakAvoiders().addAll(this.toAvoidBreaking);
-               sa.getBlocksToAvoidBreaking().clear();
-               sa.getBlocksToAvoidBreaking().addAll(this.blocksToAvoidBreaking);
-               sa.getPlaceAvoiders().clear();
-               sa.getPlaceAvoiders().addAll(this.toAvoidPlacing);
                sa.getProtectedItems().clear();
                sa.getProtectedItems().addAll(this.protectedItems);
                synchronized (sa.getPropertiesMutex()) {
-                  sa.getForceWalkOnPredicates().clear();
-                  sa.getForceWalkOnPredicates().addAll(this.allowWalking);
-                  sa.getForceAvoidWalkThroughPredicates().clear();
-                  sa.getForceAvoidWalkThroughPredicates().addAll(this.avoidWalkingThrough);
                   sa.getForceUseToolPredicates().clear();
                   sa.getForceUseToolPredicates().addAll(this.forceUseTools);
                }
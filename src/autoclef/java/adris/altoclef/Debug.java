@@ -1,20 +1,51 @@
 package adris.altoclef;
 
 import adris.altoclef.player2api.Character;
+import java.util.function.Supplier;
 
 public class Debug {
    private static final int DEBUG_LOG_LEVEL = 0;
    private static final int WARN_LOG_LEVEL = 1;
    private static final int ERROR_LOG_LEVEL = 2;
+   private static volatile String enabledLogLevel = "NORMAL";
+
+   /**
+    * @param logLevel One of "ALL", "NORMAL", "WARN", "ERROR" or "NONE", see {@link Settings#getLogLevel()}
+    */
+   public static void setLogLevel(String logLevel) {
+      enabledLogLevel = logLevel == null ? "NORMAL" : logLevel.toUpperCase();
+   }
+
+   /**
+    * Check this before building an expensive internal message, so nothing is allocated while internal logging is off.
+    */
+   public static boolean isInternalLogEnabled() {
+      return canLog(DEBUG_LOG_LEVEL);
+   }
 
    public static void logInternal(String message) {
-      if (canLog(0)) {
+      if (canLog(DEBUG_LOG_LEVEL)) {
          System.out.println("ALTO CLEF: " + message);
       }
    }
 
+   public static void logInternal(Supplier<String> message) {
+      if (canLog(DEBUG_LOG_LEVEL)) {
+         System.out.println("ALTO CLEF: " + message.get());
+      }
+   }
+
    public static void logInternal(String format, Object... args) {
-      logInternal(String.format(format, args));
+      if (canLog(DEBUG_LOG_LEVEL)) {
+         logInternal(String.format(format, args));
+      }
+   }
+
+   /**
+    * Prints regardless of the log level, for output that was explicitly asked for (like an event log dump).
+    */
+   public static void logDump(String title, String body) {
+      System.out.println("ALTO CLEF: ---- " + title + " ----\n" + body);
    }
 
    private static String getLogPrefix() {
@@ -39,22 +70,26 @@ public class Debug {
    }
 
    public static void logMessage(String format, Object... args) {
-      logMessage(String.format(format, args));
+      if (canLog(DEBUG_LOG_LEVEL)) {
+         logMessage(String.format(format, args));
+      }
    }
 
    public static void logWarning(String message) {
-      if (canLog(1)) {
+      if (canLog(WARN_LOG_LEVEL)) {
          System.out.println("ALTO CLEF: WARNING: " + message);
       }
    }
 
    public static void logWarning(String format, Object... args) {
-      logWarning(String.format(format, args));
+      if (canLog(WARN_LOG_LEVEL)) {
+         logWarning(String.format(format, args));
+      }
    }
 
    public static void logError(String message) {
-      String stacktrace = getStack(2);
-      if (canLog(2)) {
+      if (canLog(ERROR_LOG_LEVEL)) {
+         String stacktrace = getStack(2);
          System.err.println(message);
          System.err.println("at:");
          System.err.println(stacktrace);
@@ -66,7 +101,9 @@ public class Debug {
    }
 
    public static void logStack() {
-      logInternal("STACKTRACE: \n" + getStack(2));
+      if (canLog(DEBUG_LOG_LEVEL)) {
+         logInternal("STACKTRACE: \n" + getStack(2));
+      }
    }
 
    private static String getStack(int toSkip) {
@@ -82,18 +119,18 @@ public class Debug {
    }
 
    private static boolean canLog(int level) {
-      String enabledLogLevel = "ALL";
       switch (enabledLogLevel) {
          case "NONE":
+            return false;
          case "ALL":
-         case "NORMAL":
-            return level == 1 || level == 2;
+            return true;
          case "WARN":
-            return level == 1;
+            return level == WARN_LOG_LEVEL;
          case "ERROR":
-            return level == 2;
+            return level == ERROR_LOG_LEVEL;
+         case "NORMAL":
          default:
-            return level != 0;
+            return level != DEBUG_LOG_LEVEL;
       }
    }
 }
@@ -34,6 +34,7 @@ public class Settings implements IFailableConfigFile {
    @JsonIgnore
    private transient boolean failedToLoad = false;
    private boolean showDebugTickMs = false;
+   private float agentTickBudgetMs = 10.0F;
    private boolean showTaskChains = true;
    private boolean hideAllWarningLogs = false;
    private String commandPrefix = "@";
@@ -157,6 +158,10 @@ public class Settings implements IFailableConfigFile {
       return this.showDebugTickMs;
    }
 
+   public float getAgentTickBudgetMs() {
+      return this.agentTickBudgetMs;
+   }
+
    public boolean shouldHideAllWarningLogs() {
       return this.hideAllWarningLogs;
    }
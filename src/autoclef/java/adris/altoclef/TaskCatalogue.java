@@ -96,6 +96,8 @@ public class TaskCatalogue {
    private static final HashMap<String, TaskCatalogue.CataloguedResource> nameToResourceTask = new HashMap<>();
    private static final HashMap<Item, TaskCatalogue.CataloguedResource> itemToResourceTask = new HashMap<>();
    private static final HashSet<Item> resourcesObtainable = new HashSet<>();
+   private static final HashMap<Item, CraftingRecipe> itemToCraftingRecipe = new HashMap<>();
+   private static final HashMap<Item, String> itemToSmeltMaterial = new HashMap<>();
 
    private static TaskCatalogue.CataloguedResource put(String name, Item[] matches, Function<Integer, ResourceTask> getTask) {
       List<Item> supportedMatches = new ArrayList<>();
@@ -186,6 +188,20 @@ public class TaskCatalogue {
       return nameToResourceTask.keySet();
    }
 
+   /**
+    * @return The recipe the catalogue crafts this item with, or null if it isn't catalogued as a crafting recipe.
+    */
+   public static CraftingRecipe getCataloguedRecipe(Item item) {
+      return itemToCraftingRecipe.get(item);
+   }
+
+   /**
+    * @return The catalogue name of what the catalogue smelts into this item, or null if it isn't catalogued as smelted.
+    */
+   public static String getCataloguedSmeltMaterial(Item item) {
+      return itemToSmeltMaterial.get(item);
+   }
+
    private static TaskCatalogue.CataloguedResource simple(String name, Item[] matches, Function<Integer, ResourceTask> getTask) {
       return put(name, matches, getTask);
    }
@@ -230,6 +246,7 @@ public class TaskCatalogue {
 
    private static TaskCatalogue.CataloguedResource shapedRecipe2x2(String name, Item match, int outputCount, String s0, String s1, String s2, String s3) {
       CraftingRecipe recipe = CraftingRecipe.newShapedRecipe(name, new ItemTarget[]{t(s0), t(s1), t(s2), t(s3)}, outputCount);
+      itemToCraftingRecipe.putIfAbsent(match, recipe);
       return put(name, new Item[]{match}, count -> new CraftInInventoryTask(new RecipeTarget(match, count, recipe)));
    }
 
@@ -237,6 +254,7 @@ public class TaskCatalogue {
       String name, Item match, int outputCount, String s0, String s1, String s2, String s3, String s4, String s5, String s6, String s7, String s8
    ) {
       CraftingRecipe recipe = CraftingRecipe.newShapedRecipe(name, new ItemTarget[]{t(s0), t(s1), t(s2), t(s3), t(s4), t(s5), t(s6), t(s7), t(s8)}, outputCount);
+      itemToCraftingRecipe.putIfAbsent(match, recipe);
       return put(name, new Item[]{match}, count -> new CraftInTableTask(new RecipeTarget(match, count, recipe)));
    }
 
@@ -265,6 +283,10 @@ public class TaskCatalogue {
    }
 
    private static TaskCatalogue.CataloguedResource smelt(String name, Item[] matches, String materials, Item... optionalMaterials) {
+      if (matches.length == 1) {
+         itemToSmeltMaterial.putIfAbsent(matches[0], materials);
+      }
+
       return put(
          name, matches, count -> new SmeltInFurnaceTask(new SmeltTarget(new ItemTarget(matches, count), new ItemTarget(materials, count), optionalMaterials))
       );
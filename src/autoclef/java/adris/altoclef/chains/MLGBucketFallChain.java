@@ -4,6 +4,8 @@ import adris.altoclef.AltoClefController;
 import adris.altoclef.TaskCatalogue;
 import adris.altoclef.tasks.movement.MLGBucketTask;
 import adris.altoclef.tasksystem.ITaskOverridesGrounded;
+import adris.altoclef.tasksystem.ChainInput;
+import adris.altoclef.tasksystem.ChainSchedule;
 import adris.altoclef.tasksystem.TaskRunner;
 import adris.altoclef.util.helpers.LookHelper;
 import adris.altoclef.util.time.TimerGame;
@@ -19,6 +21,7 @@ import net.minecraft.world.level.ClipContext.Fluid;
 import net.minecraft.world.level.block.Blocks;
 
 public class MLGBucketFallChain extends SingleTaskChain implements ITaskOverridesGrounded {
+   private static final ChainSchedule SCHEDULE = ChainSchedule.of(5, ChainInput.FALL_STATE, ChainInput.INVENTORY);
    private final TimerGame tryCollectWaterTimer = new TimerGame(4.0);
    private final TimerGame pickupRepeatTimer = new TimerGame(0.25);
    private MLGBucketTask lastMLG = null;
@@ -112,6 +115,21 @@ public class MLGBucketFallChain extends SingleTaskChain implements ITaskOverride
       return "MLG Water Bucket Fall Chain";
    }
 
+   @Override
+   public ChainSchedule getSchedule() {
+      return SCHEDULE;
+   }
+
+   @Override
+   public boolean needsPollEveryTick() {
+      return this.lastMLG != null || this.wasPickingUp || this.doingChorusFruit;
+   }
+
+   @Override
+   public boolean isSurvivalChain() {
+      return true;
+   }
+
    @Override
    public boolean isActive() {
       return true;
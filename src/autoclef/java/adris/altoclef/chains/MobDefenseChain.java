@@ -11,6 +11,8 @@ import adris.altoclef.tasks.movement.DodgeProjectilesTask;
 import adris.altoclef.tasks.movement.RunAwayFromCreepersTask;
 import adris.altoclef.tasks.movement.RunAwayFromHostilesTask;
 import adris.altoclef.tasks.speedrun.DragonBreathTracker;
+import adris.altoclef.tasksystem.ChainInput;
+import adris.altoclef.tasksystem.ChainSchedule;
 import adris.altoclef.tasksystem.TaskRunner;
 import adris.altoclef.util.baritone.CachedProjectile;
 import adris.altoclef.util.helpers.BaritoneHelper;
@@ -72,6 +74,7 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.phys.Vec3;
 
 public class MobDefenseChain extends SingleTaskChain {
+   private static final ChainSchedule SCHEDULE = ChainSchedule.of(5, ChainInput.HEALTH, ChainInput.NEARBY_THREATS, ChainInput.ENVIRONMENT, ChainInput.INVENTORY);
    private static final double DANGER_KEEP_DISTANCE = 30.0;
    private static final double CREEPER_KEEP_DISTANCE = 10.0;
    private static final double ARROW_KEEP_DISTANCE_HORIZONTAL = 2.0;
@@ -155,10 +158,25 @@ public class MobDefenseChain extends SingleTaskChain {
          this.cachedLastPriority = 0.0F;
       }
 
-      this.prevHealth = this.controller.getPlayer().getHealth();
       return this.cachedLastPriority;
    }
 
+   @Override
+   public void onRunnerTick() {
+      if (AltoClefController.inGame()) {
+         AltoClefController mod = this.controller;
+         if (this.needsChangeOnAttack && (mod.getPlayer().getHealth() < this.prevHealth || this.killAura.attackedLastTick)) {
+            this.needsChangeOnAttack = false;
+         }
+
+         this.prevHealth = mod.getPlayer().getHealth();
+         this.dragonBreathTracker.updateBreath(mod);
+         if (!this.wasPuttingOutFire) {
+            mod.getBaritone().getInputOverrideHandler().setInputForceState(Input.CLICK_LEFT, false);
+         }
+      }
+   }
+
    private void stopShielding(AltoClefController mod) {
       if (shielding) {
          ItemStack cursor = StorageHelper.getItemStackInCursorSlot(this.controller);
@@ -182,8 +200,6 @@ public class MobDefenseChain extends SingleTaskChain {
    }
 
    private boolean escapeDragonBreath(AltoClefController mod) {
-      this.dragonBreathTracker.updateBreath(mod);
-
       for (BlockPos playerIn : WorldHelper.getBlocksTouchingPlayer(mod.getPlayer())) {
          if (this.dragonBreathTracker.isTouchingDragonBreath(playerIn)) {
             return true;
@@ -203,10 +219,6 @@ public class MobDefenseChain extends SingleTaskChain {
          } else if (mod.getWorld().getDifficulty() == Difficulty.PEACEFUL) {
             return Float.NEGATIVE_INFINITY;
          } else {
-            if (this.needsChangeOnAttack && (mod.getPlayer().getHealth() < this.prevHealth || this.killAura.attackedLastTick)) {
-               this.needsChangeOnAttack = false;
-            }
-
             BlockPos fireBlock = this.isInsideFireAndOnFire(mod);
             if (fireBlock != null) {
                this.putOutFire(mod, fireBlock);
@@ -652,6 +664,21 @@ public class MobDefenseChain extends SingleTaskChain {
       return this.wasPuttingOutFire;
    }
 
+   @Override
+   public ChainSchedule getSchedule() {
+      return SCHEDULE;
+   }
+
+   @Override
+   public boolean needsPollEveryTick() {
+      return this.isShielding() || this.wasPuttingOutFire || this.runAwayTask != null || this.lockedOnEntity != null;
+   }
+
+   @Override
+   public boolean isSurvivalChain() {
+      return true;
+   }
+
    @Override
    public boolean isActive() {
       return true;
@@ -1,10 +1,11 @@
 package adris.altoclef.chains;
 
 import adris.altoclef.AltoClefController;
-import adris.altoclef.eventbus.EventBus;
 import adris.altoclef.eventbus.events.EntitySwungEvent;
 import adris.altoclef.eventbus.events.PlayerDamageEvent;
 import adris.altoclef.tasks.entity.KillPlayerTask;
+import adris.altoclef.tasksystem.ChainInput;
+import adris.altoclef.tasksystem.ChainSchedule;
 import adris.altoclef.tasksystem.TaskRunner;
 import adris.altoclef.util.helpers.LookHelper;
 import adris.altoclef.util.time.TimerGame;
@@ -17,6 +18,7 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.Vec3;
 
 public class PlayerDefenseChain extends SingleTaskChain {
+   private static final ChainSchedule SCHEDULE = ChainSchedule.of(20, ChainInput.HEALTH);
    private Map<String, PlayerDefenseChain.DamageTarget> damageTargets = new HashMap<>();
    private Map<Integer, TimerGame> recentlySwung = new HashMap<>();
    private TimerGame recentlyDamagedUnknown = new TimerGame(0.3);
@@ -30,12 +32,12 @@ public class PlayerDefenseChain extends SingleTaskChain {
    public PlayerDefenseChain(TaskRunner runner) {
       super(runner);
       this.mod = runner.getMod();
-      EventBus.subscribe(PlayerDamageEvent.class, evt -> {
+      this.mod.getEventSubscriptions().subscribe(PlayerDamageEvent.class, evt -> {
          if (this.controller.getPlayer() == evt.target) {
             this.onPlayerDamage(evt.source.getEntity());
          }
       });
-      EventBus.subscribe(EntitySwungEvent.class, evt -> this.onEntitySwung(evt.entity));
+      this.mod.getEventSubscriptions().subscribe(EntitySwungEvent.class, evt -> this.onEntitySwung(evt.entity));
    }
 
    private void processMaybeDamaged() {
@@ -160,6 +162,17 @@ public class PlayerDefenseChain extends SingleTaskChain {
       }
    }
 
+   @Override
+   public ChainSchedule getSchedule() {
+      return SCHEDULE;
+   }
+
+   @Override
+   public boolean needsPollEveryTick() {
+      // Attack memory times out, so keep polling until every tracked attacker has been forgotten
+      return !this.damageTargets.isEmpty() || this.currentlyAttackingPlayer != null;
+   }
+
    @Override
    public boolean isActive() {
       return true;
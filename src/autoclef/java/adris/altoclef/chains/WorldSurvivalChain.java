@@ -8,6 +8,8 @@ import adris.altoclef.tasks.movement.EnterNetherPortalTask;
 import adris.altoclef.tasks.movement.EscapeFromLavaTask;
 import adris.altoclef.tasks.movement.GetToBlockTask;
 import adris.altoclef.tasks.movement.SafeRandomShimmyTask;
+import adris.altoclef.tasksystem.ChainInput;
+import adris.altoclef.tasksystem.ChainSchedule;
 import adris.altoclef.tasksystem.TaskRunner;
 import adris.altoclef.util.ItemTarget;
 import adris.altoclef.util.helpers.LookHelper;
@@ -25,6 +27,7 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 
 public class WorldSurvivalChain extends SingleTaskChain {
+   private static final ChainSchedule SCHEDULE = ChainSchedule.of(10, ChainInput.ENVIRONMENT, ChainInput.INVENTORY);
    private final TimerGame wasInLavaTimer = new TimerGame(1.0);
    private final TimerGame portalStuckTimer = new TimerGame(5.0);
    private boolean wasAvoidingDrowning;
@@ -154,6 +157,21 @@ public class WorldSurvivalChain extends SingleTaskChain {
       return "Misc World Survival Chain";
    }
 
+   @Override
+   public ChainSchedule getSchedule() {
+      return SCHEDULE;
+   }
+
+   @Override
+   public boolean needsPollEveryTick() {
+      return this.wasAvoidingDrowning || this.extinguishWaterPosition != null;
+   }
+
+   @Override
+   public boolean isSurvivalChain() {
+      return true;
+   }
+
    @Override
    public boolean isActive() {
       return true;
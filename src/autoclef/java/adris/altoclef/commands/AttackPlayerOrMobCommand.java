@@ -97,7 +97,7 @@ public class AttackPlayerOrMobCommand extends Command {
       @Override
       protected void onResourceStart(AltoClefController mod) {
          this.forceCollectTimer.reset();
-         this.onMobDied = EventBus.subscribe(EntityDeathEvent.class, evt -> {
+         this.onMobDied = mod.getEventSubscriptions().subscribe(EntityDeathEvent.class, evt -> {
             Entity diedEntity = evt.entity;
             if (!this.trackedDeadEntities.contains(diedEntity)) {
                if (this.shouldAttackPredicate.test(diedEntity)) {
@@ -2,7 +2,6 @@ package adris.altoclef.commands;
 
 import adris.altoclef.AltoClefController;
 import adris.altoclef.Debug;
-import adris.altoclef.eventbus.EventBus;
 import adris.altoclef.eventbus.events.BlockPlaceEvent;
 import adris.altoclef.multiversion.blockpos.BlockPosVer;
 import adris.altoclef.trackers.blacklisting.WorldLocateBlacklist;
@@ -49,7 +48,7 @@ public class BlockScanner {
 
    public BlockScanner(AltoClefController mod) {
       this.mod = mod;
-      EventBus.subscribe(BlockPlaceEvent.class, evt -> this.addBlock(evt.blockState.getBlock(), evt.blockPos));
+      mod.getEventSubscriptions().subscribe(BlockPlaceEvent.class, evt -> this.addBlock(evt.blockState.getBlock(), evt.blockPos));
    }
 
    public void addBlock(Block block, BlockPos pos) {
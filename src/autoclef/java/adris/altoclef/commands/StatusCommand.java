@@ -20,6 +20,8 @@ public class StatusCommand extends Command {
          mod.log("CURRENT TASK: " + tasks.get(0).toString());
       }
 
+      mod.getEventLog().dumpToLog();
+
       this.finish();
    }
 }
@@ -1,7 +1,6 @@
 package adris.altoclef.control;
 
 import adris.altoclef.AltoClefController;
-import adris.altoclef.eventbus.EventBus;
 import adris.altoclef.eventbus.events.BlockBreakingCancelEvent;
 import adris.altoclef.eventbus.events.BlockBreakingEvent;
 import net.minecraft.core.BlockPos;
@@ -14,8 +13,8 @@ public class PlayerExtraController {
 
    public PlayerExtraController(AltoClefController mod) {
       this.mod = mod;
-      EventBus.subscribe(BlockBreakingEvent.class, evt -> this.onBlockBreak(evt.blockPos));
-      EventBus.subscribe(BlockBreakingCancelEvent.class, evt -> this.onBlockStopBreaking());
+      mod.getEventSubscriptions().subscribe(BlockBreakingEvent.class, evt -> this.onBlockBreak(evt.blockPos));
+      mod.getEventSubscriptions().subscribe(BlockBreakingCancelEvent.class, evt -> this.onBlockStopBreaking());
    }
 
    private void onBlockBreak(BlockPos pos) {
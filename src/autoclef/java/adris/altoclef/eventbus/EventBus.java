@@ -1,68 +1,147 @@
 package adris.altoclef.eventbus;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import adris.altoclef.Debug;
+import adris.altoclef.eventbus.events.WorldScopedEvent;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
-import net.minecraft.util.Tuple;
+import java.util.function.Supplier;
+import net.minecraft.world.level.Level;
 
+/**
+ * Static publish/subscribe hub for game events raised by mixins.
+ * <p>
+ * Every event type has a copy-on-write array of subscriptions: subscribing and unsubscribing copy the array, publishing
+ * only reads it, so events can be published from any thread while handlers come and go, without locking or allocating.
+ * Subscriptions can be scoped to a level (events that implement {@link WorldScopedEvent} from other levels are skipped)
+ * and non-critical ones can be delivered asynchronously through a bounded queue, dropping events when it is full.
+ * Per agent subscriptions should go through the agent's {@link SubscriptionGroup} so they are removed on shutdown.
+ */
 public class EventBus {
-   private static final HashMap<Class, List<Subscription>> topics = new HashMap<>();
-   private static final List<Tuple<Class, Subscription>> toAdd = new ArrayList<>();
-   private static boolean lock;
+   private static final int ASYNC_QUEUE_CAPACITY = 4096;
+   private static final ConcurrentHashMap<Class<?>, EventBus.Topic> topics = new ConcurrentHashMap<>();
+   private static final BlockingQueue<EventBus.AsyncDelivery<?>> asyncQueue = new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY);
+   private static final AtomicLong droppedAsyncEvents = new AtomicLong();
+   private static Thread asyncThread;
 
    public static <T> void publish(T event) {
-      Class<?> type = event.getClass();
+      EventBus.Topic topic = topics.get(event.getClass());
+      if (topic != null) {
+         Level level = event instanceof WorldScopedEvent scoped ? scoped.getLevel() : null;
 
-      for (Tuple<Class, Subscription> toAdd : EventBus.toAdd) {
-         subscribeInternal((Class<T>)toAdd.getA(), (Subscription<T>)toAdd.getB());
-      }
-
-      EventBus.toAdd.clear();
-      if (topics.containsKey(type)) {
-         List<Subscription> subscribers = topics.get(type);
-         List<Subscription> toDelete = new ArrayList<>();
-         lock = true;
-
-         for (Subscription<T> subRaw : subscribers) {
-            try {
-               if (subRaw.shouldDelete()) {
-                  toDelete.add(subRaw);
+         for (Subscription<?> subRaw : topic.subscribers) {
+            Subscription<T> sub = (Subscription<T>)subRaw;
+            if (sub.accepts(level)) {
+               if (sub.isAsync()) {
+                  if (!asyncQueue.offer(new EventBus.AsyncDelivery<>(sub, event))) {
+                     droppedAsyncEvents.incrementAndGet();
+                  }
                } else {
-                  subRaw.accept(event);
+                  deliver(sub, event);
                }
-            } catch (ClassCastException var7) {
-               System.err.println("TRIED PUBLISHING MISMAPPED EVENT: " + event);
-               var7.printStackTrace();
             }
          }
+      }
+   }
 
-         lock = false;
+   public static <T> Subscription<T> subscribe(Class<T> type, Consumer<T> consumeEvent) {
+      return add(new Subscription<>(type, consumeEvent, null, false));
+   }
+
+   /**
+    * @param scope The level this subscriber cares about, evaluated on every publish so it may change over time.
+    */
+   public static <T> Subscription<T> subscribe(Class<T> type, Supplier<? extends Level> scope, Consumer<T> consumeEvent) {
+      return add(new Subscription<>(type, consumeEvent, scope, false));
+   }
+
+   /**
+    * For listeners that don't need to run on the publishing thread. Events are handed to a single background thread,
+    * so the handler must be thread safe and may miss events under heavy load.
+    */
+   public static <T> Subscription<T> subscribeAsync(Class<T> type, Consumer<T> consumeEvent) {
+      ensureAsyncThread();
+      return add(new Subscription<>(type, consumeEvent, null, true));
+   }
+
+   public static <T> void unsubscribe(Subscription<T> subscription) {
+      if (subscription != null) {
+         subscription.markDeleted();
+         EventBus.Topic topic = topics.get(subscription.getType());
+         if (topic != null) {
+            topic.remove(subscription);
+         }
       }
    }
 
-   private static <T> void subscribeInternal(Class<T> type, Subscription<T> sub) {
-      if (!topics.containsKey(type)) {
-         topics.put(type, new ArrayList<>());
+   public static long getDroppedAsyncEventCount() {
+      return droppedAsyncEvents.get();
+   }
+
+   private static <T> Subscription<T> add(Subscription<T> sub) {
+      topics.computeIfAbsent(sub.getType(), k -> new EventBus.Topic()).add(sub);
+      return sub;
+   }
+
+   private static <T> void deliver(Subscription<T> sub, T event) {
+      try {
+         sub.accept(event);
+      } catch (ClassCastException var3) {
+         System.err.println("TRIED PUBLISHING MISMAPPED EVENT: " + event);
+         var3.printStackTrace();
       }
+   }
 
-      topics.get(type).add(sub);
+   private static synchronized void ensureAsyncThread() {
+      if (asyncThread == null) {
+         asyncThread = new Thread(() -> {
+            while (true) {
+               try {
+                  asyncQueue.take().deliver();
+               } catch (InterruptedException var1) {
+                  return;
+               } catch (RuntimeException var2) {
+                  Debug.logWarning("Async event handler failed: " + var2);
+               }
+            }
+         }, "AltoClef Event Delivery");
+         asyncThread.setDaemon(true);
+         asyncThread.start();
+      }
    }
 
-   public static <T> Subscription<T> subscribe(Class<T> type, Consumer<T> consumeEvent) {
-      Subscription<T> sub = new Subscription<>(consumeEvent);
-      if (lock) {
-         toAdd.add(new Tuple(type, sub));
-      } else {
-         subscribeInternal(type, sub);
+   private static class Topic {
+      private volatile Subscription<?>[] subscribers = new Subscription<?>[0];
+
+      private synchronized void add(Subscription<?> sub) {
+         Subscription<?>[] updated = Arrays.copyOf(this.subscribers, this.subscribers.length + 1);
+         updated[updated.length - 1] = sub;
+         this.subscribers = updated;
       }
 
-      return sub;
+      private synchronized void remove(Subscription<?> sub) {
+         Subscription<?>[] current = this.subscribers;
+
+         for (int i = 0; i < current.length; i++) {
+            if (current[i] == sub) {
+               Subscription<?>[] updated = new Subscription<?>[current.length - 1];
+               System.arraycopy(current, 0, updated, 0, i);
+               System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+               this.subscribers = updated;
+               return;
+            }
+         }
+      }
    }
 
-   public static <T> void unsubscribe(Subscription<T> subscription) {
-      if (subscription != null) {
-         subscription.delete();
+   private record AsyncDelivery<T>(Subscription<T> subscription, T event) {
+      private void deliver() {
+         if (this.subscription.accepts(null)) {
+            EventBus.deliver(this.subscription, this.event);
+         }
       }
    }
 }
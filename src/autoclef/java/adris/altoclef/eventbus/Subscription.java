@@ -1,24 +1,52 @@
 package adris.altoclef.eventbus;
 
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import net.minecraft.world.level.Level;
 
 public class Subscription<T> {
+   private final Class<T> type;
    private final Consumer<T> callback;
-   private boolean shouldDelete;
+   private final Supplier<? extends Level> scope;
+   private final boolean async;
+   private volatile boolean shouldDelete;
 
-   public Subscription(Consumer<T> callback) {
+   Subscription(Class<T> type, Consumer<T> callback, Supplier<? extends Level> scope, boolean async) {
+      this.type = type;
       this.callback = callback;
+      this.scope = scope;
+      this.async = async;
    }
 
    public void accept(T event) {
       this.callback.accept(event);
    }
 
+   /**
+    * Stops receiving events, same as {@link EventBus#unsubscribe}.
+    */
    public void delete() {
-      this.shouldDelete = true;
+      EventBus.unsubscribe(this);
    }
 
    public boolean shouldDelete() {
       return this.shouldDelete;
    }
+
+   void markDeleted() {
+      this.shouldDelete = true;
+   }
+
+   Class<T> getType() {
+      return this.type;
+   }
+
+   boolean isAsync() {
+      return this.async;
+   }
+
+   // A null level means the event isn't tied to one, so every scope accepts it.
+   boolean accepts(Level level) {
+      return !this.shouldDelete && (this.scope == null || level == null || this.scope.get() == level);
+   }
 }
@@ -0,0 +1,35 @@
+package adris.altoclef.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import net.minecraft.world.level.Level;
+
+/**
+ * The event subscriptions of one owner (an agent), scoped to the level it is currently in and removed all at once
+ * with {@link #unsubscribeAll()} when the owner goes away.
+ */
+public class SubscriptionGroup {
+   private final Supplier<? extends Level> scope;
+   private final List<Subscription<?>> subscriptions = new ArrayList<>();
+
+   public SubscriptionGroup(Supplier<? extends Level> scope) {
+      this.scope = scope;
+   }
+
+   public synchronized <T> Subscription<T> subscribe(Class<T> type, Consumer<T> consumeEvent) {
+      this.subscriptions.removeIf(Subscription::shouldDelete);
+      Subscription<T> sub = EventBus.subscribe(type, this.scope, consumeEvent);
+      this.subscriptions.add(sub);
+      return sub;
+   }
+
+   public synchronized void unsubscribeAll() {
+      for (Subscription<?> sub : this.subscriptions) {
+         EventBus.unsubscribe(sub);
+      }
+
+      this.subscriptions.clear();
+   }
+}
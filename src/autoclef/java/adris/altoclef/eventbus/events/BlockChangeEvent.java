@@ -0,0 +1,28 @@
+package adris.altoclef.eventbus.events;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Published on the server for every block state change, including breaks.
+ * The position may be mutable, so copy it before holding on to it.
+ */
+public class BlockChangeEvent implements WorldScopedEvent {
+   public Level level;
+   public BlockPos blockPos;
+   public BlockState oldState;
+   public BlockState newState;
+
+   public BlockChangeEvent(Level level, BlockPos blockPos, BlockState oldState, BlockState newState) {
+      this.level = level;
+      this.blockPos = blockPos;
+      this.oldState = oldState;
+      this.newState = newState;
+   }
+
+   @Override
+   public Level getLevel() {
+      return this.level;
+   }
+}
@@ -1,14 +1,22 @@
 package adris.altoclef.eventbus.events;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 
-public class BlockPlaceEvent {
+public class BlockPlaceEvent implements WorldScopedEvent {
+   public Level level;
    public BlockPos blockPos;
    public BlockState blockState;
 
-   public BlockPlaceEvent(BlockPos blockPos, BlockState blockState) {
+   public BlockPlaceEvent(Level level, BlockPos blockPos, BlockState blockState) {
+      this.level = level;
       this.blockPos = blockPos;
       this.blockState = blockState;
    }
+
+   @Override
+   public Level getLevel() {
+      return this.level;
+   }
 }
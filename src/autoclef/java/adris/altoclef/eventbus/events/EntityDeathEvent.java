@@ -2,8 +2,9 @@ package adris.altoclef.eventbus.events;
 
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
 
-public class EntityDeathEvent {
+public class EntityDeathEvent implements WorldScopedEvent {
    public Entity entity;
    public DamageSource damageSource;
 
@@ -11,4 +12,9 @@ public class EntityDeathEvent {
       this.entity = entity;
       this.damageSource = damageSource;
    }
+
+   @Override
+   public Level getLevel() {
+      return this.entity.level();
+   }
 }
@@ -1,11 +1,17 @@
 package adris.altoclef.eventbus.events;
 
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
 
-public class EntitySwungEvent {
+public class EntitySwungEvent implements WorldScopedEvent {
    public Entity entity;
 
    public EntitySwungEvent(Entity entity) {
       this.entity = entity;
    }
+
+   @Override
+   public Level getLevel() {
+      return this.entity.level();
+   }
 }
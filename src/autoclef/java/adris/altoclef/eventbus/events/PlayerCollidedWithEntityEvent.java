@@ -2,8 +2,9 @@ package adris.altoclef.eventbus.events;
 
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
 
-public class PlayerCollidedWithEntityEvent {
+public class PlayerCollidedWithEntityEvent implements WorldScopedEvent {
    public Player player;
    public Entity other;
 
@@ -11,4 +12,9 @@ public class PlayerCollidedWithEntityEvent {
       this.player = player;
       this.other = other;
    }
+
+   @Override
+   public Level getLevel() {
+      return this.player.level();
+   }
 }
@@ -2,8 +2,9 @@ package adris.altoclef.eventbus.events;
 
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
 
-public class PlayerDamageEvent {
+public class PlayerDamageEvent implements WorldScopedEvent {
    public Entity target;
    public DamageSource source;
    public float damage;
@@ -13,4 +14,9 @@ public class PlayerDamageEvent {
       this.source = source;
       this.damage = damage;
    }
+
+   @Override
+   public Level getLevel() {
+      return this.target.level();
+   }
 }
@@ -0,0 +1,10 @@
+package adris.altoclef.eventbus.events;
+
+import net.minecraft.world.level.Level;
+
+/**
+ * An event that happened in a specific level, so subscribers scoped to another level can skip it.
+ */
+public interface WorldScopedEvent {
+   Level getLevel();
+}
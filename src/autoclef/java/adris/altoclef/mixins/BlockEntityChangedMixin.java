@@ -0,0 +1,19 @@
+package adris.altoclef.mixins;
+
+import adris.altoclef.trackers.storage.ContainerIndex;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin({BlockEntity.class})
+public class BlockEntityChangedMixin {
+   @Inject(
+      method = {"setChanged()V"},
+      at = {@At("HEAD")}
+   )
+   public void onSetChanged(CallbackInfo ci) {
+      ContainerIndex.onBlockEntityChanged((BlockEntity)(Object)this);
+   }
+}
@@ -1,9 +1,10 @@
 package adris.altoclef.mixins;
 
 import adris.altoclef.eventbus.EventBus;
+import adris.altoclef.eventbus.events.BlockChangeEvent;
 import adris.altoclef.eventbus.events.BlockPlaceEvent;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.block.state.BlockState;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -11,11 +12,12 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-@Mixin({Level.class})
+// ServerLevel overrides Level.onBlockStateChange without calling super, see MixinServerLevel
+@Mixin({ServerLevel.class})
 public class WorldBlockModifiedMixin {
    @Unique
    private boolean hasBlock(BlockState state, BlockPos pos) {
-      return !state.isAir() && state.isRedstoneConductor((Level)(Object)this, pos);
+      return !state.isAir() && state.isRedstoneConductor((ServerLevel)(Object)this, pos);
    }
 
    @Inject(
@@ -23,8 +25,10 @@ public class WorldBlockModifiedMixin {
       at = {@At("HEAD")}
    )
    public void onBlockWasChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo ci) {
-      if (!((Level)(Object)this).isClientSide && !this.hasBlock(oldBlock, pos) && this.hasBlock(newBlock, pos)) {
-         BlockPlaceEvent evt = new BlockPlaceEvent(pos, newBlock);
+      ServerLevel level = (ServerLevel)(Object)this;
+      EventBus.publish(new BlockChangeEvent(level, pos, oldBlock, newBlock));
+      if (!this.hasBlock(oldBlock, pos) && this.hasBlock(newBlock, pos)) {
+         BlockPlaceEvent evt = new BlockPlaceEvent(level, pos, newBlock);
          EventBus.publish(evt);
       }
    }
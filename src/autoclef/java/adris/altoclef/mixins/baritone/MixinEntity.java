@@ -1,5 +1,6 @@
 package adris.altoclef.mixins.baritone;
 
+import adris.altoclef.player2api.manager.ConversationManager;
 import baritone.api.IBaritone;
 import baritone.api.utils.IEntityAccessor;
 import baritone.behavior.PathingBehavior;
@@ -32,6 +33,7 @@ public abstract class MixinEntity implements IEntityAccessor {
    private void shutdownPathingOnUnloading(RemovalReason reason, CallbackInfo ci) {
       if (!this.level().isClientSide() && ((Object)this) instanceof LivingEntity) {
          IBaritone.KEY.maybeGet((LivingEntity)(Object)this).ifPresent(b -> ((PathingBehavior)b.getPathingBehavior()).shutdown());
+         ConversationManager.onAgentRemoved(((Entity)(Object)this).getUUID());
       }
    }
 }
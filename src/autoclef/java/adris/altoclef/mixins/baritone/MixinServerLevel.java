@@ -0,0 +1,23 @@
+package adris.altoclef.mixins.baritone;
+
+import baritone.utils.BlockChangeTracker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+// Level.onBlockStateChange is empty and ServerLevel overrides it without calling super, the override is what
+// Level.setBlock ends up calling for every block change on the server
+@Mixin({ServerLevel.class})
+public class MixinServerLevel {
+   @Inject(
+      method = {"onBlockStateChange"},
+      at = {@At("HEAD")}
+   )
+   private void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState, CallbackInfo ci) {
+      BlockChangeTracker.onBlockChange((ServerLevel)(Object)this, pos);
+   }
+}
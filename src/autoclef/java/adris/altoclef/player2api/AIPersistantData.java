@@ -45,9 +45,9 @@ public class AIPersistantData {
         }
         return lastEvent;
     }
-    public ConversationHistory getConversationHistoryWrappedWithStatus(String worldStatus, String agentStatus, String altoClefDebugMsgs, Player2APIService player2apiService, Optional<String> reminderString){
+    public ConversationPrompt getConversationPromptWrappedWithStatus(String worldStatus, String agentStatus, String altoClefDebugMsgs, Optional<String> reminderString){
         return this.conversationHistory
-                .copyThenWrapLatestWithStatus(worldStatus, agentStatus, altoClefDebugMsgs, player2apiService, reminderString);
+                .toPromptWrappingLatestWithStatus(worldStatus, agentStatus, altoClefDebugMsgs, reminderString);
     }
     public void addAssistantMessage(String llmMessage, Player2APIService player2apiService){
         this.conversationHistory.addAssistantMessage(llmMessage, player2apiService);
@@ -87,12 +87,10 @@ public class AgentConversationData {
         String agentStatus = AgentStatus.fromMod(this.mod).toString();
         String worldStatus = WorldStatus.fromMod(this.mod).toString();
         String altoClefDebugMsgs = this.altoClefMsgBuffer.dumpAndGetString();
-        ConversationHistory historyWithWrappedStatus = mod.getAIPersistantData()
-                .getConversationHistoryWrappedWithStatus(worldStatus, agentStatus, altoClefDebugMsgs,
-                        mod.getPlayer2APIService(), reminderString);
+        ConversationPrompt historyWithWrappedStatus = mod.getAIPersistantData()
+                .getConversationPromptWrappedWithStatus(worldStatus, agentStatus, altoClefDebugMsgs, reminderString);
 
-        LOGGER.info("[AICommandBridge/processChatWithAPI]: Calling LLM: history={}",
-                new Object[] { historyWithWrappedStatus.toString() });
+        LOGGER.info("[AICommandBridge/processChatWithAPI]: Calling LLM: history={}", historyWithWrappedStatus);
 
         Consumer<JsonObject> onLLMResponse = jsonResp -> {
             String llmMessage = Utils.getStringJsonSafely(jsonResp, "message");
@@ -15,6 +15,10 @@ import java.util.Optional;
 
 public class ConversationHistory {
    private final List<JsonObject> conversationHistory = new ArrayList<>();
+   // Parallel to conversationHistory, each message's JSON. Serialized when the message is added (or the system prompt
+   // changes), so building a prompt never writes. Both lists are guarded by this, messages are appended from the
+   // server thread while prompts are built on the LLM thread.
+   private final List<String> serializedHistory = new ArrayList<>();
    private final Path historyFile;
    private boolean loadedFromFile = false;
    private static final int MAX_HISTORY = 64;
@@ -40,35 +44,54 @@ public class ConversationHistory {
       this.loadedFromFile = false;
    }
 
-   public boolean isLoadedFromFile() {
+   public synchronized boolean isLoadedFromFile() {
       return this.loadedFromFile;
    }
 
    public void addHistory(JsonObject text, boolean doCutOff, Player2APIService player2apiService) {
-      this.conversationHistory.add(text);
-      if (doCutOff && this.conversationHistory.size() > 64) {
-         List<JsonObject> toSummarize = new ArrayList<>(this.conversationHistory.subList(1, 49));
-         String summary = this.summarizeHistory(toSummarize, player2apiService);
-         if (summary == "") {
-            this.conversationHistory.remove(1);
-         } else {
-            JsonObject systemPrompt = this.conversationHistory.get(0);
-            int tailStart = this.conversationHistory.size() - 16;
-            List<JsonObject> tail = new ArrayList<>(
-                  this.conversationHistory.subList(tailStart, this.conversationHistory.size()));
-            this.conversationHistory.clear();
-            this.conversationHistory.add(systemPrompt);
-            JsonObject summaryMsg = new JsonObject();
-            summaryMsg.addProperty("role", "assistant");
-            summaryMsg.addProperty("content", "Summary of earlier events: " + summary);
-            this.conversationHistory.add(summaryMsg);
-            this.conversationHistory.addAll(tail);
-         }
-
-         if (this.historyFile != null) {
+      List<JsonObject> toSummarize = null;
+      synchronized (this) {
+         this.conversationHistory.add(text);
+         this.serializedHistory.add(text.toString());
+         if (doCutOff && this.conversationHistory.size() > 64) {
+            toSummarize = new ArrayList<>(this.conversationHistory.subList(1, 49));
+         } else if (doCutOff && this.conversationHistory.size() % 8 == 0 && this.historyFile != null) {
             this.saveToFile();
          }
-      } else if (doCutOff && this.conversationHistory.size() % 8 == 0 && this.historyFile != null) {
+      }
+
+      if (toSummarize != null) {
+         // Not under the lock, prompts can still be built while the summary is requested
+         this.applySummary(this.summarizeHistory(toSummarize, player2apiService));
+      }
+   }
+
+   private synchronized void applySummary(String summary) {
+      if (summary == "") {
+         this.conversationHistory.remove(1);
+         this.serializedHistory.remove(1);
+      } else {
+         JsonObject systemPrompt = this.conversationHistory.get(0);
+         String serializedSystemPrompt = this.serializedHistory.get(0);
+         int tailStart = Math.max(1, this.conversationHistory.size() - 16);
+         List<JsonObject> tail = new ArrayList<>(
+               this.conversationHistory.subList(tailStart, this.conversationHistory.size()));
+         List<String> serializedTail = new ArrayList<>(
+               this.serializedHistory.subList(tailStart, this.serializedHistory.size()));
+         this.conversationHistory.clear();
+         this.serializedHistory.clear();
+         this.conversationHistory.add(systemPrompt);
+         this.serializedHistory.add(serializedSystemPrompt);
+         JsonObject summaryMsg = new JsonObject();
+         summaryMsg.addProperty("role", "assistant");
+         summaryMsg.addProperty("content", "Summary of earlier events: " + summary);
+         this.conversationHistory.add(summaryMsg);
+         this.serializedHistory.add(summaryMsg.toString());
+         this.conversationHistory.addAll(tail);
+         this.serializedHistory.addAll(serializedTail);
+      }
+
+      if (this.historyFile != null) {
          this.saveToFile();
       }
    }
@@ -78,11 +101,12 @@ public class ConversationHistory {
       ConversationHistory temp = new ConversationHistory(summarizationPrompt);
 
       for (JsonObject msg : messages) {
-         temp.addHistory(Utils.deepCopy(msg), false, player2apiService);
+         // temp is only ever serialized, so it can share the message objects
+         temp.addHistory(msg, false, player2apiService);
       }
 
       try {
-         String resp = player2apiService.completeConversationToString(temp);
+         String resp = player2apiService.completeConversationToString(temp.toPrompt());
          return resp;
       } catch (Exception var6) {
          var6.printStackTrace();
@@ -145,6 +169,12 @@ public class ConversationHistory {
 
             this.conversationHistory.clear();
             this.conversationHistory.addAll(loaded);
+            this.serializedHistory.clear();
+
+            for (JsonObject msg : loaded) {
+               this.serializedHistory.add(msg.toString());
+            }
+
             if (reader != null) {
                reader.close();
             }
@@ -162,6 +192,7 @@ public class ConversationHistory {
       } catch (IOException var8) {
          var8.printStackTrace();
          this.conversationHistory.clear();
+         this.serializedHistory.clear();
       }
    }
 
@@ -172,15 +203,17 @@ public class ConversationHistory {
       this.addHistory(objectToAdd, false, player2apiService);
    }
 
-   public void setBaseSystemPrompt(String newPrompt) {
+   public synchronized void setBaseSystemPrompt(String newPrompt) {
       if (!this.conversationHistory.isEmpty()
             && "system".equals(this.conversationHistory.get(0).get("role").getAsString())) {
          this.conversationHistory.get(0).addProperty("content", newPrompt);
+         this.serializedHistory.set(0, this.conversationHistory.get(0).toString());
       } else {
          JsonObject systemMessage = new JsonObject();
          systemMessage.addProperty("role", "system");
          systemMessage.addProperty("content", newPrompt);
          this.conversationHistory.add(0, systemMessage);
+         this.serializedHistory.add(0, systemMessage.toString());
       }
    }
 
@@ -202,17 +235,23 @@ public class ConversationHistory {
       return this.conversationHistory;
    }
 
-   // ReminderString adds a reminder to the latest user message if present.
-   public ConversationHistory copyThenWrapLatestWithStatus(String worldStatus, String agentStatus,
-         String altoclefStatusMsgs, Player2APIService player2apiService, Optional<String> reminderString) {
-      ConversationHistory copy = new ConversationHistory(this.conversationHistory.get(0).get("content").getAsString());
+   public synchronized ConversationPrompt toPrompt() {
+      return new ConversationPrompt(new ArrayList<>(this.serializedHistory));
+   }
 
-      for (int i = 1; i < this.conversationHistory.size() - 1; i++) {
-         copy.addHistory(Utils.deepCopy(this.conversationHistory.get(i)), false, player2apiService);
+   // ReminderString adds a reminder to the latest user message if present.
+   // Only the wrapped last message is built fresh, every other message reuses its cached serialized form.
+   public synchronized ConversationPrompt toPromptWrappingLatestWithStatus(String worldStatus, String agentStatus,
+         String altoclefStatusMsgs, Optional<String> reminderString) {
+      int size = this.conversationHistory.size();
+      List<String> messages = new ArrayList<>(size);
+
+      for (int i = 0; i < size - 1; i++) {
+         messages.add(this.serializedHistory.get(i));
       }
 
-      if (this.conversationHistory.size() > 1) {
-         JsonObject last = Utils.deepCopy(this.conversationHistory.get(this.conversationHistory.size() - 1));
+      if (size > 1) {
+         JsonObject last = this.conversationHistory.get(size - 1);
          if ("user".equals(last.get("role").getAsString())) {
             String originalContent = last.get("content").getAsString();
             ObjectStatus msgObj = new ObjectStatus();
@@ -225,17 +264,22 @@ public class ConversationHistory {
             if (!altoclefStatusMsgs.isBlank()) {
                msgObj.add("gameDebugMessages", altoclefStatusMsgs);
             }
-            last.addProperty("content", msgObj.toString());
+            JsonObject wrapped = new JsonObject();
+            wrapped.addProperty("role", "user");
+            wrapped.addProperty("content", msgObj.toString());
+            messages.add(wrapped.toString());
+         } else {
+            messages.add(this.serializedHistory.get(size - 1));
          }
-
-         copy.addHistory(last, false, player2apiService);
+      } else if (size == 1) {
+         messages.add(this.serializedHistory.get(0));
       }
 
-      return copy;
+      return new ConversationPrompt(messages);
    }
 
    @Override
-   public String toString() {
+   public synchronized String toString() {
       StringBuilder sb = new StringBuilder();
       sb.append("ConversationHistory {\n");
 
@@ -249,11 +293,14 @@ public class ConversationHistory {
       return sb.toString();
    }
 
-   public void clear() {
+   public synchronized void clear() {
       if (!this.conversationHistory.isEmpty()) {
          JsonObject systemPrompt = this.conversationHistory.get(0);
+         String serializedSystemPrompt = this.serializedHistory.get(0);
          this.conversationHistory.clear();
+         this.serializedHistory.clear();
          this.conversationHistory.add(systemPrompt);
+         this.serializedHistory.add(serializedSystemPrompt);
       }
 
       if (this.historyFile != null) {
@@ -0,0 +1,54 @@
+package adris.altoclef.player2api;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * An immutable, already serialized view of a conversation that is ready to be sent to the LLM.
+ * <p>
+ * Messages are kept as the JSON strings {@link ConversationHistory} cached when they were added, so building a
+ * prompt only copies references and sending one streams those strings straight into the request body.
+ */
+public class ConversationPrompt {
+   private final List<String> messages;
+
+   ConversationPrompt(List<String> messages) {
+      this.messages = List.copyOf(messages);
+   }
+
+   public void writeRequestBody(Writer writer) throws IOException {
+      writer.write("{\"messages\":[");
+
+      for (int i = 0; i < this.messages.size(); i++) {
+         if (i != 0) {
+            writer.write(',');
+         }
+
+         writer.write(this.messages.get(i));
+      }
+
+      writer.write("]}");
+   }
+
+   public String getLastMessage() {
+      return this.messages.isEmpty() ? "" : this.messages.get(this.messages.size() - 1);
+   }
+
+   public int size() {
+      return this.messages.size();
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("ConversationPrompt {\n");
+
+      for (String message : this.messages) {
+         sb.append("  ").append(message).append("\n");
+      }
+
+      sb.append("}");
+      return sb.toString();
+   }
+}
@@ -20,10 +20,10 @@ public class LLMCompleter {
 
     private <T> void process(
             Player2APIService player2apiService,
-            ConversationHistory history,
+            ConversationPrompt history,
             Consumer<T> extOnLLMResponse,
             Consumer<String> extOnErrMsg,
-            ThrowingFunction<ConversationHistory, T> completeConversation,
+            ThrowingFunction<ConversationPrompt, T> completeConversation,
             boolean isConversation) {
         LOGGER.info("Called completer.process with history={}", history);
         if (isProcessing) {
@@ -89,7 +89,7 @@ public class LLMCompleter {
 
     public void processToJson(
             Player2APIService player2apiService,
-            ConversationHistory history,
+            ConversationPrompt history,
             Consumer<JsonObject> extOnLLMResponse,
             Consumer<String> extOnErrMsg,
             boolean isConversation) {
@@ -103,8 +103,9 @@ public class LLMCompleter {
             Consumer<String> extOnLLMResponse,
             Consumer<String> extOnErrMsg,
             boolean isConversation) {
-        process(player2apiService, history, extOnLLMResponse, extOnErrMsg,
-                player2apiService::completeConversationToString, isConversation);
+        // snapshot on the calling thread, the history may keep changing while the request is in flight
+        ThrowingFunction<ConversationPrompt, String> completeConversation = player2apiService::completeConversationToString;
+        process(player2apiService, history.toPrompt(), extOnLLMResponse, extOnErrMsg, completeConversation, isConversation);
     }
 
     public boolean isAvailible() {
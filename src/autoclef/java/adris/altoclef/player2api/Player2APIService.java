@@ -41,49 +41,21 @@ public class Player2APIService {
       this.controller = controller;
    }
 
-   public JsonObject completeConversation(ConversationHistory conversationHistory) throws Exception {
-      JsonObject requestBody = new JsonObject();
-      JsonArray messagesArray = new JsonArray();
-
-      for (JsonObject msg : conversationHistory.getListJSON()) {
-         messagesArray.add(msg);
-      }
-      String lastMessageForDebug = conversationHistory.getListJSON().get(conversationHistory.getListJSON().size() - 1)
-            .toString();
-
-      requestBody.add("messages", messagesArray);
-      LOGGER.info("Called complete conversation (string) HTTP request, last msg={}", lastMessageForDebug);
-      Map<String, JsonElement> responseMap = Player2HTTPUtils.sendRequest(controller.getOwner(), clientId,
-            "/v1/chat/completions", true, requestBody);
-      if (responseMap.containsKey("choices")) {
-         JsonArray choices = responseMap.get("choices").getAsJsonArray();
-         if (choices.size() != 0) {
-            JsonObject messageObject = choices.get(0).getAsJsonObject().getAsJsonObject("message");
-            if (messageObject != null && messageObject.has("content")) {
-               String content = messageObject.get("content").getAsString();
-               LOGGER.info("Finished complete conversation HTTP request last msg={}", lastMessageForDebug);
-               return Utils.parseCleanedJson(content);
-            }
-         }
-      }
-
-      throw new Exception("Invalid response format: " + responseMap.toString());
+   public JsonObject completeConversation(ConversationPrompt prompt) throws Exception {
+      String content = this.requestCompletion(prompt);
+      return Utils.parseCleanedJson(content);
    }
 
-   public String completeConversationToString(ConversationHistory conversationHistory) throws Exception {
-      JsonObject requestBody = new JsonObject();
-      JsonArray messagesArray = new JsonArray();
-
-      for (JsonObject msg : conversationHistory.getListJSON()) {
-         messagesArray.add(msg);
-      }
+   public String completeConversationToString(ConversationPrompt prompt) throws Exception {
+      return this.requestCompletion(prompt);
+   }
 
-      requestBody.add("messages", messagesArray);
-      String lastMessageForDebug = conversationHistory.getListJSON().get(conversationHistory.getListJSON().size() - 1)
-            .toString();
-      LOGGER.info("Called complete conversation (string) HTTP request, last msg={}", lastMessageForDebug);
-      Map<String, JsonElement> responseMap = Player2HTTPUtils.sendRequest(controller.getOwner(), clientId,
-            "/v1/chat/completions", true, requestBody);
+   private String requestCompletion(ConversationPrompt prompt) throws Exception {
+      String lastMessageForDebug = prompt.getLastMessage();
+      LOGGER.info("Called complete conversation HTTP request, last msg={}", lastMessageForDebug);
+      // The prompt's messages are already serialized, stream them into the body instead of building a JsonArray
+      Map<String, JsonElement> responseMap = Player2HTTPUtils.sendStreamingRequest(controller.getOwner(), clientId,
+            "/v1/chat/completions", true, prompt::writeRequestBody);
       if (responseMap.containsKey("choices")) {
          JsonArray choices = responseMap.get("choices").getAsJsonArray();
          if (choices.size() != 0) {
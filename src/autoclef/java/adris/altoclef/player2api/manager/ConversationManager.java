@@ -65,6 +65,15 @@ public class ConversationManager {
         });
     }
 
+    // the agent's entity is gone for good (killed, discarded or unloaded), a new one gets a new controller
+    public static void onAgentRemoved(UUID entityId) {
+        AgentConversationData data = queueData.remove(entityId);
+        if (data != null) {
+            LOGGER.info("EventQueueManager/onAgentRemoved: shutting down entId={}", entityId);
+            data.getMod().shutdown();
+        }
+    }
+
     private static Stream<AgentConversationData> filterQueueData(Predicate<AgentConversationData> pred) {
         return queueData.values().stream().filter(pred);
     }
@@ -13,8 +13,9 @@ public class AgentStatus extends ObjectStatus {
                   String.format("%.2f/20", (float) mod.getBaritone().getEntityContext().hungerManager().getFoodLevel()))
             .add("saturation",
                   String.format("%.2f/20", mod.getBaritone().getEntityContext().hungerManager().getSaturationLevel()))
-            .add("inventory", StatusUtils.getInventoryString(mod))
+            .add("inventory", mod.getStatusSnapshots().getInventoryString())
             .add("taskStatus", StatusUtils.getTaskStatusString(mod))
+            .add("buildProgress", StatusUtils.getBuildProgressString(mod))
             .add("oxygenLevel", StatusUtils.getOxygenString(mod))
             .add("armor", StatusUtils.getEquippedArmorStatusString(mod))
             .add("gamemode", StatusUtils.getGamemodeString(mod));
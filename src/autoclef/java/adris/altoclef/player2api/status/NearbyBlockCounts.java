@@ -0,0 +1,184 @@
+package adris.altoclef.player2api.status;
+
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction.Axis;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * Non-air block counts in a cube around a moving center, kept as a sliding window: moving a few blocks between two
+ * updates only reads the slabs that entered/left the window, and {@link BlockChangeEvent}s inside the window adjust
+ * the counts directly. A full rescan still happens every so often to pick up chunks that loaded after they were first
+ * counted. Server thread only.
+ */
+public class NearbyBlockCounts {
+   private static final int RADIUS = 12;
+   private static final int FULL_RESCAN_INTERVAL_TICKS = 400;
+
+   // Shared by all agents, block names never change at runtime.
+   private static final Map<Block, String> BLOCK_NAMES = new ConcurrentHashMap<>();
+
+   private final Object2IntOpenHashMap<Block> blockCounts = new Object2IntOpenHashMap<>();
+   private final BlockPos.MutableBlockPos scanPos = new BlockPos.MutableBlockPos();
+   private ServerLevel scannedWorld;
+   private BlockPos scannedCenter;
+   private long fullScanTime;
+   // null => dirty
+   private String description;
+
+   public void reset() {
+      this.blockCounts.clear();
+      this.scannedWorld = null;
+      this.scannedCenter = null;
+      this.description = null;
+   }
+
+   /**
+    * Moves the window to this center, rescanning everything if the world changed, the center jumped further than the
+    * radius or the last full scan is too old.
+    */
+   public void update(ServerLevel world, BlockPos center) {
+      long now = world.getGameTime();
+      if (this.scannedCenter != null && this.scannedWorld == world && now - this.fullScanTime < FULL_RESCAN_INTERVAL_TICKS && now >= this.fullScanTime) {
+         if (!center.equals(this.scannedCenter)) {
+            int dx = Math.abs(center.getX() - this.scannedCenter.getX());
+            int dy = Math.abs(center.getY() - this.scannedCenter.getY());
+            int dz = Math.abs(center.getZ() - this.scannedCenter.getZ());
+            if (Math.max(dx, Math.max(dy, dz)) > RADIUS) {
+               this.fullScan(world, center);
+            } else {
+               this.slideWindow(world, this.scannedCenter, center);
+               this.scannedCenter = center.immutable();
+               this.description = null;
+            }
+         }
+      } else {
+         this.fullScan(world, center);
+      }
+   }
+
+   public int getCount(Block block) {
+      return this.blockCounts.getInt(block);
+   }
+
+   /**
+    * @return The counts as a status object, "block name": "count".
+    */
+   public String describe() {
+      if (this.description == null) {
+         ObjectStatus status = new ObjectStatus();
+
+         for (Object2IntMap.Entry<Block> entry : this.blockCounts.object2IntEntrySet()) {
+            status.add(getBlockName(entry.getKey()), Integer.toString(entry.getIntValue()));
+         }
+
+         this.description = status.toString();
+      }
+
+      return this.description;
+   }
+
+   public void onBlockChange(BlockChangeEvent evt) {
+      if (evt.level == this.scannedWorld && this.scannedCenter != null && evt.oldState.getBlock() != evt.newState.getBlock()) {
+         BlockPos pos = evt.blockPos;
+         if (Math.abs(pos.getX() - this.scannedCenter.getX()) <= RADIUS
+            && Math.abs(pos.getY() - this.scannedCenter.getY()) <= RADIUS
+            && Math.abs(pos.getZ() - this.scannedCenter.getZ()) <= RADIUS) {
+            this.count(evt.oldState.getBlock(), -1);
+            this.count(evt.newState.getBlock(), 1);
+            this.description = null;
+         }
+      }
+   }
+
+   private void fullScan(ServerLevel world, BlockPos center) {
+      int r = RADIUS;
+      this.blockCounts.clear();
+      this.countBox(world, center.getX() - r, center.getX() + r, center.getY() - r, center.getY() + r, center.getZ() - r, center.getZ() + r, 1);
+      this.scannedWorld = world;
+      this.scannedCenter = center.immutable();
+      this.fullScanTime = world.getGameTime();
+      this.description = null;
+   }
+
+   // Shift one axis at a time, so every step only reads the slab that left the window and the slab that entered it.
+   private void slideWindow(ServerLevel world, BlockPos from, BlockPos to) {
+      int r = RADIUS;
+      int x = from.getX();
+      int y = from.getY();
+      int z = from.getZ();
+      if (to.getX() != x) {
+         this.slideSlab(world, x, to.getX(), y - r, y + r, z - r, z + r, Axis.X);
+         x = to.getX();
+      }
+
+      if (to.getY() != y) {
+         this.slideSlab(world, y, to.getY(), x - r, x + r, z - r, z + r, Axis.Y);
+         y = to.getY();
+      }
+
+      if (to.getZ() != z) {
+         this.slideSlab(world, z, to.getZ(), x - r, x + r, y - r, y + r, Axis.Z);
+      }
+   }
+
+   private void slideSlab(ServerLevel world, int from, int to, int minA, int maxA, int minB, int maxB, Axis axis) {
+      int r = RADIUS;
+      int leaveMin = to > from ? from - r : to + r + 1;
+      int leaveMax = to > from ? to - r - 1 : from + r;
+      int enterMin = to > from ? from + r + 1 : to - r;
+      int enterMax = to > from ? to + r : from - r - 1;
+      switch (axis) {
+         case X -> {
+            this.countBox(world, leaveMin, leaveMax, minA, maxA, minB, maxB, -1);
+            this.countBox(world, enterMin, enterMax, minA, maxA, minB, maxB, 1);
+         }
+         case Y -> {
+            this.countBox(world, minA, maxA, leaveMin, leaveMax, minB, maxB, -1);
+            this.countBox(world, minA, maxA, enterMin, enterMax, minB, maxB, 1);
+         }
+         case Z -> {
+            this.countBox(world, minA, maxA, minB, maxB, leaveMin, leaveMax, -1);
+            this.countBox(world, minA, maxA, minB, maxB, enterMin, enterMax, 1);
+         }
+      }
+   }
+
+   private void countBox(ServerLevel world, int minX, int maxX, int minY, int maxY, int minZ, int maxZ, int sign) {
+      minY = Math.max(minY, world.getMinBuildHeight());
+      maxY = Math.min(maxY, world.getMaxBuildHeight() - 1);
+
+      for (int x = minX; x <= maxX; x++) {
+         for (int z = minZ; z <= maxZ; z++) {
+            // Never force chunks to load just to describe them, the periodic rescan picks them up later.
+            LevelChunk chunk = world.getChunkSource().getChunkNow(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+            if (chunk != null) {
+               for (int y = minY; y <= maxY; y++) {
+                  this.count(chunk.getBlockState(this.scanPos.set(x, y, z)).getBlock(), sign);
+               }
+            }
+         }
+      }
+   }
+
+   private void count(Block block, int sign) {
+      if (block != Blocks.AIR) {
+         int newCount = this.blockCounts.addTo(block, sign) + sign;
+         if (newCount <= 0) {
+            this.blockCounts.removeInt(block);
+         }
+      }
+   }
+
+   private static String getBlockName(Block block) {
+      return BLOCK_NAMES.computeIfAbsent(block, b -> b.getDescriptionId().replace("block.minecraft.", ""));
+   }
+}
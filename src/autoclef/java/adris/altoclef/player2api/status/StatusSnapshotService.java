@@ -0,0 +1,124 @@
+package adris.altoclef.player2api.status;
+
+import adris.altoclef.AltoClefController;
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import adris.altoclef.util.helpers.StorageHelper;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import net.minecraft.core.Direction.Axis;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.monster.Monster;
+
+/**
+ * Caches the expensive parts of the LLM status prompt (inventory, nearby blocks, nearby entities). Nothing runs per
+ * tick, each part is rebuilt when it's read and one of its inputs changed since: the inventory fingerprint, the
+ * agent's position or a block near it, or (for entities, which aren't tracked) enough game time passing. The nearby
+ * blocks are a {@link NearbyBlockCounts} window that follows the agent.
+ */
+public class StatusSnapshotService {
+   private static final int HOSTILE_RADIUS = 32;
+   private static final int ENTITY_REFRESH_INTERVAL_TICKS = 10;
+
+   private final AltoClefController mod;
+   private final NearbyBlockCounts nearbyBlocks = new NearbyBlockCounts();
+   private int inventoryFingerprint;
+   private long entityRefreshTime;
+
+   // null => dirty
+   private String inventoryString;
+   private String hostilesString;
+   private String playersString;
+   private String npcsString;
+
+   public StatusSnapshotService(AltoClefController mod) {
+      this.mod = mod;
+      mod.getEventSubscriptions().subscribe(BlockChangeEvent.class, this.nearbyBlocks::onBlockChange);
+   }
+
+   public void reset() {
+      this.nearbyBlocks.reset();
+      this.inventoryString = null;
+      this.hostilesString = null;
+      this.playersString = null;
+      this.npcsString = null;
+   }
+
+   public String getInventoryString() {
+      this.updateInventoryFingerprint();
+      if (this.inventoryString == null) {
+         this.inventoryString = StatusUtils.getInventoryString(this.mod);
+      }
+
+      return this.inventoryString;
+   }
+
+   public String getNearbyBlocksString() {
+      this.nearbyBlocks.update(this.mod.getWorld(), this.mod.getPlayer().blockPosition());
+      return this.nearbyBlocks.describe();
+   }
+
+   public String getNearbyHostilesString() {
+      this.expireEntityStrings();
+      if (this.hostilesString == null) {
+         this.hostilesString = this.computeNearbyHostiles();
+      }
+
+      return this.hostilesString;
+   }
+
+   public String getNearbyPlayersString() {
+      this.expireEntityStrings();
+      if (this.playersString == null) {
+         this.playersString = StatusUtils.getNearbyPlayers(this.mod);
+      }
+
+      return this.playersString;
+   }
+
+   public String getNearbyNPCsString() {
+      this.expireEntityStrings();
+      if (this.npcsString == null) {
+         this.npcsString = StatusUtils.getNearbyNPCs(this.mod);
+      }
+
+      return this.npcsString;
+   }
+
+   // Entities move without telling us, their descriptions are only kept for a few ticks
+   private void expireEntityStrings() {
+      long now = this.mod.getWorld().getGameTime();
+      if (now - this.entityRefreshTime >= ENTITY_REFRESH_INTERVAL_TICKS || now < this.entityRefreshTime) {
+         this.entityRefreshTime = now;
+         this.hostilesString = null;
+         this.playersString = null;
+         this.npcsString = null;
+      }
+   }
+
+   private void updateInventoryFingerprint() {
+      int fingerprint = StorageHelper.getInventoryFingerprint(this.mod);
+      if (fingerprint != this.inventoryFingerprint) {
+         this.inventoryFingerprint = fingerprint;
+         this.inventoryString = null;
+      }
+   }
+
+   private String computeNearbyHostiles() {
+      LivingEntity player = this.mod.getPlayer();
+      List<String> descriptions = new ArrayList<>();
+
+      // Entity section lookup instead of walking every entity in the world
+      for (Monster entity : this.mod.getWorld().getEntitiesOfClass(Monster.class, player.getBoundingBox().inflate(HOSTILE_RADIUS))) {
+         if (entity.distanceTo(player) < HOSTILE_RADIUS) {
+            String niceName = entity.getType().getDescriptionId().replace("entity.minecraft.", "");
+            String position = entity.position().align(EnumSet.allOf(Axis.class)).toString();
+            descriptions.add("\"" + niceName + " at " + position + "\"");
+         }
+      }
+
+      return descriptions.isEmpty()
+         ? String.format("no nearby hostile mobs within %d", HOSTILE_RADIUS)
+         : "[" + String.join(",", descriptions) + "]";
+   }
+}
@@ -5,6 +5,8 @@ import adris.altoclef.player2api.manager.ConversationManager;
 import adris.altoclef.tasksystem.Task;
 import adris.altoclef.util.helpers.ItemHelper;
 import baritone.api.entity.IAutomatone;
+import baritone.api.process.IBuilderProcess;
+import baritone.api.schematic.IBuildProgress;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -18,7 +20,6 @@ import net.minecraft.core.Direction.Axis;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ArmorItem;
 import net.minecraft.world.item.ItemStack;
@@ -70,55 +71,16 @@ public class StatusUtils {
             : tasks.get(0).toString().contains("LookAtOwner") ? noTask : tasks.get(0).toString();
    }
 
-   public static String getNearbyBlocksString(AltoClefController mod) {
-      int radius = 12;
-      BlockPos center = mod.getPlayer().blockPosition();
-      Map<String, Integer> blockCounts = new HashMap<>();
-
-      for (int dx = -radius; dx <= radius; dx++) {
-         for (int dy = -radius; dy <= radius; dy++) {
-            for (int dz = -radius; dz <= radius; dz++) {
-               BlockPos pos = center.offset(dx, dy, dz);
-               String blockName = mod.getWorld().getBlockState(pos).getBlock().getDescriptionId()
-                     .replace("block.minecraft.", "");
-               if (!blockName.equals("air")) {
-                  blockCounts.put(blockName, blockCounts.getOrDefault(blockName, 0) + 1);
-               }
-            }
-         }
-      }
-
-      ObjectStatus status = new ObjectStatus();
-
-      for (Entry<String, Integer> entry : blockCounts.entrySet()) {
-         status.add(entry.getKey(), entry.getValue().toString());
-      }
-
-      return status.toString();
+   public static String getBuildProgressString(AltoClefController mod) {
+      IBuilderProcess builder = mod.getBaritone().getBuilderProcess();
+      IBuildProgress progress = builder.isActive() ? builder.getProgress() : null;
+      return progress == null ? "Not building." : progress.describe(5);
    }
 
    public static String getOxygenString(AltoClefController mod) {
       return String.format("%s/300", mod.getPlayer().getAirSupply());
    }
 
-   public static String getNearbyHostileMobs(AltoClefController mod) {
-      int radius = 32;
-      List<String> descriptions = new ArrayList<>();
-
-      for (Entity entity : mod.getWorld().getAllEntities()) {
-         if (entity instanceof Monster && entity.distanceTo(mod.getPlayer()) < radius) {
-            String type = entity.getType().getDescriptionId();
-            String niceName = type.replace("entity.minecraft.", "");
-            String position = entity.position().align(EnumSet.allOf(Axis.class)).toString();
-            descriptions.add(niceName + " at " + position);
-         }
-      }
-
-      return descriptions.isEmpty()
-            ? String.format("no nearby hostile mobs within %d", radius)
-            : "[" + String.join(",", descriptions.stream().map(s -> "\"" + s + "\"").toArray(String[]::new)) + "]";
-   }
-
    public static String getEquippedArmorStatusString(AltoClefController mod) {
       LivingEntity player = mod.getPlayer();
       ObjectStatus status = new ObjectStatus();
@@ -8,10 +8,10 @@ public class WorldStatus extends ObjectStatus {
          .add("weather", StatusUtils.getWeatherString(mod))
          .add("dimension", StatusUtils.getDimensionString(mod))
          .add("spawn position", StatusUtils.getSpawnPosString(mod))
-         .add("nearby blocks", StatusUtils.getNearbyBlocksString(mod))
-         .add("nearby hostiles", StatusUtils.getNearbyHostileMobs(mod))
-         .add("nearby players", StatusUtils.getNearbyPlayers(mod))
-         .add("nearby other npcs", StatusUtils.getNearbyNPCs(mod))
+         .add("nearby blocks", mod.getStatusSnapshots().getNearbyBlocksString())
+         .add("nearby hostiles", mod.getStatusSnapshots().getNearbyHostilesString())
+         .add("nearby players", mod.getStatusSnapshots().getNearbyPlayersString())
+         .add("nearby other npcs", mod.getStatusSnapshots().getNearbyNPCsString())
          .add("difficulty", StatusUtils.getDifficulty(mod))
          .add("timeInfo", StatusUtils.getTimeString(mod));
    }
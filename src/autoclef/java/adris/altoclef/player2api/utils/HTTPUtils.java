@@ -6,9 +6,11 @@ import com.google.gson.JsonParser;
 
 import javax.annotation.Nullable;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
@@ -19,10 +21,24 @@ import java.util.Map.Entry;
 
 public class HTTPUtils {
 
+    /**
+     * Writes a request body directly to the connection, so large bodies never need to exist as one String.
+     */
+    @FunctionalInterface
+    public interface RequestBodyWriter {
+        void writeTo(Writer writer) throws IOException;
+    }
 
     public static Map<String, JsonElement> sendRequest(String baseUrl, String endpoint, boolean postRequest, JsonObject requestBody,
                                                        @Nullable Map<String, String> extraHeaders)
             throws Exception {
+        return sendStreamingRequest(baseUrl, endpoint, postRequest,
+                requestBody == null ? null : writer -> writer.write(requestBody.toString()), extraHeaders);
+    }
+
+    public static Map<String, JsonElement> sendStreamingRequest(String baseUrl, String endpoint, boolean postRequest, @Nullable RequestBodyWriter requestBody,
+                                                       @Nullable Map<String, String> extraHeaders)
+            throws Exception {
         URL url = new URI(baseUrl + endpoint).toURL();
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestMethod(postRequest ? "POST" : "GET");
@@ -36,10 +52,11 @@ public class HTTPUtils {
 
         if (postRequest && requestBody != null) {
             connection.setDoOutput(true);
+            // Otherwise the connection buffers the whole body to work out its length
+            connection.setChunkedStreamingMode(0);
 
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+                requestBody.writeTo(writer);
             } catch (Throwable v) {
             }
         }
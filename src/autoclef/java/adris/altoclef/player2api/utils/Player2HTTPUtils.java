@@ -35,11 +35,16 @@ public class Player2HTTPUtils {
     private static final String WEB_API_URL = "https://api.player2.game";
 
     public static Map<String, JsonElement> sendRequest(Player player, String clientId, String endpoint, boolean postRequest, JsonObject requestBody) throws Exception{
+        return sendStreamingRequest(player, clientId, endpoint, postRequest,
+                requestBody == null ? null : writer -> writer.write(requestBody.toString()));
+    }
+
+    public static Map<String, JsonElement> sendStreamingRequest(Player player, String clientId, String endpoint, boolean postRequest, HTTPUtils.RequestBodyWriter requestBody) throws Exception{
         String token = awaitToken(player, clientId);
         Map<String, String> headers = getHeaders(clientId, token);
 
         try {
-            return HTTPUtils.sendRequest(WEB_API_URL, endpoint, postRequest, requestBody, headers);
+            return HTTPUtils.sendStreamingRequest(WEB_API_URL, endpoint, postRequest, requestBody, headers);
         } catch (HttpApiException e) {
             if (e.getStatusCode() == 401) {
                 LOGGER.warn("Received 401 Unauthorized for {}. Invalidating token.", new AuthKey(player.getUUID(), clientId));
@@ -85,11 +85,6 @@ public class Utils {
       return input != null && !input.isEmpty() ? input.split("\\R+") : new String[0];
    }
 
-   public static JsonObject deepCopy(JsonObject original) {
-      JsonParser parser = new JsonParser();
-      return parser.parse(original.toString()).getAsJsonObject();
-   }
-
    @FunctionalInterface
    public interface ThrowingFunction<T, R> {
       R apply(T t) throws Exception;
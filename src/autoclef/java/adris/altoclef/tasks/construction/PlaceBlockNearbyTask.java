@@ -54,7 +54,7 @@ public class PlaceBlockNearbyTask extends Task {
    protected void onStart() {
       this.progressChecker.reset();
       this.controller.getBaritone().getInputOverrideHandler().setInputForceState(Input.CLICK_RIGHT, false);
-      this.onBlockPlaced = EventBus.subscribe(BlockPlaceEvent.class, evt -> {
+      this.onBlockPlaced = this.controller.getEventSubscriptions().subscribe(BlockPlaceEvent.class, evt -> {
          if (ArrayUtils.contains(this.toPlace, evt.blockState.getBlock())) {
             this.stopPlacing();
          }
@@ -0,0 +1,340 @@
+package adris.altoclef.tasks.construction.build_structure;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import adris.altoclef.AltoClefController;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Gets the blocks of a MiniBlocks program into the world without touching the world off the server thread.
+ *
+ * A background thread runs the program, resolves block names to states and hands batches of blocks to a bounded
+ * queue (it waits when the world falls behind). Blocks are placed in program order, later blocks may rely on earlier
+ * ones being there (supports, attached blocks), so a batch is a run of consecutive blocks in one chunk section.
+ * The server thread drains the queue from {@link #tick(ServerLevel)} under a per-tick block and time budget, so a
+ * large structure shows up over a few ticks instead of stalling one. Consecutive blocks of a section are sent to
+ * clients as one section update by vanilla, and lighting is queued for the light engine's own batch.
+ *
+ * Before anything runs, {@link StructureAnalysis} bounds the program: a structure that may reach outside the build
+ * height or the world border is rejected, and the chunks of its box get a ticket so they load in the background
+ * while the program runs instead of stalling the tick that places the first block in them.
+ */
+public class BlockPlacementPipeline {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final int DEFAULT_BLOCKS_PER_TICK = 2048;
+    public static final long DEFAULT_NANOS_PER_TICK = 4_000_000L;
+
+    private static final int QUEUE_CAPACITY = 32;
+    // How many commands are buffered before they're split in batches
+    private static final int GROUP_SIZE = 4096;
+    // Bigger boxes are left to load as blocks get placed, better than holding that many chunks
+    private static final int MAX_PRELOAD_CHUNKS = 1024;
+    private static final TicketType<ChunkPos> PRELOAD = TicketType.create("miniblocks", Comparator.comparingLong(ChunkPos::toLong));
+    // Shared by every build, threads are reused instead of leaking an executor per build
+    private static final ExecutorService PRODUCERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "MiniBlocks producer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String code;
+    private final AltoClefController mod;
+    private final int flags;
+    private final int blocksPerTick;
+    private final long nanosPerTick;
+    private final int minBuildHeight;
+    private final int maxBuildHeight;
+    private final double minBorderX, minBorderZ, maxBorderX, maxBorderZ;
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Producer side
+    private final Map<String, BlockState> resolved = new HashMap<>();
+    private final long[] bufferPositions = new long[GROUP_SIZE];
+    private final BlockState[] bufferStates = new BlockState[GROUP_SIZE];
+    private int bufferSize = 0;
+
+    private volatile boolean producerDone = false;
+    private volatile boolean cancelled = false;
+    private volatile String error = null;
+    private volatile StructureAnalysis analysis = null;
+
+    // Server thread side
+    private Batch current;
+    private int currentIndex;
+    private int placed = 0;
+    private ServerLevel ticketLevel;
+    // Chunks this pipeline holds a ticket on
+    private final LongOpenHashSet preloaded = new LongOpenHashSet();
+
+    public BlockPlacementPipeline(String code, AltoClefController mod) {
+        this(code, mod, Block.UPDATE_ALL, DEFAULT_BLOCKS_PER_TICK, DEFAULT_NANOS_PER_TICK);
+    }
+
+    /**
+     * Server thread only, the world limits are read here.
+     *
+     * @param flags Flags for {@link ServerLevel#setBlock(BlockPos, BlockState, int)}, see {@link Block#UPDATE_ALL}.
+     */
+    public BlockPlacementPipeline(String code, AltoClefController mod, int flags, int blocksPerTick, long nanosPerTick) {
+        this.code = code;
+        this.mod = mod;
+        this.flags = flags;
+        this.blocksPerTick = blocksPerTick;
+        this.nanosPerTick = nanosPerTick;
+        ServerLevel level = mod.getWorld();
+        this.minBuildHeight = level.getMinBuildHeight();
+        this.maxBuildHeight = level.getMaxBuildHeight();
+        this.minBorderX = level.getWorldBorder().getMinX();
+        this.minBorderZ = level.getWorldBorder().getMinZ();
+        this.maxBorderX = level.getWorldBorder().getMaxX();
+        this.maxBorderZ = level.getWorldBorder().getMaxZ();
+    }
+
+    public void start() {
+        PRODUCERS.submit(this::produce);
+    }
+
+    /** Stops producing, whatever is still queued is dropped. Server thread only. */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+        releaseChunks();
+    }
+
+    /**
+     * Places queued blocks until this tick's budget runs out. Server thread only.
+     *
+     * @return Whether the program finished and everything it produced was placed, check {@link #getError()}.
+     */
+    public boolean tick(ServerLevel level) {
+        if (ticketLevel == null && analysis != null && !cancelled)
+            preloadChunks(level, analysis);
+        long deadline = System.nanoTime() + nanosPerTick;
+        int budget = blocksPerTick;
+        while (budget > 0 && !cancelled) {
+            if (current == null) {
+                current = queue.poll();
+                currentIndex = 0;
+                if (current == null)
+                    break;
+            }
+            if (!isChunkReady(level, current.positions[0]))
+                break;
+            int end = Math.min(current.size, currentIndex + budget);
+            for (int i = currentIndex; i < end; i++) {
+                level.setBlock(BlockPos.of(current.positions[i]), current.states[i], flags);
+            }
+            budget -= end - currentIndex;
+            placed += end - currentIndex;
+            currentIndex = end;
+            if (currentIndex == current.size)
+                current = null;
+            if (System.nanoTime() > deadline)
+                break;
+        }
+        boolean done = producerDone && current == null && queue.isEmpty();
+        if (done)
+            releaseChunks();
+        return done;
+    }
+
+    /** @return Why the program failed, null if it didn't (or didn't finish yet). */
+    public String getError() {
+        return error;
+    }
+
+    public int getPlacedCount() {
+        return placed;
+    }
+
+    /**
+     * @return What the program places at most, "up to 120 blocks: 100 stone, 20 glass", null while it's being
+     * analyzed or if it has no bound.
+     */
+    public String getBlockBill() {
+        StructureAnalysis analysis = this.analysis;
+        if (analysis == null || !analysis.isBlockCountBounded())
+            return null;
+        String perType = analysis.getMaxBlocksPerType().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(e -> e.getValue() + " " + e.getKey())
+                .collect(Collectors.joining(", "));
+        return "up to " + analysis.getMaxBlocks() + " blocks: " + perType;
+    }
+
+    // Tickets every chunk of the program's box, placement waits for them instead of loading them on the spot
+    private void preloadChunks(ServerLevel level, StructureAnalysis analysis) {
+        ticketLevel = level;
+        if (!analysis.hasBounds())
+            return;
+        int minCX = SectionPos.blockToSectionCoord(analysis.getMinX());
+        int maxCX = SectionPos.blockToSectionCoord(analysis.getMaxX());
+        int minCZ = SectionPos.blockToSectionCoord(analysis.getMinZ());
+        int maxCZ = SectionPos.blockToSectionCoord(analysis.getMaxZ());
+        if ((long) (maxCX - minCX + 1) * (maxCZ - minCZ + 1) > MAX_PRELOAD_CHUNKS)
+            return;
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                ChunkPos pos = new ChunkPos(cx, cz);
+                level.getChunkSource().addRegionTicket(PRELOAD, pos, 0, pos);
+                preloaded.add(pos.toLong());
+            }
+        }
+    }
+
+    private boolean isChunkReady(ServerLevel level, long pos) {
+        int cx = SectionPos.blockToSectionCoord(BlockPos.getX(pos));
+        int cz = SectionPos.blockToSectionCoord(BlockPos.getZ(pos));
+        return level != ticketLevel || !preloaded.contains(ChunkPos.asLong(cx, cz))
+                || level.getChunkSource().getChunkNow(cx, cz) != null;
+    }
+
+    private void releaseChunks() {
+        if (ticketLevel != null) {
+            LongIterator it = preloaded.iterator();
+            while (it.hasNext()) {
+                ChunkPos pos = new ChunkPos(it.nextLong());
+                ticketLevel.getChunkSource().removeRegionTicket(PRELOAD, pos, 0, pos);
+            }
+        }
+        preloaded.clear();
+    }
+
+    // ---- Producer ----
+
+    private void produce() {
+        try {
+            StructureFromCode.Program program = StructureFromCode.compile(code);
+            StructureAnalysis analysis = StructureAnalysis.analyze(program);
+            LOGGER.info("MiniBlocks {}", analysis);
+            checkWorldLimits(analysis);
+            this.analysis = analysis;
+            if (!isKnownSafe(analysis)) {
+                // Run once to validate, so a broken program (or a bad block name) fails before anything is placed
+                StructureFromCode.runProgram(program, cmd -> resolve(cmd.blockName), mod);
+                LOGGER.info("Code validated, running code for real now.");
+            }
+            StructureFromCode.runProgram(program, cmd -> {
+                if (bufferSize == GROUP_SIZE)
+                    flush();
+                bufferPositions[bufferSize] = BlockPos.asLong(cmd.x, cmd.y, cmd.z);
+                bufferStates[bufferSize] = resolve(cmd.blockName);
+                bufferSize++;
+            }, mod);
+            flush();
+        } catch (CancellationException e) {
+            // Nobody is waiting for the result anymore
+        } catch (Exception e) {
+            String err = e.getMessage();
+            error = err == null ? "unknown error" : err;
+            LOGGER.error("LLM build structure err={} ", error);
+        } finally {
+            producerDone = true;
+        }
+    }
+
+    // The box is an over-approximation, but setBlock silently drops blocks outside the world, better to have the
+    // program fixed than to build half of it
+    private void checkWorldLimits(StructureAnalysis analysis) {
+        if (!analysis.hasBounds())
+            return;
+        if (analysis.getMinY() < minBuildHeight || analysis.getMaxY() >= maxBuildHeight)
+            throw new IllegalArgumentException(String.format(
+                    "blocks may be set from y=%d to y=%d, but the world only allows y=%d to y=%d",
+                    analysis.getMinY(), analysis.getMaxY(), minBuildHeight, maxBuildHeight - 1));
+        if (analysis.getMinX() < minBorderX || analysis.getMaxX() >= maxBorderX || analysis.getMinZ() < minBorderZ
+                || analysis.getMaxZ() >= maxBorderZ)
+            throw new IllegalArgumentException("blocks may be set outside the world border");
+    }
+
+    // Whether the analysis already proves the validation run would pass
+    private static boolean isKnownSafe(StructureAnalysis analysis) {
+        if (!analysis.isSafeWithin(StructureFromCode.DEFAULT_MAX_INSTRUCTIONS, StructureFromCode.DEFAULT_MAX_BLOCKS))
+            return false;
+        for (String name : analysis.getMaxBlocksPerType().keySet()) {
+            if (!ResourceLocation.isValidPath(name)
+                    || !BuiltInRegistries.BLOCK.containsKey(new ResourceLocation("minecraft", name)))
+                return false;
+        }
+        return true;
+    }
+
+    // The registry hands out air for names it doesn't know, that would quietly leave holes in the build
+    private BlockState resolve(String blockName) {
+        return resolved.computeIfAbsent(blockName, name -> {
+            if (!ResourceLocation.isValidPath(name)
+                    || !BuiltInRegistries.BLOCK.containsKey(new ResourceLocation("minecraft", name)))
+                throw new IllegalArgumentException("Unknown block '" + name + "'.");
+            return BuiltInRegistries.BLOCK.get(new ResourceLocation("minecraft", name)).defaultBlockState();
+        });
+    }
+
+    // Splits the buffer where it moves to another section, nothing is reordered
+    private void flush() {
+        int start = 0;
+        for (int i = 1; i <= bufferSize; i++) {
+            if (i == bufferSize || section(bufferPositions[i]) != section(bufferPositions[start])) {
+                Batch batch = new Batch(i - start);
+                System.arraycopy(bufferPositions, start, batch.positions, 0, batch.size);
+                System.arraycopy(bufferStates, start, batch.states, 0, batch.size);
+                put(batch);
+                start = i;
+            }
+        }
+        bufferSize = 0;
+    }
+
+    private static long section(long pos) {
+        return SectionPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(pos)),
+                SectionPos.blockToSectionCoord(BlockPos.getY(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos)));
+    }
+
+    private void put(Batch batch) {
+        try {
+            while (!queue.offer(batch, 50, TimeUnit.MILLISECONDS)) {
+                if (cancelled || mod.isStopping)
+                    throw new CancellationException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        if (cancelled)
+            throw new CancellationException();
+    }
+
+    private static final class Batch {
+        final int size;
+        final long[] positions;
+        final BlockState[] states;
+
+        Batch(int size) {
+            this.size = size;
+            this.positions = new long[size];
+            this.states = new BlockState[size];
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package adris.altoclef.tasks.construction.build_structure;
 
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,10 +13,6 @@ import adris.altoclef.player2api.LLMCompleter;
 import adris.altoclef.player2api.Player2APIService;
 import adris.altoclef.player2api.Prompts;
 import adris.altoclef.tasksystem.Task;
-import net.minecraft.core.BlockPos;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.resources.ResourceLocation;
-import net.minecraft.world.level.block.Block;
 
 public class BuildStructureTask extends Task {
     private static final int maxNumErrors = 2;
@@ -78,30 +72,15 @@ public class BuildStructureTask extends Task {
     private class BuildFromCode extends Task {
         String code;
 
-        private ExecutorService buildThread;
+        private final BlockPlacementPipeline pipeline;
         // outer Option: is done, inner option: is error
         Optional<Optional<String>> result = Optional.empty();
 
         public BuildFromCode(String code) {
             this.code = code;
-            this.buildThread = Executors.newSingleThreadExecutor();
-            buildThread.submit(() -> {
-                StructureFromCode.buildStructureFromCode(code, setBlockData -> {
-                    LOGGER.info("setBlock(x={}, y={}, z={}, blockName={})",
-                            setBlockData.x, setBlockData.y, setBlockData.z, setBlockData.blockName);
-                    ResourceLocation id = new ResourceLocation("minecraft", setBlockData.blockName);
-                    Block block = BuiltInRegistries.BLOCK.get(id);
-                    // 3 means send to clients (2) and notify neighbors/update block states (1).
-                    // maybe do 2 if you dont want
-                    // redstone/etc updating/torches falling probably
-                    mod.getWorld().setBlock(new BlockPos(setBlockData.x, setBlockData.y, setBlockData.z),
-                            block.defaultBlockState(), 3);
-                }, (errStr) -> {
-                    result = Optional.of(Optional.of(errStr));
-                }, () -> {
-                    result = Optional.of(Optional.empty());
-                }, mod);
-            });
+            // Runs the code on a background thread, blocks are placed from onTick on the server thread
+            this.pipeline = new BlockPlacementPipeline(code, mod);
+            pipeline.start();
         }
 
         @Override
@@ -118,13 +97,17 @@ public class BuildStructureTask extends Task {
 
         @Override
         protected void onStop(Task var1) {
-            // TODO Auto-generated method stub
-
+            if (result.isEmpty()) {
+                pipeline.cancel();
+            }
         }
 
         @Override
         protected Task onTick() {
-            // TODO Auto-generated method stub
+            if (result.isEmpty() && pipeline.tick(mod.getWorld())) {
+                LOGGER.info("Placed {} blocks", pipeline.getPlacedCount());
+                result = Optional.of(Optional.ofNullable(pipeline.getError()));
+            }
             return null;
         }
 
@@ -135,7 +118,9 @@ public class BuildStructureTask extends Task {
 
         @Override
         protected String toDebugString() {
-            return String.format("Currently building the structure from description (%s)", description);
+            String bill = pipeline.getBlockBill();
+            return String.format("Currently building the structure from description (%s), %d blocks placed%s",
+                    description, pipeline.getPlacedCount(), bill == null ? "" : " of " + bill);
         }
     }
 
@@ -0,0 +1,909 @@
+package adris.altoclef.tasks.construction.build_structure;
+
+import java.util.*;
+
+import adris.altoclef.tasks.construction.build_structure.StructureFromCode.*;
+
+/**
+ * What a MiniBlocks program will do, worked out from its AST without running it (abstract interpretation). Used by
+ * {@link BlockPlacementPipeline} to reject builds outside the world, load their chunks ahead of time and skip the
+ * validation run of programs that can't fail.
+ *
+ * Numbers are tracked as intervals and strings as small sets, so the analysis gives:
+ * - a box every setBlock coordinate falls in,
+ * - an upper bound on how many blocks get set, in total and per block name,
+ * - an upper bound on the instructions the VM will run,
+ * - whether the program might fail at runtime (undefined variable, arithmetic on a non-number...).
+ *
+ * Everything is an over-approximation: a branch counts as if the worst side ran, and a loop that isn't a simple
+ * counted loop ({@code for (let i = a; i < b; i = i + c)} and the like) is assumed to run forever, making the counts
+ * unbounded. Variables changed inside loops are widened to "any number" when they don't settle.
+ */
+final class StructureAnalysis {
+    /** Key of {@link #getMaxBlocksPerType()} for blocks whose name couldn't be worked out. */
+    public static final String UNKNOWN_BLOCK = "?";
+    // Past this many possible strings a value is "any string"
+    private static final int MAX_STRINGS = 32;
+    // Loop fixpoint iterations before widening
+    private static final int WIDEN_AFTER = 3;
+    // Upper bound of VM instructions per AST node
+    private static final int INSTRUCTIONS_PER_NODE = 6;
+
+    private double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+    private double maxBlocks;
+    private final Map<String, Long> maxBlocksPerType = new TreeMap<>();
+    private double maxInstructions;
+    private String failureReason;
+
+    private StructureAnalysis() {
+    }
+
+    public static StructureAnalysis analyze(Program program) {
+        StructureAnalysis result = new StructureAnalysis();
+        Analyzer analyzer = new Analyzer(result);
+        State state = new State();
+        state.push();
+        Counts counts = Counts.ZERO;
+        for (Stmt s : program.statements)
+            counts = counts.then(analyzer.analyze(s, state));
+        result.maxBlocks = counts.total;
+        counts.perName.forEach((name, count) -> result.maxBlocksPerType.put(name, saturate(count)));
+        result.maxInstructions = (counts.work + 1) * INSTRUCTIONS_PER_NODE;
+        return result;
+    }
+
+    /** @return Whether setBlock coordinates are known to stay in a finite box (false if nothing is ever set). */
+    public boolean hasBounds() {
+        return minX <= maxX && Double.isFinite(minX) && Double.isFinite(maxX) && Double.isFinite(minY)
+                && Double.isFinite(maxY) && Double.isFinite(minZ) && Double.isFinite(maxZ);
+    }
+
+    public int getMinX() {
+        return clampToInt(minX);
+    }
+
+    public int getMinY() {
+        return clampToInt(minY);
+    }
+
+    public int getMinZ() {
+        return clampToInt(minZ);
+    }
+
+    public int getMaxX() {
+        return clampToInt(maxX);
+    }
+
+    public int getMaxY() {
+        return clampToInt(maxY);
+    }
+
+    public int getMaxZ() {
+        return clampToInt(maxZ);
+    }
+
+    public boolean isBlockCountBounded() {
+        return Double.isFinite(maxBlocks);
+    }
+
+    /** @return Most blocks the program can set, {@link Long#MAX_VALUE} if unbounded. */
+    public long getMaxBlocks() {
+        return saturate(maxBlocks);
+    }
+
+    /** @return Most blocks of each name the program can set, see {@link #UNKNOWN_BLOCK}. */
+    public Map<String, Long> getMaxBlocksPerType() {
+        return Collections.unmodifiableMap(maxBlocksPerType);
+    }
+
+    /** @return Most VM instructions the program can run, {@link Long#MAX_VALUE} if unbounded. */
+    public long getMaxInstructions() {
+        return saturate(maxInstructions);
+    }
+
+    public boolean mayFail() {
+        return failureReason != null;
+    }
+
+    /**
+     * @return Whether running the program is guaranteed to succeed within these budgets (block names aside, they
+     * aren't checked here).
+     */
+    public boolean isSafeWithin(long instructionBudget, int blockBudget) {
+        return !mayFail() && getMaxInstructions() <= instructionBudget && getMaxBlocks() <= blockBudget;
+    }
+
+    @Override
+    public String toString() {
+        String box = hasBounds()
+                ? String.format("(%d, %d, %d) to (%d, %d, %d)", getMinX(), getMinY(), getMinZ(), getMaxX(), getMaxY(),
+                        getMaxZ())
+                : "unbounded";
+        return "StructureAnalysis{box=" + box + ", maxBlocks=" + (isBlockCountBounded() ? getMaxBlocks() : "unbounded")
+                + ", perType=" + maxBlocksPerType + ", maxInstructions=" + getMaxInstructions()
+                + (mayFail() ? ", mayFail=" + failureReason : "") + "}";
+    }
+
+    private void fail(String reason) {
+        if (failureReason == null)
+            failureReason = reason;
+    }
+
+    private static long saturate(double value) {
+        return value >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) Math.ceil(value);
+    }
+
+    private static int clampToInt(double value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    // ==== Abstract values ====
+
+    /** Every value a variable or expression may hold. */
+    static final class Value {
+        static final Value NOTHING = new Value(false, 0, 0, false, null, false, false, false);
+        static final Value NIL = new Value(false, 0, 0, false, null, false, false, true);
+        static final Value TRUE = new Value(false, 0, 0, false, null, true, false, false);
+        static final Value FALSE = new Value(false, 0, 0, false, null, false, true, false);
+        static final Value BOOLEAN = new Value(false, 0, 0, false, null, true, true, false);
+        static final Value ANY_NUMBER = number(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        static final Value ANY_STRING = new Value(false, 0, 0, true, null, false, false, false);
+        static final Value ANY = ANY_NUMBER.join(ANY_STRING).join(BOOLEAN).join(NIL);
+
+        final boolean number;
+        final double lo, hi;
+        final boolean string;
+        // null with string set means any string
+        final Set<String> strings;
+        final boolean isTrue, isFalse, nil;
+
+        private Value(boolean number, double lo, double hi, boolean string, Set<String> strings, boolean isTrue,
+                boolean isFalse, boolean nil) {
+            this.number = number;
+            this.lo = number ? lo : 0;
+            this.hi = number ? hi : 0;
+            this.string = string;
+            this.strings = string ? strings : null;
+            this.isTrue = isTrue;
+            this.isFalse = isFalse;
+            this.nil = nil;
+        }
+
+        static Value number(double lo, double hi) {
+            if (Double.isNaN(lo) || Double.isNaN(hi))
+                return number(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            return new Value(true, Math.min(lo, hi), Math.max(lo, hi), false, null, false, false, false);
+        }
+
+        static Value strings(Set<String> strings) {
+            return new Value(false, 0, 0, true, strings == null || strings.size() > MAX_STRINGS ? null : strings,
+                    false, false, false);
+        }
+
+        static Value bool(boolean mayBeTrue, boolean mayBeFalse) {
+            return mayBeTrue ? (mayBeFalse ? BOOLEAN : TRUE) : (mayBeFalse ? FALSE : NOTHING);
+        }
+
+        static Value of(Object literal) {
+            if (literal == null)
+                return NIL;
+            if (literal instanceof Double)
+                return number((Double) literal, (Double) literal);
+            if (literal instanceof Boolean)
+                return (Boolean) literal ? TRUE : FALSE;
+            return strings(Collections.singleton(String.valueOf(literal)));
+        }
+
+        boolean onlyNumber() {
+            return number && !string && !isTrue && !isFalse && !nil;
+        }
+
+        boolean isNothing() {
+            return !number && !string && !isTrue && !isFalse && !nil;
+        }
+
+        boolean mayBeTruthy() {
+            return number && (lo != 0 || hi != 0) || string && (strings == null || strings.stream().anyMatch(s -> !s.isEmpty()))
+                    || isTrue;
+        }
+
+        boolean mayBeFalsy() {
+            return number && lo <= 0 && hi >= 0 || string && (strings == null || strings.contains("")) || isFalse || nil;
+        }
+
+        Value join(Value o) {
+            if (isNothing())
+                return o;
+            if (o.isNothing())
+                return this;
+            boolean n = number || o.number;
+            double l = !number ? o.lo : !o.number ? lo : Math.min(lo, o.lo);
+            double h = !number ? o.hi : !o.number ? hi : Math.max(hi, o.hi);
+            Set<String> s = null;
+            if (string && o.string && strings != null && o.strings != null) {
+                s = new HashSet<>(strings);
+                s.addAll(o.strings);
+            } else if (string && !o.string) {
+                s = strings;
+            } else if (!string && o.string) {
+                s = o.strings;
+            }
+            return new Value(n, l, h, string || o.string, s == null || s.size() > MAX_STRINGS ? null : s,
+                    isTrue || o.isTrue, isFalse || o.isFalse, nil || o.nil);
+        }
+
+        // Bounds that keep moving go to infinity so loops settle
+        Value widen(Value next) {
+            if (!number || !next.number)
+                return next;
+            double l = next.lo < lo ? Double.NEGATIVE_INFINITY : next.lo;
+            double h = next.hi > hi ? Double.POSITIVE_INFINITY : next.hi;
+            return new Value(true, l, h, next.string, next.strings != null && strings != null
+                    && !strings.containsAll(next.strings) ? null : next.strings, next.isTrue, next.isFalse, next.nil);
+        }
+
+        /** @return The possible strings this value turns into when concatenated, null if unknown. */
+        Set<String> stringForms() {
+            Set<String> forms = new HashSet<>();
+            if (number) {
+                if (lo != hi)
+                    return null;
+                forms.add(lo == Math.rint(lo) ? String.valueOf((long) lo) : String.valueOf(lo));
+            }
+            if (string) {
+                if (strings == null)
+                    return null;
+                forms.addAll(strings);
+            }
+            if (isTrue)
+                forms.add("true");
+            if (isFalse)
+                forms.add("false");
+            if (nil)
+                forms.add("nil");
+            return forms;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Value))
+                return false;
+            Value o = (Value) obj;
+            return number == o.number && lo == o.lo && hi == o.hi && string == o.string
+                    && Objects.equals(strings, o.strings) && isTrue == o.isTrue && isFalse == o.isFalse && nil == o.nil;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(number, lo, hi, string, strings, isTrue, isFalse, nil);
+        }
+    }
+
+    /** Variables in scope, innermost scope first, like the runtime environments. */
+    static final class State {
+        private final LinkedList<Map<String, Value>> scopes = new LinkedList<>();
+
+        void push() {
+            scopes.addFirst(new HashMap<>());
+        }
+
+        void pop() {
+            scopes.removeFirst();
+        }
+
+        void define(String name, Value value) {
+            scopes.getFirst().put(name, value);
+        }
+
+        /** @return null if undefined. */
+        Value get(String name) {
+            for (Map<String, Value> scope : scopes) {
+                Value v = scope.get(name);
+                if (v != null)
+                    return v;
+            }
+            return null;
+        }
+
+        boolean assign(String name, Value value) {
+            for (Map<String, Value> scope : scopes) {
+                if (scope.containsKey(name)) {
+                    scope.put(name, value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void setTo(State other) {
+            scopes.clear();
+            for (Map<String, Value> scope : other.scopes)
+                scopes.addLast(new HashMap<>(scope));
+        }
+
+        State copy() {
+            State copy = new State();
+            for (Map<String, Value> scope : scopes)
+                copy.scopes.addLast(new HashMap<>(scope));
+            return copy;
+        }
+
+        // Both states have the same scopes, a variable only defined on one side may not exist at all afterwards
+        void joinFrom(State other, boolean widen) {
+            Iterator<Map<String, Value>> it = other.scopes.iterator();
+            for (Map<String, Value> scope : scopes) {
+                Map<String, Value> o = it.next();
+                for (Map.Entry<String, Value> e : o.entrySet()) {
+                    Value mine = scope.get(e.getKey());
+                    if (mine == null)
+                        scope.put(e.getKey(), e.getValue());
+                    else
+                        scope.put(e.getKey(), widen ? mine.widen(mine.join(e.getValue())) : mine.join(e.getValue()));
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof State && scopes.equals(((State) obj).scopes);
+        }
+
+        @Override
+        public int hashCode() {
+            return scopes.hashCode();
+        }
+    }
+
+    /** Upper bounds of what a piece of the program does. */
+    static final class Counts {
+        static final Counts ZERO = new Counts(0, Collections.emptyMap(), 0);
+
+        final double total;
+        final Map<String, Double> perName;
+        // AST nodes evaluated
+        final double work;
+
+        Counts(double total, Map<String, Double> perName, double work) {
+            this.total = total;
+            this.perName = perName;
+            this.work = work;
+        }
+
+        static Counts work(double work) {
+            return new Counts(0, Collections.emptyMap(), work);
+        }
+
+        Counts then(Counts o) {
+            Map<String, Double> names = new HashMap<>(perName);
+            o.perName.forEach((k, v) -> names.merge(k, v, Double::sum));
+            return new Counts(total + o.total, names, work + o.work);
+        }
+
+        // Only one of the two runs
+        Counts or(Counts o) {
+            Map<String, Double> names = new HashMap<>(perName);
+            o.perName.forEach((k, v) -> names.merge(k, v, Math::max));
+            return new Counts(Math.max(total, o.total), names, Math.max(work, o.work));
+        }
+
+        Counts times(double n) {
+            if (n == 0)
+                return ZERO;
+            Map<String, Double> names = new HashMap<>();
+            perName.forEach((k, v) -> names.put(k, multiply(v, n)));
+            return new Counts(multiply(total, n), names, multiply(work, n));
+        }
+
+        // Nothing times an unbounded loop is still nothing
+        private static double multiply(double a, double n) {
+            return a == 0 ? 0 : a * n;
+        }
+    }
+
+    // ==== Analysis ====
+
+    static final class Analyzer {
+        private final StructureAnalysis result;
+
+        Analyzer(StructureAnalysis result) {
+            this.result = result;
+        }
+
+        Counts analyze(Stmt stmt, State state) {
+            if (stmt instanceof ExprStmt) {
+                Expr e = ((ExprStmt) stmt).expr;
+                eval(e, state);
+                return Counts.work(size(e) + 1);
+            }
+            if (stmt instanceof PrintStmt) {
+                Expr e = ((PrintStmt) stmt).expr;
+                eval(e, state);
+                return Counts.work(size(e) + 1);
+            }
+            if (stmt instanceof Var) {
+                Var v = (Var) stmt;
+                state.define(v.name.lexeme, eval(v.initializer, state));
+                return Counts.work(size(v.initializer) + 2);
+            }
+            if (stmt instanceof Block) {
+                state.push();
+                Counts counts = Counts.ZERO;
+                for (Stmt s : ((Block) stmt).statements)
+                    counts = counts.then(analyze(s, state));
+                state.pop();
+                return counts;
+            }
+            if (stmt instanceof If) {
+                return analyzeIf((If) stmt, state);
+            }
+            if (stmt instanceof While) {
+                return analyzeWhile((While) stmt, state);
+            }
+            if (stmt instanceof For) {
+                // Parser desugars 'for' into a block+while, so this isn't used.
+                return analyze(((For) stmt).body, state);
+            }
+            if (stmt instanceof SetBlock) {
+                return analyzeSetBlock((SetBlock) stmt, state);
+            }
+            throw new IllegalStateException("Unknown statement " + stmt);
+        }
+
+        private Counts analyzeIf(If s, State state) {
+            Value cond = eval(s.condition, state);
+            Counts condWork = Counts.work(size(s.condition) + 1);
+            boolean mayThen = cond.mayBeTruthy();
+            boolean mayElse = cond.mayBeFalsy();
+            if (mayThen && !mayElse)
+                return condWork.then(analyze(s.thenBranch, state));
+            if (!mayThen) {
+                return s.elseBranch == null ? condWork : condWork.then(analyze(s.elseBranch, state));
+            }
+            State elseState = state.copy();
+            Counts thenCounts = analyze(s.thenBranch, state);
+            Counts elseCounts = s.elseBranch == null ? Counts.ZERO : analyze(s.elseBranch, elseState);
+            state.joinFrom(elseState, false);
+            return condWork.then(thenCounts.or(elseCounts));
+        }
+
+        private Counts analyzeWhile(While s, State state) {
+            CountedLoop counted = CountedLoop.match(s, state, this);
+            Value counterAtEntry = counted == null ? null : state.get(counted.name);
+            State entry = state.copy();
+            State current = state.copy();
+            Counts bodyCounts = Counts.ZERO;
+            boolean entered = false;
+            for (int iteration = 0;; iteration++) {
+                State iterationState = current.copy();
+                if (counted != null)
+                    iterationState.assign(counted.name, counted.range);
+                Value cond = eval(s.condition, iterationState);
+                if (!cond.mayBeTruthy() && counted == null)
+                    break;
+                entered = true;
+                bodyCounts = analyze(s.body, iterationState);
+                State next = entry.copy();
+                next.joinFrom(current, false);
+                next.joinFrom(iterationState, iteration >= WIDEN_AFTER);
+                if (counted != null)
+                    next.assign(counted.name, counterAtEntry);
+                if (next.equals(current))
+                    break;
+                current = next;
+            }
+            state.setTo(current);
+            if (counted != null)
+                state.assign(counted.name, counterAtEntry.join(counted.exit));
+
+            Counts condWork = Counts.work(size(s.condition) + 1);
+            if (!entered)
+                return condWork;
+            double trips = counted != null ? counted.trips : Double.POSITIVE_INFINITY;
+            if (Double.isInfinite(trips))
+                result.fail("a loop may not end");
+            return bodyCounts.then(condWork).times(trips).then(condWork);
+        }
+
+        private Counts analyzeSetBlock(SetBlock s, State state) {
+            Value x = eval(s.x, state);
+            Value y = eval(s.y, state);
+            Value z = eval(s.z, state);
+            Value block = eval(s.block, state);
+            double[] rx = toInt(x), ry = toInt(y), rz = toInt(z);
+            result.minX = Math.min(result.minX, rx[0]);
+            result.maxX = Math.max(result.maxX, rx[1]);
+            result.minY = Math.min(result.minY, ry[0]);
+            result.maxY = Math.max(result.maxY, ry[1]);
+            result.minZ = Math.min(result.minZ, rz[0]);
+            result.maxZ = Math.max(result.maxZ, rz[1]);
+
+            Map<String, Double> names = new HashMap<>();
+            Set<String> forms = valueOfForms(block);
+            if (forms == null) {
+                names.put(UNKNOWN_BLOCK, 1.0);
+            } else {
+                for (String name : forms)
+                    names.put(name, 1.0);
+            }
+            return new Counts(1, names, size(s.x) + size(s.y) + size(s.z) + size(s.block) + 1);
+        }
+
+        // What String.valueOf gives for this value at runtime (numbers print as doubles there)
+        private static Set<String> valueOfForms(Value v) {
+            Set<String> forms = new HashSet<>();
+            if (v.number) {
+                if (v.lo != v.hi)
+                    return null;
+                forms.add(Double.toString(v.lo));
+            }
+            if (v.string) {
+                if (v.strings == null)
+                    return null;
+                forms.addAll(v.strings);
+            }
+            if (v.isTrue)
+                forms.add("true");
+            if (v.isFalse)
+                forms.add("false");
+            if (v.nil)
+                forms.add("null");
+            return forms;
+        }
+
+        // Interval of (int) Math.round(v), failing for anything that isn't a number or an integer string
+        private double[] toInt(Value v) {
+            double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+            if (v.number) {
+                lo = Double.isInfinite(v.lo) ? v.lo : Math.round(v.lo);
+                hi = Double.isInfinite(v.hi) ? v.hi : Math.round(v.hi);
+            }
+            if (v.string) {
+                if (v.strings == null) {
+                    result.fail("a coordinate may not be a number");
+                    return new double[] { Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+                }
+                for (String s : v.strings) {
+                    try {
+                        int parsed = Integer.parseInt(s);
+                        lo = Math.min(lo, parsed);
+                        hi = Math.max(hi, parsed);
+                    } catch (NumberFormatException e) {
+                        result.fail("a coordinate may not be a number");
+                    }
+                }
+            }
+            if (v.isTrue || v.isFalse || v.nil)
+                result.fail("a coordinate may not be a number");
+            return new double[] { lo, hi };
+        }
+
+        Value eval(Expr e, State state) {
+            if (e instanceof Literal)
+                return Value.of(((Literal) e).value);
+            if (e instanceof Grouping)
+                return eval(((Grouping) e).expr, state);
+            if (e instanceof Variable) {
+                Value v = state.get(((Variable) e).name.lexeme);
+                if (v == null) {
+                    result.fail("undefined variable '" + ((Variable) e).name.lexeme + "'");
+                    return Value.NOTHING;
+                }
+                return v;
+            }
+            if (e instanceof Assign) {
+                Assign a = (Assign) e;
+                Value v = eval(a.value, state);
+                if (!state.assign(a.name.lexeme, v))
+                    result.fail("undefined variable '" + a.name.lexeme + "'");
+                return v;
+            }
+            if (e instanceof Conditional) {
+                Conditional c = (Conditional) e;
+                Value cond = eval(c.condition, state);
+                Value v = Value.NOTHING;
+                if (cond.mayBeTruthy())
+                    v = v.join(eval(c.thenExpr, state));
+                if (cond.mayBeFalsy())
+                    v = v.join(eval(c.elseExpr, state));
+                return v;
+            }
+            if (e instanceof Unary) {
+                Unary u = (Unary) e;
+                Value v = eval(u.right, state);
+                if (u.op.type == TokenType.MINUS) {
+                    if (!v.onlyNumber())
+                        result.fail("'-' may be applied to a non-number");
+                    return v.number ? Value.number(-v.hi, -v.lo) : Value.NOTHING;
+                }
+                return Value.bool(v.mayBeFalsy(), v.mayBeTruthy());
+            }
+            if (e instanceof Binary) {
+                return evalBinary((Binary) e, state);
+            }
+            throw new IllegalStateException("Unknown expression " + e);
+        }
+
+        private Value evalBinary(Binary e, State state) {
+            Value l = eval(e.left, state);
+            if (e.op.type == TokenType.OR_OR || e.op.type == TokenType.AND_AND) {
+                boolean or = e.op.type == TokenType.OR_OR;
+                // The right side only runs if the left didn't decide
+                boolean mayRunRight = or ? l.mayBeFalsy() : l.mayBeTruthy();
+                Value r = mayRunRight ? eval(e.right, state) : Value.NOTHING;
+                boolean mayBeTrue = or ? l.mayBeTruthy() || r.mayBeTruthy() : r.mayBeTruthy();
+                boolean mayBeFalse = or ? r.mayBeFalsy() : l.mayBeFalsy() || r.mayBeFalsy();
+                return Value.bool(mayBeTrue, mayBeFalse);
+            }
+            Value r = eval(e.right, state);
+            switch (e.op.type) {
+                case PLUS: {
+                    Value v = Value.NOTHING;
+                    if (l.number && r.number)
+                        v = Value.number(l.lo + r.lo, l.hi + r.hi);
+                    if (!l.onlyNumber() || !r.onlyNumber()) {
+                        Set<String> left = l.stringForms(), right = r.stringForms();
+                        if (left == null || right == null || (double) left.size() * right.size() > MAX_STRINGS) {
+                            v = v.join(Value.ANY_STRING);
+                        } else {
+                            Set<String> concatenated = new HashSet<>();
+                            for (String a : left)
+                                for (String b : right)
+                                    concatenated.add(a + b);
+                            v = v.join(Value.strings(concatenated));
+                        }
+                    }
+                    return v;
+                }
+                case MINUS:
+                case STAR:
+                case SLASH:
+                case PERCENT:
+                    if (!l.onlyNumber() || !r.onlyNumber())
+                        result.fail("'" + e.op.lexeme + "' may be applied to a non-number");
+                    if (!l.number || !r.number)
+                        return Value.NOTHING;
+                    return arithmetic(e.op.type, l, r);
+                case GREATER:
+                case GREATER_EQUAL:
+                case LESS:
+                case LESS_EQUAL:
+                    if (!l.onlyNumber() || !r.onlyNumber())
+                        result.fail("'" + e.op.lexeme + "' may be applied to a non-number");
+                    return compare(e.op.type, l, r);
+                case EQUAL_EQUAL:
+                case BANG_EQUAL:
+                    return Value.BOOLEAN;
+                default:
+                    throw new RuntimeException("Unknown binary op: " + e.op.type);
+            }
+        }
+
+        private static Value arithmetic(TokenType op, Value l, Value r) {
+            switch (op) {
+                case MINUS:
+                    return Value.number(l.lo - r.hi, l.hi - r.lo);
+                case STAR: {
+                    double a = l.lo * r.lo, b = l.lo * r.hi, c = l.hi * r.lo, d = l.hi * r.hi;
+                    return Value.number(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+                }
+                case SLASH: {
+                    if (r.lo <= 0 && r.hi >= 0)
+                        return Value.ANY_NUMBER;
+                    double a = l.lo / r.lo, b = l.lo / r.hi, c = l.hi / r.lo, d = l.hi / r.hi;
+                    return Value.number(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+                }
+                default: {
+                    // Java's %: the sign follows the left side, the magnitude stays below the right side's
+                    double m = Math.max(Math.abs(r.lo), Math.abs(r.hi));
+                    if (r.lo <= 0 && r.hi >= 0 || Double.isInfinite(m))
+                        return Value.number(l.lo >= 0 ? 0 : Double.NEGATIVE_INFINITY, l.hi <= 0 ? 0 : Double.POSITIVE_INFINITY);
+                    double lo = l.lo >= 0 ? 0 : Math.max(l.lo, -m);
+                    double hi = l.hi <= 0 ? 0 : Math.min(l.hi, m);
+                    return Value.number(lo, hi);
+                }
+            }
+        }
+
+        private static Value compare(TokenType op, Value l, Value r) {
+            if (!l.number || !r.number)
+                return Value.NOTHING;
+            switch (op) {
+                case GREATER:
+                    return Value.bool(l.hi > r.lo, l.lo <= r.hi);
+                case GREATER_EQUAL:
+                    return Value.bool(l.hi >= r.lo, l.lo < r.hi);
+                case LESS:
+                    return Value.bool(l.lo < r.hi, l.hi >= r.lo);
+                default:
+                    return Value.bool(l.lo <= r.hi, l.hi > r.lo);
+            }
+        }
+
+        static int size(Expr e) {
+            if (e instanceof Binary)
+                return 1 + size(((Binary) e).left) + size(((Binary) e).right);
+            if (e instanceof Unary)
+                return 1 + size(((Unary) e).right);
+            if (e instanceof Grouping)
+                return size(((Grouping) e).expr);
+            if (e instanceof Assign)
+                return 1 + size(((Assign) e).value);
+            if (e instanceof Conditional) {
+                Conditional c = (Conditional) e;
+                return 1 + size(c.condition) + size(c.thenExpr) + size(c.elseExpr);
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * A loop of the shape {@code while (i < bound) { ...; i = i + step; }} (what {@code for} loops desugar to), with
+     * the comparison in either direction, where neither {@code i} nor the bound change anywhere else in the body and
+     * the bound doesn't read {@code i} ({@code while (i < i + 10)} never ends).
+     */
+    static final class CountedLoop {
+        final String name;
+        // What the counter holds inside the body, and once the loop is done
+        final Value range;
+        final Value exit;
+        final double trips;
+
+        private CountedLoop(String name, Value range, Value exit, double trips) {
+            this.name = name;
+            this.range = range;
+            this.exit = exit;
+            this.trips = trips;
+        }
+
+        static CountedLoop match(While loop, State state, Analyzer analyzer) {
+            if (!(loop.condition instanceof Binary) || !(loop.body instanceof Block))
+                return null;
+            Binary cond = (Binary) loop.condition;
+            if (!(cond.left instanceof Variable))
+                return null;
+            TokenType op = cond.op.type;
+            boolean increasing = op == TokenType.LESS || op == TokenType.LESS_EQUAL;
+            if (!increasing && op != TokenType.GREATER && op != TokenType.GREATER_EQUAL)
+                return null;
+            String name = ((Variable) cond.left).name.lexeme;
+
+            List<Stmt> body = ((Block) loop.body).statements;
+            if (body.isEmpty() || !(body.get(body.size() - 1) instanceof ExprStmt))
+                return null;
+            Expr last = ((ExprStmt) body.get(body.size() - 1)).expr;
+            if (!(last instanceof Assign) || !((Assign) last).name.lexeme.equals(name)
+                    || !(((Assign) last).value instanceof Binary))
+                return null;
+            Binary update = (Binary) ((Assign) last).value;
+            Double step = stepOf(update, name);
+            if (step == null || step == 0 || (step > 0) != increasing)
+                return null;
+
+            // Nothing else may touch the counter or what the bound reads, and the bound can't move with the counter
+            Set<String> boundNames = new HashSet<>();
+            if (!collectReads(cond.right, boundNames) || boundNames.contains(name))
+                return null;
+            Set<String> written = new HashSet<>();
+            for (int i = 0; i < body.size() - 1; i++)
+                collectWrites(body.get(i), written);
+            collectWrites(((Assign) last).value, written);
+            for (Stmt s : body) {
+                if (s instanceof Var && ((Var) s).name.lexeme.equals(name))
+                    return null;
+            }
+            if (written.contains(name) || !Collections.disjoint(written, boundNames))
+                return null;
+
+            Value counter = state.get(name);
+            Value bound = analyzer.eval(cond.right, state.copy());
+            if (counter == null || !counter.onlyNumber() || !bound.onlyNumber())
+                return null;
+
+            double abs = Math.abs(step);
+            boolean integral = counter.lo == Math.rint(counter.lo) && counter.hi == Math.rint(counter.hi)
+                    && abs == Math.rint(abs);
+            boolean strict = op == TokenType.LESS || op == TokenType.GREATER;
+            if (increasing) {
+                double end = strict ? (integral && bound.hi == Math.rint(bound.hi) ? bound.hi - 1 : bound.hi) : bound.hi;
+                double trips = counter.lo > end ? 0 : Math.floor((end - counter.lo) / abs) + 1;
+                return new CountedLoop(name, Value.number(counter.lo, Math.max(counter.lo, end)),
+                        Value.number(counter.lo, Math.max(counter.hi, end + abs)), trips);
+            } else {
+                double end = strict ? (integral && bound.lo == Math.rint(bound.lo) ? bound.lo + 1 : bound.lo) : bound.lo;
+                double trips = counter.hi < end ? 0 : Math.floor((counter.hi - end) / abs) + 1;
+                return new CountedLoop(name, Value.number(Math.min(counter.hi, end), counter.hi),
+                        Value.number(Math.min(counter.lo, end - abs), counter.hi), trips);
+            }
+        }
+
+        // i + c, c + i or i - c with a literal c, null otherwise
+        private static Double stepOf(Binary update, String name) {
+            boolean leftIsCounter = update.left instanceof Variable && ((Variable) update.left).name.lexeme.equals(name);
+            boolean rightIsCounter = update.right instanceof Variable
+                    && ((Variable) update.right).name.lexeme.equals(name);
+            if (update.op.type == TokenType.PLUS) {
+                if (leftIsCounter && update.right instanceof Literal && ((Literal) update.right).value instanceof Double)
+                    return (Double) ((Literal) update.right).value;
+                if (rightIsCounter && update.left instanceof Literal && ((Literal) update.left).value instanceof Double)
+                    return (Double) ((Literal) update.left).value;
+            } else if (update.op.type == TokenType.MINUS && leftIsCounter && update.right instanceof Literal
+                    && ((Literal) update.right).value instanceof Double) {
+                return -(Double) ((Literal) update.right).value;
+            }
+            return null;
+        }
+
+        // false if the expression writes anything itself
+        private static boolean collectReads(Expr e, Set<String> names) {
+            if (e instanceof Variable) {
+                names.add(((Variable) e).name.lexeme);
+                return true;
+            }
+            if (e instanceof Assign)
+                return false;
+            if (e instanceof Binary)
+                return collectReads(((Binary) e).left, names) && collectReads(((Binary) e).right, names);
+            if (e instanceof Unary)
+                return collectReads(((Unary) e).right, names);
+            if (e instanceof Grouping)
+                return collectReads(((Grouping) e).expr, names);
+            if (e instanceof Conditional) {
+                Conditional c = (Conditional) e;
+                return collectReads(c.condition, names) && collectReads(c.thenExpr, names)
+                        && collectReads(c.elseExpr, names);
+            }
+            return true;
+        }
+
+        // Every name assigned anywhere in the statement, whichever scope it ends up in
+        private static void collectWrites(Stmt s, Set<String> names) {
+            if (s instanceof ExprStmt) {
+                collectWrites(((ExprStmt) s).expr, names);
+            } else if (s instanceof PrintStmt) {
+                collectWrites(((PrintStmt) s).expr, names);
+            } else if (s instanceof Var) {
+                collectWrites(((Var) s).initializer, names);
+            } else if (s instanceof Block) {
+                for (Stmt inner : ((Block) s).statements)
+                    collectWrites(inner, names);
+            } else if (s instanceof If) {
+                If i = (If) s;
+                collectWrites(i.condition, names);
+                collectWrites(i.thenBranch, names);
+                if (i.elseBranch != null)
+                    collectWrites(i.elseBranch, names);
+            } else if (s instanceof While) {
+                collectWrites(((While) s).condition, names);
+                collectWrites(((While) s).body, names);
+            } else if (s instanceof For) {
+                collectWrites(((For) s).body, names);
+            } else if (s instanceof SetBlock) {
+                SetBlock b = (SetBlock) s;
+                collectWrites(b.x, names);
+                collectWrites(b.y, names);
+                collectWrites(b.z, names);
+                collectWrites(b.block, names);
+            }
+        }
+
+        private static void collectWrites(Expr e, Set<String> names) {
+            if (e instanceof Assign) {
+                names.add(((Assign) e).name.lexeme);
+                collectWrites(((Assign) e).value, names);
+            } else if (e instanceof Binary) {
+                collectWrites(((Binary) e).left, names);
+                collectWrites(((Binary) e).right, names);
+            } else if (e instanceof Unary) {
+                collectWrites(((Unary) e).right, names);
+            } else if (e instanceof Grouping) {
+                collectWrites(((Grouping) e).expr, names);
+            } else if (e instanceof Conditional) {
+                Conditional c = (Conditional) e;
+                collectWrites(c.condition, names);
+                collectWrites(c.thenExpr, names);
+                collectWrites(c.elseExpr, names);
+            }
+        }
+    }
+}
@@ -19,6 +19,10 @@ import adris.altoclef.AltoClefController;
  * As it executes, each setBlock call becomes a SetBlockCommand. Use
  * Runner.next()
  * to pull commands one-by-one until completion.
+ *
+ * Programs are parsed to an AST, then compiled to a small stack bytecode with
+ * variables resolved to slots, which a VM runs under an instruction and block
+ * budget.
  */
 public class StructureFromCode {
     public static final Logger LOGGER = LogManager.getLogger();
@@ -52,41 +56,58 @@ public class StructureFromCode {
         return new Program(stmts);
     }
 
-    /** Program runner that yields setBlock commands lazily, step-by-step. */
+    /** Instructions a program may run before it is stopped as a runaway. */
+    public static final long DEFAULT_MAX_INSTRUCTIONS = 100_000_000L;
+    /** Blocks a program may set before it is stopped. */
+    public static final int DEFAULT_MAX_BLOCKS = 250_000;
+
+    /**
+     * Program runner that yields setBlock commands lazily, step-by-step. Throws once the program goes over its
+     * instruction or block budget.
+     */
     public static final class Runner {
-        private final Interpreter interp;
-        private final Queue<SetBlockCommand> queue = new ArrayDeque<>();
+        private final VM vm;
         private boolean done = false;
 
         public Runner(Program program) {
-            this.interp = new Interpreter(program, queue::add);
+            this(program, DEFAULT_MAX_INSTRUCTIONS, DEFAULT_MAX_BLOCKS);
+        }
+
+        public Runner(Program program, long maxInstructions, int maxBlocks) {
+            this.vm = new VM(program.chunk, maxInstructions, maxBlocks);
         }
 
         /** Execute until the next setBlock is produced or program ends. */
         public Optional<SetBlockCommand> next() {
-            if (done && queue.isEmpty())
+            if (done)
                 return Optional.empty();
-            if (!queue.isEmpty())
-                return Optional.of(queue.poll());
-            while (queue.isEmpty() && !done) {
-                done = !interp.step(); // step returns false when finished
-            }
-            return queue.isEmpty() ? Optional.empty() : Optional.of(queue.poll());
+            SetBlockCommand cmd = vm.next();
+            done = cmd == null;
+            return Optional.ofNullable(cmd);
+        }
+
+        public long getInstructionCount() {
+            return vm.getInstructionCount();
         }
     }
 
-    /** Container for parsed program (AST). */
+    /** Container for parsed program (AST) and its compiled bytecode. */
     public static final class Program {
         final List<Stmt> statements;
+        final Chunk chunk;
 
         Program(List<Stmt> statements) {
             this.statements = statements;
+            this.chunk = new Compiler().compile(statements);
         }
     }
 
     public static void runCode(String code, Consumer<SetBlockCommand> onSetBlock, AltoClefController mod)
             throws Exception {
-        Program program = compile(code);
+        runProgram(compile(code), onSetBlock, mod);
+    }
+
+    public static void runProgram(Program program, Consumer<SetBlockCommand> onSetBlock, AltoClefController mod) {
         Runner runner = new Runner(program);
         Optional<SetBlockCommand> cmd;
         while ((cmd = runner.next()).isPresent()) {
@@ -957,355 +978,591 @@ public class StructureFromCode {
         }
     }
 
-    // ==== Interpreter with step support ====
-
-    static final class Interpreter implements ExprVisitor<Object>, StmtVisitor {
-        private final Program program;
-        private final Emitter emitter;
-        private final Deque<Env> envStack = new ArrayDeque<>();
-        private final Deque<Frame> frames = new ArrayDeque<>();
-        private boolean initialized = false;
+    // ==== Compiler: AST -> bytecode ====
+
+    /**
+     * Opcodes of the MiniBlocks VM. Operands follow their opcode inline in the code array.
+     */
+    static final class Op {
+        static final int CONST_NUM = 0; // index into numbers
+        static final int CONST = 1; // index into constants (nil, booleans, strings)
+        static final int LOAD = 2; // slot
+        static final int STORE = 3; // slot, leaves the value on the stack
+        static final int POP = 4;
+        static final int UNDEFINED = 5; // index of the variable name in constants
+        static final int ADD = 6;
+        static final int SUB = 7;
+        static final int MUL = 8;
+        static final int DIV = 9;
+        static final int MOD = 10;
+        static final int GREATER = 11;
+        static final int GREATER_EQUAL = 12;
+        static final int LESS = 13;
+        static final int LESS_EQUAL = 14;
+        static final int EQUAL = 15;
+        static final int NOT_EQUAL = 16;
+        static final int NEGATE = 17;
+        static final int NOT = 18;
+        static final int TO_BOOLEAN = 19;
+        static final int JUMP = 20; // target
+        static final int JUMP_IF_FALSE = 21; // target, pops the condition
+        static final int SET_BLOCK = 22;
+        static final int PRINT = 23;
+        static final int HALT = 24;
+    }
 
-        interface Emitter {
-            void emit(SetBlockCommand cmd);
-        }
+    /** A compiled program: a flat instruction stream, its constants and how many variable slots it needs. */
+    static final class Chunk {
+        final int[] code;
+        final double[] numbers;
+        final Object[] constants;
+        final int slotCount;
 
-        Interpreter(Program program, Emitter emitter) {
-            this.program = program;
-            this.emitter = emitter;
-            envStack.push(new Env(null));
+        Chunk(int[] code, double[] numbers, Object[] constants, int slotCount) {
+            this.code = code;
+            this.numbers = numbers;
+            this.constants = constants;
+            this.slotCount = slotCount;
         }
+    }
 
-        /**
-         * Executes until either a setBlock is emitted, or the whole program finishes.
-         * 
-         * @return true if there is more to run; false if finished.
-         */
-        boolean step() {
-            if (!initialized) {
-                frames.push(new Frame(program.statements));
-                initialized = true;
-            }
-            while (!frames.isEmpty()) {
-                Frame f = frames.peek();
-
-                // Handle WhileFrame specially
-                if (f instanceof WhileFrame) {
-                    WhileFrame wf = (WhileFrame) f;
-                    if (isTruthy(evaluate(wf.condition))) {
-                        // Run one iteration body, then come back to this WhileFrame
-                        frames.push(new Frame(singleton(wf.body)));
-                        continue;
-                    } else {
-                        frames.pop(); // loop finished
-                        continue;
-                    }
-                }
-
-                if (f.ip >= f.stmts.size()) {
-                    frames.pop();
-                    if (f.onClose != null)
-                        f.onClose.run();
-                    continue;
-                }
-
-                Stmt s = f.stmts.get(f.ip++);
-                int emittedBefore = emittedCount;
+    /**
+     * Compiles the AST to stack bytecode. Variables are resolved to slots at compile time: blocks are lexical, so the
+     * variable a name refers to at some point of the program is always the same one the tree-walking interpreter
+     * would have found at runtime. Names that don't resolve still only fail when (and if) they are reached.
+     */
+    static final class Compiler implements ExprVisitor<Void>, StmtVisitor {
+        private int[] code = new int[256];
+        private int size = 0;
+        private final List<Double> numbers = new ArrayList<>();
+        private final Map<Double, Integer> numberIndex = new HashMap<>();
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndex = new HashMap<>();
+        private final Deque<Map<String, Integer>> scopes = new ArrayDeque<>();
+        private int nextSlot = 0;
+        private int slotCount = 0;
+
+        Chunk compile(List<Stmt> statements) {
+            scopes.push(new HashMap<>());
+            for (Stmt s : statements)
                 s.accept(this);
-                if (emittedCount > emittedBefore)
-                    return true; // yielded one setBlock
-            }
-            return false; // finished
-        }
-
-        // Track emissions to know when to yield
-        private int emittedCount = 0;
-
-        private void emit(SetBlockCommand cmd) {
-            emittedCount++;
-            emitter.emit(cmd);
+            emit(Op.HALT);
+            return new Chunk(Arrays.copyOf(code, size), numbers.stream().mapToDouble(Double::doubleValue).toArray(),
+                    constants.toArray(), slotCount);
         }
 
         // ---- Statements ----
 
         public void visitExprStmt(ExprStmt s) {
-            evaluate(s.expr);
+            compile(s.expr);
+            emit(Op.POP);
         }
 
         public void visitPrintStmt(PrintStmt s) {
-            System.out.println(stringify(evaluate(s.expr)));
+            compile(s.expr);
+            emit(Op.PRINT);
         }
 
         public void visitVarStmt(Var s) {
-            Object val = evaluate(s.initializer);
-            env().define(s.name.lexeme, val);
+            // The initializer still sees an outer variable of the same name
+            compile(s.initializer);
+            Map<String, Integer> scope = scopes.peek();
+            Integer slot = scope.get(s.name.lexeme);
+            if (slot == null) {
+                slot = nextSlot++;
+                slotCount = Math.max(slotCount, nextSlot);
+                scope.put(s.name.lexeme, slot);
+            }
+            emit(Op.STORE, slot);
+            emit(Op.POP);
         }
 
         public void visitBlockStmt(Block s) {
-            pushEnv();
-            frames.push(new Frame(s.statements, () -> popEnv()));
+            int slotsBefore = nextSlot;
+            scopes.push(new HashMap<>());
+            for (Stmt stmt : s.statements)
+                stmt.accept(this);
+            scopes.pop();
+            nextSlot = slotsBefore;
         }
 
         public void visitIfStmt(If s) {
-            if (isTruthy(evaluate(s.condition))) {
-                frames.push(new Frame(singleton(s.thenBranch)));
-            } else if (s.elseBranch != null) {
-                frames.push(new Frame(singleton(s.elseBranch)));
+            compile(s.condition);
+            int toElse = emitJump(Op.JUMP_IF_FALSE);
+            s.thenBranch.accept(this);
+            if (s.elseBranch != null) {
+                int toEnd = emitJump(Op.JUMP);
+                patch(toElse);
+                s.elseBranch.accept(this);
+                patch(toEnd);
+            } else {
+                patch(toElse);
             }
         }
 
         public void visitWhileStmt(While s) {
-            frames.push(new WhileFrame(s.condition, s.body));
+            int start = size;
+            compile(s.condition);
+            int toEnd = emitJump(Op.JUMP_IF_FALSE);
+            s.body.accept(this);
+            emit(Op.JUMP, start);
+            patch(toEnd);
         }
 
         public void visitForStmt(For s) {
             // Parser desugars 'for' into a block+while, so this isn't used.
-            frames.push(new Frame(singleton(s.body)));
+            s.body.accept(this);
         }
 
         public void visitSetBlockStmt(SetBlock s) {
-            int x = toInt(evaluate(s.x));
-            int y = toInt(evaluate(s.y));
-            int z = toInt(evaluate(s.z));
-            String block = String.valueOf(evaluate(s.block));
-            emit(new SetBlockCommand(x, y, z, block));
+            compile(s.x);
+            compile(s.y);
+            compile(s.z);
+            compile(s.block);
+            emit(Op.SET_BLOCK);
         }
 
         // ---- Expressions ----
-        public Object visitBinary(Binary e) {
-            // Short-circuit for logical ops:
+
+        public Void visitBinary(Binary e) {
             if (e.op.type == TokenType.OR_OR) {
-                Object l = evaluate(e.left);
-                if (isTruthy(l))
-                    return true; // short-circuit
-                return isTruthy(evaluate(e.right));
+                compile(e.left);
+                int toRight = emitJump(Op.JUMP_IF_FALSE);
+                emit(Op.CONST, constant(Boolean.TRUE));
+                int toEnd = emitJump(Op.JUMP);
+                patch(toRight);
+                compile(e.right);
+                emit(Op.TO_BOOLEAN);
+                patch(toEnd);
+                return null;
             }
             if (e.op.type == TokenType.AND_AND) {
-                Object l = evaluate(e.left);
-                if (!isTruthy(l))
-                    return false; // short-circuit
-                return isTruthy(evaluate(e.right));
+                compile(e.left);
+                int toFalse = emitJump(Op.JUMP_IF_FALSE);
+                compile(e.right);
+                emit(Op.TO_BOOLEAN);
+                int toEnd = emitJump(Op.JUMP);
+                patch(toFalse);
+                emit(Op.CONST, constant(Boolean.FALSE));
+                patch(toEnd);
+                return null;
             }
 
-            Object l = evaluate(e.left);
-            Object r = evaluate(e.right);
+            compile(e.left);
+            compile(e.right);
             switch (e.op.type) {
                 case PLUS:
-                    if (l instanceof Double && r instanceof Double)
-                        return (Double) l + (Double) r;
-                    return stringify(l) + stringify(r);
+                    emit(Op.ADD);
+                    break;
                 case MINUS:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l - (Double) r;
+                    emit(Op.SUB);
+                    break;
                 case STAR:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l * (Double) r;
+                    emit(Op.MUL);
+                    break;
                 case SLASH:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l / (Double) r;
+                    emit(Op.DIV);
+                    break;
                 case PERCENT:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (double) l % (double) r;
+                    emit(Op.MOD);
+                    break;
                 case GREATER:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l > (Double) r;
+                    emit(Op.GREATER);
+                    break;
                 case GREATER_EQUAL:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l >= (Double) r;
+                    emit(Op.GREATER_EQUAL);
+                    break;
                 case LESS:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l < (Double) r;
+                    emit(Op.LESS);
+                    break;
                 case LESS_EQUAL:
-                    checkNumber(l, e.op);
-                    checkNumber(r, e.op);
-                    return (Double) l <= (Double) r;
+                    emit(Op.LESS_EQUAL);
+                    break;
                 case EQUAL_EQUAL:
-                    return isEqual(l, r);
+                    emit(Op.EQUAL);
+                    break;
                 case BANG_EQUAL:
-                    return !isEqual(l, r);
+                    emit(Op.NOT_EQUAL);
+                    break;
                 default:
                     throw new RuntimeException("Unknown binary op: " + e.op.type);
             }
+            return null;
         }
 
-        public Object visitConditional(Conditional e) {
-            Object cond = evaluate(e.condition);
-            if (isTruthy(cond))
-                return evaluate(e.thenExpr);
-            return evaluate(e.elseExpr);
+        public Void visitConditional(Conditional e) {
+            compile(e.condition);
+            int toElse = emitJump(Op.JUMP_IF_FALSE);
+            compile(e.thenExpr);
+            int toEnd = emitJump(Op.JUMP);
+            patch(toElse);
+            compile(e.elseExpr);
+            patch(toEnd);
+            return null;
         }
 
-        public Object visitUnary(Unary e) {
-            Object v = evaluate(e.right);
+        public Void visitUnary(Unary e) {
+            compile(e.right);
             switch (e.op.type) {
                 case MINUS:
-                    checkNumber(v, e.op);
-                    return -((Double) v);
+                    emit(Op.NEGATE);
+                    break;
                 case BANG:
-                    return !isTruthy(v);
+                    emit(Op.NOT);
+                    break;
                 default:
                     throw new RuntimeException("Unknown unary op: " + e.op.type);
             }
+            return null;
         }
 
-        public Object visitLiteral(Literal e) {
-            return e.value;
+        public Void visitLiteral(Literal e) {
+            if (e.value instanceof Double) {
+                Double value = (Double) e.value;
+                Integer index = numberIndex.get(value);
+                if (index == null) {
+                    index = numbers.size();
+                    numbers.add(value);
+                    numberIndex.put(value, index);
+                }
+                emit(Op.CONST_NUM, index);
+            } else {
+                emit(Op.CONST, constant(e.value));
+            }
+            return null;
         }
 
-        public Object visitGrouping(Grouping e) {
-            return evaluate(e.expr);
+        public Void visitGrouping(Grouping e) {
+            compile(e.expr);
+            return null;
         }
 
-        public Object visitVariable(Variable e) {
-            return env().get(e.name);
+        public Void visitVariable(Variable e) {
+            int slot = resolve(e.name.lexeme);
+            if (slot == -1)
+                emit(Op.UNDEFINED, constant(e.name.lexeme));
+            else
+                emit(Op.LOAD, slot);
+            return null;
         }
 
-        public Object visitAssign(Assign e) {
-            Object val = evaluate(e.value);
-            env().assign(e.name, val);
-            return val;
+        public Void visitAssign(Assign e) {
+            compile(e.value);
+            int slot = resolve(e.name.lexeme);
+            if (slot == -1)
+                emit(Op.UNDEFINED, constant(e.name.lexeme));
+            else
+                emit(Op.STORE, slot);
+            return null;
         }
 
-        private Object evaluate(Expr e) {
-            return e.accept(this);
-        }
+        // ---- Helpers ----
 
-        // ---- Utilities ----
+        private void compile(Expr e) {
+            e.accept(this);
+        }
 
-        private Env env() {
-            return envStack.peek();
+        private int resolve(String name) {
+            for (Map<String, Integer> scope : scopes) {
+                Integer slot = scope.get(name);
+                if (slot != null)
+                    return slot;
+            }
+            return -1;
         }
 
-        private void pushEnv() {
-            envStack.push(new Env(env()));
+        private int constant(Object value) {
+            // Keyed by class too so "true" and true stay apart
+            Object key = value == null ? Collections.emptyList() : Arrays.asList(value.getClass(), value);
+            Integer index = constantIndex.get(key);
+            if (index == null) {
+                index = constants.size();
+                constants.add(value);
+                constantIndex.put(key, index);
+            }
+            return index;
         }
 
-        private void popEnv() {
-            envStack.pop();
+        private void emit(int op) {
+            if (size == code.length)
+                code = Arrays.copyOf(code, size * 2);
+            code[size++] = op;
         }
 
-        private static boolean isTruthy(Object v) {
-            if (v == null)
-                return false;
-            if (v instanceof Boolean)
-                return (Boolean) v;
-            if (v instanceof Double)
-                return ((Double) v) != 0.0;
-            String s = String.valueOf(v);
-            return !s.isEmpty();
+        private void emit(int op, int operand) {
+            emit(op);
+            emit(operand);
         }
 
-        private static boolean isEqual(Object a, Object b) {
-            if (a == null && b == null)
-                return true;
-            if (a == null)
-                return false;
-            if (a instanceof Double && b instanceof Double)
-                return ((Double) a).doubleValue() == ((Double) b).doubleValue();
-            return String.valueOf(a).equals(String.valueOf(b));
+        /** @return Where the jump target goes, to {@link #patch} once known. */
+        private int emitJump(int op) {
+            emit(op, -1);
+            return size - 1;
         }
 
-        private static void checkNumber(Object v, Token at) {
-            if (!(v instanceof Double))
-                throw new RuntimeException("Operand must be a number at token '" + at.lexeme + "'");
+        private void patch(int operand) {
+            code[operand] = size;
         }
+    }
 
-        private static String stringify(Object v) {
-            if (v == null)
-                return "nil";
-            if (v instanceof Double) {
-                double d = (Double) v;
-                if (d == Math.rint(d))
-                    return String.valueOf((long) d);
-                return String.valueOf(d);
-            }
-            return String.valueOf(v);
+    // ==== VM ====
+
+    /**
+     * Runs a {@link Chunk}. Numbers live unboxed in a parallel {@code double} stack (and slot array), other values
+     * (nil, booleans, strings) in an object stack holding {@link #NUMBER} where the value is a number.
+     * <p>
+     * Every instruction and every emitted block counts against the budgets given at construction; going over either
+     * stops the program with an error, so a runaway loop can't hang the build thread.
+     */
+    static final class VM {
+        private static final Object NUMBER = new Object();
+        private final int[] code;
+        private final double[] numbers;
+        private final Object[] constants;
+        private final double[] slotNums;
+        private final Object[] slotRefs;
+        private double[] nums = new double[32];
+        private Object[] refs = new Object[32];
+        private int sp = 0;
+        private int ip = 0;
+        private final long maxInstructions;
+        private final int maxBlocks;
+        private long instructions = 0;
+        private int blocks = 0;
+
+        VM(Chunk chunk, long maxInstructions, int maxBlocks) {
+            this.code = chunk.code;
+            this.numbers = chunk.numbers;
+            this.constants = chunk.constants;
+            this.slotNums = new double[chunk.slotCount];
+            this.slotRefs = new Object[chunk.slotCount];
+            this.maxInstructions = maxInstructions;
+            this.maxBlocks = maxBlocks;
         }
 
-        private static int toInt(Object v) {
-            if (v instanceof Double)
-                return (int) Math.round((Double) v);
-            try {
-                return Integer.parseInt(String.valueOf(v));
-            } catch (Exception e) {
-                throw new RuntimeException("Expected integer-like value, got: " + v);
+        /**
+         * Executes until the next setBlock or the end of the program.
+         *
+         * @return The emitted command, null once the program finished.
+         */
+        SetBlockCommand next() {
+            final int[] code = this.code;
+            while (true) {
+                if (++instructions > maxInstructions)
+                    throw new RuntimeException("Program ran more than " + maxInstructions
+                            + " instructions without finishing, is there an endless loop?");
+                int op = code[ip++];
+                switch (op) {
+                    case Op.CONST_NUM:
+                        pushNum(numbers[code[ip++]]);
+                        break;
+                    case Op.CONST:
+                        pushRef(constants[code[ip++]]);
+                        break;
+                    case Op.LOAD: {
+                        int slot = code[ip++];
+                        ensureCapacity();
+                        nums[sp] = slotNums[slot];
+                        refs[sp++] = slotRefs[slot];
+                        break;
+                    }
+                    case Op.STORE: {
+                        int slot = code[ip++];
+                        slotNums[slot] = nums[sp - 1];
+                        slotRefs[slot] = refs[sp - 1];
+                        break;
+                    }
+                    case Op.POP:
+                        refs[--sp] = null;
+                        break;
+                    case Op.UNDEFINED:
+                        throw new RuntimeException("Undefined variable '" + constants[code[ip++]] + "'.");
+                    case Op.ADD:
+                        if (refs[sp - 1] == NUMBER && refs[sp - 2] == NUMBER) {
+                            nums[sp - 2] += nums[sp - 1];
+                            sp--;
+                        } else {
+                            String r = stringify(sp - 1);
+                            String l = stringify(sp - 2);
+                            sp -= 2;
+                            pushRef(l + r);
+                        }
+                        break;
+                    case Op.SUB:
+                        checkNumbers("-");
+                        nums[sp - 2] -= nums[sp - 1];
+                        sp--;
+                        break;
+                    case Op.MUL:
+                        checkNumbers("*");
+                        nums[sp - 2] *= nums[sp - 1];
+                        sp--;
+                        break;
+                    case Op.DIV:
+                        checkNumbers("/");
+                        nums[sp - 2] /= nums[sp - 1];
+                        sp--;
+                        break;
+                    case Op.MOD:
+                        checkNumbers("%");
+                        nums[sp - 2] %= nums[sp - 1];
+                        sp--;
+                        break;
+                    case Op.GREATER:
+                        checkNumbers(">");
+                        compared(nums[sp - 2] > nums[sp - 1]);
+                        break;
+                    case Op.GREATER_EQUAL:
+                        checkNumbers(">=");
+                        compared(nums[sp - 2] >= nums[sp - 1]);
+                        break;
+                    case Op.LESS:
+                        checkNumbers("<");
+                        compared(nums[sp - 2] < nums[sp - 1]);
+                        break;
+                    case Op.LESS_EQUAL:
+                        checkNumbers("<=");
+                        compared(nums[sp - 2] <= nums[sp - 1]);
+                        break;
+                    case Op.EQUAL:
+                        compared(isEqual(sp - 2, sp - 1));
+                        break;
+                    case Op.NOT_EQUAL:
+                        compared(!isEqual(sp - 2, sp - 1));
+                        break;
+                    case Op.NEGATE:
+                        if (refs[sp - 1] != NUMBER)
+                            throw new RuntimeException("Operand must be a number at token '-'");
+                        nums[sp - 1] = -nums[sp - 1];
+                        break;
+                    case Op.NOT:
+                        refs[sp - 1] = !isTruthy(sp - 1);
+                        break;
+                    case Op.TO_BOOLEAN:
+                        refs[sp - 1] = isTruthy(sp - 1);
+                        break;
+                    case Op.JUMP:
+                        ip = code[ip];
+                        break;
+                    case Op.JUMP_IF_FALSE: {
+                        boolean truthy = isTruthy(sp - 1);
+                        refs[--sp] = null;
+                        ip = truthy ? ip + 1 : code[ip];
+                        break;
+                    }
+                    case Op.SET_BLOCK: {
+                        String block = valueOf(sp - 1);
+                        int x = toInt(sp - 4);
+                        int y = toInt(sp - 3);
+                        int z = toInt(sp - 2);
+                        sp -= 4;
+                        Arrays.fill(refs, sp, sp + 4, null);
+                        if (++blocks > maxBlocks)
+                            throw new RuntimeException("Program placed more than " + maxBlocks
+                                    + " blocks, build something smaller.");
+                        return new SetBlockCommand(x, y, z, block);
+                    }
+                    case Op.PRINT:
+                        System.out.println(stringify(sp - 1));
+                        refs[--sp] = null;
+                        break;
+                    case Op.HALT:
+                        ip--; // stay on HALT
+                        return null;
+                    default:
+                        throw new IllegalStateException("Bad opcode " + op + " at " + (ip - 1));
+                }
             }
         }
 
-        // ---- Frames for stepping ----
+        long getInstructionCount() {
+            return instructions;
+        }
 
-        static class Frame {
-            final List<Stmt> stmts;
-            int ip = 0;
-            final Runnable onClose; // optional cleanup (e.g., pop env)
+        int getBlockCount() {
+            return blocks;
+        }
 
-            Frame(List<Stmt> stmts) {
-                this(stmts, null);
-            }
+        // ---- Stack ----
 
-            Frame(List<Stmt> stmts, Runnable onClose) {
-                this.stmts = stmts;
-                this.onClose = onClose;
+        private void ensureCapacity() {
+            if (sp == nums.length) {
+                nums = Arrays.copyOf(nums, sp * 2);
+                refs = Arrays.copyOf(refs, sp * 2);
             }
         }
 
-        static final class WhileFrame extends Frame {
-            final Expr condition;
-            final Stmt body;
+        private void pushNum(double value) {
+            ensureCapacity();
+            nums[sp] = value;
+            refs[sp++] = NUMBER;
+        }
 
-            WhileFrame(Expr condition, Stmt body) {
-                super(Collections.emptyList());
-                this.condition = condition;
-                this.body = body;
-            }
+        private void pushRef(Object value) {
+            ensureCapacity();
+            refs[sp++] = value;
         }
 
-        private static List<Stmt> singleton(Stmt s) {
-            return Collections.singletonList(s);
+        // Replaces the two operands with the result of comparing them
+        private void compared(boolean result) {
+            refs[--sp] = null;
+            refs[sp - 1] = result;
         }
-    }
 
-    // ==== Environment / Variables ====
+        // ---- Value semantics, same as the original tree-walking interpreter ----
 
-    static final class Env {
-        private final Env enclosing;
-        private final Map<String, Object> values = new HashMap<>();
+        private void checkNumbers(String lexeme) {
+            if (refs[sp - 2] != NUMBER || refs[sp - 1] != NUMBER)
+                throw new RuntimeException("Operand must be a number at token '" + lexeme + "'");
+        }
 
-        Env(Env enclosing) {
-            this.enclosing = enclosing;
+        private boolean isTruthy(int i) {
+            Object v = refs[i];
+            if (v == NUMBER)
+                return nums[i] != 0.0;
+            if (v == null)
+                return false;
+            if (v instanceof Boolean)
+                return (Boolean) v;
+            return !String.valueOf(v).isEmpty();
         }
 
-        void define(String name, Object value) {
-            values.put(name, value);
+        private boolean isEqual(int a, int b) {
+            if (refs[a] == null && refs[b] == null)
+                return true;
+            if (refs[a] == null)
+                return false;
+            if (refs[a] == NUMBER && refs[b] == NUMBER)
+                return nums[a] == nums[b];
+            return valueOf(a).equals(valueOf(b));
         }
 
-        Object get(Token nameTok) {
-            String name = nameTok.lexeme;
-            if (values.containsKey(name))
-                return values.get(name);
-            if (enclosing != null)
-                return enclosing.get(nameTok);
-            throw new RuntimeException("Undefined variable '" + name + "'.");
+        // String.valueOf of the boxed value
+        private String valueOf(int i) {
+            return refs[i] == NUMBER ? Double.toString(nums[i]) : String.valueOf(refs[i]);
         }
 
-        void assign(Token nameTok, Object value) {
-            String name = nameTok.lexeme;
-            if (values.containsKey(name)) {
-                values.put(name, value);
-                return;
+        private String stringify(int i) {
+            Object v = refs[i];
+            if (v == NUMBER) {
+                double d = nums[i];
+                if (d == Math.rint(d))
+                    return String.valueOf((long) d);
+                return String.valueOf(d);
             }
-            if (enclosing != null) {
-                enclosing.assign(nameTok, value);
-                return;
+            if (v == null)
+                return "nil";
+            return String.valueOf(v);
+        }
+
+        private int toInt(int i) {
+            if (refs[i] == NUMBER)
+                return (int) Math.round(nums[i]);
+            try {
+                return Integer.parseInt(String.valueOf(refs[i]));
+            } catch (Exception e) {
+                throw new RuntimeException("Expected integer-like value, got: " + refs[i]);
             }
-            throw new RuntimeException("Undefined variable '" + name + "'.");
         }
     }
 
@@ -3,12 +3,11 @@ package adris.altoclef.tasks.movement;
 import adris.altoclef.AltoClefController;
 import adris.altoclef.Debug;
 import adris.altoclef.tasksystem.Task;
+import adris.altoclef.trackers.ChunkLifecycleHub;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents.Load;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.phys.Vec3;
@@ -22,6 +21,7 @@ abstract class ChunkSearchTask extends Task {
    private final ArrayList<ChunkPos> justLoaded = new ArrayList<>();
    private boolean first = true;
    private boolean finished = false;
+   private ChunkLifecycleHub.Subscription<ChunkSearchTask> chunkLoads;
 
    public ChunkSearchTask(BlockPos startPoint) {
       this.startPoint = startPoint;
@@ -50,15 +50,13 @@ abstract class ChunkSearchTask extends Task {
          }
       }
 
-      ServerChunkEvents.CHUNK_LOAD.register((Load)(evt, chunk) -> {
-         if (chunk != null) {
-            synchronized (this.searchMutex) {
-               if (!this.searchedAlready.contains(chunk.getPos())) {
-                  this.justLoaded.add(chunk.getPos());
-               }
+      if (this.chunkLoads == null) {
+         this.chunkLoads = ChunkLifecycleHub.subscribe(this, task -> task.controller.getWorld(), null, 0, (task, pos, loaded) -> {
+            if (loaded) {
+               task.onChunkLoad(pos);
             }
-         }
-      });
+         });
+      }
    }
 
    @Override
@@ -109,6 +107,18 @@ abstract class ChunkSearchTask extends Task {
 
    @Override
    protected void onStop(Task interruptTask) {
+      if (this.chunkLoads != null) {
+         this.chunkLoads.unsubscribe();
+         this.chunkLoads = null;
+      }
+   }
+
+   private void onChunkLoad(ChunkPos pos) {
+      synchronized (this.searchMutex) {
+         if (!this.searchedAlready.contains(pos)) {
+            this.justLoaded.add(pos);
+         }
+      }
    }
 
    @Override
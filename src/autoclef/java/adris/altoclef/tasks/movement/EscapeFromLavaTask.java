@@ -186,9 +186,7 @@ public class EscapeFromLavaTask extends CustomBaritoneGoalTask {
       mod.getInputControls().release(Input.JUMP);
       mod.getInputControls().release(Input.SPRINT);
       mod.getInputControls().release(Input.CLICK_RIGHT);
-      synchronized (mod.getExtraBaritoneSettings().getPlaceMutex()) {
-         mod.getExtraBaritoneSettings().getPlaceAvoiders().remove(this.avoidPlacingRiskyBlock);
-      }
+      mod.getExtraBaritoneSettings().stopAvoidingBlockPlace(this.avoidPlacingRiskyBlock);
    }
 
    @Override
@@ -0,0 +1,15 @@
+package adris.altoclef.tasksystem;
+
+/**
+ * Per-tick agent state a {@link TaskChain}'s priority can depend on. See {@link ChainSchedule}.
+ */
+public enum ChainInput {
+   INVENTORY,
+   HEALTH,
+   HUNGER,
+   FALL_STATE,
+   // Fluids, fire, air supply and portals around the agent
+   ENVIRONMENT,
+   // Hostiles, projectiles and anything targeting the agent within range
+   NEARBY_THREATS
+}
@@ -0,0 +1,90 @@
+package adris.altoclef.tasksystem;
+
+import adris.altoclef.AltoClefController;
+import adris.altoclef.util.helpers.StorageHelper;
+import adris.altoclef.util.helpers.WorldHelper;
+import baritone.api.entity.LivingEntityHungerManager;
+import java.util.Set;
+import net.minecraft.world.effect.MobEffects;
+import net.minecraft.world.entity.LivingEntity;
+
+/**
+ * Computes a cheap signature of each {@link ChainInput} once per tick, only for the inputs somebody asks about.
+ * Two equal signatures mean the input is (very likely) unchanged.
+ */
+class ChainInputTracker {
+   private static final ChainInput[] INPUTS = ChainInput.values();
+
+   private final AltoClefController mod;
+   private final long[] signatures = new long[INPUTS.length];
+   private final long[] computedOnTick = new long[INPUTS.length];
+   private long tick;
+
+   ChainInputTracker(AltoClefController mod) {
+      this.mod = mod;
+      this.tick = 1;
+   }
+
+   void nextTick() {
+      this.tick++;
+   }
+
+   long getSignature(ChainInput input) {
+      int index = input.ordinal();
+      if (this.computedOnTick[index] != this.tick) {
+         this.signatures[index] = this.computeSignature(input);
+         this.computedOnTick[index] = this.tick;
+      }
+
+      return this.signatures[index];
+   }
+
+   void storeSignatures(Set<ChainInput> inputs, long[] out) {
+      for (ChainInput input : inputs) {
+         out[input.ordinal()] = this.getSignature(input);
+      }
+   }
+
+   boolean anyChanged(Set<ChainInput> inputs, long[] previous) {
+      for (ChainInput input : inputs) {
+         if (this.getSignature(input) != previous[input.ordinal()]) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   static int inputCount() {
+      return INPUTS.length;
+   }
+
+   private long computeSignature(ChainInput input) {
+      LivingEntity player = this.mod.getPlayer();
+      switch (input) {
+         case INVENTORY:
+            return StorageHelper.getInventoryFingerprint(this.mod);
+         case HEALTH:
+            return ((long)Float.floatToIntBits(player.getHealth()) << 32) | (Float.floatToIntBits(player.getAbsorptionAmount()) & 0xFFFFFFFFL);
+         case HUNGER:
+            LivingEntityHungerManager hunger = this.mod.getBaritone().getEntityContext().hungerManager();
+            return ((long)hunger.getFoodLevel() << 32) | (Float.floatToIntBits(hunger.getSaturationLevel()) & 0xFFFFFFFFL);
+         case FALL_STATE:
+            // Sign and rough magnitude of vertical speed is enough, MLG only cares about "falling fast"
+            long falling = player.onGround() || player.isInWater() || player.onClimbable() ? 0 : Math.round(player.getDeltaMovement().y * 4.0) - 1;
+            return falling * 2 + (player.hasEffect(MobEffects.LEVITATION) ? 1 : 0);
+         case ENVIRONMENT:
+            long flags = (player.isInWater() ? 1 : 0)
+               | (player.isInLava() ? 2 : 0)
+               | (player.isOnFire() ? 4 : 0)
+               | (player.isUnderWater() ? 8 : 0)
+               | (WorldHelper.isInNetherPortal(this.mod) ? 16 : 0);
+            return flags << 32 | (player.getAirSupply() & 0xFFFFFFFFL);
+         case NEARBY_THREATS:
+            // Folded in while the entity tracker walks the entities anyway
+            return this.mod.getEntityTracker().getThreatSignature();
+         default:
+            return 0;
+      }
+   }
+}
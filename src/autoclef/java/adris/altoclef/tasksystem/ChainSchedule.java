@@ -0,0 +1,36 @@
+package adris.altoclef.tasksystem;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Tells the {@link TaskRunner} when an idle chain's priority has to be re-evaluated.
+ * <p>
+ * An idle chain is only polled again when one of its {@link ChainInput}s changed, or when it hasn't been polled for
+ * {@code maxIntervalTicks}. Chains that are running, contending (priority above zero) or
+ * {@link TaskChain#needsPollEveryTick() busy} are always polled, so this never changes which chain wins.
+ */
+public class ChainSchedule {
+   private final Set<ChainInput> dependsOn;
+   private final int maxIntervalTicks;
+
+   private ChainSchedule(Set<ChainInput> dependsOn, int maxIntervalTicks) {
+      this.dependsOn = dependsOn;
+      this.maxIntervalTicks = maxIntervalTicks;
+   }
+
+   public static ChainSchedule of(int maxIntervalTicks, ChainInput... dependsOn) {
+      Set<ChainInput> inputs = EnumSet.noneOf(ChainInput.class);
+      inputs.addAll(Arrays.asList(dependsOn));
+      return new ChainSchedule(inputs, maxIntervalTicks);
+   }
+
+   public Set<ChainInput> getDependencies() {
+      return this.dependsOn;
+   }
+
+   public int getMaxIntervalTicks() {
+      return this.maxIntervalTicks;
+   }
+}
@@ -1,5 +1,6 @@
 package adris.altoclef.tasksystem;
 
+import adris.altoclef.AgentEventLog.EventType;
 import adris.altoclef.AltoClefController;
 import adris.altoclef.Debug;
 import adris.altoclef.tasks.movement.TimeoutWanderTask;
@@ -18,7 +19,7 @@ public abstract class Task {
       this.controller = parentChain.controller;
       parentChain.addTaskToChain(this);
       if (this.first) {
-         Debug.logInternal("Task START: " + this);
+         this.controller.getEventLog().record(EventType.TASK_START, this, null);
          this.active = true;
          this.onStart();
          this.first = false;
@@ -28,17 +29,17 @@ public abstract class Task {
       if (!this.stopped) {
          Task newSub = this.onTick();
          if (!this.oldDebugState.equals(this.debugState)) {
-            Debug.logInternal(this.toString());
+            this.controller.getEventLog().record(EventType.DEBUG_STATE, this, this.debugState);
             this.oldDebugState = this.debugState;
          }
 
          if (newSub != null) {
             if (!newSub.isEqual(this.sub) && this.canBeInterrupted(this.sub, newSub)) {
                if (this.sub != null) {
-                  Debug.logInternal("Subtask Change [" + this.getClass().getSimpleName() + "]: " + this.sub + " → " + newSub);
+                  this.controller.getEventLog().record(EventType.SUBTASK_CHANGE, this, this.sub, newSub);
                   this.sub.stop(newSub);
                } else {
-                  Debug.logInternal("Subtask Start [" + this.getClass().getSimpleName() + "]: " + newSub);
+                  this.controller.getEventLog().record(EventType.SUBTASK_START, this, newSub);
                }
 
                this.sub = newSub;
@@ -46,7 +47,7 @@ public abstract class Task {
 
             this.sub.tick(parentChain);
          } else if (this.sub != null && this.canBeInterrupted(this.sub, null)) {
-            Debug.logInternal("Subtask End [" + this.getClass().getSimpleName() + "]: " + this.sub + " (no replacement)");
+            this.controller.getEventLog().record(EventType.SUBTASK_END, this, this.sub);
             this.sub.stop();
             this.sub = null;
          }
@@ -65,7 +66,10 @@ public abstract class Task {
 
    public void stop(Task interruptTask) {
       if (this.active) {
-         Debug.logInternal("Task STOP: " + this + ", interrupted by " + interruptTask);
+         if (this.controller != null) {
+            this.controller.getEventLog().record(EventType.TASK_STOP, this, interruptTask);
+         }
+
          if (!this.first) {
             this.onStop(interruptTask);
          }
@@ -82,7 +86,11 @@ public abstract class Task {
 
    public void fail(String reason) {
       this.stop();
-      Debug.logMessage("Task FAILED: " + reason);
+      if (this.controller != null) {
+         this.controller.getEventLog().record(EventType.TASK_FAILED, this, reason);
+      } else {
+         Debug.logMessage("Task FAILED: " + reason);
+      }
    }
 
    public void interrupt(Task interruptTask) {
@@ -7,6 +7,10 @@ import java.util.List;
 public abstract class TaskChain {
    protected AltoClefController controller;
    private final List<Task> cachedTaskChain = new ArrayList<>();
+   // Scheduling state, owned by TaskRunner
+   float cachedPriority = Float.NEGATIVE_INFINITY;
+   int ticksSincePoll;
+   long[] polledSignatures;
 
    public TaskChain(TaskRunner runner) {
       runner.addTaskChain(this);
@@ -31,6 +35,36 @@ public abstract class TaskChain {
 
    public abstract float getPriority();
 
+   /**
+    * Called on every tick this chain is considered, whether or not its {@link ChainSchedule} lets {@link #getPriority()}
+    * be polled. For bookkeeping that has to see every tick.
+    */
+   public void onRunnerTick() {
+   }
+
+   /**
+    * How often this chain's priority must be re-evaluated while it's idle, or null to evaluate it every tick.
+    */
+   public ChainSchedule getSchedule() {
+      return null;
+   }
+
+   /**
+    * Whether this chain is doing something from inside {@link #getPriority()} right now (eating, shielding...)
+    * and so has to be polled every tick regardless of its {@link ChainSchedule}.
+    */
+   public boolean needsPollEveryTick() {
+      return false;
+   }
+
+   /**
+    * Whether this chain keeps the agent alive (fighting, falling, drowning...) and so runs every tick, even on ticks
+    * the {@link adris.altoclef.AgentTickScheduler} skips or defers the other chains.
+    */
+   public boolean isSurvivalChain() {
+      return false;
+   }
+
    public abstract boolean isActive();
 
    public abstract String getName();
@@ -1,5 +1,6 @@
 package adris.altoclef.tasksystem;
 
+import adris.altoclef.AgentEventLog.EventType;
 import adris.altoclef.AltoClefController;
 import adris.altoclef.Debug;
 import java.util.ArrayList;
@@ -9,45 +10,108 @@ public class TaskRunner {
    private final AltoClefController mod;
    private boolean active;
    private TaskChain cachedCurrentTaskChain = null;
-   public String statusReport = " (no chain running) ";
+   private float cachedCurrentPriority;
+   private final ChainInputTracker inputTracker;
 
    public TaskRunner(AltoClefController mod) {
       this.mod = mod;
       this.active = false;
+      this.inputTracker = new ChainInputTracker(mod);
    }
 
    public void tick() {
       if (this.active && AltoClefController.inGame()) {
          TaskChain maxChain = null;
          float maxPriority = Float.NEGATIVE_INFINITY;
+         this.inputTracker.nextTick();
 
          for (TaskChain chain : this.chains) {
             if (chain.isActive()) {
-               float priority = chain.getPriority();
+               chain.onRunnerTick();
+               float priority = this.evaluatePriority(chain);
                if (priority > maxPriority) {
                   maxPriority = priority;
                   maxChain = chain;
                }
+            } else {
+               chain.polledSignatures = null;
             }
          }
 
-         if (this.cachedCurrentTaskChain != null && maxChain != this.cachedCurrentTaskChain) {
-            this.cachedCurrentTaskChain.onInterrupt(maxChain);
-            Debug.logInternal("Chain Switch: " + this.cachedCurrentTaskChain.getName() + " → " + (maxChain != null ? maxChain.getName() : "None"));
+         this.run(maxChain, maxPriority);
+      }
+   }
+
+   /**
+    * For ticks the {@link adris.altoclef.AgentTickScheduler} skipped: only the {@link TaskChain#isSurvivalChain()
+    * survival chains} are polled, against the priority the current chain had on its last full tick. A survival chain
+    * that wins is ticked, the other chains wait for the next full tick.
+    */
+   public void tickSurvivalChains() {
+      if (this.active && AltoClefController.inGame()) {
+         TaskChain current = this.cachedCurrentTaskChain;
+         TaskChain maxChain = current != null && !current.isSurvivalChain() ? current : null;
+         float maxPriority = maxChain != null ? this.cachedCurrentPriority : Float.NEGATIVE_INFINITY;
+         this.inputTracker.nextTick();
+
+         for (TaskChain chain : this.chains) {
+            if (chain.isSurvivalChain() && chain.isActive()) {
+               chain.onRunnerTick();
+               float priority = this.evaluatePriority(chain);
+               if (priority > maxPriority) {
+                  maxPriority = priority;
+                  maxChain = chain;
+               }
+            }
          }
 
-         this.cachedCurrentTaskChain = maxChain;
-         if (maxChain != null) {
-            this.statusReport = "Chain: " + maxChain.getName() + ", priority: " + maxPriority;
-            maxChain.tick();
-         } else {
-            this.statusReport = " (no chain running) ";
+         // Also switches away from a survival chain that just finished
+         if (maxChain != null && maxChain.isSurvivalChain() || current != null && current.isSurvivalChain()) {
+            this.run(maxChain, maxPriority);
          }
-      } else {
-         this.statusReport = " (no chain running) ";
       }
    }
 
+   private void run(TaskChain maxChain, float maxPriority) {
+      if (this.cachedCurrentTaskChain != null && maxChain != this.cachedCurrentTaskChain) {
+         this.cachedCurrentTaskChain.onInterrupt(maxChain);
+         this.mod.getEventLog().record(EventType.CHAIN_SWITCH, this.cachedCurrentTaskChain, maxChain);
+      }
+
+      this.cachedCurrentTaskChain = maxChain;
+      this.cachedCurrentPriority = maxPriority;
+      if (maxChain != null) {
+         maxChain.tick();
+      }
+   }
+
+   private float evaluatePriority(TaskChain chain) {
+      ChainSchedule schedule = chain.getSchedule();
+      if (schedule == null) {
+         return chain.getPriority();
+      }
+
+      boolean mustPoll = chain == this.cachedCurrentTaskChain
+         || chain.cachedPriority > 0.0F
+         || chain.needsPollEveryTick()
+         || chain.polledSignatures == null
+         || chain.ticksSincePoll >= schedule.getMaxIntervalTicks()
+         || this.inputTracker.anyChanged(schedule.getDependencies(), chain.polledSignatures);
+      if (!mustPoll) {
+         chain.ticksSincePoll++;
+         return chain.cachedPriority;
+      }
+
+      if (chain.polledSignatures == null) {
+         chain.polledSignatures = new long[ChainInputTracker.inputCount()];
+      }
+
+      this.inputTracker.storeSignatures(schedule.getDependencies(), chain.polledSignatures);
+      chain.cachedPriority = chain.getPriority();
+      chain.ticksSincePoll = 0;
+      return chain.cachedPriority;
+   }
+
    public void addTaskChain(TaskChain chain) {
       this.chains.add(chain);
    }
@@ -68,6 +132,7 @@ public class TaskRunner {
 
       for (TaskChain chain : this.chains) {
          chain.stop();
+         chain.polledSignatures = null;
       }
 
       this.active = false;
@@ -0,0 +1,183 @@
+package adris.altoclef.trackers;
+
+import adris.altoclef.mixins.ChunkMapAccessor;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * The only chunk load/unload listener of the mod, registered once at mod init. Fabric listeners can't be removed, so
+ * agents and tasks subscribe here instead.
+ * <p>
+ * Once the server started, every level is also seeded from the chunks it already holds, so nothing loaded before the
+ * listeners were in place goes missing.
+ * <p>
+ * Keeps the set of loaded chunks of every level, and dispatches to subscriptions that only hold their owner weakly:
+ * once the owner (an agent, a task...) is garbage collected its subscription is dropped, even if nobody called
+ * {@link ChunkLifecycleHub.Subscription#unsubscribe()}. Subscriptions can be limited to one level and to a chunk
+ * radius around a moving center. Only used from the server thread.
+ */
+public class ChunkLifecycleHub {
+   private static final Map<ServerLevel, LongOpenHashSet> LOADED = new WeakHashMap<>();
+   private static ChunkLifecycleHub.Subscription<?>[] subscriptions = new ChunkLifecycleHub.Subscription<?>[0];
+   private static boolean registered = false;
+
+   public static void register() {
+      if (!registered) {
+         registered = true;
+         ServerChunkEvents.CHUNK_LOAD.register((level, chunk) -> onChunkEvent(level, chunk.getPos(), true));
+         ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> onChunkEvent(level, chunk.getPos(), false));
+         ServerLifecycleEvents.SERVER_STARTED.register(ChunkLifecycleHub::seed);
+         ServerLifecycleEvents.SERVER_STOPPED.register(server -> LOADED.clear());
+      }
+   }
+
+   private static void seed(MinecraftServer server) {
+      for (ServerLevel level : server.getAllLevels()) {
+         LongOpenHashSet set = LOADED.computeIfAbsent(level, k -> new LongOpenHashSet());
+
+         for (ChunkHolder holder : ((ChunkMapAccessor)level.getChunkSource().chunkMap).getChunkHolders()) {
+            LevelChunk chunk = holder.getFullChunk();
+            if (chunk != null) {
+               set.add(chunk.getPos().toLong());
+            }
+         }
+      }
+   }
+
+   public static boolean isLoaded(Level level, ChunkPos pos) {
+      LongOpenHashSet loaded = LOADED.get(level);
+      return loaded != null && loaded.contains(pos.toLong());
+   }
+
+   /**
+    * @return The positions (see {@link ChunkPos#toLong()}) of every chunk loaded in this level. Don't modify it.
+    */
+   public static LongOpenHashSet getLoadedChunks(Level level) {
+      LongOpenHashSet loaded = LOADED.get(level);
+      return loaded != null ? loaded : new LongOpenHashSet();
+   }
+
+   /**
+    * Subscribes to chunk loads and unloads. The callback receives the owner, so it should not capture it itself or the
+    * owner would never be collected.
+    *
+    * @param level  Which level the owner is interested in, null for all of them.
+    * @param center Where the owner is, null to not filter by distance.
+    * @param chunkRadius Only chunks this many chunks away from the center (on both axes) are reported.
+    */
+   public static <O> ChunkLifecycleHub.Subscription<O> subscribe(
+      O owner, Function<O, ? extends Level> level, Function<O, BlockPos> center, int chunkRadius, ChunkLifecycleHub.ChunkListener<O> listener
+   ) {
+      ChunkLifecycleHub.Subscription<O> subscription = new ChunkLifecycleHub.Subscription<>(owner, level, center, chunkRadius, listener);
+      ChunkLifecycleHub.Subscription<?>[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+      updated[updated.length - 1] = subscription;
+      subscriptions = updated;
+      return subscription;
+   }
+
+   private static void onChunkEvent(ServerLevel level, ChunkPos pos, boolean loaded) {
+      LongOpenHashSet set = LOADED.computeIfAbsent(level, k -> new LongOpenHashSet());
+      if (loaded) {
+         set.add(pos.toLong());
+      } else {
+         set.remove(pos.toLong());
+      }
+
+      boolean anyDead = false;
+
+      for (ChunkLifecycleHub.Subscription<?> subscription : subscriptions) {
+         if (!subscription.dispatch(level, pos, loaded)) {
+            anyDead = true;
+         }
+      }
+
+      if (anyDead) {
+         subscriptions = Arrays.stream(subscriptions).filter(ChunkLifecycleHub.Subscription::isAlive).toArray(ChunkLifecycleHub.Subscription<?>[]::new);
+      }
+   }
+
+   private static void remove(ChunkLifecycleHub.Subscription<?> subscription) {
+      ChunkLifecycleHub.Subscription<?>[] current = subscriptions;
+
+      for (int i = 0; i < current.length; i++) {
+         if (current[i] == subscription) {
+            ChunkLifecycleHub.Subscription<?>[] updated = new ChunkLifecycleHub.Subscription<?>[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+            subscriptions = updated;
+            return;
+         }
+      }
+   }
+
+   public interface ChunkListener<O> {
+      void onChunkEvent(O owner, ChunkPos pos, boolean loaded);
+   }
+
+   public static class Subscription<O> {
+      private final WeakReference<O> owner;
+      private final Function<O, ? extends Level> level;
+      private final Function<O, BlockPos> center;
+      private final int chunkRadius;
+      private final ChunkLifecycleHub.ChunkListener<O> listener;
+      private boolean unsubscribed = false;
+
+      private Subscription(
+         O owner, Function<O, ? extends Level> level, Function<O, BlockPos> center, int chunkRadius, ChunkLifecycleHub.ChunkListener<O> listener
+      ) {
+         this.owner = new WeakReference<>(owner);
+         this.level = level;
+         this.center = center;
+         this.chunkRadius = chunkRadius;
+         this.listener = listener;
+      }
+
+      public void unsubscribe() {
+         if (!this.unsubscribed) {
+            this.unsubscribed = true;
+            ChunkLifecycleHub.remove(this);
+         }
+      }
+
+      public boolean isAlive() {
+         return !this.unsubscribed && this.owner.get() != null;
+      }
+
+      // false once the owner is gone
+      private boolean dispatch(ServerLevel level, ChunkPos pos, boolean loaded) {
+         O owner = this.owner.get();
+         if (owner == null || this.unsubscribed) {
+            return false;
+         }
+
+         if (this.level != null && this.level.apply(owner) != level) {
+            return true;
+         }
+
+         if (this.center != null) {
+            BlockPos center = this.center.apply(owner);
+            if (center == null
+               || Math.abs((center.getX() >> 4) - pos.x) > this.chunkRadius
+               || Math.abs((center.getZ() >> 4) - pos.z) > this.chunkRadius) {
+               return true;
+            }
+         }
+
+         this.listener.onChunkEvent(owner, pos, loaded);
+         return true;
+      }
+   }
+}
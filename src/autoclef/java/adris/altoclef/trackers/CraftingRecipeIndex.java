@@ -0,0 +1,255 @@
+package adris.altoclef.trackers;
+
+import adris.altoclef.Debug;
+import adris.altoclef.multiversion.recipemanager.RecipeManagerWrapper;
+import adris.altoclef.multiversion.recipemanager.WrappedRecipeEntry;
+import adris.altoclef.util.CraftingRecipe;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.CustomRecipe;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.ShapedRecipe;
+
+/**
+ * Immutable index of every (non special) crafting recipe of one {@link RecipeManager}, shared by all agents.
+ * <p>
+ * A datapack reload replaces the server's recipe manager, so the index is rebuilt whenever it is asked for a
+ * different manager than it was built from. {@link #prebuild} can start that rebuild off-thread (recipes are
+ * read only once loaded) so the first agent to need it doesn't pay for it on the server thread.
+ */
+public class CraftingRecipeIndex {
+   private static final Object LOCK = new Object();
+   private static volatile CraftingRecipeIndex current;
+   private static CompletableFuture<CraftingRecipeIndex> pending;
+   private static RecipeManager pendingSource;
+
+   private final RecipeManager source;
+   // Keyed by item registry id
+   private final Int2ObjectMap<List<CraftingRecipe>> recipesByResult;
+   private final Int2ObjectMap<List<CraftingRecipe>> recipesByIngredient;
+   private final Reference2IntMap<CraftingRecipe> recipeIds;
+   private final Item[] resultItems;
+   private final int[] resultCounts;
+
+   private CraftingRecipeIndex(RecipeManager source) {
+      this.source = source;
+      Int2ObjectOpenHashMap<List<CraftingRecipe>> byResult = new Int2ObjectOpenHashMap<>();
+      Int2ObjectOpenHashMap<List<CraftingRecipe>> byIngredient = new Int2ObjectOpenHashMap<>();
+      Reference2IntOpenHashMap<CraftingRecipe> ids = new Reference2IntOpenHashMap<>();
+      ids.defaultReturnValue(-1);
+      List<Item> items = new ArrayList<>();
+      List<Integer> counts = new ArrayList<>();
+
+      for (WrappedRecipeEntry entry : RecipeManagerWrapper.of(source).values()) {
+         Recipe<?> recipe = entry.value();
+         if (recipe instanceof net.minecraft.world.item.crafting.CraftingRecipe craftingRecipe && !(craftingRecipe instanceof CustomRecipe)) {
+            ItemStack result = craftingRecipe.getResultItem(null);
+            Item[][] slots = getShapedCraftingRecipe(craftingRecipe);
+            if (slots == null || result.isEmpty()) {
+               continue;
+            }
+
+            CraftingRecipe altoclefRecipe = CraftingRecipe.newShapedRecipe(slots, result.getCount());
+            if (altoclefRecipe == null) {
+               continue;
+            }
+
+            ids.put(altoclefRecipe, items.size());
+            items.add(result.getItem());
+            counts.add(result.getCount());
+            byResult.computeIfAbsent(getId(result.getItem()), k -> new ArrayList<>()).add(altoclefRecipe);
+            Set<Item> ingredients = new ReferenceOpenHashSet<>();
+
+            for (Item[] slot : slots) {
+               if (slot != null) {
+                  Collections.addAll(ingredients, slot);
+               }
+            }
+
+            for (Item ingredient : ingredients) {
+               byIngredient.computeIfAbsent(getId(ingredient), k -> new ArrayList<>()).add(altoclefRecipe);
+            }
+         }
+      }
+
+      byResult.replaceAll((k, v) -> List.copyOf(v));
+      byIngredient.replaceAll((k, v) -> List.copyOf(v));
+      byResult.trim();
+      byIngredient.trim();
+      ids.trim();
+      this.recipesByResult = byResult;
+      this.recipesByIngredient = byIngredient;
+      this.recipeIds = ids;
+      this.resultItems = items.toArray(Item[]::new);
+      this.resultCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   /**
+    * @return The index for this recipe manager, building it (or waiting for the pending background build) if needed.
+    */
+   public static CraftingRecipeIndex get(RecipeManager recipeManager) {
+      CraftingRecipeIndex index = current;
+      if (index != null && index.source == recipeManager) {
+         return index;
+      }
+
+      CompletableFuture<CraftingRecipeIndex> future;
+      synchronized (LOCK) {
+         index = current;
+         if (index != null && index.source == recipeManager) {
+            return index;
+         }
+
+         if (pending == null || pendingSource != recipeManager) {
+            index = new CraftingRecipeIndex(recipeManager);
+            current = index;
+            pending = null;
+            pendingSource = null;
+            return index;
+         }
+
+         future = pending;
+      }
+
+      return future.join();
+   }
+
+   /**
+    * Starts building the index for a freshly loaded recipe manager on a background thread.
+    */
+   public static void prebuild(RecipeManager recipeManager) {
+      synchronized (LOCK) {
+         if ((current == null || current.source != recipeManager) && (pending == null || pendingSource != recipeManager)) {
+            CompletableFuture<CraftingRecipeIndex> future = CompletableFuture.supplyAsync(() -> new CraftingRecipeIndex(recipeManager));
+            pending = future;
+            pendingSource = recipeManager;
+            future.whenComplete((index, error) -> {
+               synchronized (LOCK) {
+                  if (pending == future) {
+                     pending = null;
+                     pendingSource = null;
+                     if (error != null) {
+                        Debug.logWarning("Failed to build crafting recipe index: " + error);
+                     } else {
+                        current = index;
+                     }
+                  }
+               }
+            });
+         }
+      }
+   }
+
+   public static void invalidate() {
+      synchronized (LOCK) {
+         current = null;
+         pending = null;
+         pendingSource = null;
+      }
+   }
+
+   public boolean isFor(RecipeManager recipeManager) {
+      return this.source == recipeManager;
+   }
+
+   public List<CraftingRecipe> getRecipesForItem(Item item) {
+      return this.recipesByResult.get(getId(item));
+   }
+
+   public boolean hasRecipeForItem(Item item) {
+      return this.recipesByResult.containsKey(getId(item));
+   }
+
+   /**
+    * @return Every recipe that has this item in one of its slots, empty if none.
+    */
+   public List<CraftingRecipe> getRecipesUsingIngredient(Item item) {
+      List<CraftingRecipe> result = this.recipesByIngredient.get(getId(item));
+      return result != null ? result : List.of();
+   }
+
+   public boolean hasRecipe(CraftingRecipe recipe) {
+      return this.recipeIds.containsKey(recipe);
+   }
+
+   /**
+    * @return The item this recipe makes, or null if the recipe is not in this index.
+    */
+   public Item getResultItem(CraftingRecipe recipe) {
+      int id = this.recipeIds.getInt(recipe);
+      return id == -1 ? null : this.resultItems[id];
+   }
+
+   public int getResultCount(CraftingRecipe recipe) {
+      int id = this.recipeIds.getInt(recipe);
+      return id == -1 ? 0 : this.resultCounts[id];
+   }
+
+   public int size() {
+      return this.resultItems.length;
+   }
+
+   private static int getId(Item item) {
+      return BuiltInRegistries.ITEM.getId(item);
+   }
+
+   /**
+    * Lays a recipe out on the smallest grid it fits, 2x2 (craftable in the inventory) or 3x3. Shaped recipes keep their
+    * shape, shapeless ones are laid out in order. Every slot keeps all the items its ingredient accepts (tags).
+    *
+    * @return null if the recipe can't be expressed, it's too big or needs more than one item on a slot.
+    */
+   private static Item[][] getShapedCraftingRecipe(net.minecraft.world.item.crafting.CraftingRecipe recipe) {
+      List<Ingredient> ingredients = recipe.getIngredients();
+      int width;
+      int height;
+      if (recipe instanceof ShapedRecipe shaped) {
+         width = shaped.getWidth();
+         height = shaped.getHeight();
+      } else {
+         width = ingredients.size() <= 4 ? 2 : 3;
+         height = (ingredients.size() + width - 1) / width;
+      }
+
+      if (width > 3 || height > 3 || ingredients.size() > width * height) {
+         return null;
+      }
+
+      int size = width <= 2 && height <= 2 ? 2 : 3;
+      Item[][] result = new Item[size * size][];
+
+      for (int i = 0; i < ingredients.size(); i++) {
+         ItemStack[] stacks = ingredients.get(i).getItems();
+         if (stacks.length != 0) {
+            Set<Item> choices = new ReferenceLinkedOpenHashSet<>();
+
+            for (ItemStack stack : stacks) {
+               if (stack.getCount() > 1) {
+                  // Can't express "more than one item on a slot"
+                  return null;
+               }
+
+               choices.add(stack.getItem());
+            }
+
+            result[(i / width) * size + i % width] = choices.toArray(Item[]::new);
+         }
+      }
+
+      return result;
+   }
+}
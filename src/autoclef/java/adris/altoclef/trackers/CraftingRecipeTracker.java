@@ -1,24 +1,19 @@
 package adris.altoclef.trackers;
 
 import adris.altoclef.AltoClefController;
-import adris.altoclef.multiversion.recipemanager.RecipeManagerWrapper;
-import adris.altoclef.multiversion.recipemanager.WrappedRecipeEntry;
 import adris.altoclef.util.CraftingRecipe;
 import adris.altoclef.util.RecipeTarget;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.crafting.CustomRecipe;
-import net.minecraft.world.item.crafting.Ingredient;
-import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
 
+/**
+ * Per agent view of the server wide {@link CraftingRecipeIndex}, it only keeps a reference to the shared index.
+ */
 public class CraftingRecipeTracker extends Tracker {
-   private final HashMap<Item, List<CraftingRecipe>> itemRecipeMap = new HashMap<>();
-   private final HashMap<CraftingRecipe, ItemStack> recipeResultMap = new HashMap<>();
-   private boolean shouldRebuild = true;
+   private CraftingRecipeIndex index;
 
    public CraftingRecipeTracker(TrackerManager manager) {
       super(manager);
@@ -30,7 +25,7 @@ public class CraftingRecipeTracker extends Tracker {
          this.mod.logWarning("trying to access recipe for unknown item: " + item);
          return null;
       } else {
-         return this.itemRecipeMap.get(item);
+         return this.index.getRecipesForItem(item);
       }
    }
 
@@ -40,7 +35,7 @@ public class CraftingRecipeTracker extends Tracker {
          this.mod.logWarning("trying to access recipe for unknown item: " + item);
          return null;
       } else {
-         return this.itemRecipeMap.get(item).get(0);
+         return this.index.getRecipesForItem(item).get(0);
       }
    }
 
@@ -62,97 +57,57 @@ public class CraftingRecipeTracker extends Tracker {
 
    public boolean hasRecipeForItem(Item item) {
       this.ensureUpdated();
-      return this.itemRecipeMap.containsKey(item);
+      return this.index != null && this.index.hasRecipeForItem(item);
    }
 
+   public List<CraftingRecipe> getRecipesUsingIngredient(Item item) {
+      this.ensureUpdated();
+      return this.index != null ? this.index.getRecipesUsingIngredient(item) : List.of();
+   }
+
+   /**
+    * @return A new stack the caller may modify, see {@link #getRecipeResultItem} to avoid the allocation.
+    */
    public ItemStack getRecipeResult(CraftingRecipe recipe) {
       this.ensureUpdated();
       if (!this.hasRecipe(recipe)) {
          this.mod.logWarning("Trying to get result for unknown recipe: " + recipe);
          return null;
       } else {
-         ItemStack result = this.recipeResultMap.get(recipe);
-         return new ItemStack(result.getItem(), result.getCount());
+         return new ItemStack(this.index.getResultItem(recipe), this.index.getResultCount(recipe));
       }
    }
 
-   public boolean hasRecipe(CraftingRecipe recipe) {
+   public Item getRecipeResultItem(CraftingRecipe recipe) {
       this.ensureUpdated();
-      return this.recipeResultMap.containsKey(recipe);
+      return this.index != null ? this.index.getResultItem(recipe) : null;
    }
 
-   @Override
-   protected void updateState() {
-      if (this.shouldRebuild) {
-         if (AltoClefController.inGame()) {
-            RecipeManagerWrapper recipeManager = RecipeManagerWrapper.of(this.mod.getWorld().getRecipeManager());
-
-            for (WrappedRecipeEntry recipe : recipeManager.values()) {
-               Recipe<?> recipe1 = recipe.value();
-               if (recipe1 instanceof CraftingRecipe) {
-                  net.minecraft.world.item.crafting.CraftingRecipe craftingRecipe = (net.minecraft.world.item.crafting.CraftingRecipe)recipe1;
-                  if (!(craftingRecipe instanceof CustomRecipe)) {
-                     ItemStack result = new ItemStack(craftingRecipe.getResultItem(null).getItem(), craftingRecipe.getResultItem(null).getCount());
-                     Item[][] altoclefRecipeItems = getShapedCraftingRecipe(craftingRecipe.getIngredients());
-                     CraftingRecipe altoclefRecipe = CraftingRecipe.newShapedRecipe(altoclefRecipeItems, result.getCount());
-                     if (this.itemRecipeMap.containsKey(result.getItem())) {
-                        this.itemRecipeMap.get(result.getItem()).add(altoclefRecipe);
-                     } else {
-                        List<CraftingRecipe> recipes = new ArrayList<>();
-                        recipes.add(altoclefRecipe);
-                        this.itemRecipeMap.put(result.getItem(), recipes);
-                     }
-
-                     this.recipeResultMap.put(altoclefRecipe, result);
-                  }
-               }
-            }
-
-            this.itemRecipeMap.replaceAll((k, v) -> Collections.unmodifiableList((List<? extends CraftingRecipe>)v));
-            this.shouldRebuild = false;
-         }
-      }
+   public boolean hasRecipe(CraftingRecipe recipe) {
+      this.ensureUpdated();
+      return this.index != null && this.index.hasRecipe(recipe);
    }
 
-   private static Item[][] getShapedCraftingRecipe(List<Ingredient> ingredients) {
-      Item[][] result = new Item[9][];
-      int x = 0;
-
-      for (Ingredient ingredient : ingredients) {
-         ItemStack[] stacks = ingredient.getItems();
-         Item[] items = new Item[stacks.length];
-
-         for (int i = 0; i < stacks.length; i++) {
-            ItemStack stack = stacks[i];
-            if (stack.getCount() > 1) {
-               throw new IllegalStateException("recipe needs more then one item on a slot... well... shit (ingredients: " + ingredient + ")");
-            }
-
-            items[i] = stack.getItem();
-         }
-
-         if (stacks.length != 0) {
-            Item[] var10000 = new Item[]{items[0]};
-            result[x] = new Item[1];
-         } else {
-            result[x] = null;
-         }
+   public CraftingRecipeIndex getIndex() {
+      this.ensureUpdated();
+      return this.index;
+   }
 
-         x++;
+   @Override
+   protected void updateState() {
+      if (AltoClefController.inGame()) {
+         this.index = CraftingRecipeIndex.get(this.mod.getWorld().getRecipeManager());
       }
-
-      return result;
    }
 
    @Override
    protected void reset() {
-      this.shouldRebuild = true;
-      this.itemRecipeMap.clear();
-      this.recipeResultMap.clear();
+      this.index = null;
    }
 
    @Override
    protected boolean isDirty() {
-      return this.shouldRebuild;
+      RecipeManager recipeManager = this.mod.getWorld().getRecipeManager();
+      return this.index == null || !this.index.isFor(recipeManager);
    }
 }
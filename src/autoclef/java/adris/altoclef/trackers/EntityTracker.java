@@ -1,7 +1,6 @@
 package adris.altoclef.trackers;
 
 import adris.altoclef.Debug;
-import adris.altoclef.eventbus.EventBus;
 import adris.altoclef.eventbus.events.PlayerCollidedWithEntityEvent;
 import adris.altoclef.mixins.PersistentProjectileEntityAccessor;
 import adris.altoclef.trackers.blacklisting.EntityLocateBlacklist;
@@ -22,6 +21,7 @@ import java.util.function.Predicate;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.monster.Enemy;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.entity.projectile.AbstractArrow;
@@ -33,6 +33,7 @@ import net.minecraft.world.item.Item;
 import net.minecraft.world.phys.Vec3;
 
 public class EntityTracker extends Tracker {
+   private static final double THREAT_RANGE = 32.0;
    private final HashMap<Item, List<ItemEntity>> itemDropLocations = new HashMap<>();
    private final HashMap<Class, List<Entity>> entityMap = new HashMap<>();
    private final List<Entity> closeEntities = new ArrayList<>();
@@ -43,10 +44,11 @@ public class EntityTracker extends Tracker {
    private final EntityLocateBlacklist entityBlacklist = new EntityLocateBlacklist();
    private final HashMap<LivingEntity, List<Entity>> entitiesCollidingWithPlayerAccumulator = new HashMap<>();
    private final HashMap<LivingEntity, HashSet<Entity>> entitiesCollidingWithPlayer = new HashMap<>();
+   private long threatSignature;
 
    public EntityTracker(TrackerManager manager) {
       super(manager);
-      EventBus.subscribe(PlayerCollidedWithEntityEvent.class, evt -> this.registerPlayerCollision(evt.player, evt.other));
+      manager.getController().getEventSubscriptions().subscribe(PlayerCollidedWithEntityEvent.class, evt -> this.registerPlayerCollision(evt.player, evt.other));
    }
 
    private static Class squashType(Class<?> type) {
@@ -256,6 +258,15 @@ public class EntityTracker extends Tracker {
       }
    }
 
+   /**
+    * Hash of the hostiles, projectiles and mobs targeting the player within {@link #THREAT_RANGE} and of the blocks
+    * they're in, as of the last update. Equal values mean nothing threatening moved.
+    */
+   public long getThreatSignature() {
+      this.ensureUpdated();
+      return this.threatSignature;
+   }
+
    public boolean isPlayerLoaded(String name) {
       this.ensureUpdated();
       synchronized (BaritoneHelper.MINECRAFT_LOCK) {
@@ -303,6 +314,7 @@ public class EntityTracker extends Tracker {
          this.projectiles.clear();
          this.hostiles.clear();
          this.playerMap.clear();
+         this.threatSignature = 1L;
          if (this.mod.getWorld() != null) {
             this.entitiesCollidingWithPlayer.clear();
 
@@ -326,6 +338,11 @@ public class EntityTracker extends Tracker {
                      this.closeEntities.add(entity);
                   }
 
+                  if (this.isThreat(entity)) {
+                     this.threatSignature = 31L * this.threatSignature + entity.getId();
+                     this.threatSignature = 31L * this.threatSignature + entity.blockPosition().asLong();
+                  }
+
                   if (entity instanceof ItemEntity ientity) {
                      Item droppedItem = ientity.getItem().getItem();
                      if (ientity.onGround()
@@ -377,6 +394,13 @@ public class EntityTracker extends Tracker {
       }
    }
 
+   private boolean isThreat(Entity entity) {
+      LivingEntity player = this.mod.getPlayer();
+      return entity != player
+         && entity.distanceToSqr(player) <= THREAT_RANGE * THREAT_RANGE
+         && (entity instanceof Enemy || entity instanceof Projectile || entity instanceof Mob mob && mob.getTarget() == player);
+   }
+
    @Override
    protected void reset() {
       this.entityBlacklist.clear();
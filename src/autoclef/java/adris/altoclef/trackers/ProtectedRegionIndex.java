@@ -0,0 +1,255 @@
+package adris.altoclef.trackers;
+
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import adris.altoclef.util.helpers.ItemHelper;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * The areas around player beds of one level, and the player's blocks (cobblestone, logs) inside them that agents
+ * shouldn't break. Shared by every agent in that level.
+ * <p>
+ * Every bed protects the cube of {@link #RANGE} blocks around it. Beds are kept in a coarse grid of cells of
+ * {@link #CELL_SIZE} blocks, so "is this position protected" looks at the few cells the cube can reach instead of
+ * materializing every block of every cube. The index follows bed and player block placements/breaks through
+ * {@link BlockChangeEvent}, and agents add the beds they see so beds placed before the index existed are picked up as
+ * well.
+ * <p>
+ * Changes happen on the server thread and publish a new immutable {@link Snapshot}, so the block avoiders can ask from
+ * any thread without locking or reading the world.
+ */
+public class ProtectedRegionIndex {
+   public static final int RANGE = 16;
+   private static final int CELL_SIZE = 32;
+   private static final Set<Block> USER_BLOCKS = new ReferenceOpenHashSet<>();
+   // Read by avoiders off the server thread, emptied when levels unload
+   private static final Map<ServerLevel, ProtectedRegionIndex> LOADED = new ConcurrentHashMap<>();
+
+   private final ServerLevel level;
+   private volatile ProtectedRegionIndex.Snapshot snapshot = ProtectedRegionIndex.Snapshot.EMPTY;
+
+   static {
+      USER_BLOCKS.add(Blocks.COBBLESTONE);
+      USER_BLOCKS.addAll(Arrays.asList(ItemHelper.itemsToBlocks(ItemHelper.LOG)));
+   }
+
+   private ProtectedRegionIndex(ServerLevel level) {
+      this.level = level;
+   }
+
+   public static ProtectedRegionIndex get(ServerLevel level) {
+      return LOADED.computeIfAbsent(level, ProtectedRegionIndex::new);
+   }
+
+   public static void onLevelUnload(ServerLevel level) {
+      LOADED.remove(level);
+   }
+
+   public static void clearLoaded() {
+      LOADED.clear();
+   }
+
+   public static void onBlockChange(BlockChangeEvent evt) {
+      if (evt.level instanceof ServerLevel serverLevel) {
+         ProtectedRegionIndex index = LOADED.get(serverLevel);
+         if (index != null) {
+            index.onBlockChanged(evt.blockPos, evt.oldState, evt.newState);
+         }
+      }
+   }
+
+   public static boolean isProtector(BlockState state) {
+      return state.is(BlockTags.BEDS);
+   }
+
+   /**
+    * Server thread only. Also picks up the player blocks already around the bed, in the chunks that are loaded.
+    */
+   public void add(BlockPos center) {
+      ProtectedRegionIndex.Snapshot current = this.snapshot;
+      long key = center.asLong();
+      if (!current.hasBed(key)) {
+         Long2ObjectOpenHashMap<long[]> cells = new Long2ObjectOpenHashMap<>(current.cells);
+         long cellKey = cellKey(center.getX(), center.getY(), center.getZ());
+         long[] cell = cells.get(cellKey);
+         long[] updated = cell == null ? new long[1] : Arrays.copyOf(cell, cell.length + 1);
+         updated[updated.length - 1] = key;
+         cells.put(cellKey, updated);
+         LongOpenHashSet userBlocks = new LongOpenHashSet(current.userBlocks);
+         this.scanUserBlocks(center, userBlocks);
+         this.snapshot = new ProtectedRegionIndex.Snapshot(cells, userBlocks, current.size + 1);
+      }
+   }
+
+   /**
+    * Server thread only.
+    */
+   public void remove(BlockPos center) {
+      ProtectedRegionIndex.Snapshot current = this.snapshot;
+      long key = center.asLong();
+      if (current.hasBed(key)) {
+         Long2ObjectOpenHashMap<long[]> cells = new Long2ObjectOpenHashMap<>(current.cells);
+         long cellKey = cellKey(center.getX(), center.getY(), center.getZ());
+         long[] remaining = Arrays.stream(cells.get(cellKey)).filter(bed -> bed != key).toArray();
+         if (remaining.length == 0) {
+            cells.remove(cellKey);
+         } else {
+            cells.put(cellKey, remaining);
+         }
+
+         ProtectedRegionIndex.Snapshot withoutBed = new ProtectedRegionIndex.Snapshot(cells, current.userBlocks, current.size - 1);
+         LongOpenHashSet userBlocks = new LongOpenHashSet(current.userBlocks);
+         LongIterator it = userBlocks.iterator();
+
+         while (it.hasNext()) {
+            long pos = it.nextLong();
+            if (!withoutBed.isNearBed(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos))) {
+               it.remove();
+            }
+         }
+
+         this.snapshot = new ProtectedRegionIndex.Snapshot(cells, userBlocks, current.size - 1);
+      }
+   }
+
+   /**
+    * @return Whether this position is within {@link #RANGE} blocks (on every axis) of a bed.
+    */
+   public boolean isProtected(int x, int y, int z) {
+      return this.snapshot.isNearBed(x, y, z);
+   }
+
+   public boolean isProtected(BlockPos pos) {
+      return this.isProtected(pos.getX(), pos.getY(), pos.getZ());
+   }
+
+   /**
+    * @return Whether this position holds a player block near a bed.
+    */
+   public boolean isProtectedUserBlock(BlockPos pos) {
+      return this.snapshot.userBlocks.contains(pos.asLong());
+   }
+
+   public int size() {
+      return this.snapshot.size;
+   }
+
+   private void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState) {
+      boolean wasBed = isProtector(oldState);
+      boolean isBed = isProtector(newState);
+      if (wasBed != isBed) {
+         if (isBed) {
+            this.add(pos);
+         } else {
+            this.remove(pos);
+         }
+      }
+
+      boolean wasUserBlock = USER_BLOCKS.contains(oldState.getBlock());
+      boolean isUserBlock = USER_BLOCKS.contains(newState.getBlock());
+      ProtectedRegionIndex.Snapshot current = this.snapshot;
+      if (wasUserBlock != isUserBlock && current.isNearBed(pos.getX(), pos.getY(), pos.getZ())) {
+         LongOpenHashSet userBlocks = new LongOpenHashSet(current.userBlocks);
+         if (isUserBlock) {
+            userBlocks.add(pos.asLong());
+         } else {
+            userBlocks.remove(pos.asLong());
+         }
+
+         this.snapshot = new ProtectedRegionIndex.Snapshot(current.cells, userBlocks, current.size);
+      }
+   }
+
+   // Never loads chunks, blocks in chunks that load later are picked up when they change
+   private void scanUserBlocks(BlockPos center, LongOpenHashSet userBlocks) {
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      int minY = Math.max(center.getY() - RANGE, this.level.getMinBuildHeight());
+      int maxY = Math.min(center.getY() + RANGE, this.level.getMaxBuildHeight() - 1);
+
+      for (int x = center.getX() - RANGE; x <= center.getX() + RANGE; x++) {
+         for (int z = center.getZ() - RANGE; z <= center.getZ() + RANGE; z++) {
+            LevelChunk chunk = this.level.getChunkSource().getChunkNow(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+            if (chunk != null) {
+               for (int y = minY; y <= maxY; y++) {
+                  if (USER_BLOCKS.contains(chunk.getBlockState(pos.set(x, y, z)).getBlock())) {
+                     userBlocks.add(pos.asLong());
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   private static long cellKey(int x, int y, int z) {
+      return BlockPos.asLong(Math.floorDiv(x, CELL_SIZE), Math.floorDiv(y, CELL_SIZE), Math.floorDiv(z, CELL_SIZE));
+   }
+
+   /**
+    * Never changed once published.
+    */
+   private static final class Snapshot {
+      static final ProtectedRegionIndex.Snapshot EMPTY = new ProtectedRegionIndex.Snapshot(new Long2ObjectOpenHashMap<>(), new LongOpenHashSet(), 0);
+      // Cell -> bed positions in it
+      final Long2ObjectOpenHashMap<long[]> cells;
+      final LongOpenHashSet userBlocks;
+      final int size;
+
+      Snapshot(Long2ObjectOpenHashMap<long[]> cells, LongOpenHashSet userBlocks, int size) {
+         this.cells = cells;
+         this.userBlocks = userBlocks;
+         this.size = size;
+      }
+
+      boolean hasBed(long pos) {
+         long[] cell = this.cells.get(cellKey(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)));
+         if (cell != null) {
+            for (long bed : cell) {
+               if (bed == pos) {
+                  return true;
+               }
+            }
+         }
+
+         return false;
+      }
+
+      boolean isNearBed(int x, int y, int z) {
+         if (this.size == 0) {
+            return false;
+         }
+
+         for (int cx = Math.floorDiv(x - RANGE, CELL_SIZE); cx <= Math.floorDiv(x + RANGE, CELL_SIZE); cx++) {
+            for (int cy = Math.floorDiv(y - RANGE, CELL_SIZE); cy <= Math.floorDiv(y + RANGE, CELL_SIZE); cy++) {
+               for (int cz = Math.floorDiv(z - RANGE, CELL_SIZE); cz <= Math.floorDiv(z + RANGE, CELL_SIZE); cz++) {
+                  long[] cell = this.cells.get(BlockPos.asLong(cx, cy, cz));
+                  if (cell != null) {
+                     for (long center : cell) {
+                        if (Math.abs(BlockPos.getX(center) - x) <= RANGE
+                           && Math.abs(BlockPos.getY(center) - y) <= RANGE
+                           && Math.abs(BlockPos.getZ(center) - z) <= RANGE) {
+                           return true;
+                        }
+                     }
+                  }
+               }
+            }
+         }
+
+         return false;
+      }
+   }
+}
@@ -2,40 +2,26 @@ package adris.altoclef.trackers;
 
 import adris.altoclef.AltoClefController;
 import adris.altoclef.Debug;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents.Load;
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents.Unload;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
-import net.minecraft.world.level.chunk.EmptyLevelChunk;
 
+/**
+ * This agent's view of {@link ChunkLifecycleHub}: which chunks of its current level are loaded.
+ */
 public class SimpleChunkTracker {
    private final AltoClefController mod;
-   private final Set<ChunkPos> loaded = new HashSet<>();
 
    public SimpleChunkTracker(AltoClefController mod) {
       this.mod = mod;
-      ServerChunkEvents.CHUNK_LOAD.register((Load)(evt, chunk) -> this.onLoad(chunk.getPos()));
-      ServerChunkEvents.CHUNK_UNLOAD.register((Unload)(evt, chunk) -> this.onUnload(chunk.getPos()));
-   }
-
-   private void onLoad(ChunkPos pos) {
-      this.loaded.add(pos);
-   }
-
-   private void onUnload(ChunkPos pos) {
-      this.loaded.remove(pos);
    }
 
    public boolean isChunkLoaded(ChunkPos pos) {
-      return !(this.mod.getWorld().getChunk(pos.x, pos.z) instanceof EmptyLevelChunk);
+      return ChunkLifecycleHub.isLoaded(this.mod.getWorld(), pos);
    }
 
    public boolean isChunkLoaded(BlockPos pos) {
@@ -43,8 +29,14 @@ public class SimpleChunkTracker {
    }
 
    public List<ChunkPos> getLoadedChunks() {
-      List<ChunkPos> result = new ArrayList<>(this.loaded);
-      return result.stream().filter(this::isChunkLoaded).distinct().collect(Collectors.toList());
+      List<ChunkPos> result = new ArrayList<>();
+      LongIterator it = ChunkLifecycleHub.getLoadedChunks(this.mod.getWorld()).iterator();
+
+      while (it.hasNext()) {
+         result.add(new ChunkPos(it.nextLong()));
+      }
+
+      return result;
    }
 
    public boolean scanChunk(ChunkPos chunk, Predicate<BlockPos> onBlockStop) {
@@ -77,6 +69,5 @@ public class SimpleChunkTracker {
 
    public void reset(AltoClefController mod) {
       Debug.logInternal("CHUNKS RESET");
-      this.loaded.clear();
    }
 }
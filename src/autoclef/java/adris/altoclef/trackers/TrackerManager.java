@@ -21,6 +21,7 @@ public class TrackerManager {
 
          this.mod.getChunkTracker().reset(this.mod);
          this.mod.getMiscBlockTracker().reset();
+         this.mod.getStatusSnapshots().reset();
       }
 
       this.wasInGame = inGame;
@@ -1,9 +1,16 @@
 package adris.altoclef.trackers.storage;
 
 import adris.altoclef.util.Dimension;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.Container;
 import net.minecraft.world.inventory.FurnaceMenu;
 import net.minecraft.world.item.Item;
@@ -64,6 +71,10 @@ public class ContainerCache {
       return false;
    }
 
+   public Map<Item, Integer> getItemCounts() {
+      return Collections.unmodifiableMap(this.itemCounts);
+   }
+
    public int getEmptySlotCount() {
       return this.emptySlots;
    }
@@ -83,4 +94,36 @@ public class ContainerCache {
    public Dimension getDimension() {
       return this.dimension;
    }
+
+   public CompoundTag save() {
+      CompoundTag tag = new CompoundTag();
+      tag.putLong("pos", this.blockPos.asLong());
+      tag.putString("type", this.containerType.name());
+      tag.putInt("empty", this.emptySlots);
+      ListTag items = new ListTag();
+      this.itemCounts.forEach((item, count) -> {
+         CompoundTag itemTag = new CompoundTag();
+         itemTag.putString("id", BuiltInRegistries.ITEM.getKey(item).toString());
+         itemTag.putInt("count", count);
+         items.add(itemTag);
+      });
+      tag.put("items", items);
+      return tag;
+   }
+
+   public static ContainerCache load(Dimension dimension, CompoundTag tag) {
+      ContainerCache cache = new ContainerCache(dimension, BlockPos.of(tag.getLong("pos")), ContainerType.valueOf(tag.getString("type")));
+      cache.emptySlots = tag.getInt("empty");
+      ListTag items = tag.getList("items", Tag.TAG_COMPOUND);
+
+      for (int i = 0; i < items.size(); i++) {
+         CompoundTag itemTag = items.getCompound(i);
+         ResourceLocation id = ResourceLocation.tryParse(itemTag.getString("id"));
+         if (id != null && BuiltInRegistries.ITEM.containsKey(id)) {
+            cache.itemCounts.merge(BuiltInRegistries.ITEM.get(id), itemTag.getInt("count"), Integer::sum);
+         }
+      }
+
+      return cache;
+   }
 }
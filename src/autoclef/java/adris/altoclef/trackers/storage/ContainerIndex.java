@@ -0,0 +1,398 @@
+package adris.altoclef.trackers.storage;
+
+import adris.altoclef.Debug;
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import adris.altoclef.util.Dimension;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * What every agent has seen inside the containers of one dimension, shared by all agents and saved with the level.
+ * <p>
+ * Besides the containers by position, it keeps item -> (container position -> count) so "where is X" queries only
+ * look at containers that actually hold X, and item -> chunk -> container positions so the closest of them is found
+ * by walking outward chunk by chunk instead of measuring every one. Agents refresh an entry whenever they open a
+ * container; the block entity marking itself changed (someone else moved items, a hopper...) only flags it, it's
+ * re-read on the next query. Breaking the container drops it.
+ * <p>
+ * Every level's index is loaded along with the level, so containers broken while no agent was around are dropped as
+ * well, and let go of when the level unloads. Only used from the server thread.
+ */
+public class ContainerIndex extends SavedData {
+   private static final String DATA_NAME = "altoclef_containers";
+   private static final Map<ServerLevel, ContainerIndex> LOADED = new Reference2ObjectOpenHashMap<>();
+
+   private final ServerLevel level;
+   private final Dimension dimension;
+   private final Long2ObjectOpenHashMap<ContainerCache> containers = new Long2ObjectOpenHashMap<>();
+   private final Map<Item, Long2IntOpenHashMap> containersByItem = new Reference2ObjectOpenHashMap<>();
+   private final Map<Item, Long2ObjectOpenHashMap<LongOpenHashSet>> containersByItemChunk = new Reference2ObjectOpenHashMap<>();
+   private final LongOpenHashSet stale = new LongOpenHashSet();
+
+   private ContainerIndex(ServerLevel level) {
+      this.level = level;
+      this.dimension = getDimension(level);
+   }
+
+   public static ContainerIndex get(ServerLevel level) {
+      ContainerIndex index = LOADED.get(level);
+      if (index == null) {
+         index = level.getDataStorage().computeIfAbsent(tag -> load(level, tag), () -> new ContainerIndex(level), DATA_NAME);
+         LOADED.put(level, index);
+      }
+
+      return index;
+   }
+
+   public static void onLevelLoad(ServerLevel level) {
+      get(level);
+   }
+
+   public static void onLevelUnload(ServerLevel level) {
+      LOADED.remove(level);
+   }
+
+   public static void clearLoaded() {
+      LOADED.clear();
+   }
+
+   public static void onBlockChange(BlockChangeEvent evt) {
+      if (evt.level instanceof ServerLevel serverLevel && evt.oldState.getBlock() != evt.newState.getBlock()) {
+         ContainerIndex index = LOADED.get(serverLevel);
+         if (index != null) {
+            index.remove(evt.blockPos);
+         }
+      }
+   }
+
+   public static void onBlockEntityChanged(BlockEntity blockEntity) {
+      if (blockEntity.getLevel() instanceof ServerLevel serverLevel) {
+         ContainerIndex index = LOADED.get(serverLevel);
+         if (index != null) {
+            long key = blockEntity.getBlockPos().asLong();
+            if (index.containers.containsKey(key)) {
+               index.stale.add(key);
+            }
+         }
+      }
+   }
+
+   /**
+    * Re-reads the container at this position, dropping it if it isn't a container anymore.
+    */
+   public Optional<ContainerCache> update(BlockPos pos) {
+      ContainerType type = ContainerType.getFromBlock(this.level.getBlockState(pos).getBlock());
+      if (type != ContainerType.EMPTY && this.level.getBlockEntity(pos) instanceof Container container) {
+         long key = pos.asLong();
+         this.stale.remove(key);
+         ContainerCache cache = this.containers.get(key);
+         if (cache == null || cache.getContainerType() != type) {
+            this.remove(pos);
+            cache = new ContainerCache(this.dimension, pos.immutable(), type);
+            this.containers.put(key, cache);
+         } else {
+            this.unindexItems(cache);
+         }
+
+         cache.update(container, s -> {});
+         this.indexItems(cache);
+         this.setDirty();
+         return Optional.of(cache);
+      } else {
+         this.remove(pos);
+         return Optional.empty();
+      }
+   }
+
+   public void remove(BlockPos pos) {
+      long key = pos.asLong();
+      ContainerCache removed = this.containers.remove(key);
+      this.stale.remove(key);
+      if (removed != null) {
+         this.unindexItems(removed);
+         this.setDirty();
+      }
+   }
+
+   public Optional<ContainerCache> getContainerAt(BlockPos pos) {
+      this.refreshStale();
+      return Optional.ofNullable(this.containers.get(pos.asLong()));
+   }
+
+   public List<ContainerCache> getContainers(Predicate<ContainerCache> accept) {
+      this.refreshStale();
+      List<ContainerCache> result = new ArrayList<>();
+
+      for (ContainerCache cache : this.containers.values()) {
+         if (accept.test(cache)) {
+            result.add(cache);
+         }
+      }
+
+      return result;
+   }
+
+   public List<ContainerCache> getContainersWithItem(Item... items) {
+      this.refreshStale();
+      if (items.length == 1) {
+         Long2IntOpenHashMap positions = this.containersByItem.get(items[0]);
+         if (positions == null) {
+            return Collections.emptyList();
+         }
+
+         List<ContainerCache> result = new ArrayList<>(positions.size());
+         LongIterator it = positions.keySet().iterator();
+
+         while (it.hasNext()) {
+            result.add(this.containers.get(it.nextLong()));
+         }
+
+         return result;
+      } else {
+         List<ContainerCache> result = new ArrayList<>();
+         LongOpenHashSet seen = new LongOpenHashSet();
+
+         for (Item item : items) {
+            Long2IntOpenHashMap positions = this.containersByItem.get(item);
+            if (positions != null) {
+               LongIterator it = positions.keySet().iterator();
+
+               while (it.hasNext()) {
+                  long key = it.nextLong();
+                  if (seen.add(key)) {
+                     result.add(this.containers.get(key));
+                  }
+               }
+            }
+         }
+
+         return result;
+      }
+   }
+
+   public Optional<ContainerCache> getClosestContainerWithItem(Vec3 pos, Item... items) {
+      this.refreshStale();
+      ClosestSearch search = new ClosestSearch(pos);
+
+      for (Item item : items) {
+         Long2ObjectOpenHashMap<LongOpenHashSet> chunks = this.containersByItemChunk.get(item);
+         if (chunks != null) {
+            search.searchChunks(chunks);
+         }
+      }
+
+      return search.closestDistanceSq == Double.POSITIVE_INFINITY ? Optional.empty() : Optional.ofNullable(this.containers.get(search.closest));
+   }
+
+   /**
+    * @return How many of these items all known containers hold together.
+    */
+   public int getItemCount(Item item) {
+      this.refreshStale();
+      Long2IntOpenHashMap positions = this.containersByItem.get(item);
+      if (positions == null) {
+         return 0;
+      }
+
+      int result = 0;
+
+      for (int count : positions.values()) {
+         result += count;
+      }
+
+      return result;
+   }
+
+   public Collection<ContainerCache> getAllContainers() {
+      this.refreshStale();
+      return Collections.unmodifiableCollection(this.containers.values());
+   }
+
+   private void refreshStale() {
+      if (!this.stale.isEmpty()) {
+         long[] keys = this.stale.toLongArray();
+
+         for (long key : keys) {
+            BlockPos pos = BlockPos.of(key);
+            // Keep the last known contents of unloaded containers, they get re-read once loaded and changed again
+            if (this.level.isLoaded(pos)) {
+               this.update(pos);
+            } else {
+               this.stale.remove(key);
+            }
+         }
+      }
+   }
+
+   private void indexItems(ContainerCache cache) {
+      long key = cache.getBlockPos().asLong();
+      long chunk = ChunkPos.asLong(cache.getBlockPos());
+      cache.getItemCounts().forEach((item, count) -> {
+         this.containersByItem.computeIfAbsent(item, k -> new Long2IntOpenHashMap()).put(key, (int)count);
+         this.containersByItemChunk.computeIfAbsent(item, k -> new Long2ObjectOpenHashMap<>()).computeIfAbsent(chunk, k -> new LongOpenHashSet()).add(key);
+      });
+   }
+
+   private void unindexItems(ContainerCache cache) {
+      long key = cache.getBlockPos().asLong();
+      long chunk = ChunkPos.asLong(cache.getBlockPos());
+
+      for (Item item : cache.getItemCounts().keySet()) {
+         Long2IntOpenHashMap positions = this.containersByItem.get(item);
+         if (positions != null) {
+            positions.remove(key);
+            if (positions.isEmpty()) {
+               this.containersByItem.remove(item);
+            }
+         }
+
+         Long2ObjectOpenHashMap<LongOpenHashSet> chunks = this.containersByItemChunk.get(item);
+         if (chunks != null) {
+            LongOpenHashSet inChunk = chunks.get(chunk);
+            if (inChunk != null) {
+               inChunk.remove(key);
+               if (inChunk.isEmpty()) {
+                  chunks.remove(chunk);
+                  if (chunks.isEmpty()) {
+                     this.containersByItemChunk.remove(item);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   @Override
+   public CompoundTag save(CompoundTag tag) {
+      ListTag list = new ListTag();
+
+      for (ContainerCache cache : this.containers.values()) {
+         list.add(cache.save());
+      }
+
+      tag.put("containers", list);
+      return tag;
+   }
+
+   private static ContainerIndex load(ServerLevel level, CompoundTag tag) {
+      ContainerIndex index = new ContainerIndex(level);
+      ListTag list = tag.getList("containers", Tag.TAG_COMPOUND);
+
+      for (int i = 0; i < list.size(); i++) {
+         try {
+            ContainerCache cache = ContainerCache.load(index.dimension, list.getCompound(i));
+            index.containers.put(cache.getBlockPos().asLong(), cache);
+            index.indexItems(cache);
+         } catch (IllegalArgumentException e) {
+            Debug.logWarning("Skipping unreadable container entry: " + e.getMessage());
+         }
+      }
+
+      return index;
+   }
+
+   private static Dimension getDimension(Level level) {
+      if (level.dimensionType().ultraWarm()) {
+         return Dimension.NETHER;
+      } else {
+         return level.dimensionType().natural() ? Dimension.OVERWORLD : Dimension.END;
+      }
+   }
+
+   /**
+    * Closest container over one or more item buckets. Walks rings of chunks around the start until the ring can't
+    * beat the best hit; once the rings cost more lookups than there are buckets, the remaining buckets are checked
+    * directly, so a lone far away container doesn't walk thousands of empty rings.
+    */
+   private static final class ClosestSearch {
+      private final Vec3 pos;
+      private final int chunkX;
+      private final int chunkZ;
+      private long closest;
+      private double closestDistanceSq = Double.POSITIVE_INFINITY;
+
+      private ClosestSearch(Vec3 pos) {
+         this.pos = pos;
+         this.chunkX = (int)Math.floor(pos.x) >> 4;
+         this.chunkZ = (int)Math.floor(pos.z) >> 4;
+      }
+
+      private void searchChunks(Long2ObjectOpenHashMap<LongOpenHashSet> chunks) {
+         int lookups = 0;
+         int r = 0;
+
+         for (; ; r++) {
+            // Every block of ring r is at least (r - 1) chunks away horizontally
+            double ringDistance = Math.max(0, r - 1) * 16.0;
+            if (ringDistance * ringDistance >= this.closestDistanceSq) {
+               return;
+            }
+
+            if (lookups > chunks.size()) {
+               break;
+            }
+
+            for (int dx = -r; dx <= r; dx++) {
+               for (int dz = -r; dz <= r; dz += dx == -r || dx == r ? 1 : 2 * r) {
+                  this.searchChunk(chunks.get(ChunkPos.asLong(this.chunkX + dx, this.chunkZ + dz)));
+                  lookups++;
+               }
+            }
+         }
+
+         for (Long2ObjectMap.Entry<LongOpenHashSet> entry : chunks.long2ObjectEntrySet()) {
+            long chunk = entry.getLongKey();
+            if (Math.max(Math.abs(ChunkPos.getX(chunk) - this.chunkX), Math.abs(ChunkPos.getZ(chunk) - this.chunkZ)) < r) {
+               continue;
+            }
+
+            double dx = Math.max(0.0, Math.max(ChunkPos.getX(chunk) * 16.0 - this.pos.x, this.pos.x - ChunkPos.getX(chunk) * 16.0 - 16.0));
+            double dz = Math.max(0.0, Math.max(ChunkPos.getZ(chunk) * 16.0 - this.pos.z, this.pos.z - ChunkPos.getZ(chunk) * 16.0 - 16.0));
+            if (dx * dx + dz * dz < this.closestDistanceSq) {
+               this.searchChunk(entry.getValue());
+            }
+         }
+      }
+
+      private void searchChunk(LongOpenHashSet positions) {
+         if (positions != null) {
+            LongIterator it = positions.iterator();
+
+            while (it.hasNext()) {
+               long key = it.nextLong();
+               double dx = BlockPos.getX(key) + 0.5 - this.pos.x;
+               double dy = BlockPos.getY(key) + 0.5 - this.pos.y;
+               double dz = BlockPos.getZ(key) + 0.5 - this.pos.z;
+               double distanceSq = dx * dx + dy * dy + dz * dz;
+               if (distanceSq < this.closestDistanceSq) {
+                  this.closestDistanceSq = distanceSq;
+                  this.closest = key;
+               }
+            }
+         }
+      }
+   }
+}
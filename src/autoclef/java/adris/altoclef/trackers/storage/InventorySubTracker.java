@@ -8,17 +8,31 @@ import baritone.api.entity.IInventoryProvider;
 import baritone.api.entity.LivingEntityInventory;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import net.minecraft.core.NonNullList;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.Items;
 
+/**
+ * Item counts and item -> slot lookups for the agent's own inventory, kept as a count per item id and a bitmask of
+ * slots per item id (main, armor and offhand are 41 slots, so one long each).
+ * <p>
+ * Slots replaced through {@link LivingEntityInventory} are applied right away as deltas. Stacks that are grown or
+ * shrunk in place can't be reported, so once per tick (when marked dirty) every slot is compared against the last
+ * seen item and count, which only touches the ids that actually changed.
+ */
 public class InventorySubTracker extends Tracker {
-   private final Map<Item, List<Integer>> itemToSlotPlayer = new HashMap<>();
-   private final Map<Item, Integer> itemCountsPlayer = new HashMap<>();
+   private static final int MAIN_SLOTS = LivingEntityInventory.MAIN_SIZE;
+   private static final int ARMOR_START = MAIN_SLOTS;
+   private static final int OFFHAND_SLOT = LivingEntityInventory.OFF_HAND_SLOT;
+   private static final int SLOT_COUNT = OFFHAND_SLOT + 1;
+   private static final long MAIN_MASK = (1L << MAIN_SLOTS) - 1;
+
+   private int[] itemCounts = new int[0];
+   private long[] itemSlots = new long[0];
+   private final Item[] slotItems = new Item[SLOT_COUNT];
+   private final int[] slotCounts = new int[SLOT_COUNT];
+   private long emptySlots;
+   private LivingEntityInventory listeningTo;
 
    public InventorySubTracker(TrackerManager manager) {
       super(manager);
@@ -34,7 +48,10 @@ public class InventorySubTracker extends Tracker {
             result += cursorStack.getCount();
          }
 
-         result += this.itemCountsPlayer.getOrDefault(item, 0);
+         int id = Item.getId(item);
+         if (id < this.itemCounts.length) {
+            result += this.itemCounts[id];
+         }
       }
 
       return result;
@@ -49,7 +66,8 @@ public class InventorySubTracker extends Tracker {
             return true;
          }
 
-         if (this.itemCountsPlayer.containsKey(item)) {
+         int id = Item.getId(item);
+         if (id < this.itemCounts.length && this.itemCounts[id] > 0) {
             return true;
          }
       }
@@ -59,29 +77,32 @@ public class InventorySubTracker extends Tracker {
 
    public List<Slot> getSlotsWithItemsPlayerInventory(boolean includeArmor, Item... items) {
       this.ensureUpdated();
-      List<Slot> result = new ArrayList<>();
       LivingEntityInventory inventory = ((IInventoryProvider)this.mod.getEntity()).getLivingInventory();
+      long slots = 0L;
 
       for (Item item : items) {
-         if (this.itemToSlotPlayer.containsKey(item)) {
-            for (Integer index : this.itemToSlotPlayer.get(item)) {
-               result.add(new Slot(inventory.main, index));
-            }
+         int id = Item.getId(item);
+         if (id < this.itemSlots.length) {
+            slots |= this.itemSlots[id];
          }
       }
 
-      if (includeArmor) {
-         for (int i = 0; i < inventory.armor.size(); i++) {
-            ItemStack stack = (ItemStack)inventory.armor.get(i);
-            if (Arrays.stream(items).anyMatch(stack::is)) {
-               result.add(new Slot(inventory.armor, i));
-            }
-         }
+      if (!includeArmor) {
+         slots &= ~(((1L << (OFFHAND_SLOT - ARMOR_START)) - 1) << ARMOR_START);
       }
 
-      ItemStack offhandStack = (ItemStack)inventory.offHand.get(0);
-      if (Arrays.stream(items).anyMatch(offhandStack::is)) {
-         result.add(new Slot(inventory.offHand, 0));
+      List<Slot> result = new ArrayList<>(Long.bitCount(slots));
+
+      while (slots != 0L) {
+         int slot = Long.numberOfTrailingZeros(slots);
+         slots &= slots - 1;
+         if (slot < ARMOR_START) {
+            result.add(new Slot(inventory.main, slot));
+         } else if (slot < OFFHAND_SLOT) {
+            result.add(new Slot(inventory.armor, slot - ARMOR_START));
+         } else {
+            result.add(new Slot(inventory.offHand, 0));
+         }
       }
 
       return result;
@@ -124,43 +145,80 @@ public class InventorySubTracker extends Tracker {
 
    public boolean hasEmptySlot() {
       this.ensureUpdated();
-      return this.itemCountsPlayer.getOrDefault(Items.AIR, 0) > 0;
+      return (this.emptySlots & MAIN_MASK) != 0L;
    }
 
    @Override
    protected void updateState() {
-      this.reset();
       LivingEntityInventory inventory = ((IInventoryProvider)this.mod.getEntity()).getLivingInventory();
       if (inventory != null) {
-         for (int i = 0; i < inventory.main.size(); i++) {
-            ItemStack stack = (ItemStack)inventory.main.get(i);
-            this.registerItem(stack, i, inventory.main);
+         if (inventory != this.listeningTo) {
+            this.reset();
+            inventory.setSlotChangeListener(this::onSlotChanged);
+            this.listeningTo = inventory;
          }
 
-         for (int i = 0; i < inventory.armor.size(); i++) {
-            ItemStack stack = (ItemStack)inventory.armor.get(i);
-            this.registerItem(stack, i, inventory.armor);
+         for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            this.syncSlot(inventory, slot);
          }
+      }
+   }
 
-         for (int i = 0; i < inventory.offHand.size(); i++) {
-            ItemStack stack = (ItemStack)inventory.offHand.get(i);
-            this.registerItem(stack, i, inventory.offHand);
-         }
+   private void onSlotChanged(int slot) {
+      if (slot >= 0 && slot < SLOT_COUNT && this.listeningTo != null) {
+         this.syncSlot(this.listeningTo, slot);
       }
    }
 
-   private void registerItem(ItemStack stack, int index, NonNullList<ItemStack> inventory) {
-      Item item = stack.isEmpty() ? Items.AIR : stack.getItem();
-      int count = stack.getCount();
-      this.itemCountsPlayer.put(item, this.itemCountsPlayer.getOrDefault(item, 0) + count);
-      if (inventory instanceof NonNullList) {
-         this.itemToSlotPlayer.computeIfAbsent(item, k -> new ArrayList<>()).add(index);
+   private void syncSlot(LivingEntityInventory inventory, int slot) {
+      ItemStack stack = inventory.getItem(slot);
+      Item item = stack.isEmpty() ? null : stack.getItem();
+      int count = stack.isEmpty() ? 0 : stack.getCount();
+      Item oldItem = this.slotItems[slot];
+      if (item == oldItem && count == this.slotCounts[slot]) {
+         return;
+      }
+
+      long bit = 1L << slot;
+      if (oldItem != null) {
+         int oldId = Item.getId(oldItem);
+         this.itemCounts[oldId] -= this.slotCounts[slot];
+         this.itemSlots[oldId] &= ~bit;
+      }
+
+      if (item != null) {
+         int id = Item.getId(item);
+         this.ensureCapacity(id);
+         this.itemCounts[id] += count;
+         this.itemSlots[id] |= bit;
+         this.emptySlots &= ~bit;
+      } else {
+         this.emptySlots |= bit;
+      }
+
+      this.slotItems[slot] = item;
+      this.slotCounts[slot] = count;
+   }
+
+   private void ensureCapacity(int id) {
+      if (id >= this.itemCounts.length) {
+         int size = Math.max(id + 1, Math.max(this.itemCounts.length * 2, 1024));
+         this.itemCounts = Arrays.copyOf(this.itemCounts, size);
+         this.itemSlots = Arrays.copyOf(this.itemSlots, size);
       }
    }
 
    @Override
    protected void reset() {
-      this.itemToSlotPlayer.clear();
-      this.itemCountsPlayer.clear();
+      Arrays.fill(this.itemCounts, 0);
+      Arrays.fill(this.itemSlots, 0L);
+      Arrays.fill(this.slotItems, null);
+      Arrays.fill(this.slotCounts, 0);
+      // Everything is empty until synced, so the first sync fills every slot.
+      this.emptySlots = (1L << SLOT_COUNT) - 1;
+      if (this.listeningTo != null) {
+         this.listeningTo.setSlotChangeListener(null);
+         this.listeningTo = null;
+      }
    }
 }
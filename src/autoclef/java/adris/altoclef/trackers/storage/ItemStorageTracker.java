@@ -7,13 +7,11 @@ import adris.altoclef.util.ItemTarget;
 import adris.altoclef.util.helpers.StorageHelper;
 import adris.altoclef.util.slots.Slot;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Vec3i;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.phys.Vec3;
@@ -93,7 +91,7 @@ public class ItemStorageTracker extends Tracker {
    }
 
    public boolean hasItemContainer(Predicate<ContainerCache> accept, Item... items) {
-      return this.containers.getCachedContainers(accept).stream().anyMatch(cache -> cache.hasItem(items));
+      return this.containers.getContainersWithItem(items).stream().anyMatch(accept);
    }
 
    public Optional<ContainerCache> getContainerAtPosition(BlockPos pos) {
@@ -105,10 +103,7 @@ public class ItemStorageTracker extends Tracker {
    }
 
    public Optional<ContainerCache> getClosestContainerWithItem(Vec3 pos, Item... items) {
-      return this.containers
-         .getCachedContainers(c -> c.hasItem(items))
-         .stream()
-         .min(Comparator.comparingDouble(c -> c.getBlockPos().distSqr(new Vec3i((int)pos.x(), (int)pos.y(), (int)pos.z()))));
+      return this.containers.getClosestContainerWithItem(pos, items);
    }
 
    public Optional<BlockPos> getLastBlockPosInteraction() {
@@ -0,0 +1,64 @@
+package adris.altoclef.util;
+
+import java.util.List;
+import java.util.Map;
+import net.minecraft.world.item.Item;
+
+/**
+ * The result of {@link adris.altoclef.util.helpers.CraftingPlanner}: the crafting/smelting steps to perform in
+ * order (ingredients before what they are used in), and the raw materials that still have to be gathered first.
+ */
+public class CraftingPlan {
+   private final List<CraftingPlan.Step> steps;
+   private final Map<Item, Integer> missingMaterials;
+
+   public CraftingPlan(List<CraftingPlan.Step> steps, Map<Item, Integer> missingMaterials) {
+      this.steps = List.copyOf(steps);
+      this.missingMaterials = Map.copyOf(missingMaterials);
+   }
+
+   public List<CraftingPlan.Step> getSteps() {
+      return this.steps;
+   }
+
+   /**
+    * @return Raw materials (that can't be crafted or smelted) we don't have enough of, and how many more we need.
+    */
+   public Map<Item, Integer> getMissingMaterials() {
+      return this.missingMaterials;
+   }
+
+   public boolean hasAllMaterials() {
+      return this.missingMaterials.isEmpty();
+   }
+
+   public boolean requiresSmelting() {
+      for (CraftingPlan.Step step : this.steps) {
+         if (step.isSmelting()) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return "CraftingPlan{steps=" + this.steps + ", missing=" + this.missingMaterials + "}";
+   }
+
+   /**
+    * @param times How many times to craft the recipe, or how many items to smelt.
+    * @param recipe null for smelting steps.
+    * @param smeltMaterial Catalogue name of the smelting input, null for crafting steps.
+    */
+   public record Step(Item output, int times, CraftingRecipe recipe, String smeltMaterial) {
+      public boolean isSmelting() {
+         return this.recipe == null;
+      }
+
+      public RecipeTarget toRecipeTarget(int targetCount) {
+         return this.recipe == null ? null : new RecipeTarget(this.output, targetCount, this.recipe);
+      }
+   }
+}
@@ -0,0 +1,297 @@
+package adris.altoclef.util.helpers;
+
+import adris.altoclef.AltoClefController;
+import adris.altoclef.TaskCatalogue;
+import adris.altoclef.trackers.CraftingRecipeIndex;
+import adris.altoclef.util.CraftingPlan;
+import adris.altoclef.util.CraftingRecipe;
+import adris.altoclef.util.ItemTarget;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+/**
+ * Works out everything that has to be crafted/smelted (and gathered) to obtain an item, walking the recipe graph
+ * formed by the {@link TaskCatalogue} recipes and, for items the catalogue doesn't craft, the shared
+ * {@link CraftingRecipeIndex}.
+ * <p>
+ * Plans are cached by (item, count, inventory contents), so asking for the same thing every tick while the
+ * inventory doesn't change is a map lookup. Parts of a plan aren't cached on their own: how an ingredient is made
+ * depends on what the rest of the plan already used up or left over. Which recipes produce an item is resolved once per recipe index, the one
+ * used is picked per plan from what's in the inventory. Smelting steps also ask for fuel.
+ */
+public class CraftingPlanner {
+   private static final int MAX_DEPTH = 24;
+   private static final int MAX_CACHED_PLANS = 512;
+   private static final Map<CraftingPlanner.PlanKey, CraftingPlan> PLAN_CACHE = new LinkedHashMap<>(64, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CraftingPlanner.PlanKey, CraftingPlan> eldest) {
+         return this.size() > MAX_CACHED_PLANS;
+      }
+   };
+   // Recipe graph nodes, replaced as a whole when the recipe index changes
+   private static volatile CraftingPlanner.RecipeNodes recipeNodes = new CraftingPlanner.RecipeNodes(null);
+
+   /**
+    * Plans how to end up with {@code count} of {@code item}, counting what's already in the inventory.
+    */
+   public static CraftingPlan plan(AltoClefController mod, Item item, int count) {
+      return plan(mod, item, count, true);
+   }
+
+   /**
+    * Plans how to make {@code count} more of {@code item}, ignoring the ones already in the inventory.
+    */
+   public static CraftingPlan planCrafting(AltoClefController mod, Item item, int count) {
+      return plan(mod, item, count, false);
+   }
+
+   private static CraftingPlan plan(AltoClefController mod, Item item, int count, boolean countExisting) {
+      CraftingRecipeIndex recipes = mod.getCraftingRecipeTracker().getIndex();
+      List<Item> fuels = mod.getModSettings() != null ? List.of(mod.getModSettings().getSupportedFuelItems()) : List.of(Items.COAL);
+      // The whole inventory is part of the key, a hash of it could collide and hand out another inventory's plan
+      Object2IntOpenHashMap<Item> inventory = snapshotInventory(mod);
+      CraftingPlanner.PlanKey key = new CraftingPlanner.PlanKey(item, count, countExisting, inventory, recipes, fuels);
+      CraftingPlan cached = getCached(key);
+      if (cached != null) {
+         return cached;
+      }
+
+      CraftingPlan plan = solve(item, count, countExisting, inventory.clone(), recipes, fuels);
+      putCached(key, plan);
+      return plan;
+   }
+
+   private static CraftingPlan solve(
+      Item item, int count, boolean countExisting, Object2IntOpenHashMap<Item> inventory, CraftingRecipeIndex recipes, List<Item> fuels
+   ) {
+      CraftingPlanner.Solver solver = new CraftingPlanner.Solver(inventory, recipes, fuels);
+      if (!countExisting) {
+         inventory.removeInt(item);
+      }
+
+      solver.require(item, count, 0);
+      return new CraftingPlan(solver.steps, solver.missing);
+   }
+
+   private static CraftingPlan getCached(CraftingPlanner.PlanKey key) {
+      synchronized (PLAN_CACHE) {
+         return PLAN_CACHE.get(key);
+      }
+   }
+
+   private static void putCached(CraftingPlanner.PlanKey key, CraftingPlan plan) {
+      synchronized (PLAN_CACHE) {
+         PLAN_CACHE.put(key, plan);
+      }
+   }
+
+   private static Object2IntOpenHashMap<Item> snapshotInventory(AltoClefController mod) {
+      Object2IntOpenHashMap<Item> inventory = new Object2IntOpenHashMap<>();
+
+      for (ItemStack stack : mod.getItemStorage().getItemStacksPlayerInventory(true)) {
+         if (!stack.isEmpty()) {
+            inventory.addTo(stack.getItem(), stack.getCount());
+         }
+      }
+
+      return inventory;
+   }
+
+   // Catalogue recipe first, then the ones from the recipe index. Empty if the item can't be crafted.
+   private static List<CraftingRecipe> getRecipes(Item item, CraftingRecipeIndex recipes) {
+      CraftingPlanner.RecipeNodes nodes = recipeNodes;
+      if (nodes.index != recipes) {
+         nodes = new CraftingPlanner.RecipeNodes(recipes);
+         recipeNodes = nodes;
+      }
+
+      return nodes.byItem.computeIfAbsent(item, k -> {
+         List<CraftingRecipe> result = new ArrayList<>();
+         CraftingRecipe catalogued = TaskCatalogue.getCataloguedRecipe(k);
+         if (catalogued != null) {
+            result.add(catalogued);
+         }
+
+         if (recipes != null && recipes.hasRecipeForItem(k)) {
+            result.addAll(recipes.getRecipesForItem(k));
+         }
+
+         return List.copyOf(result);
+      });
+   }
+
+   // inventory is never changed once it's in a key
+   private record PlanKey(
+      Item item, int count, boolean countExisting, Object2IntOpenHashMap<Item> inventory, CraftingRecipeIndex recipes, List<Item> fuels
+   ) {
+   }
+
+   private static final class RecipeNodes {
+      private final CraftingRecipeIndex index;
+      private final Map<Item, List<CraftingRecipe>> byItem = new ConcurrentHashMap<>();
+
+      private RecipeNodes(CraftingRecipeIndex index) {
+         this.index = index;
+      }
+   }
+
+   private static class Solver {
+      private final Object2IntOpenHashMap<Item> available;
+      private final CraftingRecipeIndex recipes;
+      private final List<Item> fuels;
+      private final List<CraftingPlan.Step> steps = new ArrayList<>();
+      private final Object2IntLinkedOpenHashMap<Item> missing = new Object2IntLinkedOpenHashMap<>();
+      private final Set<Item> visiting = new ReferenceOpenHashSet<>();
+
+      private Solver(Object2IntOpenHashMap<Item> available, CraftingRecipeIndex recipes, List<Item> fuels) {
+         this.available = available;
+         this.recipes = recipes;
+         this.fuels = fuels;
+      }
+
+      private void require(Item item, int count, int depth) {
+         int need = count - this.take(item, count);
+         if (need <= 0) {
+            return;
+         }
+
+         // Cycles (like blocks <-> ingots) and absurdly deep chains are treated as raw materials.
+         if (depth >= MAX_DEPTH || !this.visiting.add(item)) {
+            this.missing.addTo(item, need);
+            return;
+         }
+
+         try {
+            CraftingRecipe recipe = this.chooseRecipe(getRecipes(item, this.recipes), need);
+            String smeltMaterial = recipe == null ? TaskCatalogue.getCataloguedSmeltMaterial(item) : null;
+            if (recipe != null) {
+               int crafts = (need + recipe.outputCount() - 1) / recipe.outputCount();
+
+               for (ItemTarget slot : recipe.getSlots()) {
+                  if (slot != null && !slot.isEmpty()) {
+                     this.requireAny(slot, slot.getTargetCount() * crafts, depth + 1);
+                  }
+               }
+
+               this.steps.add(new CraftingPlan.Step(item, crafts, recipe, null));
+               int leftover = crafts * recipe.outputCount() - need;
+               if (leftover > 0) {
+                  this.available.addTo(item, leftover);
+               }
+            } else if (smeltMaterial != null) {
+               this.requireAny(new ItemTarget(smeltMaterial, need), need, depth + 1);
+               this.requireFuel(need, depth + 1);
+               this.steps.add(new CraftingPlan.Step(item, need, null, smeltMaterial));
+            } else {
+               this.missing.addTo(item, need);
+            }
+         } finally {
+            this.visiting.remove(item);
+         }
+      }
+
+      // The first recipe we have every ingredient for, otherwise the one we have the most slots for
+      private CraftingRecipe chooseRecipe(List<CraftingRecipe> candidates, int need) {
+         if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+         }
+
+         CraftingRecipe best = null;
+         int bestMissing = Integer.MAX_VALUE;
+
+         for (CraftingRecipe candidate : candidates) {
+            int crafts = (need + candidate.outputCount() - 1) / candidate.outputCount();
+            Object2IntOpenHashMap<Item> used = new Object2IntOpenHashMap<>();
+            int missing = 0;
+
+            for (ItemTarget slot : candidate.getSlots()) {
+               if (slot != null && !slot.isEmpty()) {
+                  int slotNeed = slot.getTargetCount() * crafts;
+                  Item match = null;
+
+                  for (Item option : slot.getMatches()) {
+                     if (this.available.getInt(option) - used.getInt(option) >= slotNeed) {
+                        match = option;
+                        break;
+                     }
+                  }
+
+                  if (match != null) {
+                     used.addTo(match, slotNeed);
+                  } else {
+                     missing++;
+                  }
+               }
+            }
+
+            if (missing == 0) {
+               return candidate;
+            }
+
+            if (missing < bestMissing) {
+               best = candidate;
+               bestMissing = missing;
+            }
+         }
+
+         return best;
+      }
+
+      // Fuel for smelting this many items, whatever burns that we have first, then the first supported fuel
+      private void requireFuel(int smelts, int depth) {
+         double left = smelts;
+
+         for (Item fuel : this.fuels) {
+            double perItem = ItemHelper.getFuelAmount(fuel);
+            if (perItem > 0.0) {
+               left -= this.take(fuel, (int)Math.ceil(left / perItem)) * perItem;
+               if (left <= 0.0) {
+                  return;
+               }
+            }
+         }
+
+         for (Item fuel : this.fuels) {
+            double perItem = ItemHelper.getFuelAmount(fuel);
+            if (perItem > 0.0) {
+               this.require(fuel, (int)Math.ceil(left / perItem), depth);
+               return;
+            }
+         }
+      }
+
+      // Any match satisfies the slot, use what we have first and only then make the first match.
+      private void requireAny(ItemTarget target, int count, int depth) {
+         Item[] matches = target.getMatches();
+         int need = count;
+
+         for (int i = 0; i < matches.length && need > 0; i++) {
+            need -= this.take(matches[i], need);
+         }
+
+         if (need > 0 && matches.length != 0) {
+            this.require(matches[0], need, depth);
+         }
+      }
+
+      private int take(Item item, int count) {
+         int have = this.available.getInt(item);
+         int taken = Math.min(have, count);
+         if (taken > 0) {
+            this.available.put(item, have - taken);
+         }
+
+         return taken;
+      }
+   }
+}
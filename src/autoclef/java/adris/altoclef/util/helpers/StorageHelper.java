@@ -38,6 +38,22 @@ public class StorageHelper {
       return controller.getSlotHandler().getCursorStack();
    }
 
+   /**
+    * Cheap, allocation free hash of which items (and how many) are in the inventory.
+    * Equal fingerprints mean "very likely unchanged", use it to skip work, not to prove equality.
+    */
+   public static int getInventoryFingerprint(AltoClefController controller) {
+      LivingEntityInventory inventory = controller.getInventory();
+      int fingerprint = 1;
+
+      for (int i = 0; i < inventory.getContainerSize(); i++) {
+         ItemStack stack = inventory.getItem(i);
+         fingerprint = 31 * fingerprint + (stack.isEmpty() ? 0 : System.identityHashCode(stack.getItem()) * 65 + stack.getCount());
+      }
+
+      return fingerprint;
+   }
+
    public static boolean isArmorEquipped(AltoClefController controller, Item... any) {
       for (Item item : any) {
          if (item instanceof ArmorItem armor) {
@@ -0,0 +1,37 @@
+package adris.altoclef.player2api.status;
+
+import adris.altoclef.eventbus.EventBus;
+import adris.altoclef.eventbus.Subscription;
+import adris.altoclef.eventbus.events.BlockChangeEvent;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.level.block.Blocks;
+
+public class NearbyBlockCountsTest implements FabricGameTest {
+   @GameTest(template = EMPTY_STRUCTURE)
+   public void countsFollowPlacedAndBrokenBlocks(GameTestHelper helper) {
+      BlockPos center = new BlockPos(1, 2, 1);
+      BlockPos changed = new BlockPos(2, 2, 1);
+      NearbyBlockCounts counts = new NearbyBlockCounts();
+      Subscription<BlockChangeEvent> sub = EventBus.subscribe(BlockChangeEvent.class, counts::onBlockChange);
+
+      try {
+         counts.update(helper.getLevel(), helper.absolutePos(center));
+         int before = counts.getCount(Blocks.DIAMOND_BLOCK);
+
+         // No update() in between, only the block change events can move the counts
+         helper.setBlock(changed, Blocks.DIAMOND_BLOCK);
+         helper.assertTrue(counts.getCount(Blocks.DIAMOND_BLOCK) == before + 1, "placed block wasn't counted");
+         helper.assertTrue(counts.describe().contains("diamond_block"), "placed block missing from the description");
+
+         helper.destroyBlock(changed);
+         helper.assertTrue(counts.getCount(Blocks.DIAMOND_BLOCK) == before, "broken block is still counted");
+      } finally {
+         EventBus.unsubscribe(sub);
+      }
+
+      helper.succeed();
+   }
+}
@@ -1,12 +1,16 @@
 package baritone;
 
+import baritone.api.component.ComponentRegistry;
+import baritone.api.schematic.BuildCoordinator;
 import baritone.command.defaults.DefaultCommands;
 import baritone.entity.CustomFishingBobberEntity;
+import baritone.utils.BlockChangeTracker;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.object.builder.v1.entity.FabricEntityTypeBuilder;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -46,6 +50,9 @@ public final class PlayerEngine implements ModInitializer {
 
    public void onInitialize() {
       DefaultCommands.registerAll();
+      ComponentRegistry.registerLifecycleHooks();
+      BlockChangeTracker.registerLifecycleHooks();
+      ServerLifecycleEvents.SERVER_STOPPED.register(server -> BuildCoordinator.clearShared());
       Registry.register(BuiltInRegistries.ENTITY_TYPE, id("fishing_bobber"), FISHING_BOBBER);
    }
 
@@ -27,7 +27,7 @@ import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 
 public interface IBaritone {
-   EntityComponentKey<IBaritone> KEY = new EntityComponentKey<>(Baritone::new);
+   EntityComponentKey<IBaritone> KEY = new EntityComponentKey<>("baritone", Baritone::new);
 
    IPathingBehavior getPathingBehavior();
 
@@ -2,16 +2,23 @@ package baritone.api;
 
 import baritone.api.utils.SettingsUtil;
 import baritone.api.utils.TypeUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.awt.Color;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.Vec3i;
@@ -22,7 +29,6 @@ import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
-import org.jetbrains.annotations.Nullable;
 
 public final class Settings {
    public final Settings.Setting<Boolean> allowBreak = new Settings.Setting<>(true);
@@ -180,6 +186,9 @@ public final class Settings {
    public final Settings.Setting<Boolean> schematicOrientationZ = new Settings.Setting<>(false);
    public final Settings.Setting<String> schematicFallbackExtension = new Settings.Setting<>("schematic");
    public final Settings.Setting<Integer> builderTickScanRadius = new Settings.Setting<>(5);
+   public final Settings.Setting<Boolean> buildPlanAhead = new Settings.Setting<>(true);
+   public final Settings.Setting<Boolean> buildCooperatively = new Settings.Setting<>(false);
+   public final Settings.Setting<Boolean> buildTrackProgress = new Settings.Setting<>(true);
    public final Settings.Setting<Boolean> mineScanDroppedItems = new Settings.Setting<>(true);
    public final Settings.Setting<Long> mineDropLoiterDurationMSThanksLouca = new Settings.Setting<>(250L);
    public final Settings.Setting<Boolean> distanceTrim = new Settings.Setting<>(true);
@@ -223,39 +232,100 @@ public final class Settings {
    public final Settings.Setting<Boolean> notificationOnBuildFinished = new Settings.Setting<>(true);
    public final Settings.Setting<Boolean> notificationOnExploreFinished = new Settings.Setting<>(true);
    public final Settings.Setting<Boolean> notificationOnMineFail = new Settings.Setting<>(true);
+   // Reflection over this class is the same for every instance, so only done once
+   private static Field[] settingFields;
+   private static Type[] settingFieldTypes;
+   private static String[] settingNames;
+   private static Object2IntOpenHashMap<String> settingIndices;
    public final Map<String, Settings.Setting<?>> byLowerName;
    public final List<Settings.Setting<?>> allSettings;
-   public final Map<Settings.Setting<?>, Type> settingTypes;
+   private final Settings.Setting<?>[] settings;
+   // Values set on this instance by setting index, only the ones that were set. Replaced instead of modified, so the
+   // pathing threads can read it without locking.
+   private volatile Int2ObjectOpenHashMap<Object> overrides = new Int2ObjectOpenHashMap<>(0);
+   // Bumped whenever a setting of this instance changes value, see SettingsView
+   private final AtomicLong generation = new AtomicLong();
+   private volatile SettingsView view;
 
    public Settings() {
-      Field[] temp = this.getClass().getFields();
-      Map<String, Settings.Setting<?>> tmpByName = new HashMap<>();
-      List<Settings.Setting<?>> tmpAll = new ArrayList<>();
-      Map<Settings.Setting<?>, Type> tmpSettingTypes = new HashMap<>();
+      resolveSettingFields();
+      this.settings = new Settings.Setting<?>[settingFields.length];
 
       try {
-         for (Field field : temp) {
+         for (int i = 0; i < settingFields.length; i++) {
+            Settings.Setting<?> setting = (Settings.Setting<?>)settingFields[i].get(this);
+            setting.index = i;
+            this.settings[i] = setting;
+         }
+      } catch (IllegalAccessException var11) {
+         throw new IllegalStateException(var11);
+      }
+
+      this.byLowerName = new Settings.ByLowerName();
+      this.allSettings = Collections.unmodifiableList(Arrays.asList(this.settings));
+   }
+
+   /**
+    * @return A number that changes whenever a setting this instance reads changes value, its own or (for per agent
+    * settings) a global one it falls back to.
+    */
+   public long getGeneration() {
+      Settings global = BaritoneAPI.getGlobalSettings();
+      return global == this ? this.generation.get() : this.generation.get() + global.generation.get();
+   }
+
+   /**
+    * @return The current values of the settings pathing reads, rebuilt only if a setting changed since last time.
+    */
+   public SettingsView view() {
+      SettingsView view = this.view;
+      long generation = this.getGeneration();
+      if (view == null || view.generation != generation) {
+         view = new SettingsView(this, generation);
+         this.view = view;
+      }
+
+      return view;
+   }
+
+   private static synchronized void resolveSettingFields() {
+      if (settingFields == null) {
+         List<Field> fields = new ArrayList<>();
+         Object2IntOpenHashMap<String> indices = new Object2IntOpenHashMap<>();
+         indices.defaultReturnValue(-1);
+
+         for (Field field : Settings.class.getFields()) {
             if (field.getType().equals(Settings.Setting.class)) {
-               Settings.Setting<?> setting = (Settings.Setting<?>)field.get(this);
-               String name = field.getName();
-               setting.name = name;
-               name = name.toLowerCase(Locale.ROOT);
-               if (tmpByName.containsKey(name)) {
+               String name = field.getName().toLowerCase(Locale.ROOT);
+               if (indices.containsKey(name)) {
                   throw new IllegalStateException("Duplicate setting name");
                }
 
-               tmpByName.put(name, setting);
-               tmpAll.add(setting);
-               tmpSettingTypes.put(setting, ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0]);
+               indices.put(name, fields.size());
+               fields.add(field);
             }
          }
-      } catch (IllegalAccessException var11) {
-         throw new IllegalStateException(var11);
+
+         settingFieldTypes = fields.stream().map(field -> ((ParameterizedType)field.getGenericType()).getActualTypeArguments()[0]).toArray(Type[]::new);
+         settingNames = fields.stream().map(Field::getName).toArray(String[]::new);
+         settingIndices = indices;
+         settingFields = fields.toArray(Field[]::new);
       }
+   }
+
+   private synchronized void setOverride(int index, Object value) {
+      Int2ObjectOpenHashMap<Object> current = this.overrides;
+      if (!Objects.equals(current.get(index), value)) {
+         Int2ObjectOpenHashMap<Object> updated = new Int2ObjectOpenHashMap<>(current);
+         if (value == null) {
+            updated.remove(index);
+         } else {
+            updated.put(index, value);
+         }
 
-      this.byLowerName = Collections.unmodifiableMap(tmpByName);
-      this.allSettings = Collections.unmodifiableList(tmpAll);
-      this.settingTypes = Collections.unmodifiableMap(tmpSettingTypes);
+         this.overrides = updated;
+         this.generation.incrementAndGet();
+      }
    }
 
    public <T> List<Settings.Setting<T>> getAllValuesByType(Class<T> cla$$) {
@@ -271,39 +341,37 @@ public final class Settings {
    }
 
    public final class Setting<T> {
-      @Nullable
-      private T value;
       public final T defaultValue;
-      private String name;
+      // Position in Settings.settings, the same for every instance
+      private int index;
 
       private Setting(T value) {
          if (value == null) {
             throw new IllegalArgumentException("Cannot determine value type class from null");
          } else {
-            this.value = null;
             this.defaultValue = value;
          }
       }
 
       public T defaultValue() {
-         if (Settings.this == BaritoneAPI.getGlobalSettings()) {
-            return this.defaultValue;
-         } else {
-            Settings.Setting<T> globalSetting = (Settings.Setting<T>)BaritoneAPI.getGlobalSettings().byLowerName.get(this.name.toLowerCase(Locale.ROOT));
-            return globalSetting.get();
-         }
+         Settings global = BaritoneAPI.getGlobalSettings();
+         return Settings.this == global ? this.defaultValue : (T)global.settings[this.index].get();
       }
 
       public final T get() {
-         return this.value == null ? this.defaultValue() : this.value;
+         T value = (T)Settings.this.overrides.get(this.index);
+         return value == null ? this.defaultValue() : value;
       }
 
+      /**
+       * Does nothing (and invalidates nothing) if the value is the one already set.
+       */
       public final void set(T value) {
-         this.value = value;
+         Settings.this.setOverride(this.index, value);
       }
 
       public final String getName() {
-         return this.name;
+         return settingNames[this.index];
       }
 
       public Class<T> getValueClass() {
@@ -316,11 +384,36 @@ public final class Settings {
       }
 
       public void reset() {
-         this.value = null;
+         Settings.this.setOverride(this.index, null);
       }
 
       public final Type getType() {
-         return Settings.this.settingTypes.get(this);
+         return settingFieldTypes[this.index];
+      }
+   }
+
+   // Name lookups go through the shared index, so instances don't each hold a map of their settings
+   private final class ByLowerName extends AbstractMap<String, Settings.Setting<?>> {
+      @Override
+      public Settings.Setting<?> get(Object key) {
+         int index = key instanceof String ? settingIndices.getInt(key) : -1;
+         return index == -1 ? null : Settings.this.settings[index];
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return this.get(key) != null;
+      }
+
+      @Override
+      public Set<Map.Entry<String, Settings.Setting<?>>> entrySet() {
+         Set<Map.Entry<String, Settings.Setting<?>>> entries = new LinkedHashSet<>();
+
+         for (Settings.Setting<?> setting : Settings.this.settings) {
+            entries.add(new SimpleImmutableEntry<>(setting.getName().toLowerCase(Locale.ROOT), setting));
+         }
+
+         return Collections.unmodifiableSet(entries);
       }
    }
 }
@@ -0,0 +1,58 @@
+package baritone.api;
+
+/**
+ * The settings path calculation reads, copied out of a {@link Settings} (with the global values it falls back to
+ * already resolved) into plain fields.
+ * <p>
+ * Get one through {@link Settings#view()}: views are cached and only rebuilt once a setting changed, which is tracked
+ * by {@link Settings#getGeneration()}. A view never changes after it is built.
+ */
+public final class SettingsView {
+   public final long generation;
+   public final boolean allowBreak;
+   public final boolean allowSprint;
+   public final boolean allowPlace;
+   public final boolean allowWaterBucketFall;
+   public final double blockPlacementPenalty;
+   public final double blockBreakAdditionalPenalty;
+   public final boolean allowParkour;
+   public final boolean allowParkourPlace;
+   public final boolean allowJumpAt256;
+   public final boolean allowParkourAscend;
+   public final boolean assumeWalkOnWater;
+   public final boolean allowDiagonalDescend;
+   public final boolean allowDiagonalAscend;
+   public final boolean allowDownward;
+   public final int maxFallHeightNoWater;
+   public final int maxFallHeightBucket;
+   public final double backtrackCostFavoringCoefficient;
+   public final double jumpPenalty;
+   public final double walkOnWaterOnePenalty;
+   public final boolean allowSwimming;
+   public final boolean ignoreBreath;
+
+   SettingsView(Settings settings, long generation) {
+      this.generation = generation;
+      this.allowBreak = settings.allowBreak.get();
+      this.allowSprint = settings.allowSprint.get();
+      this.allowPlace = settings.allowPlace.get();
+      this.allowWaterBucketFall = settings.allowWaterBucketFall.get();
+      this.blockPlacementPenalty = settings.blockPlacementPenalty.get();
+      this.blockBreakAdditionalPenalty = settings.blockBreakAdditionalPenalty.get();
+      this.allowParkour = settings.allowParkour.get();
+      this.allowParkourPlace = settings.allowParkourPlace.get();
+      this.allowJumpAt256 = settings.allowJumpAt256.get();
+      this.allowParkourAscend = settings.allowParkourAscend.get();
+      this.assumeWalkOnWater = settings.assumeWalkOnWater.get();
+      this.allowDiagonalDescend = settings.allowDiagonalDescend.get();
+      this.allowDiagonalAscend = settings.allowDiagonalAscend.get();
+      this.allowDownward = settings.allowDownward.get();
+      this.maxFallHeightNoWater = settings.maxFallHeightNoWater.get();
+      this.maxFallHeightBucket = settings.maxFallHeightBucket.get();
+      this.backtrackCostFavoringCoefficient = settings.backtrackCostFavoringCoefficient.get();
+      this.jumpPenalty = settings.jumpPenalty.get();
+      this.walkOnWaterOnePenalty = settings.walkOnWaterOnePenalty.get();
+      this.allowSwimming = settings.allowSwimming.get();
+      this.ignoreBreath = settings.ignoreBreath.get();
+   }
+}
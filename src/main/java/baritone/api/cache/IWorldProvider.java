@@ -4,7 +4,7 @@ import baritone.api.component.WorldComponentKey;
 import baritone.cache.WorldProvider;
 
 public interface IWorldProvider {
-   WorldComponentKey<IWorldProvider> KEY = new WorldComponentKey<>(WorldProvider::new);
+   WorldComponentKey<IWorldProvider> KEY = new WorldComponentKey<>("world_provider", WorldProvider::new);
 
    IWorldData getCurrentWorld();
 }
@@ -0,0 +1,75 @@
+package baritone.api.component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+
+/**
+ * Every component key, and the server lifecycle hooks that drop their components once what they belong to is gone,
+ * so component storage stays proportional to the live entities and levels.
+ * <p>
+ * Entities are forgotten on every removal, including unloading with their chunk and changing dimension: the agent
+ * controller and its pathing shut down on all of those, and a non-player entity comes back as a new instance
+ * that gets new components anyway.
+ */
+public final class ComponentRegistry {
+   private static final List<EntityComponentKey<?>> ENTITY_KEYS = new CopyOnWriteArrayList<>();
+   private static final List<WorldComponentKey<?>> WORLD_KEYS = new CopyOnWriteArrayList<>();
+   private static boolean hooksRegistered = false;
+
+   private ComponentRegistry() {
+   }
+
+   static void register(EntityComponentKey<?> key) {
+      ENTITY_KEYS.add(key);
+   }
+
+   static void register(WorldComponentKey<?> key) {
+      WORLD_KEYS.add(key);
+   }
+
+   public static synchronized void registerLifecycleHooks() {
+      if (!hooksRegistered) {
+         hooksRegistered = true;
+         ServerEntityEvents.ENTITY_UNLOAD.register((entity, level) -> {
+            if (entity instanceof LivingEntity) {
+               removeEntity(entity);
+            }
+         });
+         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> removeEntity(handler.getPlayer()));
+         ServerWorldEvents.UNLOAD.register((server, level) -> WORLD_KEYS.forEach(key -> key.remove(level)));
+         ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            ENTITY_KEYS.forEach(EntityComponentKey::clear);
+            WORLD_KEYS.forEach(WorldComponentKey::clear);
+         });
+      }
+   }
+
+   public static void removeEntity(Entity entity) {
+      for (EntityComponentKey<?> key : ENTITY_KEYS) {
+         key.remove(entity);
+      }
+   }
+
+   /**
+    * @return One line per key with how many components it holds and who they belong to.
+    */
+   public static String dumpLiveComponents() {
+      StringBuilder result = new StringBuilder();
+
+      for (EntityComponentKey<?> key : ENTITY_KEYS) {
+         result.append(key.getName()).append(": ").append(key.size()).append(' ').append(key.getLiveEntities()).append('\n');
+      }
+
+      for (WorldComponentKey<?> key : WORLD_KEYS) {
+         result.append(key.getName()).append(": ").append(key.size()).append(' ').append(key.getLiveLevels()).append('\n');
+      }
+
+      return result.toString();
+   }
+}
@@ -1,29 +1,34 @@
 package baritone.api.component;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Per entity components, created on first access. Safe to read from pathing threads; entries are dropped by
+ * {@link ComponentRegistry} when their entity is removed for good or its player disconnects.
+ */
 public class EntityComponentKey<C> {
-   private final Map<UUID, C> storage = new HashMap<>();
+   private final String name;
+   private final Map<UUID, C> storage = new ConcurrentHashMap<>();
    private final Function<LivingEntity, C> factory;
 
-   public EntityComponentKey(Function<LivingEntity, C> factory) {
+   public EntityComponentKey(String name, Function<LivingEntity, C> factory) {
+      this.name = name;
       this.factory = factory;
+      ComponentRegistry.register(this);
    }
 
    @Nullable
    public C getNullable(Object object) {
-      if (object instanceof LivingEntity provider) {
-         return this.storage.get(provider.getUUID()) == null ? null : this.storage.get(provider.getUUID());
-      } else {
-         return null;
-      }
+      return object instanceof LivingEntity provider ? this.storage.get(provider.getUUID()) : null;
    }
 
    public final C get(Object object) {
@@ -35,10 +40,29 @@ public class EntityComponentKey<C> {
    }
 
    public final Optional<C> maybeGet(@Nullable Object object) {
-      if (object instanceof LivingEntity provider) {
-         return this.storage.get(provider.getUUID()) == null ? Optional.empty() : Optional.of(this.storage.get(provider.getUUID()));
-      } else {
-         return Optional.empty();
-      }
+      return Optional.ofNullable(this.getNullable(object));
+   }
+
+   public String getName() {
+      return this.name;
+   }
+
+   /**
+    * @return The UUIDs of the entities that currently have this component.
+    */
+   public Set<UUID> getLiveEntities() {
+      return Set.copyOf(this.storage.keySet());
+   }
+
+   public int size() {
+      return this.storage.size();
+   }
+
+   void remove(Entity entity) {
+      this.storage.remove(entity.getUUID());
+   }
+
+   void clear() {
+      this.storage.clear();
    }
 }
@@ -1,20 +1,47 @@
 package baritone.api.component;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.Level;
 
+/**
+ * Per dimension components, created on first access and dropped by {@link ComponentRegistry} when the level unloads.
+ */
 public class WorldComponentKey<C> {
-   private final Map<ResourceKey<Level>, C> storage = new HashMap<>();
+   private final String name;
+   private final Map<ResourceKey<Level>, C> storage = new ConcurrentHashMap<>();
    private final Function<Level, C> factory;
 
-   public WorldComponentKey(Function<Level, C> factory) {
+   public WorldComponentKey(String name, Function<Level, C> factory) {
+      this.name = name;
       this.factory = factory;
+      ComponentRegistry.register(this);
    }
 
    public final C get(Level provider) {
       return this.storage.computeIfAbsent(provider.dimension(), u -> this.factory.apply(provider));
    }
+
+   public String getName() {
+      return this.name;
+   }
+
+   public Set<ResourceKey<Level>> getLiveLevels() {
+      return Set.copyOf(this.storage.keySet());
+   }
+
+   public int size() {
+      return this.storage.size();
+   }
+
+   void remove(Level level) {
+      this.storage.remove(level.dimension());
+   }
+
+   void clear() {
+      this.storage.clear();
+   }
 }
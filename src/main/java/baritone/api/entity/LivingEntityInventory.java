@@ -2,6 +2,7 @@ package baritone.api.entity;
 
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
@@ -41,11 +42,26 @@ public class LivingEntityInventory implements Container, Nameable {
    public int selectedSlot;
    public LivingEntity player;
    private int changeCount;
+   private IntConsumer slotChangeListener;
 
    public LivingEntityInventory(LivingEntity player) {
       this.player = player;
    }
 
+   /**
+    * Called with the combined slot index whenever a slot is replaced or removed from through this inventory.
+    * Stacks that are modified in place (grow/shrink) are not reported.
+    */
+   public void setSlotChangeListener(IntConsumer listener) {
+      this.slotChangeListener = listener;
+   }
+
+   private void notifySlotChanged(int slot) {
+      if (this.slotChangeListener != null) {
+         this.slotChangeListener.accept(slot);
+      }
+   }
+
    public ItemStack getMainHandStack() {
       return isValidHotbarIndex(this.selectedSlot) ? (ItemStack)this.main.get(this.selectedSlot) : ItemStack.EMPTY;
    }
@@ -278,6 +294,7 @@ public class LivingEntityInventory implements Container, Nameable {
    }
 
    public ItemStack removeItem(int slot, int amount) {
+      int combinedSlot = slot;
       List<ItemStack> list = null;
 
       for (NonNullList<ItemStack> defaultedList : this.combinedInventory) {
@@ -289,21 +306,33 @@ public class LivingEntityInventory implements Container, Nameable {
          slot -= defaultedList.size();
       }
 
-      return list != null && !list.get(slot).isEmpty() ? ContainerHelper.removeItem(list, slot, amount) : ItemStack.EMPTY;
+      if (list != null && !list.get(slot).isEmpty()) {
+         ItemStack removed = ContainerHelper.removeItem(list, slot, amount);
+         this.notifySlotChanged(combinedSlot);
+         return removed;
+      } else {
+         return ItemStack.EMPTY;
+      }
    }
 
    public void removeOne(ItemStack stack) {
+      int offset = 0;
+
       for (NonNullList<ItemStack> defaultedList : this.combinedInventory) {
          for (int i = 0; i < defaultedList.size(); i++) {
             if (defaultedList.get(i) == stack) {
                defaultedList.set(i, ItemStack.EMPTY);
+               this.notifySlotChanged(offset + i);
                break;
             }
          }
+
+         offset += defaultedList.size();
       }
    }
 
    public ItemStack removeItemNoUpdate(int slot) {
+      int combinedSlot = slot;
       NonNullList<ItemStack> defaultedList = null;
 
       for (NonNullList<ItemStack> defaultedList2 : this.combinedInventory) {
@@ -318,6 +347,7 @@ public class LivingEntityInventory implements Container, Nameable {
       if (defaultedList != null && !((ItemStack)defaultedList.get(slot)).isEmpty()) {
          ItemStack itemStack = (ItemStack)defaultedList.get(slot);
          defaultedList.set(slot, ItemStack.EMPTY);
+         this.notifySlotChanged(combinedSlot);
          return itemStack;
       } else {
          return ItemStack.EMPTY;
@@ -325,6 +355,7 @@ public class LivingEntityInventory implements Container, Nameable {
    }
 
    public void setItem(int slot, ItemStack stack) {
+      int combinedSlot = slot;
       NonNullList<ItemStack> defaultedList = null;
 
       for (NonNullList<ItemStack> defaultedList2 : this.combinedInventory) {
@@ -338,6 +369,7 @@ public class LivingEntityInventory implements Container, Nameable {
 
       if (defaultedList != null) {
          defaultedList.set(slot, stack);
+         this.notifySlotChanged(combinedSlot);
       }
    }
 
@@ -1,5 +1,7 @@
 package baritone.api.process;
 
+import baritone.api.schematic.BuildCoordinator;
+import baritone.api.schematic.IBuildProgress;
 import baritone.api.schematic.ISchematic;
 import baritone.utils.DirUtil;
 import java.io.File;
@@ -11,6 +13,11 @@ import net.minecraft.world.level.block.state.BlockState;
 public interface IBuilderProcess extends IBaritoneProcess {
    void build(String var1, ISchematic var2, Vec3i var3);
 
+   /**
+    * Builds the part of a shared build nobody else is working on, cell after cell until it's all done.
+    */
+   void build(String name, BuildCoordinator coordinator);
+
    boolean build(String var1, File var2, Vec3i var3);
 
    default boolean build(String schematicFile, BlockPos origin) {
@@ -29,4 +36,9 @@ public interface IBuilderProcess extends IBaritoneProcess {
    void clearArea(BlockPos var1, BlockPos var2);
 
    List<BlockState> getApproxPlaceable();
+
+   /**
+    * @return What's left of the current build: progress, actions and materials. null when not building.
+    */
+   IBuildProgress getProgress();
 }
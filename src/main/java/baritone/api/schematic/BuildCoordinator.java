@@ -0,0 +1,276 @@
+package baritone.api.schematic;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Splits a schematic between several builders so they don't all go for the same blocks.
+ * <p>
+ * The schematic is cut in full height columns of {@code cellSize} by {@code cellSize} blocks. A builder leases the
+ * nearest free column, builds it through {@link Lease#getSchematic()} (a {@link MaskSchematic} of just that column) and
+ * marks it complete. Leases have to be renewed, a builder that stops (paused, stuck, unloaded) loses its column after
+ * {@code leaseMillis} and someone else picks it up. Safe to share between threads.
+ */
+public final class BuildCoordinator {
+   public static final int DEFAULT_CELL_SIZE = 16;
+   public static final long DEFAULT_LEASE_MILLIS = 30000L;
+   // Builds in progress by name and origin, so builders given the same build end up sharing it. Cleared on server stop.
+   private static final Map<String, BuildCoordinator> SHARED = new HashMap<>();
+   private final String key;
+   private final ISchematic schematic;
+   private final Vec3i origin;
+   private final int cellSize;
+   private final long leaseMillis;
+   private final int cellsX;
+   private final int cellsZ;
+   private final BuildCoordinator.Lease[] leases;
+   private final BitSet complete;
+   // Set when a builder started a different schematic under the same name and origin
+   private volatile BuildCoordinator replacedBy;
+
+   public BuildCoordinator(ISchematic schematic, Vec3i origin) {
+      this(null, schematic, origin, DEFAULT_CELL_SIZE, DEFAULT_LEASE_MILLIS);
+   }
+
+   public BuildCoordinator(ISchematic schematic, Vec3i origin, int cellSize, long leaseMillis) {
+      this(null, schematic, origin, cellSize, leaseMillis);
+   }
+
+   private BuildCoordinator(String key, ISchematic schematic, Vec3i origin, int cellSize, long leaseMillis) {
+      this.key = key;
+      this.schematic = schematic;
+      this.origin = origin;
+      this.cellSize = cellSize;
+      this.leaseMillis = leaseMillis;
+      this.cellsX = (schematic.widthX() + cellSize - 1) / cellSize;
+      this.cellsZ = (schematic.lengthZ() + cellSize - 1) / cellSize;
+      this.leases = new BuildCoordinator.Lease[this.cellsX * this.cellsZ];
+      this.complete = new BitSet(this.leases.length);
+
+      for (int cell = 0; cell < this.leases.length; cell++) {
+         int minX = this.minX(cell);
+         int minZ = this.minZ(cell);
+         if (!schematic.mayContainAny(minX, 0, minZ, minX + cellSize - 1, schematic.heightY() - 1, minZ + cellSize - 1)) {
+            this.complete.set(cell);
+         }
+      }
+   }
+
+   /**
+    * @return The coordinator of the unfinished build with this name and origin, a new one using this schematic if
+    * there's none or it's building a different schematic (which replaces it, see {@link #getReplacement()}).
+    */
+   public static BuildCoordinator forBuild(String name, ISchematic schematic, Vec3i origin) {
+      String key = name + "@" + origin.getX() + "," + origin.getY() + "," + origin.getZ();
+      synchronized (SHARED) {
+         BuildCoordinator existing = SHARED.get(key);
+         if (existing != null && !existing.isComplete() && sameSchematic(existing.schematic, schematic)) {
+            return existing;
+         } else {
+            BuildCoordinator created = new BuildCoordinator(key, schematic, origin, DEFAULT_CELL_SIZE, DEFAULT_LEASE_MILLIS);
+            SHARED.put(key, created);
+            if (existing != null) {
+               existing.replacedBy = created;
+            }
+
+            return created;
+         }
+      }
+   }
+
+   /**
+    * Forgets every shared build, they belong to the server that stopped.
+    */
+   public static void clearShared() {
+      synchronized (SHARED) {
+         SHARED.clear();
+      }
+   }
+
+   // Runs under the SHARED lock, so it never looks at individual blocks. Name and origin already match: generated
+   // schematics are compared by type and parameters, static ones (every builder loads its own copy of the named file)
+   // by type and size.
+   private static boolean sameSchematic(ISchematic a, ISchematic b) {
+      if (a == b) {
+         return true;
+      } else if (a.getClass() != b.getClass() || a.widthX() != b.widthX() || a.heightY() != b.heightY() || a.lengthZ() != b.lengthZ()) {
+         return false;
+      } else if (a instanceof FillSchematic fillA) {
+         return fillA.getBom().getBlock() == ((FillSchematic)b).getBom().getBlock();
+      } else if (a instanceof ReplaceSchematic) {
+         return false;
+      } else if (a instanceof MaskSchematic maskA) {
+         return sameSchematic(maskA.getSchematic(), ((MaskSchematic)b).getSchematic());
+      } else {
+         return a instanceof IStaticSchematic;
+      }
+   }
+
+   /**
+    * Leases the free cell closest to a builder. A builder holds at most one lease, asking again gives up the previous
+    * one.
+    *
+    * @return null if every cell left is leased by someone else.
+    */
+   public synchronized BuildCoordinator.Lease acquire(UUID agent, BlockPos near) {
+      long now = System.currentTimeMillis();
+      int best = -1;
+      long bestDistance = Long.MAX_VALUE;
+
+      for (int cell = this.complete.nextClearBit(0); cell < this.leases.length; cell = this.complete.nextClearBit(cell + 1)) {
+         BuildCoordinator.Lease lease = this.leases[cell];
+         if (lease != null && lease.agent.equals(agent)) {
+            this.leases[cell] = null;
+         } else if (lease != null && lease.expiresAt >= now) {
+            continue;
+         }
+
+         long dx = this.origin.getX() + this.minX(cell) + this.cellSize / 2 - near.getX();
+         long dz = this.origin.getZ() + this.minZ(cell) + this.cellSize / 2 - near.getZ();
+         long distance = dx * dx + dz * dz;
+         if (distance < bestDistance) {
+            best = cell;
+            bestDistance = distance;
+         }
+      }
+
+      if (best == -1) {
+         return null;
+      } else {
+         BuildCoordinator.Lease lease = new BuildCoordinator.Lease(agent, best, now + this.leaseMillis);
+         this.leases[best] = lease;
+         return lease;
+      }
+   }
+
+   /**
+    * @return false if the lease expired and the cell went to someone else (or got completed).
+    */
+   public synchronized boolean renew(BuildCoordinator.Lease lease) {
+      if (this.leases[lease.cell] != lease) {
+         return false;
+      } else {
+         lease.expiresAt = System.currentTimeMillis() + this.leaseMillis;
+         return true;
+      }
+   }
+
+   /**
+    * Marks the leased cell as built, nobody will lease it again.
+    */
+   public void complete(BuildCoordinator.Lease lease) {
+      boolean finished = false;
+      synchronized (this) {
+         if (this.leases[lease.cell] == lease) {
+            this.leases[lease.cell] = null;
+            this.complete.set(lease.cell);
+            finished = this.isComplete();
+         }
+      }
+
+      // Not while holding this coordinator, forBuild locks SHARED first and then the coordinator
+      if (finished && this.key != null) {
+         synchronized (SHARED) {
+            SHARED.remove(this.key, this);
+         }
+      }
+   }
+
+   /**
+    * Gives the leased cell back without building it.
+    */
+   public synchronized void release(BuildCoordinator.Lease lease) {
+      if (this.leases[lease.cell] == lease) {
+         this.leases[lease.cell] = null;
+      }
+   }
+
+   public synchronized boolean isComplete() {
+      return this.complete.cardinality() == this.leases.length;
+   }
+
+   public synchronized int getCompletedCount() {
+      return this.complete.cardinality();
+   }
+
+   public int getCellCount() {
+      return this.leases.length;
+   }
+
+   public ISchematic getSchematic() {
+      return this.schematic;
+   }
+
+   /**
+    * @return The coordinator now running this build if a different schematic replaced this one, builders should move
+    * over to it. null while this one is current.
+    */
+   public BuildCoordinator getReplacement() {
+      BuildCoordinator replacement = this.replacedBy;
+      while (replacement != null && replacement.replacedBy != null) {
+         replacement = replacement.replacedBy;
+      }
+
+      return replacement;
+   }
+
+   public Vec3i getOrigin() {
+      return this.origin;
+   }
+
+   private int minX(int cell) {
+      return cell % this.cellsX * this.cellSize;
+   }
+
+   private int minZ(int cell) {
+      return cell / this.cellsX * this.cellSize;
+   }
+
+   public final class Lease {
+      private final UUID agent;
+      private final int cell;
+      private final ISchematic cellSchematic;
+      private long expiresAt;
+
+      private Lease(UUID agent, int cell, long expiresAt) {
+         this.agent = agent;
+         this.cell = cell;
+         this.expiresAt = expiresAt;
+         int minX = BuildCoordinator.this.minX(cell);
+         int minZ = BuildCoordinator.this.minZ(cell);
+         int maxX = minX + BuildCoordinator.this.cellSize - 1;
+         int maxZ = minZ + BuildCoordinator.this.cellSize - 1;
+         this.cellSchematic = new MaskSchematic(BuildCoordinator.this.schematic) {
+            @Override
+            protected boolean partOfMask(int x, int y, int z, BlockState currentState) {
+               return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+            }
+
+            @Override
+            public boolean mayContainAny(int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+               return fromX <= maxX
+                  && toX >= minX
+                  && fromZ <= maxZ
+                  && toZ >= minZ
+                  && super.mayContainAny(Math.max(fromX, minX), fromY, Math.max(fromZ, minZ), Math.min(toX, maxX), toY, Math.min(toZ, maxZ));
+            }
+         };
+      }
+
+      /**
+       * @return The shared schematic cut down to this cell, same size and origin as the whole build.
+       */
+      public ISchematic getSchematic() {
+         return this.cellSchematic;
+      }
+
+      public UUID getAgent() {
+         return this.agent;
+      }
+   }
+}
@@ -1,21 +1,42 @@
 package baritone.api.schematic;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.util.ArrayList;
 import java.util.List;
+import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.state.BlockState;
 
 public class CompositeSchematic extends AbstractSchematic {
+   private static final int CELL_SHIFT = 4;
+   private static final int[] NO_ENTRIES = new int[0];
    private final List<CompositeSchematicEntry> schematics = new ArrayList<>();
    private CompositeSchematicEntry[] schematicArr;
+   // 16 block cell -> indices into schematicArr of the entries overlapping it, in insertion order so the first entry
+   // containing a position still wins
+   private Long2ObjectOpenHashMap<int[]> cells;
 
    private void recalcArr() {
       this.schematicArr = this.schematics.toArray(new CompositeSchematicEntry[0]);
+      Long2ObjectOpenHashMap<IntArrayList> building = new Long2ObjectOpenHashMap<>();
 
-      for (CompositeSchematicEntry entry : this.schematicArr) {
+      for (int i = 0; i < this.schematicArr.length; i++) {
+         CompositeSchematicEntry entry = this.schematicArr[i];
          this.x = Math.max(this.x, entry.x + entry.schematic.widthX());
          this.y = Math.max(this.y, entry.y + entry.schematic.heightY());
          this.z = Math.max(this.z, entry.z + entry.schematic.lengthZ());
+
+         for (int cx = entry.x >> CELL_SHIFT; cx <= entry.x + entry.schematic.widthX() - 1 >> CELL_SHIFT; cx++) {
+            for (int cy = entry.y >> CELL_SHIFT; cy <= entry.y + entry.schematic.heightY() - 1 >> CELL_SHIFT; cy++) {
+               for (int cz = entry.z >> CELL_SHIFT; cz <= entry.z + entry.schematic.lengthZ() - 1 >> CELL_SHIFT; cz++) {
+                  building.computeIfAbsent(BlockPos.asLong(cx, cy, cz), k -> new IntArrayList()).add(i);
+               }
+            }
+         }
       }
+
+      this.cells = new Long2ObjectOpenHashMap<>(building.size());
+      building.long2ObjectEntrySet().forEach(e -> this.cells.put(e.getLongKey(), e.getValue().toIntArray()));
    }
 
    public CompositeSchematic(int x, int y, int z) {
@@ -28,8 +49,14 @@ public class CompositeSchematic extends AbstractSchematic {
       this.recalcArr();
    }
 
+   private int[] entriesAt(int x, int y, int z) {
+      int[] entries = this.cells.get(BlockPos.asLong(x >> CELL_SHIFT, y >> CELL_SHIFT, z >> CELL_SHIFT));
+      return entries == null ? NO_ENTRIES : entries;
+   }
+
    private CompositeSchematicEntry getSchematic(int x, int y, int z, BlockState currentState) {
-      for (CompositeSchematicEntry entry : this.schematicArr) {
+      for (int i : this.entriesAt(x, y, z)) {
+         CompositeSchematicEntry entry = this.schematicArr[i];
          if (x >= entry.x && y >= entry.y && z >= entry.z && entry.schematic.inSchematic(x - entry.x, y - entry.y, z - entry.z, currentState)) {
             return entry;
          }
@@ -40,8 +67,22 @@ public class CompositeSchematic extends AbstractSchematic {
 
    @Override
    public boolean inSchematic(int x, int y, int z, BlockState currentState) {
-      CompositeSchematicEntry entry = this.getSchematic(x, y, z, currentState);
-      return entry != null && entry.schematic.inSchematic(x - entry.x, y - entry.y, z - entry.z, currentState);
+      return this.getSchematic(x, y, z, currentState) != null;
+   }
+
+   @Override
+   public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      if (!super.mayContainAny(minX, minY, minZ, maxX, maxY, maxZ)) {
+         return false;
+      } else {
+         for (CompositeSchematicEntry entry : this.schematicArr) {
+            if (entry.schematic.mayContainAny(minX - entry.x, minY - entry.y, minZ - entry.z, maxX - entry.x, maxY - entry.y, maxZ - entry.z)) {
+               return true;
+            }
+         }
+
+         return false;
+      }
    }
 
    @Override
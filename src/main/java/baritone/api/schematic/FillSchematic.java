@@ -1,6 +1,7 @@
 package baritone.api.schematic;
 
 import baritone.api.utils.BlockOptionalMeta;
+import java.util.Arrays;
 import java.util.List;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
@@ -21,16 +22,48 @@ public class FillSchematic extends AbstractSchematic {
    public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
       if (this.bom.matches(current)) {
          return current;
-      } else if (current.getBlock() != Blocks.AIR) {
-         return Blocks.AIR.defaultBlockState();
       } else {
-         for (BlockState placeable : approxPlaceable) {
-            if (this.bom.matches(placeable)) {
-               return placeable;
+         return current.getBlock() != Blocks.AIR ? Blocks.AIR.defaultBlockState() : this.toPlace(approxPlaceable);
+      }
+   }
+
+   @Override
+   public void fillSection(int minX, int minY, int minZ, BlockState[] states, List<BlockState> approxPlaceable) {
+      if (!this.mayContainAny(minX, minY, minZ, minX + 15, minY + 15, minZ + 15)) {
+         Arrays.fill(states, 0, 4096, null);
+      } else {
+         BlockState air = Blocks.AIR.defaultBlockState();
+         BlockState toPlace = null;
+
+         for (int i = 0; i < 4096; i++) {
+            int x = minX + (i & 15);
+            int y = minY + (i >> 8);
+            int z = minZ + (i >> 4 & 15);
+            BlockState current = states[i];
+            if (x < 0 || y < 0 || z < 0 || x >= this.x || y >= this.y || z >= this.z) {
+               states[i] = null;
+            } else if (!this.bom.matches(current)) {
+               if (current.getBlock() != Blocks.AIR) {
+                  states[i] = air;
+               } else {
+                  if (toPlace == null) {
+                     toPlace = this.toPlace(approxPlaceable);
+                  }
+
+                  states[i] = toPlace;
+               }
             }
          }
+      }
+   }
 
-         return this.bom.getAnyBlockState();
+   private BlockState toPlace(List<BlockState> approxPlaceable) {
+      for (BlockState placeable : approxPlaceable) {
+         if (this.bom.matches(placeable)) {
+            return placeable;
+         }
       }
+
+      return this.bom.getAnyBlockState();
    }
 }
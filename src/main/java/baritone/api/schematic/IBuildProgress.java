@@ -0,0 +1,56 @@
+package baritone.api.schematic;
+
+import java.util.Map;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * What's left to do to get a schematic into the world. Kept up to date as the world changes, reading it is cheap and
+ * safe from any thread.
+ * <p>
+ * Only the parts of the schematic that were loaded at some point are counted, see {@link #isComplete()}.
+ */
+public interface IBuildProgress {
+   /**
+    * @return Whether every part of the schematic was looked at, false while the first scan runs or some chunks were
+    * never loaded.
+    */
+   boolean isComplete();
+
+   /**
+    * @return How many of the chunk sections the schematic covers were looked at.
+    */
+   int getScannedSectionCount();
+
+   int getSectionCount();
+
+   /**
+    * @return Share of the scanned positions that are already right, 0 before anything was scanned.
+    */
+   double getPercentComplete();
+
+   /**
+    * @return Blocks to break plus blocks to place, not counting scaffolding or walking.
+    */
+   int getActionsRemaining();
+
+   /**
+    * @return Blocks still to place by state, most needed first.
+    */
+   Map<BlockState, Integer> getMaterials();
+
+   /**
+    * @return How many positions want each state, done or not.
+    */
+   Map<BlockState, Integer> getStateCounts();
+
+   /**
+    * @return Items still needed to place what's left, most needed first.
+    */
+   Map<Item, Integer> getItemBill();
+
+   /**
+    * One line summary, naming the {@code maxItems} most needed items.
+    */
+   String describe(int maxItems);
+}
@@ -1,5 +1,6 @@
 package baritone.api.schematic;
 
+import java.util.Arrays;
 import java.util.List;
 import net.minecraft.core.Direction.Axis;
 import net.minecraft.world.level.block.state.BlockState;
@@ -9,6 +10,44 @@ public interface ISchematic {
       return x >= 0 && x < this.widthX() && y >= 0 && y < this.heightY() && z >= 0 && z < this.lengthZ();
    }
 
+   /**
+    * Whether any position of this box (inclusive, in schematic coordinates) can be part of the schematic, whatever the
+    * world holds there. Lets callers skip whole regions at once, so it may answer true when unsure but never false for
+    * a box that has something to build.
+    */
+   default boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      return minX <= maxX
+         && minY <= maxY
+         && minZ <= maxZ
+         && maxX >= 0
+         && maxY >= 0
+         && maxZ >= 0
+         && minX < this.widthX()
+         && minY < this.heightY()
+         && minZ < this.lengthZ();
+   }
+
+   /**
+    * Bulk {@link #inSchematic} and {@link #desiredState} for the 16x16x16 box starting at (minX, minY, minZ) in schematic
+    * coordinates, usually a world section moved into schematic coordinates. {@code states} (indexed
+    * {@code y << 8 | z << 4 | x} relative to the box) holds the current state of each position going in, and what's
+    * desired there coming out, null where the position isn't part of the schematic. Implementations override this to
+    * answer the whole box at once instead of a call per position.
+    */
+   default void fillSection(int minX, int minY, int minZ, BlockState[] states, List<BlockState> approxPlaceable) {
+      if (!this.mayContainAny(minX, minY, minZ, minX + 15, minY + 15, minZ + 15)) {
+         Arrays.fill(states, 0, 4096, null);
+      } else {
+         for (int i = 0; i < 4096; i++) {
+            int x = minX + (i & 15);
+            int y = minY + (i >> 8);
+            int z = minZ + (i >> 4 & 15);
+            BlockState current = states[i];
+            states[i] = this.inSchematic(x, y, z, current) ? this.desiredState(x, y, z, current, approxPlaceable) : null;
+         }
+      }
+   }
+
    default int size(Axis axis) {
       switch (axis) {
          case X:
@@ -1,5 +1,6 @@
 package baritone.api.schematic;
 
+import java.util.Arrays;
 import java.util.List;
 import net.minecraft.world.level.block.state.BlockState;
 
@@ -13,11 +14,39 @@ public abstract class MaskSchematic extends AbstractSchematic {
 
    protected abstract boolean partOfMask(int var1, int var2, int var3, BlockState var4);
 
+   /**
+    * @return The schematic this one masks.
+    */
+   public ISchematic getSchematic() {
+      return this.schematic;
+   }
+
    @Override
    public boolean inSchematic(int x, int y, int z, BlockState currentState) {
       return this.schematic.inSchematic(x, y, z, currentState) && this.partOfMask(x, y, z, currentState);
    }
 
+   @Override
+   public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      return this.schematic.mayContainAny(minX, minY, minZ, maxX, maxY, maxZ);
+   }
+
+   @Override
+   public void fillSection(int minX, int minY, int minZ, BlockState[] states, List<BlockState> approxPlaceable) {
+      if (!this.mayContainAny(minX, minY, minZ, minX + 15, minY + 15, minZ + 15)) {
+         Arrays.fill(states, 0, 4096, null);
+      } else {
+         BlockState[] current = Arrays.copyOf(states, 4096);
+         this.schematic.fillSection(minX, minY, minZ, states, approxPlaceable);
+
+         for (int i = 0; i < 4096; i++) {
+            if (states[i] != null && !this.partOfMask(minX + (i & 15), minY + (i >> 8), minZ + (i >> 4 & 15), current[i])) {
+               states[i] = null;
+            }
+         }
+      }
+   }
+
    @Override
    public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
       return this.schematic.desiredState(x, y, z, current, approxPlaceable);
@@ -11,4 +11,10 @@ public class ShellSchematic extends MaskSchematic {
    protected boolean partOfMask(int x, int y, int z, BlockState currentState) {
       return x == 0 || y == 0 || z == 0 || x == this.widthX() - 1 || y == this.heightY() - 1 || z == this.lengthZ() - 1;
    }
+
+   @Override
+   public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      return super.mayContainAny(minX, minY, minZ, maxX, maxY, maxZ)
+         && (minX <= 0 || minY <= 0 || minZ <= 0 || maxX >= this.widthX() - 1 || maxY >= this.heightY() - 1 || maxZ >= this.lengthZ() - 1);
+   }
 }
@@ -6,7 +6,7 @@ import baritone.selection.SelectionManager;
 import net.minecraft.core.Direction;
 
 public interface ISelectionManager {
-   EntityComponentKey<ISelectionManager> KEY = new EntityComponentKey<>(SelectionManager::new);
+   EntityComponentKey<ISelectionManager> KEY = new EntityComponentKey<>("selection_manager", SelectionManager::new);
 
    ISelection addSelection(ISelection var1);
 
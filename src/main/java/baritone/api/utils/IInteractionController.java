@@ -12,7 +12,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.BlockHitResult;
 
 public interface IInteractionController {
-   EntityComponentKey<IInteractionController> KEY = new EntityComponentKey<>(EntityInteractionController::new);
+   EntityComponentKey<IInteractionController> KEY = new EntityComponentKey<>("interaction_controller", EntityInteractionController::new);
 
    boolean hasBrokenBlock();
 
@@ -16,11 +16,11 @@ public class AltoClefSettings {
    private final Object placeMutex = new Object();
    private final Object propertiesMutex = new Object();
    private final Object globalHeuristicMutex = new Object();
-   private final HashSet<BlockPos> blocksToAvoidBreaking = new HashSet<>();
-   private final List<Predicate<BlockPos>> breakAvoiders = new ArrayList<>();
-   private final List<Predicate<BlockPos>> placeAvoiders = new ArrayList<>();
-   private final List<Predicate<BlockPos>> forceCanWalkOn = new ArrayList<>();
-   private final List<Predicate<BlockPos>> forceAvoidWalkThrough = new ArrayList<>();
+   // Read from any thread without locking, the mutexes only serialize writers
+   private volatile BlockRules breakAvoiders = BlockRules.EMPTY;
+   private volatile BlockRules placeAvoiders = BlockRules.EMPTY;
+   private volatile BlockRules forceCanWalkOn = BlockRules.EMPTY;
+   private volatile BlockRules forceAvoidWalkThrough = BlockRules.EMPTY;
    private final List<BiPredicate<BlockState, ItemStack>> forceSaveTool = new ArrayList<>();
    private final List<BiPredicate<BlockState, ItemStack>> forceUseTool = new ArrayList<>();
    private final List<BiFunction<Double, BlockPos, Double>> globalHeuristics = new ArrayList<>();
@@ -38,13 +38,32 @@ public class AltoClefSettings {
 
    public void avoidBlockBreak(BlockPos pos) {
       synchronized (this.breakMutex) {
-         this.blocksToAvoidBreaking.add(pos);
+         this.breakAvoiders = this.breakAvoiders.withPosition(pos);
       }
    }
 
    public void avoidBlockBreak(Predicate<BlockPos> avoider) {
+      this.avoidBlockBreak(avoider, avoider);
+   }
+
+   /**
+    * Replaces the break avoider previously registered by this owner, if any.
+    */
+   public void avoidBlockBreak(Object owner, Predicate<BlockPos> avoider) {
       synchronized (this.breakMutex) {
-         this.breakAvoiders.add(avoider);
+         this.breakAvoiders = this.breakAvoiders.with(owner, avoider);
+      }
+   }
+
+   public void avoidBlockBreak(Object owner, BlockPos min, BlockPos max) {
+      synchronized (this.breakMutex) {
+         this.breakAvoiders = this.breakAvoiders.withBox(owner, min, max);
+      }
+   }
+
+   public void stopAvoidingBlockBreak(Object owner) {
+      synchronized (this.breakMutex) {
+         this.breakAvoiders = this.breakAvoiders.without(owner);
       }
    }
 
@@ -61,8 +80,27 @@ public class AltoClefSettings {
    }
 
    public void avoidBlockPlace(Predicate<BlockPos> avoider) {
+      this.avoidBlockPlace(avoider, avoider);
+   }
+
+   /**
+    * Replaces the place avoider previously registered by this owner, if any.
+    */
+   public void avoidBlockPlace(Object owner, Predicate<BlockPos> avoider) {
       synchronized (this.placeMutex) {
-         this.placeAvoiders.add(avoider);
+         this.placeAvoiders = this.placeAvoiders.with(owner, avoider);
+      }
+   }
+
+   public void avoidBlockPlace(Object owner, BlockPos min, BlockPos max) {
+      synchronized (this.placeMutex) {
+         this.placeAvoiders = this.placeAvoiders.withBox(owner, min, max);
+      }
+   }
+
+   public void stopAvoidingBlockPlace(Object owner) {
+      synchronized (this.placeMutex) {
+         this.placeAvoiders = this.placeAvoiders.without(owner);
       }
    }
 
@@ -72,40 +110,47 @@ public class AltoClefSettings {
       }
    }
 
+   /**
+    * @param pos A position packed with {@link BlockPos#asLong}.
+    */
+   public boolean shouldAvoidBreaking(long pos) {
+      return this.breakAvoiders.test(pos);
+   }
+
    public boolean shouldAvoidBreaking(int x, int y, int z) {
-      return this.shouldAvoidBreaking(new BlockPos(x, y, z));
+      return this.breakAvoiders.test(x, y, z);
    }
 
    public boolean shouldAvoidBreaking(BlockPos pos) {
-      synchronized (this.breakMutex) {
-         return this.blocksToAvoidBreaking.contains(pos) ? true : this.breakAvoiders.stream().anyMatch(pred -> pred.test(pos));
-      }
+      return this.breakAvoiders.test(pos);
+   }
+
+   public boolean shouldAvoidPlacingAt(long pos) {
+      return this.placeAvoiders.test(pos);
    }
 
    public boolean shouldAvoidPlacingAt(BlockPos pos) {
-      synchronized (this.placeMutex) {
-         return this.placeAvoiders.stream().anyMatch(pred -> pred.test(pos));
-      }
+      return this.placeAvoiders.test(pos);
    }
 
    public boolean shouldAvoidPlacingAt(int x, int y, int z) {
-      return this.shouldAvoidPlacingAt(new BlockPos(x, y, z));
+      return this.placeAvoiders.test(x, y, z);
    }
 
    public boolean canWalkOnForce(int x, int y, int z) {
-      synchronized (this.propertiesMutex) {
-         return this.forceCanWalkOn.stream().anyMatch(pred -> pred.test(new BlockPos(x, y, z)));
-      }
+      return this.forceCanWalkOn.test(x, y, z);
+   }
+
+   public boolean shouldAvoidWalkThroughForce(long pos) {
+      return this.forceAvoidWalkThrough.test(pos);
    }
 
    public boolean shouldAvoidWalkThroughForce(BlockPos pos) {
-      synchronized (this.propertiesMutex) {
-         return this.forceAvoidWalkThrough.stream().anyMatch(pred -> pred.test(pos));
-      }
+      return this.forceAvoidWalkThrough.test(pos);
    }
 
    public boolean shouldAvoidWalkThroughForce(int x, int y, int z) {
-      return this.shouldAvoidWalkThroughForce(new BlockPos(x, y, z));
+      return this.forceAvoidWalkThrough.test(x, y, z);
    }
 
    public boolean shouldForceUseTool(BlockState state, ItemStack tool) {
@@ -166,26 +211,46 @@ public class AltoClefSettings {
       return prev;
    }
 
-   public HashSet<BlockPos> getBlocksToAvoidBreaking() {
-      return this.blocksToAvoidBreaking;
+   public BlockRules getBreakAvoiders() {
+      return this.breakAvoiders;
    }
 
-   public List<Predicate<BlockPos>> getBreakAvoiders() {
-      return this.breakAvoiders;
+   public void setBreakAvoiders(BlockRules rules) {
+      synchronized (this.breakMutex) {
+         this.breakAvoiders = rules;
+      }
    }
 
-   public List<Predicate<BlockPos>> getPlaceAvoiders() {
+   public BlockRules getPlaceAvoiders() {
       return this.placeAvoiders;
    }
 
-   public List<Predicate<BlockPos>> getForceWalkOnPredicates() {
+   public void setPlaceAvoiders(BlockRules rules) {
+      synchronized (this.placeMutex) {
+         this.placeAvoiders = rules;
+      }
+   }
+
+   public BlockRules getForceWalkOnRules() {
       return this.forceCanWalkOn;
    }
 
-   public List<Predicate<BlockPos>> getForceAvoidWalkThroughPredicates() {
+   public void setForceWalkOnRules(BlockRules rules) {
+      synchronized (this.propertiesMutex) {
+         this.forceCanWalkOn = rules;
+      }
+   }
+
+   public BlockRules getForceAvoidWalkThroughRules() {
       return this.forceAvoidWalkThrough;
    }
 
+   public void setForceAvoidWalkThroughRules(BlockRules rules) {
+      synchronized (this.propertiesMutex) {
+         this.forceAvoidWalkThrough = rules;
+      }
+   }
+
    public List<BiPredicate<BlockState, ItemStack>> getForceSaveToolPredicates() {
       return this.forceSaveTool;
    }
@@ -0,0 +1,152 @@
+package baritone.autoclef;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import net.minecraft.core.BlockPos;
+
+/**
+ * An immutable set of "does this rule apply at this block" rules (avoid breaking here, don't place there...), compiled
+ * so they can be tested from any thread without locking.
+ * <p>
+ * Exact positions live in a primitive set and boxes in a flat array, so the common cases never allocate; only custom
+ * predicates need a {@link BlockPos}. Boxes and predicates are keyed by their owner: adding a rule for an owner that
+ * already has one replaces it, so re-registering the same rule doesn't pile up copies. Every change returns a new
+ * instance.
+ */
+public final class BlockRules {
+   public static final BlockRules EMPTY = new BlockRules(new LongOpenHashSet(), new LinkedHashMap<>());
+
+   private final LongOpenHashSet positions;
+   private final Map<Object, BlockRules.Rule> rules;
+   // Compiled from rules: minX, minY, minZ, maxX, maxY, maxZ per box
+   private final int[] boxes;
+   private final Predicate<BlockPos>[] predicates;
+
+   private BlockRules(LongOpenHashSet positions, LinkedHashMap<Object, BlockRules.Rule> rules) {
+      this.positions = positions;
+      this.rules = Collections.unmodifiableMap(rules);
+      List<Predicate<BlockPos>> predicates = new ArrayList<>();
+      int boxCount = 0;
+
+      for (BlockRules.Rule rule : rules.values()) {
+         if (rule.predicate != null) {
+            predicates.add(rule.predicate);
+         } else {
+            boxCount++;
+         }
+      }
+
+      this.boxes = new int[boxCount * 6];
+      int i = 0;
+
+      for (BlockRules.Rule rule : rules.values()) {
+         if (rule.box != null) {
+            System.arraycopy(rule.box, 0, this.boxes, i, 6);
+            i += 6;
+         }
+      }
+
+      this.predicates = predicates.toArray(Predicate[]::new);
+   }
+
+   public boolean test(long pos) {
+      if (this.positions.contains(pos)) {
+         return true;
+      }
+
+      if (this.boxes.length != 0) {
+         int x = BlockPos.getX(pos);
+         int y = BlockPos.getY(pos);
+         int z = BlockPos.getZ(pos);
+
+         for (int i = 0; i < this.boxes.length; i += 6) {
+            if (x >= this.boxes[i] && y >= this.boxes[i + 1] && z >= this.boxes[i + 2] && x <= this.boxes[i + 3] && y <= this.boxes[i + 4] && z <= this.boxes[i + 5]) {
+               return true;
+            }
+         }
+      }
+
+      if (this.predicates.length != 0) {
+         BlockPos blockPos = BlockPos.of(pos);
+
+         for (Predicate<BlockPos> predicate : this.predicates) {
+            if (predicate.test(blockPos)) {
+               return true;
+            }
+         }
+      }
+
+      return false;
+   }
+
+   public boolean test(int x, int y, int z) {
+      return this.test(BlockPos.asLong(x, y, z));
+   }
+
+   public boolean test(BlockPos pos) {
+      return this.test(pos.asLong());
+   }
+
+   public boolean isEmpty() {
+      return this.positions.isEmpty() && this.rules.isEmpty();
+   }
+
+   public BlockRules withPosition(BlockPos pos) {
+      if (this.positions.contains(pos.asLong())) {
+         return this;
+      }
+
+      LongOpenHashSet positions = new LongOpenHashSet(this.positions);
+      positions.add(pos.asLong());
+      return new BlockRules(positions, new LinkedHashMap<>(this.rules));
+   }
+
+   public BlockRules with(Object owner, Predicate<BlockPos> predicate) {
+      return this.with(owner, new BlockRules.Rule(predicate, null));
+   }
+
+   /**
+    * @param min Inclusive corner of the box.
+    * @param max Inclusive corner of the box.
+    */
+   public BlockRules withBox(Object owner, BlockPos min, BlockPos max) {
+      return this.with(
+         owner,
+         new BlockRules.Rule(
+            null,
+            new int[]{
+               Math.min(min.getX(), max.getX()),
+               Math.min(min.getY(), max.getY()),
+               Math.min(min.getZ(), max.getZ()),
+               Math.max(min.getX(), max.getX()),
+               Math.max(min.getY(), max.getY()),
+               Math.max(min.getZ(), max.getZ())
+            }
+         )
+      );
+   }
+
+   public BlockRules without(Object owner) {
+      if (!this.rules.containsKey(owner)) {
+         return this;
+      }
+
+      LinkedHashMap<Object, BlockRules.Rule> rules = new LinkedHashMap<>(this.rules);
+      rules.remove(owner);
+      return new BlockRules(this.positions, rules);
+   }
+
+   private BlockRules with(Object owner, BlockRules.Rule rule) {
+      LinkedHashMap<Object, BlockRules.Rule> rules = new LinkedHashMap<>(this.rules);
+      rules.put(owner, rule);
+      return new BlockRules(this.positions, rules);
+   }
+
+   private record Rule(Predicate<BlockPos> predicate, int[] box) {
+   }
+}
@@ -3,6 +3,7 @@ package baritone.pathing.movement;
 import baritone.PlayerEngine;
 import baritone.Baritone;
 import baritone.api.IBaritone;
+import baritone.api.SettingsView;
 import baritone.api.entity.IInventoryProvider;
 import baritone.api.entity.LivingEntityInventory;
 import baritone.behavior.InventoryBehavior;
@@ -81,24 +82,25 @@ public class CalculationContext {
       this.worldData = (WorldData)baritone.getWorldProvider().getCurrentWorld();
       this.bsi = new BlockStateInterface(this.world);
       this.toolSet = this.player == null ? null : new ToolSet(entity);
-      this.hasThrowaway = baritone.settings().allowPlace.get() && ((Baritone)baritone).getInventoryBehavior().hasGenericThrowaway();
+      SettingsView settings = baritone.settings().view();
+      this.hasThrowaway = settings.allowPlace && ((Baritone)baritone).getInventoryBehavior().hasGenericThrowaway();
       this.hasWaterBucket = this.player != null
-         && baritone.settings().allowWaterBucketFall.get()
+         && settings.allowWaterBucketFall
          && LivingEntityInventory.isValidHotbarIndex(InventoryBehavior.getSlotWithStack(this.player.getLivingInventory(), PlayerEngine.WATER_BUCKETS))
          && !this.world.dimensionType().ultraWarm();
-      this.canSprint = this.player != null && baritone.settings().allowSprint.get();
-      this.placeBlockCost = baritone.settings().blockPlacementPenalty.get();
-      this.allowBreak = baritone.settings().allowBreak.get();
-      this.allowParkour = baritone.settings().allowParkour.get();
-      this.allowParkourPlace = baritone.settings().allowParkourPlace.get();
-      this.allowJumpAt256 = baritone.settings().allowJumpAt256.get();
-      this.allowParkourAscend = baritone.settings().allowParkourAscend.get();
-      this.assumeWalkOnWater = baritone.settings().assumeWalkOnWater.get();
-      this.allowDiagonalDescend = baritone.settings().allowDiagonalDescend.get();
-      this.allowDiagonalAscend = baritone.settings().allowDiagonalAscend.get();
-      this.allowDownward = baritone.settings().allowDownward.get();
-      this.maxFallHeightNoWater = baritone.settings().maxFallHeightNoWater.get();
-      this.maxFallHeightBucket = baritone.settings().maxFallHeightBucket.get();
+      this.canSprint = this.player != null && settings.allowSprint;
+      this.placeBlockCost = settings.blockPlacementPenalty;
+      this.allowBreak = settings.allowBreak;
+      this.allowParkour = settings.allowParkour;
+      this.allowParkourPlace = settings.allowParkourPlace;
+      this.allowJumpAt256 = settings.allowJumpAt256;
+      this.allowParkourAscend = settings.allowParkourAscend;
+      this.assumeWalkOnWater = settings.assumeWalkOnWater;
+      this.allowDiagonalDescend = settings.allowDiagonalDescend;
+      this.allowDiagonalAscend = settings.allowDiagonalAscend;
+      this.allowDownward = settings.allowDownward;
+      this.maxFallHeightNoWater = settings.maxFallHeightNoWater;
+      this.maxFallHeightBucket = settings.maxFallHeightBucket;
       int depth = EnchantmentHelper.getDepthStrider(entity);
       if (depth > 3) {
          depth = 3;
@@ -106,10 +108,10 @@ public class CalculationContext {
 
       float mult = depth / 3.0F;
       this.waterWalkSpeed = 9.09090909090909 * (1.0F - mult) + 4.63284688441047 * mult;
-      this.breakBlockAdditionalCost = baritone.settings().blockBreakAdditionalPenalty.get();
-      this.backtrackCostFavoringCoefficient = baritone.settings().backtrackCostFavoringCoefficient.get();
-      this.jumpPenalty = baritone.settings().jumpPenalty.get();
-      this.walkOnWaterOnePenalty = baritone.settings().walkOnWaterOnePenalty.get();
+      this.breakBlockAdditionalCost = settings.blockBreakAdditionalPenalty;
+      this.backtrackCostFavoringCoefficient = settings.backtrackCostFavoringCoefficient;
+      this.jumpPenalty = settings.jumpPenalty;
+      this.walkOnWaterOnePenalty = settings.walkOnWaterOnePenalty;
       this.worldTop = this.world.getMaxBuildHeight();
       this.worldBottom = this.world.getMinBuildHeight();
       EntityDimensions dimensions = entity.getDimensions(Pose.STANDING);
@@ -117,8 +119,8 @@ public class CalculationContext {
       this.requiredSideSpace = getRequiredSideSpace(dimensions);
       this.height = Mth.ceil(dimensions.height);
       this.blockPos = new MutableBlockPos();
-      this.allowSwimming = baritone.settings().allowSwimming.get();
-      this.breathTime = baritone.settings().ignoreBreath.get() ? Integer.MAX_VALUE : entity.getMaxAirSupply();
+      this.allowSwimming = settings.allowSwimming;
+      this.breathTime = settings.ignoreBreath ? Integer.MAX_VALUE : entity.getMaxAirSupply();
       this.startingBreathTime = entity.getAirSupply();
       this.airIncreaseOnLand = ((ILivingEntityAccessor)entity).automatone$getNextAirOnLand(0);
       this.airDecreaseInWater = this.breathTime - ((ILivingEntityAccessor)entity).automatone$getNextAirUnderwater(this.breathTime);
@@ -11,7 +11,9 @@ import baritone.api.pathing.goals.GoalGetToBlock;
 import baritone.api.process.IBuilderProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
+import baritone.api.schematic.BuildCoordinator;
 import baritone.api.schematic.FillSchematic;
+import baritone.api.schematic.IBuildProgress;
 import baritone.api.schematic.ISchematic;
 import baritone.api.schematic.IStaticSchematic;
 import baritone.api.schematic.format.ISchematicFormat;
@@ -25,23 +27,32 @@ import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.MovementHelper;
 import baritone.utils.BaritoneProcessHelper;
+import baritone.utils.BlockChangeTracker;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.RemainingWorkIndex;
+import baritone.utils.SectionedPositionSet;
 import baritone.utils.schematic.MapArtSchematic;
+import baritone.utils.schematic.PlacementPlan;
+import baritone.utils.schematic.PlacementPlanner;
+import baritone.utils.schematic.SchematicDiff;
 import baritone.utils.schematic.SchematicSystem;
+import baritone.utils.schematic.SectionCache;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.core.Vec3i;
 import net.minecraft.util.Tuple;
 import net.minecraft.world.InteractionHand;
@@ -50,6 +61,8 @@ import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.BlockPlaceContext;
 import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.AirBlock;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.LiquidBlock;
@@ -62,8 +75,51 @@ import net.minecraft.world.phys.HitResult.Type;
 import net.minecraft.world.phys.shapes.VoxelShape;
 
 public final class BuilderProcess extends BaritoneProcessHelper implements IBuilderProcess {
-   private HashSet<BetterBlockPos> incorrectPositions;
+   private static final int PLACEABLE_FROM_HOTBAR = 0;
+   private static final int PLACEABLE_FROM_INVENTORY = 1;
+   private static final int SOURCE_LIQUID = 2;
+   private static final int BREAKABLE = 3;
+   // Sections of remainingWork are scanned again after this long, in case a block change went unreported
+   private static final long WORK_RESCAN_TICKS = 200L;
+   // Positions (BlockPos.asLong) that don't match the schematic yet, null until the first scan
+   private SectionedPositionSet incorrectPositions;
    private LongOpenHashSet observedCompleted;
+   // Block changes inside the schematic since the last tick, filled by the level's block change hook
+   private final LongOpenHashSet changedPositions = new LongOpenHashSet();
+   // Chunks (ChunkPos.asLong) unloaded since the last tick, guarded by changedPositions
+   private final LongOpenHashSet unloadedChunks = new LongOpenHashSet();
+   private final BlockChangeTracker.Listener changeListener = new BlockChangeTracker.Listener() {
+      @Override
+      public void onBlockChange(int x, int y, int z) {
+         BuilderProcess.this.onBlockChange(x, y, z);
+      }
+
+      @Override
+      public void onChunkUnload(int chunkX, int chunkZ) {
+         synchronized (BuilderProcess.this.changedPositions) {
+            BuilderProcess.this.unloadedChunks.add(ChunkPos.asLong(chunkX, chunkZ));
+         }
+      }
+   };
+   private Level trackedLevel;
+   // Where the next schematic scan resumes, scans stop early once incorrectSize positions are found
+   private int scanCursor;
+   // Layer of the cube around the player re-read this tick, see recalcNearby
+   private int nearbySweepLayer;
+   // Which blocks of the sections around the player still need work, only valid for the schematic, origin, layer and
+   // settings it was built with
+   private final RemainingWorkIndex remainingWork = new RemainingWorkIndex();
+   private ISchematic workSchematic;
+   private Vec3i workOrigin;
+   private int workLayer;
+   private List<Object> workSettings;
+   // Precomputed order to work in, for the same schematic, origin, layer and settings as remainingWork. Positions
+   // rechecked while it's being computed are replayed on it once it's done.
+   private CompletableFuture<PlacementPlan> pendingPlan;
+   private PlacementPlan plan;
+   private final LongArrayList changedWhilePlanning = new LongArrayList();
+   // Section copies shared by the planner and the progress diff, for the level they were made in
+   private SectionCache sectionCache;
    private String name;
    private ISchematic realSchematic;
    private ISchematic schematic;
@@ -73,6 +129,13 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
    private int layer;
    private int numRepeats;
    private List<BlockState> approxPlaceable;
+   // Set when sharing a build with other builders, schematic is then the leased cell
+   private BuildCoordinator coordinator;
+   private BuildCoordinator.Lease lease;
+   // Progress and materials of the whole build (not just the current layer or cell), for whoever asks
+   private SchematicDiff progress;
+   private ISchematic progressSchematic;
+   private Vec3i progressOrigin;
 
    public BuilderProcess(Baritone baritone) {
       super(baritone);
@@ -80,9 +143,6 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
    @Override
    public void build(String name, ISchematic schematic, Vec3i origin) {
-      this.name = name;
-      this.schematic = schematic;
-      this.realSchematic = null;
       int x = origin.getX();
       int y = origin.getY();
       int z = origin.getZ();
@@ -98,11 +158,55 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
          z += schematic.lengthZ();
       }
 
-      this.origin = new Vec3i(x, y, z);
+      this.leaveCoordinator();
+      if (this.baritone.settings().buildCooperatively.get()) {
+         this.build(name, BuildCoordinator.forBuild(name, schematic, new Vec3i(x, y, z)));
+      } else {
+         this.startBuild(name, schematic, new Vec3i(x, y, z));
+      }
+   }
+
+   @Override
+   public void build(String name, BuildCoordinator coordinator) {
+      this.leaveCoordinator();
+      this.name = name;
+      this.coordinator = coordinator;
+      this.paused = false;
+      this.startNextCell();
+   }
+
+   private void startBuild(String name, ISchematic schematic, Vec3i origin) {
+      this.name = name;
+      this.schematic = schematic;
+      this.realSchematic = null;
+      this.origin = origin;
       this.paused = false;
       this.layer = this.baritone.settings().startAtLayer.get();
       this.numRepeats = 0;
       this.observedCompleted = new LongOpenHashSet();
+      this.incorrectPositions = null;
+      this.scanCursor = 0;
+   }
+
+   // Leases the next cell of the shared build and starts on it, false if none is free right now
+   private boolean startNextCell() {
+      this.lease = this.coordinator.acquire(this.ctx.entity().getUUID(), this.ctx.feetPos());
+      if (this.lease == null) {
+         this.schematic = null;
+         return false;
+      } else {
+         this.startBuild(this.name, this.lease.getSchematic(), this.coordinator.getOrigin());
+         return true;
+      }
+   }
+
+   private void leaveCoordinator() {
+      if (this.lease != null) {
+         this.coordinator.release(this.lease);
+      }
+
+      this.lease = null;
+      this.coordinator = null;
    }
 
    @Override
@@ -166,7 +270,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
    @Override
    public boolean isActive() {
-      return this.schematic != null;
+      return this.schematic != null || this.coordinator != null;
    }
 
    public BlockState placeAt(int x, int y, int z, BlockState current) {
@@ -190,7 +294,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                int x = center.x + dx;
                int y = center.y + dy;
                int z = center.z + dz;
-               if (dy != -1 || x != pathStart.x || z != pathStart.z) {
+               if ((dy != -1 || x != pathStart.x || z != pathStart.z) && this.remainingWork.needsWork(x, y, z)) {
                   BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
                   if (desired != null) {
                      BlockState curr = bcc.bsi.get0(x, y, z);
@@ -222,7 +326,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                int x = center.x + dx;
                int y = center.y + dy;
                int z = center.z + dz;
-               BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
+               BlockState desired = this.remainingWork.needsWork(x, y, z) ? bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z)) : null;
                if (desired != null) {
                   BlockState curr = bcc.bsi.get0(x, y, z);
                   if (MovementHelper.isReplaceable(x, y, z, curr, bcc.bsi)
@@ -346,6 +450,11 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             return null;
          } else {
             this.approxPlaceable = this.approxPlaceable(36);
+            if (this.sectionCache != null) {
+               this.sectionCache.tick();
+            }
+
+            this.updateProgress();
             if (this.baritone.getInputOverrideHandler().isInputForcedDown(Input.CLICK_LEFT)) {
                this.ticks = 5;
             } else {
@@ -355,6 +464,19 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             this.baritone.getInputOverrideHandler().clearAllKeys();
             if (this.paused) {
                return new PathingCommand(null, PathingCommandType.CANCEL_AND_SET_GOAL);
+            } else if (this.coordinator != null && this.coordinator.getReplacement() != null) {
+               // Another builder started a different schematic under this name and origin, build that one instead
+               this.build(this.name, this.coordinator.getReplacement());
+               return new PathingCommand(null, PathingCommandType.CANCEL_AND_SET_GOAL);
+            } else if (this.coordinator != null && (this.lease == null || !this.coordinator.renew(this.lease)) && !this.startNextCell()) {
+               if (this.coordinator.isComplete()) {
+                  this.logDirect("Shared build " + this.name + " is done");
+                  this.onLostControl();
+                  return null;
+               } else {
+                  // Every cell left is leased by someone else, wait in case one of them gives up
+                  return new PathingCommand(null, PathingCommandType.CANCEL_AND_SET_GOAL);
+               }
             } else {
                if (this.baritone.settings().buildInLayers.get()) {
                   if (this.realSchematic == null) {
@@ -386,6 +508,23 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                            && realSchematic.inSchematic(x, y, z, currentState);
                      }
 
+                     @Override
+                     public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+                        return realSchematic.mayContainAny(minX, Math.max(minY, minYInclusive), minZ, maxX, Math.min(maxY, maxYInclusive), maxZ);
+                     }
+
+                     @Override
+                     public void fillSection(int minX, int minY, int minZ, BlockState[] states, List<BlockState> approxPlaceable) {
+                        realSchematic.fillSection(minX, minY, minZ, states, BuilderProcess.this.approxPlaceable);
+
+                        for (int i = 0; i < 4096; i++) {
+                           int y = minY + (i >> 8);
+                           if (y < minYInclusive || y > maxYInclusive) {
+                              states[i] = null;
+                           }
+                        }
+                     }
+
                      @Override
                      public void reset() {
                         realSchematic.reset();
@@ -414,6 +553,10 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                      this.logDirect("Starting layer " + this.layer);
                      this.layer++;
                      return this.onTick(calcFailed, isSafeToCancel, recursions + 1);
+                  } else if (this.coordinator != null) {
+                     this.coordinator.complete(this.lease);
+                     this.lease = null;
+                     return this.onTick(calcFailed, isSafeToCancel, recursions + 1);
                   } else {
                      Vec3i repeat = this.baritone.settings().buildRepeat.get();
                      int max = this.baritone.settings().buildRepeatCount.get();
@@ -495,22 +638,19 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                            }
                         }
 
-                        Goal goal = this.assemble(bcc, this.approxPlaceable.subList(0, 9));
+                        Goal goal = this.assemble(bcc);
                         if (goal == null) {
-                           goal = this.assemble(bcc, this.approxPlaceable, true);
-                           if (goal == null) {
-                              if (this.baritone.settings().skipFailedLayers.get()
-                                 && this.baritone.settings().buildInLayers.get()
-                                 && this.layer < this.realSchematic.heightY()) {
-                                 this.logDirect("Skipping layer that I cannot construct! Layer #" + this.layer);
-                                 this.layer++;
-                                 return this.onTick(calcFailed, isSafeToCancel, recursions + 1);
-                              }
-
-                              this.logDirect("Unable to do it. Pausing. resume to resume, cancel to cancel");
-                              this.paused = true;
-                              return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
+                           if (this.baritone.settings().skipFailedLayers.get()
+                              && this.baritone.settings().buildInLayers.get()
+                              && this.layer < this.realSchematic.heightY()) {
+                              this.logDirect("Skipping layer that I cannot construct! Layer #" + this.layer);
+                              this.layer++;
+                              return this.onTick(calcFailed, isSafeToCancel, recursions + 1);
                            }
+
+                           this.logDirect("Unable to do it. Pausing. resume to resume, cancel to cancel");
+                           this.paused = true;
+                           return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
                         }
 
                         return new PathingCommandContext(goal, PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH, bcc);
@@ -523,15 +663,19 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
    }
 
    private boolean recalc(BuilderProcess.BuilderCalculationContext bcc) {
-      if (this.incorrectPositions == null) {
-         this.incorrectPositions = new HashSet<>();
+      if (this.incorrectPositions == null || this.trackedLevel != this.ctx.world()) {
+         this.trackChanges(this.ctx.world());
+         this.incorrectPositions = new SectionedPositionSet();
          this.fullRecalc(bcc);
          if (this.incorrectPositions.isEmpty()) {
             return false;
          }
       }
 
+      this.applyChanges(bcc);
+      this.scanNearbySections(bcc);
       this.recalcNearby(bcc);
+      this.updatePlan(bcc);
       if (this.incorrectPositions.isEmpty()) {
          this.fullRecalc(bcc);
       }
@@ -539,127 +683,484 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
       return !this.incorrectPositions.isEmpty();
    }
 
+   private void trackChanges(Level level) {
+      if (this.trackedLevel != null) {
+         BlockChangeTracker.unregister(this.trackedLevel, this.changeListener);
+      }
+
+      this.trackedLevel = level;
+      if (level != null) {
+         BlockChangeTracker.register(level, this.changeListener);
+      }
+
+      synchronized (this.changedPositions) {
+         this.changedPositions.clear();
+         this.unloadedChunks.clear();
+      }
+   }
+
+   private void onBlockChange(int x, int y, int z) {
+      ISchematic schematic = this.schematic;
+      Vec3i origin = this.origin;
+      if (schematic != null
+         && origin != null
+         && x >= origin.getX()
+         && y >= origin.getY()
+         && z >= origin.getZ()
+         && x < origin.getX() + schematic.widthX()
+         && y < origin.getY() + schematic.heightY()
+         && z < origin.getZ() + schematic.lengthZ()) {
+         synchronized (this.changedPositions) {
+            this.changedPositions.add(BlockPos.asLong(x, y, z));
+         }
+      }
+   }
+
+   private void applyChanges(BuilderProcess.BuilderCalculationContext bcc) {
+      long[] changed;
+      long[] unloaded;
+      synchronized (this.changedPositions) {
+         if (this.changedPositions.isEmpty() && this.unloadedChunks.isEmpty()) {
+            return;
+         }
+
+         changed = this.changedPositions.toLongArray();
+         this.changedPositions.clear();
+         unloaded = this.unloadedChunks.toLongArray();
+         this.unloadedChunks.clear();
+      }
+
+      // Whatever happens to them until they're loaded again goes unreported
+      for (long chunk : unloaded) {
+         this.remainingWork.removeChunk(ChunkPos.getX(chunk), ChunkPos.getZ(chunk));
+      }
+
+      for (long pos : changed) {
+         this.recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+      }
+   }
+
+   private void recheck(BuilderProcess.BuilderCalculationContext bcc, int x, int y, int z) {
+      BlockState current = bcc.bsi.get0(x, y, z);
+      BlockState desired = bcc.getSchematic(x, y, z, current);
+      if (desired != null) {
+         boolean valid = this.valid(current, desired, false);
+         if (valid) {
+            this.incorrectPositions.remove(BlockPos.asLong(x, y, z));
+            this.observedCompleted.add(BetterBlockPos.longHash(x, y, z));
+            this.remainingWork.set(x, y, z, false);
+         } else {
+            this.incorrectPositions.add(x, y, z);
+            this.observedCompleted.remove(BetterBlockPos.longHash(x, y, z));
+            this.remainingWork.set(x, y, z, true);
+         }
+
+         this.updatePlanAt(x, y, z, !valid);
+      } else {
+         this.remainingWork.set(x, y, z, false);
+         this.updatePlanAt(x, y, z, false);
+      }
+   }
+
+   private void updatePlanAt(int x, int y, int z, boolean needsWork) {
+      if (this.plan != null) {
+         this.plan.update(BlockPos.asLong(x, y, z), needsWork);
+      } else if (this.pendingPlan != null) {
+         this.changedWhilePlanning.add(BlockPos.asLong(x, y, z));
+      }
+   }
+
+   /**
+    * Starts planning the build off-thread, and picks the plan up once it's done.
+    */
+   private void updatePlan(BuilderProcess.BuilderCalculationContext bcc) {
+      if (!this.baritone.settings().buildPlanAhead.get()) {
+         this.cancelPlan();
+      } else if (this.plan == null && this.pendingPlan == null) {
+         this.pendingPlan = PlacementPlanner.plan(
+            this.sectionCache(), this.schematic, this.origin, this.approxPlaceable, (current, desired) -> this.valid(current, desired, false)
+         );
+      } else if (this.pendingPlan != null && this.pendingPlan.isDone()) {
+         try {
+            this.plan = this.pendingPlan.join();
+         } catch (Exception e) {
+            PlayerEngine.LOGGER.error("Failed to plan build", e);
+            this.plan = PlacementPlan.EMPTY;
+         }
+
+         this.pendingPlan = null;
+         long[] changed = this.changedWhilePlanning.toLongArray();
+         this.changedWhilePlanning.clear();
+
+         for (long pos : changed) {
+            this.recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+         }
+      }
+   }
+
+   private void updateProgress() {
+      ISchematic schematic = this.coordinator != null ? this.coordinator.getSchematic() : (this.realSchematic != null ? this.realSchematic : this.schematic);
+      Vec3i origin = this.coordinator != null ? this.coordinator.getOrigin() : this.origin;
+      if (!this.baritone.settings().buildTrackProgress.get() || schematic == null) {
+         this.closeProgress();
+      } else {
+         if (this.progress == null || this.progressSchematic != schematic || !origin.equals(this.progressOrigin) || this.progress.getLevel() != this.ctx.world()) {
+            this.closeProgress();
+            this.progress = SchematicDiff.compute(
+               this.sectionCache(), schematic, origin, () -> this.approxPlaceable, (current, desired) -> this.valid(current, desired, false)
+            );
+            this.progressSchematic = schematic;
+            this.progressOrigin = origin;
+         }
+
+         this.progress.update();
+      }
+   }
+
+   private void closeProgress() {
+      if (this.progress != null) {
+         this.progress.close();
+      }
+
+      this.progress = null;
+      this.progressSchematic = null;
+      this.progressOrigin = null;
+   }
+
+   // The cache for the level the builder is in, a new one after changing levels
+   private SectionCache sectionCache() {
+      if (this.sectionCache == null || this.sectionCache.getLevel() != this.ctx.world()) {
+         this.closeSectionCache();
+         this.sectionCache = new SectionCache(this.ctx.world());
+      }
+
+      return this.sectionCache;
+   }
+
+   private void closeSectionCache() {
+      if (this.sectionCache != null) {
+         this.sectionCache.close();
+      }
+
+      this.sectionCache = null;
+   }
+
+   @Override
+   public IBuildProgress getProgress() {
+      return this.progress;
+   }
+
+   private void cancelPlan() {
+      if (this.pendingPlan != null) {
+         this.pendingPlan.cancel(false);
+      }
+
+      this.pendingPlan = null;
+      this.plan = null;
+      this.changedWhilePlanning.clear();
+   }
+
+   // The next positions of the plan that still need work, marking the ones that turned out done
+   private LongArrayList nextPlanned(BuilderProcess.BuilderCalculationContext bcc) {
+      int limit = this.baritone.settings().incorrectSize.get();
+      LongArrayList result = new LongArrayList();
+
+      while (result.isEmpty() && !this.plan.isDone()) {
+         LongArrayList next = this.plan.next(limit);
+
+         for (int i = 0; i < next.size(); i++) {
+            long pos = next.getLong(i);
+            int x = BlockPos.getX(pos);
+            int y = BlockPos.getY(pos);
+            int z = BlockPos.getZ(pos);
+            BlockState current = bcc.bsi.get0(x, y, z);
+            BlockState desired = bcc.getSchematic(x, y, z, current);
+            if (desired != null && !this.valid(current, desired, false)) {
+               result.add(pos);
+            } else {
+               this.plan.update(pos, false);
+            }
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Scans the first section around the player that isn't in {@link #remainingWork} yet, so the per-tick searches can
+    * skip finished blocks. One section per tick keeps the cost of walking into a new area flat.
+    */
+   private void scanNearbySections(BuilderProcess.BuilderCalculationContext bcc) {
+      ISchematic schematic = this.realSchematic != null ? this.realSchematic : this.schematic;
+      List<Object> settings = this.workSettings();
+      if (this.workSchematic != schematic || !this.origin.equals(this.workOrigin) || this.workLayer != this.layer || !settings.equals(this.workSettings)) {
+         this.remainingWork.clear();
+         this.cancelPlan();
+         this.workSchematic = schematic;
+         this.workOrigin = this.origin;
+         this.workLayer = this.layer;
+         this.workSettings = settings;
+      } else if (this.remainingWork.size() > 4096) {
+         this.remainingWork.clear();
+      }
+
+      BetterBlockPos center = this.ctx.feetPos();
+      long now = this.ctx.world().getGameTime();
+
+      for (int sy = center.y - 5 >> 4; sy <= center.y + 5 >> 4; sy++) {
+         for (int sz = center.z - 5 >> 4; sz <= center.z + 5 >> 4; sz++) {
+            for (int sx = center.x - 5 >> 4; sx <= center.x + 5 >> 4; sx++) {
+               if (this.remainingWork.isStale(SectionPos.asLong(sx, sy, sz), now, WORK_RESCAN_TICKS) && this.scanSection(bcc, sx, sy, sz)) {
+                  return;
+               }
+            }
+         }
+      }
+   }
+
+   // The settings what's done depends on (see valid and the layer mask), remainingWork and the plan are only good for
+   // the values they were computed with
+   private List<Object> workSettings() {
+      return List.of(
+         this.baritone.settings().okIfWater.get(),
+         this.baritone.settings().okIfAir.get(),
+         this.baritone.settings().buildIgnoreBlocks.get(),
+         this.baritone.settings().buildIgnoreExisting.get(),
+         this.baritone.settings().buildInLayers.get(),
+         this.baritone.settings().layerOrder.get()
+      );
+   }
+
+   // false if the section isn't loaded and couldn't be scanned
+   private boolean scanSection(BuilderProcess.BuilderCalculationContext bcc, int sectionX, int sectionY, int sectionZ) {
+      int minX = sectionX << 4;
+      int minY = sectionY << 4;
+      int minZ = sectionZ << 4;
+      if (!bcc.bsi.worldContainsLoadedChunk(minX, minZ)) {
+         return false;
+      } else {
+         long[] bits = new long[64];
+         if (this.schematic.mayContainAny(
+            minX - this.origin.getX(),
+            minY - this.origin.getY(),
+            minZ - this.origin.getZ(),
+            minX + 15 - this.origin.getX(),
+            minY + 15 - this.origin.getY(),
+            minZ + 15 - this.origin.getZ()
+         )) {
+            BlockState[] current = new BlockState[4096];
+
+            for (int y = minY; y < minY + 16; y++) {
+               for (int z = minZ; z < minZ + 16; z++) {
+                  for (int x = minX; x < minX + 16; x++) {
+                     current[RemainingWorkIndex.index(x, y, z)] = bcc.bsi.get0(x, y, z);
+                  }
+               }
+            }
+
+            BlockState[] desired = current.clone();
+            this.schematic.fillSection(minX - this.origin.getX(), minY - this.origin.getY(), minZ - this.origin.getZ(), desired, this.approxPlaceable);
+
+            for (int index = 0; index < 4096; index++) {
+               if (desired[index] != null && !this.valid(current[index], desired[index], false)) {
+                  bits[index >> 6] |= 1L << index;
+               }
+            }
+         }
+
+         this.remainingWork.putSection(SectionPos.asLong(sectionX, sectionY, sectionZ), bits, this.ctx.world().getGameTime());
+         return true;
+      }
+   }
+
    private void trim() {
-      HashSet<BetterBlockPos> copy = new HashSet<>(this.incorrectPositions);
-      copy.removeIf(pos -> pos.distSqr(this.ctx.entity().blockPosition()) > 200.0);
+      BlockPos feet = this.ctx.entity().blockPosition();
+      SectionedPositionSet copy = new SectionedPositionSet();
+      this.incorrectPositions.forEachNear(feet.getX(), feet.getY(), feet.getZ(), 15, pos -> {
+         long dx = BlockPos.getX(pos) - feet.getX();
+         long dy = BlockPos.getY(pos) - feet.getY();
+         long dz = BlockPos.getZ(pos) - feet.getZ();
+         if (dx * dx + dy * dy + dz * dz <= 200L) {
+            copy.add(pos);
+         }
+      });
       if (!copy.isEmpty()) {
          this.incorrectPositions = copy;
       }
    }
 
+   // Changes are applied as they happen, so this only needs to revisit positions we couldn't see before. One layer of
+   // the cube around the player is re-read every tick on top of that, in case a change went unreported.
    private void recalcNearby(BuilderProcess.BuilderCalculationContext bcc) {
       BetterBlockPos center = this.ctx.feetPos();
       int radius = this.baritone.settings().builderTickScanRadius.get();
+      this.nearbySweepLayer = (this.nearbySweepLayer + 1) % (2 * radius + 1);
+      int sweepY = center.y - radius + this.nearbySweepLayer;
 
       for (int dx = -radius; dx <= radius; dx++) {
-         for (int dy = -radius; dy <= radius; dy++) {
-            for (int dz = -radius; dz <= radius; dz++) {
-               int x = center.x + dx;
-               int y = center.y + dy;
-               int z = center.z + dz;
-               BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
-               if (desired != null) {
-                  BetterBlockPos pos = new BetterBlockPos(x, y, z);
-                  if (this.valid(bcc.bsi.get0(x, y, z), desired, false)) {
-                     this.incorrectPositions.remove(pos);
-                     this.observedCompleted.add(BetterBlockPos.longHash(pos));
-                  } else {
-                     this.incorrectPositions.add(pos);
-                     this.observedCompleted.remove(BetterBlockPos.longHash(pos));
-                  }
-               }
+         for (int dz = -radius; dz <= radius; dz++) {
+            if (bcc.bsi.worldContainsLoadedChunk(center.x + dx, center.z + dz)) {
+               this.recheck(bcc, center.x + dx, sweepY, center.z + dz);
             }
          }
       }
+
+      LongArrayList nearby = new LongArrayList();
+      this.incorrectPositions.forEachNear(center.x, center.y, center.z, radius, pos -> {
+         if (Math.abs(BlockPos.getX(pos) - center.x) <= radius
+            && Math.abs(BlockPos.getY(pos) - center.y) <= radius
+            && Math.abs(BlockPos.getZ(pos) - center.z) <= radius) {
+            nearby.add(pos);
+         }
+      });
+
+      for (int i = 0; i < nearby.size(); i++) {
+         long pos = nearby.getLong(i);
+         if (bcc.bsi.worldContainsLoadedChunk(BlockPos.getX(pos), BlockPos.getZ(pos))) {
+            this.recheck(bcc, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+         }
+      }
    }
 
+   // Positions the scan already passed are kept up to date by block changes, so it resumes where it stopped last time
+   // and only has to go around the whole schematic once to know everything is done.
    private void fullRecalc(BuilderProcess.BuilderCalculationContext bcc) {
-      this.incorrectPositions = new HashSet<>();
-
-      for (int y = 0; y < this.schematic.heightY(); y++) {
-         for (int z = 0; z < this.schematic.lengthZ(); z++) {
-            for (int x = 0; x < this.schematic.widthX(); x++) {
-               int blockX = x + this.origin.getX();
-               int blockY = y + this.origin.getY();
-               int blockZ = z + this.origin.getZ();
-               BlockState current = bcc.bsi.get0(blockX, blockY, blockZ);
-               if (this.schematic.inSchematic(x, y, z, current)) {
-                  if (bcc.bsi.worldContainsLoadedChunk(blockX, blockZ)) {
-                     if (this.valid(bcc.bsi.get0(blockX, blockY, blockZ), this.schematic.desiredState(x, y, z, current, this.approxPlaceable), false)) {
-                        this.observedCompleted.add(BetterBlockPos.longHash(blockX, blockY, blockZ));
-                     } else {
-                        this.incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-                        this.observedCompleted.remove(BetterBlockPos.longHash(blockX, blockY, blockZ));
-                        if (this.incorrectPositions.size() > this.baritone.settings().incorrectSize.get()) {
-                           return;
-                        }
-                     }
-                  } else if (!this.observedCompleted.contains(BetterBlockPos.longHash(blockX, blockY, blockZ))) {
-                     this.incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-                     if (this.incorrectPositions.size() > this.baritone.settings().incorrectSize.get()) {
-                        return;
-                     }
+      synchronized (this.changedPositions) {
+         this.changedPositions.clear();
+      }
+
+      int widthX = this.schematic.widthX();
+      int heightY = this.schematic.heightY();
+      int lengthZ = this.schematic.lengthZ();
+      int volume = widthX * heightY * lengthZ;
+      if (volume == 0) {
+         return;
+      }
+
+      int limit = this.baritone.settings().incorrectSize.get();
+      int start = this.scanCursor % volume;
+
+      for (int i = 0; i < volume; i++) {
+         int index = (start + i) % volume;
+         int x = index % widthX;
+         int z = index / widthX % lengthZ;
+         int y = index / (widthX * lengthZ);
+         int blockX = x + this.origin.getX();
+         int blockY = y + this.origin.getY();
+         int blockZ = z + this.origin.getZ();
+         BlockState current = bcc.bsi.get0(blockX, blockY, blockZ);
+         if (this.schematic.inSchematic(x, y, z, current)) {
+            if (bcc.bsi.worldContainsLoadedChunk(blockX, blockZ)) {
+               if (this.valid(current, this.schematic.desiredState(x, y, z, current, this.approxPlaceable), false)) {
+                  this.observedCompleted.add(BetterBlockPos.longHash(blockX, blockY, blockZ));
+               } else {
+                  this.observedCompleted.remove(BetterBlockPos.longHash(blockX, blockY, blockZ));
+                  if (this.incorrectPositions.add(blockX, blockY, blockZ) && this.incorrectPositions.size() > limit) {
+                     this.scanCursor = index + 1;
+                     return;
                   }
                }
+            } else if (!this.observedCompleted.contains(BetterBlockPos.longHash(blockX, blockY, blockZ))
+               && this.incorrectPositions.add(blockX, blockY, blockZ)
+               && this.incorrectPositions.size() > limit) {
+               this.scanCursor = index + 1;
+               return;
             }
          }
       }
    }
 
-   private Goal assemble(BuilderProcess.BuilderCalculationContext bcc, List<BlockState> approxPlaceable) {
-      return this.assemble(bcc, approxPlaceable, false);
-   }
-
-   private Goal assemble(BuilderProcess.BuilderCalculationContext bcc, List<BlockState> approxPlaceable, boolean logMissing) {
-      List<BetterBlockPos> placeable = new ArrayList<>();
-      List<BetterBlockPos> breakable = new ArrayList<>();
-      List<BetterBlockPos> sourceLiquids = new ArrayList<>();
-      List<BetterBlockPos> flowingLiquids = new ArrayList<>();
+   // One pass over the plan's next stage and every known incorrect position. Goals are then made from the first of
+   // these that has something to do: the plan with what's on the hotbar, everything with what's on the hotbar, the plan
+   // with the whole inventory, everything with the whole inventory.
+   private Goal assemble(BuilderProcess.BuilderCalculationContext bcc) {
+      List<BlockState> hotbar = this.approxPlaceable.subList(0, 9);
+      BuilderProcess.Candidates planned = new BuilderProcess.Candidates();
+      BuilderProcess.Candidates all = new BuilderProcess.Candidates();
       Map<BlockState, Integer> missing = new HashMap<>();
-      this.incorrectPositions.forEach(pos -> {
-         BlockState state = bcc.bsi.get0(pos);
-         if (state.getBlock() instanceof AirBlock) {
-            BlockState desired = bcc.getSchematic(pos.x, pos.y, pos.z, state);
-            if (desired != null && approxPlaceable.stream().anyMatch(placeableState -> placeableState.getBlock() == desired.getBlock())) {
-               placeable.add(pos);
-            } else {
-               missing.put(desired, 1 + missing.getOrDefault(desired, 0));
-            }
-         } else if (state.getBlock() instanceof LiquidBlock) {
-            if (!MovementHelper.possiblyFlowing(state)) {
-               sourceLiquids.add(pos);
-            } else {
-               flowingLiquids.add(pos);
+      List<BetterBlockPos> flowingLiquids = new ArrayList<>();
+      LongOpenHashSet seen = new LongOpenHashSet();
+      if (this.plan != null) {
+         LongArrayList next = this.nextPlanned(bcc);
+
+         for (int i = 0; i < next.size(); i++) {
+            long packed = next.getLong(i);
+            BetterBlockPos pos = new BetterBlockPos(BlockPos.getX(packed), BlockPos.getY(packed), BlockPos.getZ(packed));
+            int kind = this.classify(bcc, pos, hotbar, missing, flowingLiquids);
+            if (kind != -1) {
+               planned.add(kind, pos);
+               all.add(kind, pos);
             }
-         } else {
-            breakable.add(pos);
+
+            seen.add(packed);
          }
-      });
-      List<Goal> toBreak = new ArrayList<>();
-      breakable.forEach(pos -> toBreak.add(this.breakGoal(pos, bcc)));
-      List<Goal> toPlace = new ArrayList<>();
-      placeable.forEach(pos -> {
-         if (!placeable.contains(pos.down()) && !placeable.contains(pos.down(2))) {
-            toPlace.add(this.placementGoal(pos, bcc));
+      }
+
+      this.incorrectPositions.forEach(packed -> {
+         if (!seen.contains(packed)) {
+            BetterBlockPos pos = new BetterBlockPos(BlockPos.getX(packed), BlockPos.getY(packed), BlockPos.getZ(packed));
+            int kind = this.classify(bcc, pos, hotbar, missing, flowingLiquids);
+            if (kind != -1) {
+               all.add(kind, pos);
+            }
          }
       });
-      sourceLiquids.forEach(pos -> toPlace.add(new GoalBlock(pos.up())));
-      if (!toPlace.isEmpty()) {
-         return new BuilderProcess.JankyGoalComposite(new GoalComposite(toPlace.toArray(new Goal[0])), new GoalComposite(toBreak.toArray(new Goal[0])));
-      } else if (toBreak.isEmpty()) {
-         if (logMissing && !missing.isEmpty()) {
+      Goal goal = planned.goal(bcc, false);
+      if (goal == null) {
+         goal = all.goal(bcc, false);
+      }
+
+      if (goal == null) {
+         goal = planned.goal(bcc, true);
+      }
+
+      if (goal == null) {
+         goal = all.goal(bcc, true);
+      }
+
+      if (goal == null) {
+         if (!missing.isEmpty()) {
             this.logDirect("Missing materials for at least:");
             this.logDirect(missing.entrySet().stream().map(e -> String.format("%sx %s", e.getValue(), e.getKey())).collect(Collectors.joining("\n")));
          }
 
-         if (logMissing && !flowingLiquids.isEmpty()) {
+         if (!flowingLiquids.isEmpty()) {
             this.logDirect("Unreplaceable liquids at at least:");
             this.logDirect(flowingLiquids.stream().map(p -> String.format("%s %s %s", p.x, p.y, p.z)).collect(Collectors.joining("\n")));
          }
+      }
 
-         return null;
+      return goal;
+   }
+
+   // Which list of Candidates a position goes in, -1 if nothing can be done about it
+   private int classify(
+      BuilderProcess.BuilderCalculationContext bcc,
+      BetterBlockPos pos,
+      List<BlockState> hotbar,
+      Map<BlockState, Integer> missing,
+      List<BetterBlockPos> flowingLiquids
+   ) {
+      BlockState state = bcc.bsi.get0(pos);
+      if (state.getBlock() instanceof AirBlock) {
+         BlockState desired = bcc.getSchematic(pos.x, pos.y, pos.z, state);
+         if (desired != null && hotbar.stream().anyMatch(placeableState -> placeableState.getBlock() == desired.getBlock())) {
+            return PLACEABLE_FROM_HOTBAR;
+         } else if (desired != null && this.approxPlaceable.stream().anyMatch(placeableState -> placeableState.getBlock() == desired.getBlock())) {
+            return PLACEABLE_FROM_INVENTORY;
+         } else {
+            missing.put(desired, 1 + missing.getOrDefault(desired, 0));
+            return -1;
+         }
+      } else if (state.getBlock() instanceof LiquidBlock) {
+         if (MovementHelper.possiblyFlowing(state)) {
+            flowingLiquids.add(pos);
+            return -1;
+         } else {
+            return SOURCE_LIQUID;
+         }
       } else {
-         return new GoalComposite(toBreak.toArray(new Goal[0]));
+         return BREAKABLE;
       }
    }
 
@@ -696,6 +1197,14 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
    @Override
    public void onLostControl() {
       this.incorrectPositions = null;
+      this.remainingWork.clear();
+      this.workSchematic = null;
+      this.cancelPlan();
+      this.closeProgress();
+      this.closeSectionCache();
+      this.leaveCoordinator();
+      this.trackChanges(null);
+      this.scanCursor = 0;
       this.name = null;
       this.schematic = null;
       this.realSchematic = null;
@@ -764,12 +1273,62 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
       }
    }
 
+   // Positions that need work, sorted by what can be done about them
+   private final class Candidates {
+      private final List<BetterBlockPos> placeableFromHotbar = new ArrayList<>();
+      private final List<BetterBlockPos> placeableFromInventory = new ArrayList<>();
+      private final List<BetterBlockPos> sourceLiquids = new ArrayList<>();
+      private final List<BetterBlockPos> breakable = new ArrayList<>();
+
+      private void add(int kind, BetterBlockPos pos) {
+         switch (kind) {
+            case PLACEABLE_FROM_HOTBAR:
+               this.placeableFromHotbar.add(pos);
+               break;
+            case PLACEABLE_FROM_INVENTORY:
+               this.placeableFromInventory.add(pos);
+               break;
+            case SOURCE_LIQUID:
+               this.sourceLiquids.add(pos);
+               break;
+            default:
+               this.breakable.add(pos);
+         }
+      }
+
+      // null if there's nothing to do
+      private Goal goal(BuilderProcess.BuilderCalculationContext bcc, boolean wholeInventory) {
+         List<BetterBlockPos> placeable = new ArrayList<>(this.placeableFromHotbar);
+         if (wholeInventory) {
+            placeable.addAll(this.placeableFromInventory);
+         }
+
+         LongOpenHashSet placeablePositions = new LongOpenHashSet();
+         placeable.forEach(pos -> placeablePositions.add(BlockPos.asLong(pos.x, pos.y, pos.z)));
+         List<Goal> toBreak = new ArrayList<>();
+         this.breakable.forEach(pos -> toBreak.add(BuilderProcess.this.breakGoal(pos, bcc)));
+         List<Goal> toPlace = new ArrayList<>();
+         placeable.forEach(pos -> {
+            if (!placeablePositions.contains(BlockPos.asLong(pos.x, pos.y - 1, pos.z)) && !placeablePositions.contains(BlockPos.asLong(pos.x, pos.y - 2, pos.z))) {
+               toPlace.add(BuilderProcess.this.placementGoal(pos, bcc));
+            }
+         });
+         this.sourceLiquids.forEach(pos -> toPlace.add(new GoalBlock(pos.up())));
+         if (!toPlace.isEmpty()) {
+            return new BuilderProcess.JankyGoalComposite(new GoalComposite(toPlace.toArray(new Goal[0])), new GoalComposite(toBreak.toArray(new Goal[0])));
+         } else {
+            return toBreak.isEmpty() ? null : new GoalComposite(toBreak.toArray(new Goal[0]));
+         }
+      }
+   }
+
    public class BuilderCalculationContext extends CalculationContext {
       private final List<BlockState> placeable = BuilderProcess.this.approxPlaceable(9);
       private final ISchematic schematic;
       private final int originX;
       private final int originY;
       private final int originZ;
+      private final BuildCoordinator coordinator = BuilderProcess.this.coordinator;
 
       public BuilderCalculationContext() {
          super(BuilderProcess.this.baritone, true);
@@ -787,6 +1346,20 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             : null;
       }
 
+      // Outside of our cell, a shared build's blocks may be someone else's finished work
+      private boolean correctInSharedBuild(int x, int y, int z, BlockState current) {
+         if (this.coordinator == null) {
+            return false;
+         } else {
+            ISchematic shared = this.coordinator.getSchematic();
+            int rx = x - this.originX;
+            int ry = y - this.originY;
+            int rz = z - this.originZ;
+            return shared.inSchematic(rx, ry, rz, current)
+               && BuilderProcess.this.valid(current, shared.desiredState(rx, ry, rz, current, BuilderProcess.this.approxPlaceable), false);
+         }
+      }
+
       @Override
       public double costOfPlacingAt(int x, int y, int z, BlockState current) {
          if (this.isProtected(x, y, z)) {
@@ -812,7 +1385,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
          if (this.allowBreak && !this.isProtected(x, y, z)) {
             BlockState sch = this.getSchematic(x, y, z, current);
             if (sch == null) {
-               return 1.0;
+               return this.correctInSharedBuild(x, y, z, current) ? this.baritone.settings().breakCorrectBlockPenaltyMultiplier.get() : 1.0;
             } else if (sch.getBlock() instanceof AirBlock) {
                return 1.0;
             } else {
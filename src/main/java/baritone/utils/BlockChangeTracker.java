@@ -0,0 +1,73 @@
+package baritone.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+
+/**
+ * Tells processes about block changes in the level they work in, so they can update what they know instead of
+ * rescanning. Fed from the server level's block change hook, and from chunk unloads since nothing is reported about a
+ * chunk while it isn't loaded.
+ */
+public final class BlockChangeTracker {
+   private static final Map<Level, List<BlockChangeTracker.Listener>> LISTENERS = new WeakHashMap<>();
+   private static boolean hooksRegistered;
+
+   private BlockChangeTracker() {
+   }
+
+   public static synchronized void registerLifecycleHooks() {
+      if (!hooksRegistered) {
+         hooksRegistered = true;
+         ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> onChunkUnload(level, chunk.getPos().x, chunk.getPos().z));
+      }
+   }
+
+   public static synchronized void register(Level level, BlockChangeTracker.Listener listener) {
+      LISTENERS.computeIfAbsent(level, k -> new CopyOnWriteArrayList<>()).add(listener);
+   }
+
+   public static synchronized void unregister(Level level, BlockChangeTracker.Listener listener) {
+      List<BlockChangeTracker.Listener> listeners = LISTENERS.get(level);
+      if (listeners != null) {
+         listeners.remove(listener);
+      }
+   }
+
+   public static void onBlockChange(Level level, BlockPos pos) {
+      List<BlockChangeTracker.Listener> listeners;
+      synchronized (BlockChangeTracker.class) {
+         listeners = LISTENERS.get(level);
+      }
+
+      if (listeners != null) {
+         for (BlockChangeTracker.Listener listener : listeners) {
+            listener.onBlockChange(pos.getX(), pos.getY(), pos.getZ());
+         }
+      }
+   }
+
+   public static void onChunkUnload(Level level, int chunkX, int chunkZ) {
+      List<BlockChangeTracker.Listener> listeners;
+      synchronized (BlockChangeTracker.class) {
+         listeners = LISTENERS.get(level);
+      }
+
+      if (listeners != null) {
+         for (BlockChangeTracker.Listener listener : listeners) {
+            listener.onChunkUnload(chunkX, chunkZ);
+         }
+      }
+   }
+
+   public interface Listener {
+      void onBlockChange(int x, int y, int z);
+
+      default void onChunkUnload(int chunkX, int chunkZ) {
+      }
+   }
+}
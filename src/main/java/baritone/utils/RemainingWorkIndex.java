@@ -0,0 +1,115 @@
+package baritone.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.core.SectionPos;
+
+/**
+ * Which blocks of each chunk section still need work, one bit per block. Only sections that were scanned as a whole
+ * are tracked; nothing is known about the others, so they report every block as possibly needing work.
+ * <p>
+ * Lets the builder skip finished sections, and the finished blocks of the others, without looking at the world or the
+ * schematic. Keeping it up to date as blocks change is up to the caller, as is forgetting chunks that unload and
+ * rescanning sections once they get old in case a change was missed.
+ */
+public final class RemainingWorkIndex {
+   private final Long2ObjectOpenHashMap<RemainingWorkIndex.Section> sections = new Long2ObjectOpenHashMap<>();
+
+   public boolean isScanned(long sectionPos) {
+      return this.sections.containsKey(sectionPos);
+   }
+
+   /**
+    * @return Whether the section was scanned more than {@code maxAge} ticks ago, or never.
+    */
+   public boolean isStale(long sectionPos, long now, long maxAge) {
+      RemainingWorkIndex.Section section = this.sections.get(sectionPos);
+      return section == null || now - section.scannedAt > maxAge;
+   }
+
+   public boolean isComplete(long sectionPos) {
+      RemainingWorkIndex.Section section = this.sections.get(sectionPos);
+      return section != null && section.remaining == 0;
+   }
+
+   /**
+    * @return false only if this block is known to be done.
+    */
+   public boolean needsWork(int x, int y, int z) {
+      RemainingWorkIndex.Section section = this.sections.get(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+      if (section == null) {
+         return true;
+      } else {
+         int index = index(x, y, z);
+         return section.remaining != 0 && (section.bits[index >> 6] & 1L << index) != 0L;
+      }
+   }
+
+   /**
+    * Updates one block of a scanned section, does nothing for sections that weren't scanned.
+    */
+   public void set(int x, int y, int z, boolean needsWork) {
+      RemainingWorkIndex.Section section = this.sections.get(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+      if (section != null) {
+         int index = index(x, y, z);
+         long bit = 1L << index;
+         boolean current = (section.bits[index >> 6] & bit) != 0L;
+         if (current != needsWork) {
+            section.bits[index >> 6] ^= bit;
+            section.remaining += needsWork ? 1 : -1;
+         }
+      }
+   }
+
+   /**
+    * @param bits 64 longs, bit {@code (y & 15) << 8 | (z & 15) << 4 | x & 15} set for every block that needs work.
+    * @param now When it was scanned, in ticks.
+    */
+   public void putSection(long sectionPos, long[] bits, long now) {
+      int remaining = 0;
+
+      for (long word : bits) {
+         remaining += Long.bitCount(word);
+      }
+
+      this.sections.put(sectionPos, new RemainingWorkIndex.Section(bits, remaining, now));
+   }
+
+   /**
+    * Forgets every section of a chunk, they'll be scanned again.
+    */
+   public void removeChunk(int chunkX, int chunkZ) {
+      LongIterator it = this.sections.keySet().iterator();
+
+      while (it.hasNext()) {
+         long sectionPos = it.nextLong();
+         if (SectionPos.x(sectionPos) == chunkX && SectionPos.z(sectionPos) == chunkZ) {
+            it.remove();
+         }
+      }
+   }
+
+   public int size() {
+      return this.sections.size();
+   }
+
+   public void clear() {
+      this.sections.clear();
+   }
+
+   public static int index(int x, int y, int z) {
+      return (y & 15) << 8 | (z & 15) << 4 | x & 15;
+   }
+
+   private static final class Section {
+      private final long[] bits;
+      private final long scannedAt;
+      private int remaining;
+
+      private Section(long[] bits, int remaining, long scannedAt) {
+         this.bits = bits;
+         this.remaining = remaining;
+         this.scannedAt = scannedAt;
+      }
+   }
+}
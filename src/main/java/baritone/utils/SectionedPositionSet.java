@@ -0,0 +1,112 @@
+package baritone.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.function.LongConsumer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+
+/**
+ * A set of block positions (packed with {@link BlockPos#asLong}) bucketed by chunk section, so everything in or near a
+ * few sections can be visited without walking the whole set.
+ */
+public final class SectionedPositionSet {
+   private final Long2ObjectOpenHashMap<LongOpenHashSet> sections = new Long2ObjectOpenHashMap<>();
+   private int size;
+
+   public boolean add(long pos) {
+      if (this.sections.computeIfAbsent(sectionOf(pos), k -> new LongOpenHashSet()).add(pos)) {
+         this.size++;
+         return true;
+      } else {
+         return false;
+      }
+   }
+
+   public boolean add(int x, int y, int z) {
+      return this.add(BlockPos.asLong(x, y, z));
+   }
+
+   public boolean remove(long pos) {
+      long section = sectionOf(pos);
+      LongOpenHashSet positions = this.sections.get(section);
+      if (positions != null && positions.remove(pos)) {
+         this.size--;
+         if (positions.isEmpty()) {
+            this.sections.remove(section);
+         }
+
+         return true;
+      } else {
+         return false;
+      }
+   }
+
+   public boolean contains(long pos) {
+      LongOpenHashSet positions = this.sections.get(sectionOf(pos));
+      return positions != null && positions.contains(pos);
+   }
+
+   public int size() {
+      return this.size;
+   }
+
+   public boolean isEmpty() {
+      return this.size == 0;
+   }
+
+   public void clear() {
+      this.sections.clear();
+      this.size = 0;
+   }
+
+   public void forEach(LongConsumer action) {
+      for (LongOpenHashSet positions : this.sections.values()) {
+         positions.forEach(action);
+      }
+   }
+
+   /**
+    * Visits the positions of every section that has a block within {@code radius} blocks (on each axis) of the center.
+    * Positions further away than that in those sections are visited too.
+    */
+   public void forEachNear(int x, int y, int z, int radius, LongConsumer action) {
+      int minX = SectionPos.blockToSectionCoord(x - radius);
+      int minY = SectionPos.blockToSectionCoord(y - radius);
+      int minZ = SectionPos.blockToSectionCoord(z - radius);
+      int maxX = SectionPos.blockToSectionCoord(x + radius);
+      int maxY = SectionPos.blockToSectionCoord(y + radius);
+      int maxZ = SectionPos.blockToSectionCoord(z + radius);
+      long sectionCount = (long)(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+      if (sectionCount > this.sections.size()) {
+         // Fewer occupied sections than sections in range, cheaper to go through the occupied ones
+         for (Long2ObjectMap.Entry<LongOpenHashSet> entry : this.sections.long2ObjectEntrySet()) {
+            long section = entry.getLongKey();
+            int sx = SectionPos.x(section);
+            int sy = SectionPos.y(section);
+            int sz = SectionPos.z(section);
+            if (sx >= minX && sx <= maxX && sy >= minY && sy <= maxY && sz >= minZ && sz <= maxZ) {
+               entry.getValue().forEach(action);
+            }
+         }
+      } else {
+         for (int sx = minX; sx <= maxX; sx++) {
+            for (int sy = minY; sy <= maxY; sy++) {
+               for (int sz = minZ; sz <= maxZ; sz++) {
+                  LongOpenHashSet positions = this.sections.get(SectionPos.asLong(sx, sy, sz));
+                  if (positions != null) {
+                     positions.forEach(action);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   private static long sectionOf(long pos) {
+      return SectionPos.asLong(
+         SectionPos.blockToSectionCoord(BlockPos.getX(pos)), SectionPos.blockToSectionCoord(BlockPos.getY(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos))
+      );
+   }
+}
@@ -3,13 +3,15 @@ package baritone.utils.schematic;
 import baritone.PlayerEngine;
 import baritone.api.schematic.IStaticSchematic;
 import baritone.api.schematic.MaskSchematic;
-import java.util.OptionalInt;
-import java.util.function.Predicate;
+import java.util.Arrays;
+import java.util.Collections;
 import net.minecraft.world.level.block.AirBlock;
+import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
 public class MapArtSchematic extends MaskSchematic {
-   private final int[][] heightMap;
+   // Highest block of each column, indexed x * lengthZ + z
+   private final int[] heightMap;
 
    public MapArtSchematic(IStaticSchematic schematic) {
       super(schematic);
@@ -18,36 +20,68 @@ public class MapArtSchematic extends MaskSchematic {
 
    @Override
    protected boolean partOfMask(int x, int y, int z, BlockState currentState) {
-      return y >= this.heightMap[x][z];
+      return y >= this.heightMap[x * this.lengthZ() + z];
    }
 
-   private static int[][] generateHeightMap(IStaticSchematic schematic) {
-      int[][] heightMap = new int[schematic.widthX()][schematic.lengthZ()];
-
-      for (int x = 0; x < schematic.widthX(); x++) {
-         for (int z = 0; z < schematic.lengthZ(); z++) {
-            BlockState[] column = schematic.getColumn(x, z);
-            OptionalInt lowestBlockY = lastIndexMatching(column, state -> !(state.getBlock() instanceof AirBlock));
-            if (lowestBlockY.isPresent()) {
-               heightMap[x][z] = lowestBlockY.getAsInt();
-            } else {
-               PlayerEngine.LOGGER.warn("Column " + x + "," + z + " has no blocks, but it's apparently map art? wtf");
-               PlayerEngine.LOGGER.warn("Letting it be whatever");
-               heightMap[x][z] = 256;
+   @Override
+   public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      if (!super.mayContainAny(minX, minY, minZ, maxX, maxY, maxZ)) {
+         return false;
+      } else {
+         for (int x = Math.max(minX, 0); x <= Math.min(maxX, this.widthX() - 1); x++) {
+            for (int z = Math.max(minZ, 0); z <= Math.min(maxZ, this.lengthZ() - 1); z++) {
+               if (maxY >= this.heightMap[x * this.lengthZ() + z]) {
+                  return true;
+               }
             }
          }
-      }
 
-      return heightMap;
+         return false;
+      }
    }
 
-   private static <T> OptionalInt lastIndexMatching(T[] arr, Predicate<? super T> predicate) {
-      for (int y = arr.length - 1; y >= 0; y--) {
-         if (predicate.test(arr[y])) {
-            return OptionalInt.of(y);
+   // Top down a section at a time, most columns are done after the first sections that hold blocks
+   private static int[] generateHeightMap(IStaticSchematic schematic) {
+      int widthX = schematic.widthX();
+      int heightY = schematic.heightY();
+      int lengthZ = schematic.lengthZ();
+      int[] heightMap = new int[widthX * lengthZ];
+      Arrays.fill(heightMap, -1);
+      int remaining = heightMap.length;
+      BlockState[] states = new BlockState[4096];
+
+      for (int sy = heightY - 1 >> 4; sy >= 0 && remaining > 0; sy--) {
+         for (int sz = 0; sz << 4 < lengthZ; sz++) {
+            for (int sx = 0; sx << 4 < widthX; sx++) {
+               Arrays.fill(states, Blocks.AIR.defaultBlockState());
+               schematic.fillSection(sx << 4, sy << 4, sz << 4, states, Collections.emptyList());
+
+               for (int z = sz << 4; z < Math.min((sz << 4) + 16, lengthZ); z++) {
+                  for (int x = sx << 4; x < Math.min((sx << 4) + 16, widthX); x++) {
+                     if (heightMap[x * lengthZ + z] == -1) {
+                        for (int y = Math.min((sy << 4) + 15, heightY - 1); y >= sy << 4; y--) {
+                           BlockState state = states[(y & 15) << 8 | (z & 15) << 4 | x & 15];
+                           if (state != null && !(state.getBlock() instanceof AirBlock)) {
+                              heightMap[x * lengthZ + z] = y;
+                              remaining--;
+                              break;
+                           }
+                        }
+                     }
+                  }
+               }
+            }
          }
       }
 
-      return OptionalInt.empty();
+      for (int i = 0; i < heightMap.length; i++) {
+         if (heightMap[i] == -1) {
+            PlayerEngine.LOGGER.warn("Column " + i / lengthZ + "," + i % lengthZ + " has no blocks, but it's apparently map art? wtf");
+            PlayerEngine.LOGGER.warn("Letting it be whatever");
+            heightMap[i] = 256;
+         }
+      }
+
+      return heightMap;
    }
 }
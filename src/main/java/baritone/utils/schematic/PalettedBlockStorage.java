@@ -0,0 +1,233 @@
+package baritone.utils.schematic;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Block states of a schematic, stored like vanilla's {@code PalettedContainer}: every distinct state gets an id in a
+ * palette, and ids are bit-packed into {@code long}s, so a block costs a few bits instead of a reference.
+ * <p>
+ * The volume is split in 16x16x16 sections. A section that only holds the default state (palette id 0, usually air)
+ * has no storage at all, which is most of a typical build's bounding box. The palette is shared by every section; when
+ * it outgrows the current bits per entry all sections are repacked. Not thread safe while writing, reads are fine once
+ * loaded.
+ */
+public final class PalettedBlockStorage {
+   private static final int SECTION_VOLUME = 4096;
+   private final int sizeX;
+   private final int sizeY;
+   private final int sizeZ;
+   private final int sectionsX;
+   private final int sectionsY;
+   private final int sectionsZ;
+   // null for sections that only hold the default state
+   private final long[][] sections;
+   private final List<BlockState> palette = new ObjectArrayList<>();
+   private final Reference2IntOpenHashMap<BlockState> ids = new Reference2IntOpenHashMap<>();
+   private int bits;
+   private int entriesPerLong;
+   private long mask;
+
+   /**
+    * @param defaultState What every position holds until set, may be null for "not part of the schematic".
+    * @param expectedPaletteSize How many states the caller is going to register, to size entries up front. 0 if unknown.
+    */
+   public PalettedBlockStorage(int sizeX, int sizeY, int sizeZ, BlockState defaultState, int expectedPaletteSize) {
+      this.sizeX = sizeX;
+      this.sizeY = sizeY;
+      this.sizeZ = sizeZ;
+      this.sectionsX = sizeX + 15 >> 4;
+      this.sectionsY = sizeY + 15 >> 4;
+      this.sectionsZ = sizeZ + 15 >> 4;
+      this.sections = new long[this.sectionsX * this.sectionsY * this.sectionsZ][];
+      this.ids.defaultReturnValue(-1);
+      this.setBits(bitsFor(Math.max(expectedPaletteSize + 1, 2)));
+      this.register(defaultState);
+   }
+
+   /**
+    * @return The palette id of this state, adding it to the palette if needed.
+    */
+   public int register(BlockState state) {
+      int id = this.ids.getInt(state);
+      if (id == -1) {
+         id = this.palette.size();
+         this.palette.add(state);
+         this.ids.put(state, id);
+         if (id > this.mask) {
+            this.resize(bitsFor(this.palette.size()));
+         }
+      }
+
+      return id;
+   }
+
+   public BlockState get(int x, int y, int z) {
+      long[] section = this.sections[this.sectionIndex(x, y, z)];
+      return section == null ? this.palette.get(0) : this.palette.get(this.read(section, localIndex(x, y, z)));
+   }
+
+   public void set(int x, int y, int z, BlockState state) {
+      this.setId(x, y, z, this.register(state));
+   }
+
+   /**
+    * @param id A palette id returned by {@link #register(BlockState)}.
+    */
+   public void setId(int x, int y, int z, int id) {
+      int sectionIndex = this.sectionIndex(x, y, z);
+      long[] section = this.sections[sectionIndex];
+      if (section == null) {
+         if (id == 0) {
+            return;
+         }
+
+         section = new long[this.longsPerSection()];
+         this.sections[sectionIndex] = section;
+      }
+
+      this.write(section, localIndex(x, y, z), id);
+   }
+
+   /**
+    * Reads the 16x16x16 box starting at (minX, minY, minZ) into {@code out} (indexed {@code y << 8 | z << 4 | x}
+    * relative to the box), a section at a time instead of a lookup per position. Positions outside of the storage
+    * are null.
+    */
+   public void fill(int minX, int minY, int minZ, BlockState[] out) {
+      Arrays.fill(out, 0, SECTION_VOLUME, null);
+      int fromX = Math.max(minX, 0);
+      int fromY = Math.max(minY, 0);
+      int fromZ = Math.max(minZ, 0);
+      int toX = Math.min(minX + 15, this.sizeX - 1);
+      int toY = Math.min(minY + 15, this.sizeY - 1);
+      int toZ = Math.min(minZ + 15, this.sizeZ - 1);
+      if (fromX <= toX && fromY <= toY && fromZ <= toZ) {
+         BlockState[] palette = this.palette.toArray(new BlockState[0]);
+
+         for (int sy = fromY >> 4; sy <= toY >> 4; sy++) {
+            for (int sz = fromZ >> 4; sz <= toZ >> 4; sz++) {
+               for (int sx = fromX >> 4; sx <= toX >> 4; sx++) {
+                  long[] section = this.sections[(sy * this.sectionsZ + sz) * this.sectionsX + sx];
+
+                  for (int y = Math.max(fromY, sy << 4); y <= Math.min(toY, (sy << 4) + 15); y++) {
+                     for (int z = Math.max(fromZ, sz << 4); z <= Math.min(toZ, (sz << 4) + 15); z++) {
+                        int outIndex = (y - minY) << 8 | (z - minZ) << 4;
+
+                        for (int x = Math.max(fromX, sx << 4); x <= Math.min(toX, (sx << 4) + 15); x++) {
+                           out[outIndex | x - minX] = section == null ? palette[0] : palette[this.read(section, localIndex(x, y, z))];
+                        }
+                     }
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * @return Whether every position of this section (in section coordinates) holds the default state.
+    */
+   public boolean isSectionEmpty(int sectionX, int sectionY, int sectionZ) {
+      return this.sections[(sectionY * this.sectionsZ + sectionZ) * this.sectionsX + sectionX] == null;
+   }
+
+   public BlockState getDefaultState() {
+      return this.palette.get(0);
+   }
+
+   public List<BlockState> getPalette() {
+      return Collections.unmodifiableList(this.palette);
+   }
+
+   public int getSectionsX() {
+      return this.sectionsX;
+   }
+
+   public int getSectionsY() {
+      return this.sectionsY;
+   }
+
+   public int getSectionsZ() {
+      return this.sectionsZ;
+   }
+
+   /**
+    * @return Roughly how many bytes the packed block data takes, ignoring the palette.
+    */
+   public long getDataSize() {
+      long result = (long)this.sections.length * 8L;
+
+      for (long[] section : this.sections) {
+         if (section != null) {
+            result += 16L + section.length * 8L;
+         }
+      }
+
+      return result;
+   }
+
+   private int sectionIndex(int x, int y, int z) {
+      if (x < 0 || y < 0 || z < 0 || x >= this.sizeX || y >= this.sizeY || z >= this.sizeZ) {
+         throw new IndexOutOfBoundsException(x + "," + y + "," + z + " is outside of " + this.sizeX + "x" + this.sizeY + "x" + this.sizeZ);
+      }
+
+      return ((y >> 4) * this.sectionsZ + (z >> 4)) * this.sectionsX + (x >> 4);
+   }
+
+   private static int localIndex(int x, int y, int z) {
+      return (y & 15) << 8 | (z & 15) << 4 | x & 15;
+   }
+
+   private int read(long[] section, int index) {
+      int cell = index / this.entriesPerLong;
+      int offset = (index - cell * this.entriesPerLong) * this.bits;
+      return (int)(section[cell] >>> offset & this.mask);
+   }
+
+   private void write(long[] section, int index, int id) {
+      int cell = index / this.entriesPerLong;
+      int offset = (index - cell * this.entriesPerLong) * this.bits;
+      section[cell] = section[cell] & ~(this.mask << offset) | ((long)id & this.mask) << offset;
+   }
+
+   private void resize(int newBits) {
+      int oldBits = this.bits;
+      int oldEntriesPerLong = this.entriesPerLong;
+      long oldMask = this.mask;
+      this.setBits(newBits);
+
+      for (int i = 0; i < this.sections.length; i++) {
+         long[] old = this.sections[i];
+         if (old != null) {
+            long[] updated = new long[this.longsPerSection()];
+
+            for (int index = 0; index < SECTION_VOLUME; index++) {
+               int cell = index / oldEntriesPerLong;
+               int offset = (index - cell * oldEntriesPerLong) * oldBits;
+               this.write(updated, index, (int)(old[cell] >>> offset & oldMask));
+            }
+
+            this.sections[i] = updated;
+         }
+      }
+   }
+
+   private void setBits(int bits) {
+      this.bits = bits;
+      this.entriesPerLong = 64 / bits;
+      this.mask = (1L << bits) - 1L;
+   }
+
+   private int longsPerSection() {
+      return (SECTION_VOLUME + this.entriesPerLong - 1) / this.entriesPerLong;
+   }
+
+   private static int bitsFor(int paletteSize) {
+      return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+   }
+}
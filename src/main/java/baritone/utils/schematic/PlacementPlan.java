@@ -0,0 +1,109 @@
+package baritone.utils.schematic;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import java.util.BitSet;
+
+/**
+ * The order a build should go through the positions (BlockPos.asLong) that need work, computed ahead of time by
+ * {@link PlacementPlanner}.
+ * <p>
+ * Positions are grouped in stages: stage 0 holds blocks to break and source liquids to cover, then placements follow
+ * by how many planned blocks have to be placed first so there's something to place them against. Placements that
+ * nothing leads to come last, they need scaffolding. Only the earliest unfinished stage is handed out. The plan is
+ * patched as the world changes instead of being recomputed: finished positions are skipped, and positions it didn't
+ * expect to need work are handed out first. Not thread safe.
+ */
+public final class PlacementPlan {
+   public static final PlacementPlan EMPTY = new PlacementPlan(new long[0], new int[0], 0);
+   private final long[] positions;
+   private final int[] stages;
+   private final Long2IntOpenHashMap indices;
+   private final BitSet done;
+   // Positions that need work but aren't planned, the world changed since the plan was made
+   private final LongLinkedOpenHashSet diverged = new LongLinkedOpenHashSet();
+   private final int unsupported;
+   private int cursor;
+
+   /**
+    * @param positions Positions in the order they should be worked on.
+    * @param stages Stage of each position, never decreasing.
+    */
+   PlacementPlan(long[] positions, int[] stages, int unsupported) {
+      this.positions = positions;
+      this.stages = stages;
+      this.unsupported = unsupported;
+      this.indices = new Long2IntOpenHashMap(positions.length);
+      this.indices.defaultReturnValue(-1);
+
+      for (int i = 0; i < positions.length; i++) {
+         this.indices.put(positions[i], i);
+      }
+
+      this.done = new BitSet(positions.length);
+   }
+
+   /**
+    * Records what the world looks like at this position now.
+    */
+   public void update(long pos, boolean needsWork) {
+      int index = this.indices.get(pos);
+      if (index == -1) {
+         if (needsWork) {
+            this.diverged.add(pos);
+         } else {
+            this.diverged.remove(pos);
+         }
+      } else {
+         this.done.set(index, !needsWork);
+         if (needsWork && index < this.cursor) {
+            this.cursor = index;
+         }
+      }
+   }
+
+   /**
+    * @return Up to {@code limit} positions to work on now: unplanned ones first, then the unfinished ones of the
+    * earliest stage, in plan order.
+    */
+   public LongArrayList next(int limit) {
+      LongArrayList result = new LongArrayList();
+      LongIterator it = this.diverged.iterator();
+
+      while (result.size() < limit && it.hasNext()) {
+         result.add(it.nextLong());
+      }
+
+      this.cursor = this.done.nextClearBit(this.cursor);
+      if (this.cursor < this.positions.length) {
+         int stage = this.stages[this.cursor];
+
+         for (int i = this.cursor; i < this.positions.length && result.size() < limit && this.stages[i] == stage; i = this.done.nextClearBit(i + 1)) {
+            result.add(this.positions[i]);
+         }
+      }
+
+      return result;
+   }
+
+   public boolean isDone() {
+      return this.diverged.isEmpty() && this.done.nextClearBit(this.cursor) >= this.positions.length;
+   }
+
+   public int size() {
+      return this.positions.length;
+   }
+
+   public int getRemaining() {
+      return this.positions.length - this.done.cardinality() + this.diverged.size();
+   }
+
+   /**
+    * @return How many placements had nothing to be placed against, even after everything before them was built.
+    */
+   public int getUnsupportedCount() {
+      return this.unsupported;
+   }
+}
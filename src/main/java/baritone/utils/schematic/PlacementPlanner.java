@@ -0,0 +1,343 @@
+package baritone.utils.schematic;
+
+import baritone.api.schematic.ISchematic;
+import baritone.pathing.movement.MovementHelper;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiPredicate;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.world.level.block.AirBlock;
+import net.minecraft.world.level.block.FallingBlock;
+import net.minecraft.world.level.block.LiquidBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Computes a {@link PlacementPlan} off the server thread.
+ * <p>
+ * The sections the schematic touches, and their neighbors, are copied on the server thread by a {@link SectionCache}
+ * a few per tick, reusing the copies it still has from earlier plans and diffs. Sections are then classified in
+ * parallel on a shared {@link ForkJoinPool}: what has to be broken, which source liquids covered, what placed, and
+ * which placements already have something solid next to them. Placement depth (how many planned blocks have to be
+ * placed first to reach a position) is a breadth first search from those, and the plan is sorted by stage.
+ * Positions in chunks that weren't loaded are left out, the builder finds them the usual way.
+ */
+public final class PlacementPlanner {
+   // Shared by everything that walks schematics off-thread
+   static final ForkJoinPool POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+   private static final byte CLEAR = 1;
+   private static final byte PLACE = 2;
+   private static final byte SUPPORTED = 4;
+   private static final byte FALLING = 8;
+   private static final byte SOLID = 16;
+   private final ISchematic schematic;
+   private final int originX;
+   private final int originY;
+   private final int originZ;
+   private final List<BlockState> approxPlaceable;
+   private final BiPredicate<BlockState, BlockState> valid;
+   private final WorldSnapshot snapshot;
+   private final CompletableFuture<PlacementPlan> result;
+
+   private PlacementPlanner(
+      WorldSnapshot snapshot,
+      ISchematic schematic,
+      Vec3i origin,
+      List<BlockState> approxPlaceable,
+      BiPredicate<BlockState, BlockState> valid,
+      CompletableFuture<PlacementPlan> result
+   ) {
+      this.schematic = schematic;
+      this.originX = origin.getX();
+      this.originY = origin.getY();
+      this.originZ = origin.getZ();
+      this.approxPlaceable = approxPlaceable;
+      this.valid = valid;
+      this.snapshot = snapshot;
+      this.result = result;
+   }
+
+   /**
+    * Starts planning once the sections are copied, {@link SectionCache#tick()} has to keep being called until then.
+    * Must be called on the server thread, the schematic has to be safe to read from other threads. Cancelling the
+    * returned future stops the planner.
+    *
+    * @param valid Whether a current state is good enough for a desired state.
+    */
+   public static CompletableFuture<PlacementPlan> plan(
+      SectionCache sections, ISchematic schematic, Vec3i origin, List<BlockState> approxPlaceable, BiPredicate<BlockState, BlockState> valid
+   ) {
+      CompletableFuture<PlacementPlan> result = new CompletableFuture<>();
+      CompletableFuture<WorldSnapshot> copied = sections.request(sectionsToCopy(schematic, origin));
+      copied.whenComplete((snapshot, error) -> {
+         if (error != null) {
+            result.completeExceptionally(error);
+         } else {
+            PlacementPlanner planner = new PlacementPlanner(snapshot, schematic, origin, approxPlaceable, valid, result);
+            POOL.execute(() -> {
+               try {
+                  result.complete(planner.compute());
+               } catch (Throwable t) {
+                  result.completeExceptionally(t);
+               }
+            });
+         }
+      });
+      // Cancelling the plan stops the copying too
+      result.whenComplete((plan, error) -> copied.cancel(false));
+      return result;
+   }
+
+   // The sections that may hold part of the schematic, and their neighbors for the support checks
+   private static LongOpenHashSet sectionsToCopy(ISchematic schematic, Vec3i origin) {
+      LongOpenHashSet keys = new LongOpenHashSet();
+
+      for (int sy = origin.getY() >> 4; sy <= origin.getY() + schematic.heightY() - 1 >> 4; sy++) {
+         for (int sz = origin.getZ() >> 4; sz <= origin.getZ() + schematic.lengthZ() - 1 >> 4; sz++) {
+            for (int sx = origin.getX() >> 4; sx <= origin.getX() + schematic.widthX() - 1 >> 4; sx++) {
+               int minX = (sx << 4) - origin.getX();
+               int minY = (sy << 4) - origin.getY();
+               int minZ = (sz << 4) - origin.getZ();
+               if (schematic.mayContainAny(minX, minY, minZ, minX + 15, minY + 15, minZ + 15)) {
+                  keys.add(SectionPos.asLong(sx, sy, sz));
+
+                  for (Direction dir : Direction.values()) {
+                     keys.add(SectionPos.asLong(sx + dir.getStepX(), sy + dir.getStepY(), sz + dir.getStepZ()));
+                  }
+               }
+            }
+         }
+      }
+
+      return keys;
+   }
+
+   private PlacementPlan compute() {
+      List<ForkJoinTask<PlacementPlanner.SectionResult>> tasks = new ArrayList<>();
+
+      for (int sy = this.originY >> 4; sy <= this.originY + this.schematic.heightY() - 1 >> 4; sy++) {
+         for (int sz = this.originZ >> 4; sz <= this.originZ + this.schematic.lengthZ() - 1 >> 4; sz++) {
+            for (int sx = this.originX >> 4; sx <= this.originX + this.schematic.widthX() - 1 >> 4; sx++) {
+               int minX = sx << 4;
+               int minY = sy << 4;
+               int minZ = sz << 4;
+               if (this.schematic.mayContainAny(
+                  minX - this.originX, minY - this.originY, minZ - this.originZ, minX + 15 - this.originX, minY + 15 - this.originY, minZ + 15 - this.originZ
+               )) {
+                  tasks.add(ForkJoinTask.adapt(() -> this.scanSection(minX, minY, minZ)));
+               }
+            }
+         }
+      }
+
+      ForkJoinTask.invokeAll(tasks);
+      this.checkCancelled();
+      LongArrayList positions = new LongArrayList();
+      ByteArrayList flags = new ByteArrayList();
+
+      for (ForkJoinTask<PlacementPlanner.SectionResult> task : tasks) {
+         positions.addAll(task.join().positions);
+         flags.addAll(task.join().flags);
+      }
+
+      int size = positions.size();
+      Long2IntOpenHashMap indices = new Long2IntOpenHashMap(size);
+      indices.defaultReturnValue(-1);
+
+      for (int i = 0; i < size; i++) {
+         indices.put(positions.getLong(i), i);
+      }
+
+      // Breadth first from placements that already have support, through placed blocks that can be placed against
+      int[] depth = new int[size];
+      IntArrayList queue = new IntArrayList();
+
+      for (int i = 0; i < size; i++) {
+         depth[i] = -1;
+         if ((flags.getByte(i) & (PLACE | SUPPORTED)) == (PLACE | SUPPORTED)) {
+            depth[i] = 0;
+            queue.add(i);
+         }
+      }
+
+      int maxDepth = 0;
+
+      for (int head = 0; head < queue.size(); head++) {
+         int i = queue.getInt(head);
+         if ((flags.getByte(i) & SOLID) != 0) {
+            long pos = positions.getLong(i);
+
+            for (Direction dir : Direction.values()) {
+               int j = indices.get(BlockPos.offset(pos, dir));
+               if (j != -1
+                  && depth[j] == -1
+                  && (flags.getByte(j) & PLACE) != 0
+                  && ((flags.getByte(j) & FALLING) == 0 || dir == Direction.UP)) {
+                  depth[j] = depth[i] + 1;
+                  maxDepth = Math.max(maxDepth, depth[j]);
+                  queue.add(j);
+               }
+            }
+         }
+      }
+
+      this.checkCancelled();
+      int[] stages = new int[size];
+      int unsupported = 0;
+
+      for (int i = 0; i < size; i++) {
+         if ((flags.getByte(i) & CLEAR) != 0) {
+            stages[i] = 0;
+         } else if (depth[i] != -1) {
+            stages[i] = 1 + depth[i];
+         } else {
+            stages[i] = maxDepth + 2;
+            unsupported++;
+         }
+      }
+
+      // Stage, then breaking top down and placing bottom up, then section by section
+      int[] order = new int[size];
+
+      for (int i = 0; i < size; i++) {
+         order[i] = i;
+      }
+
+      IntArrays.quickSort(order, (a, b) -> {
+         if (stages[a] != stages[b]) {
+            return Integer.compare(stages[a], stages[b]);
+         } else {
+            long posA = positions.getLong(a);
+            long posB = positions.getLong(b);
+            int ya = BlockPos.getY(posA);
+            int yb = BlockPos.getY(posB);
+            if (ya != yb) {
+               return stages[a] == 0 ? Integer.compare(yb, ya) : Integer.compare(ya, yb);
+            } else {
+               long sectionA = SectionPos.blockToSection(posA);
+               long sectionB = SectionPos.blockToSection(posB);
+               return sectionA != sectionB ? Long.compare(sectionA, sectionB) : Long.compare(posA, posB);
+            }
+         }
+      });
+      long[] sortedPositions = new long[size];
+      int[] sortedStages = new int[size];
+
+      for (int i = 0; i < size; i++) {
+         sortedPositions[i] = positions.getLong(order[i]);
+         sortedStages[i] = stages[order[i]];
+      }
+
+      return new PlacementPlan(sortedPositions, sortedStages, unsupported);
+   }
+
+   private PlacementPlanner.SectionResult scanSection(int minX, int minY, int minZ) {
+      this.checkCancelled();
+      PlacementPlanner.SectionResult result = new PlacementPlanner.SectionResult();
+      BlockState[] current = new BlockState[4096];
+      if (!this.snapshot.getSection(minX, minY, minZ, current)) {
+         return result;
+      } else {
+         BlockState[] desiredStates = current.clone();
+         this.schematic.fillSection(minX - this.originX, minY - this.originY, minZ - this.originZ, desiredStates, this.approxPlaceable);
+
+         for (int i = 0; i < 4096; i++) {
+            BlockState desired = desiredStates[i];
+            if (desired != null && !this.valid.test(current[i], desired)) {
+               int x = minX + (i & 15);
+               int y = minY + (i >> 8);
+               int z = minZ + (i >> 4 & 15);
+               byte flags;
+               if (current[i].getBlock() instanceof AirBlock) {
+                  flags = 0;
+               } else if (current[i].getBlock() instanceof LiquidBlock) {
+                  if (MovementHelper.possiblyFlowing(current[i])) {
+                     // The builder can't do anything about these
+                     continue;
+                  }
+
+                  flags = CLEAR;
+               } else {
+                  flags = CLEAR;
+               }
+
+               if (!(desired.getBlock() instanceof AirBlock)) {
+                  flags |= PLACE;
+                  boolean falling = desired.getBlock() instanceof FallingBlock;
+                  if (falling) {
+                     flags |= FALLING;
+                  }
+
+                  if (canPlaceAgainst(desired)) {
+                     flags |= SOLID;
+                  }
+
+                  if (this.hasSupport(x, y, z, falling)) {
+                     flags |= SUPPORTED;
+                  }
+               }
+
+               result.positions.add(BlockPos.asLong(x, y, z));
+               result.flags.add(flags);
+            }
+         }
+
+         return result;
+      }
+   }
+
+   // Whether a neighbor is solid now and stays solid once the schematic is done with it
+   private boolean hasSupport(int x, int y, int z, boolean belowOnly) {
+      for (Direction dir : Direction.values()) {
+         if (!belowOnly || dir == Direction.DOWN) {
+            int nx = x + dir.getStepX();
+            int ny = y + dir.getStepY();
+            int nz = z + dir.getStepZ();
+            BlockState neighbor = this.snapshot.get(nx, ny, nz);
+            if (neighbor != null && canPlaceAgainst(neighbor)) {
+               BlockState desired = this.desired(nx, ny, nz, neighbor);
+               if (desired == null || this.valid.test(neighbor, desired) || canPlaceAgainst(desired)) {
+                  return true;
+               }
+            }
+         }
+      }
+
+      return false;
+   }
+
+   private BlockState desired(int x, int y, int z, BlockState current) {
+      int rx = x - this.originX;
+      int ry = y - this.originY;
+      int rz = z - this.originZ;
+      return this.schematic.inSchematic(rx, ry, rz, current) ? this.schematic.desiredState(rx, ry, rz, current, this.approxPlaceable) : null;
+   }
+
+   private void checkCancelled() {
+      if (this.result.isDone()) {
+         throw new CancellationException();
+      }
+   }
+
+   // Only looks at the state, never at the world
+   private static boolean canPlaceAgainst(BlockState state) {
+      return MovementHelper.canPlaceAgainst(null, 0, 0, 0, state);
+   }
+
+   private static final class SectionResult {
+      final LongArrayList positions = new LongArrayList();
+      final ByteArrayList flags = new ByteArrayList();
+   }
+}
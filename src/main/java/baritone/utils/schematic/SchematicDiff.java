@@ -0,0 +1,529 @@
+package baritone.utils.schematic;
+
+import baritone.PlayerEngine;
+import baritone.api.schematic.IBuildProgress;
+import baritone.api.schematic.ISchematic;
+import baritone.utils.BlockChangeTracker;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * What's left to do to get a schematic into the world: how many blocks are right, what has to be placed, broken or
+ * replaced, and the materials that takes.
+ * <p>
+ * The first scan has the builder's {@link SectionCache} copy the loaded sections of the schematic, a few per tick and
+ * reusing what it already copied for the planner, and diffs them section by section on the {@link PlacementPlanner}
+ * pool. After that the counts are kept up to date from block changes, so asking for them is
+ * free. Sections in chunks that weren't loaded are scanned once they are, until then they count for nothing. Each
+ * position keeps its category and desired state (as an index in a palette), so a change only moves one position from
+ * one count to another. A few scanned sections are diffed again every few seconds, so anything a block change didn't
+ * report is eventually picked up. {@link #update()} must be called on the server thread, the getters can be called
+ * from anywhere.
+ */
+public final class SchematicDiff implements IBuildProgress {
+   private static final byte OUTSIDE = 0;
+   private static final byte CORRECT = 1;
+   private static final byte PLACE = 2;
+   private static final byte BREAK = 3;
+   private static final byte REPLACE = 4;
+   private static final long RESCAN_INTERVAL_MILLIS = 5000L;
+   // Scanned sections diffed again every RESCAN_INTERVAL_MILLIS
+   private static final int RESYNC_SECTIONS = 16;
+   private final Level level;
+   private final SectionCache sectionCache;
+   private final ISchematic schematic;
+   private final int originX;
+   private final int originY;
+   private final int originZ;
+   private final Supplier<List<BlockState>> approxPlaceable;
+   private final BiPredicate<BlockState, BlockState> valid;
+   private final BlockChangeTracker.Listener listener = this::onBlockChange;
+   // Block changes inside the schematic not applied yet, filled by the level's block change hook
+   private final LongOpenHashSet changed = new LongOpenHashSet();
+   // Desired states, id 0 is outside the schematic. Grown by the scan threads, hence its own lock.
+   private final List<BlockState> palette = new ArrayList<>();
+   private final Reference2IntOpenHashMap<BlockState> paletteIds = new Reference2IntOpenHashMap<>();
+   // Scanned sections that have part of the schematic in them
+   private final Long2ObjectOpenHashMap<SchematicDiff.Section> sections = new Long2ObjectOpenHashMap<>();
+   // Sections that may have part of the schematic in them but weren't loaded yet
+   private final LongOpenHashSet unscanned = new LongOpenHashSet();
+   // Scanned sections left to diff again this round
+   private final LongArrayList resyncQueue = new LongArrayList();
+   private int sectionCount;
+   private volatile CompletableFuture<List<SchematicDiff.Section>> pendingScan;
+   private CompletableFuture<WorldSnapshot> pendingCopy;
+   private long lastRescan;
+   private int[] totalById = new int[16];
+   private int[] remainingById = new int[16];
+   private int correct;
+   private int toPlace;
+   private int toBreak;
+   private int toReplace;
+   private volatile boolean closed;
+
+   private SchematicDiff(
+      SectionCache sectionCache,
+      ISchematic schematic,
+      Vec3i origin,
+      Supplier<List<BlockState>> approxPlaceable,
+      BiPredicate<BlockState, BlockState> valid
+   ) {
+      this.level = sectionCache.getLevel();
+      this.sectionCache = sectionCache;
+      this.schematic = schematic;
+      this.originX = origin.getX();
+      this.originY = origin.getY();
+      this.originZ = origin.getZ();
+      this.approxPlaceable = approxPlaceable;
+      this.valid = valid;
+      this.palette.add(null);
+   }
+
+   /**
+    * Starts diffing and tracking a schematic. Must be called on the server thread, the schematic has to be safe to
+    * read from other threads. {@link #close()} it once it isn't needed anymore, and keep calling
+    * {@link SectionCache#tick()} so the sections get copied.
+    *
+    * @param approxPlaceable What can be placed right now, asked again for every scan and change.
+    * @param valid Whether a current state is good enough for a desired state.
+    */
+   public static SchematicDiff compute(
+      SectionCache sectionCache,
+      ISchematic schematic,
+      Vec3i origin,
+      Supplier<List<BlockState>> approxPlaceable,
+      BiPredicate<BlockState, BlockState> valid
+   ) {
+      SchematicDiff diff = new SchematicDiff(sectionCache, schematic, origin, approxPlaceable, valid);
+      BlockChangeTracker.register(diff.level, diff.listener);
+      LongArrayList keys = new LongArrayList();
+
+      for (int sy = diff.originY >> 4; sy <= diff.originY + schematic.heightY() - 1 >> 4; sy++) {
+         for (int sz = diff.originZ >> 4; sz <= diff.originZ + schematic.lengthZ() - 1 >> 4; sz++) {
+            for (int sx = diff.originX >> 4; sx <= diff.originX + schematic.widthX() - 1 >> 4; sx++) {
+               int minX = (sx << 4) - diff.originX;
+               int minY = (sy << 4) - diff.originY;
+               int minZ = (sz << 4) - diff.originZ;
+               if (schematic.mayContainAny(minX, minY, minZ, minX + 15, minY + 15, minZ + 15)) {
+                  keys.add(SectionPos.asLong(sx, sy, sz));
+               }
+            }
+         }
+      }
+
+      diff.sectionCount = keys.size();
+      diff.unscanned.addAll(keys);
+      diff.startScan(keys);
+      return diff;
+   }
+
+   /**
+    * Picks up finished scans and applies block changes. Server thread only.
+    */
+   public void update() {
+      if (!this.closed) {
+         if (this.pendingScan != null) {
+            if (!this.pendingScan.isDone()) {
+               // Changes are applied once the scan is in, they may be newer than what it saw
+               return;
+            }
+
+            List<SchematicDiff.Section> scanned;
+            try {
+               scanned = this.pendingScan.join();
+            } catch (Exception e) {
+               PlayerEngine.LOGGER.error("Failed to diff schematic", e);
+               scanned = List.of();
+            }
+
+            this.pendingScan = null;
+            synchronized (this) {
+               for (SchematicDiff.Section section : scanned) {
+                  this.unscanned.remove(section.key);
+                  SchematicDiff.Section previous = this.sections.remove(section.key);
+                  if (previous != null) {
+                     for (int i = 0; i < 4096; i++) {
+                        this.count(previous.kinds[i], previous.desired[i], -1);
+                     }
+                  }
+
+                  if (section.inside > 0) {
+                     this.sections.put(section.key, section);
+
+                     for (int i = 0; i < 4096; i++) {
+                        this.count(section.kinds[i], section.desired[i], 1);
+                     }
+                  }
+               }
+            }
+         }
+
+         long[] positions;
+         synchronized (this.changed) {
+            positions = this.changed.toLongArray();
+            this.changed.clear();
+         }
+
+         for (long pos : positions) {
+            this.recheck(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+         }
+
+         long now = System.currentTimeMillis();
+         if (now - this.lastRescan >= RESCAN_INTERVAL_MILLIS) {
+            this.lastRescan = now;
+            LongArrayList keys = new LongArrayList();
+            synchronized (this) {
+               this.unscanned.forEach(key -> {
+                  if (this.level.hasChunk(SectionPos.x(key), SectionPos.z(key))) {
+                     keys.add(key);
+                  }
+               });
+               if (this.resyncQueue.isEmpty()) {
+                  this.resyncQueue.addAll(this.sections.keySet());
+               }
+            }
+
+            for (int i = 0; i < RESYNC_SECTIONS && !this.resyncQueue.isEmpty(); i++) {
+               long key = this.resyncQueue.removeLong(this.resyncQueue.size() - 1);
+               if (this.sections.containsKey(key) && this.level.hasChunk(SectionPos.x(key), SectionPos.z(key))) {
+                  // The cached copy only knows about reported changes, which is what this is checking
+                  this.sectionCache.invalidate(key);
+                  keys.add(key);
+               }
+            }
+
+            if (!keys.isEmpty()) {
+               this.startScan(keys);
+            }
+         }
+      }
+   }
+
+   /**
+    * Stops tracking block changes.
+    */
+   public void close() {
+      this.closed = true;
+      BlockChangeTracker.unregister(this.level, this.listener);
+      if (this.pendingScan != null) {
+         this.pendingCopy.cancel(false);
+         this.pendingScan.cancel(false);
+         this.pendingScan = null;
+      }
+   }
+
+   public Level getLevel() {
+      return this.level;
+   }
+
+   @Override
+   public synchronized boolean isComplete() {
+      return this.unscanned.isEmpty();
+   }
+
+   @Override
+   public synchronized int getScannedSectionCount() {
+      return this.sectionCount - this.unscanned.size();
+   }
+
+   @Override
+   public int getSectionCount() {
+      return this.sectionCount;
+   }
+
+   /**
+    * @return How many positions of the schematic were scanned, whatever is in them.
+    */
+   public synchronized int getTotal() {
+      return this.correct + this.toPlace + this.toBreak + this.toReplace;
+   }
+
+   public synchronized int getCorrectCount() {
+      return this.correct;
+   }
+
+   /**
+    * @return Positions with nothing in them that need a block.
+    */
+   public synchronized int getPlaceCount() {
+      return this.toPlace;
+   }
+
+   /**
+    * @return Positions with a block in them that should be empty.
+    */
+   public synchronized int getBreakCount() {
+      return this.toBreak;
+   }
+
+   /**
+    * @return Positions with the wrong block in them, broken then placed.
+    */
+   public synchronized int getReplaceCount() {
+      return this.toReplace;
+   }
+
+   @Override
+   public synchronized double getPercentComplete() {
+      int total = this.getTotal();
+      return total == 0 ? 0.0 : 100.0 * this.correct / total;
+   }
+
+   @Override
+   public synchronized int getActionsRemaining() {
+      return this.toPlace + this.toBreak + 2 * this.toReplace;
+   }
+
+   @Override
+   public synchronized Map<BlockState, Integer> getMaterials() {
+      return this.byState(this.remainingById);
+   }
+
+   @Override
+   public synchronized Map<BlockState, Integer> getStateCounts() {
+      return this.byState(this.totalById);
+   }
+
+   @Override
+   public synchronized Map<Item, Integer> getItemBill() {
+      Map<Item, Integer> counts = new LinkedHashMap<>();
+      this.getMaterials().forEach((state, count) -> {
+         Item item = state.getBlock().asItem();
+         if (item != Items.AIR) {
+            counts.merge(item, count, Integer::sum);
+         }
+      });
+      return counts;
+   }
+
+   // No percentage until everything was scanned, the part that was could be anything but representative
+   @Override
+   public synchronized String describe(int maxItems) {
+      StringBuilder sb = new StringBuilder();
+      if (this.isComplete()) {
+         sb.append(String.format("%.1f%% complete, %d actions left", this.getPercentComplete(), this.getActionsRemaining()));
+      } else {
+         sb.append(String.format("scanning (%d of %d sections so far), at least %d actions left", this.getScannedSectionCount(), this.sectionCount, this.getActionsRemaining()));
+      }
+
+      Map<Item, Integer> bill = this.getItemBill();
+      if (!bill.isEmpty()) {
+         sb.append(", needs");
+         int shown = 0;
+
+         for (Map.Entry<Item, Integer> entry : bill.entrySet()) {
+            if (shown == maxItems) {
+               sb.append(" and ").append(bill.size() - shown).append(" more");
+               break;
+            }
+
+            sb.append(shown == 0 ? " " : ", ").append(entry.getValue()).append(' ').append(BuiltInRegistries.ITEM.getKey(entry.getKey()).getPath());
+            shown++;
+         }
+      }
+
+      return sb.toString();
+   }
+
+   @Override
+   public String toString() {
+      return this.describe(Integer.MAX_VALUE);
+   }
+
+   // Server thread only, the sections are copied by the cache over the next ticks and diffed on the pool
+   private void startScan(LongArrayList keys) {
+      List<BlockState> approxPlaceable = this.approxPlaceable.get();
+      this.pendingCopy = this.sectionCache.request(keys);
+      this.pendingScan = this.pendingCopy.thenApplyAsync(snapshot -> {
+         List<ForkJoinTask<SchematicDiff.Section>> tasks = new ArrayList<>();
+
+         for (int i = 0; i < keys.size(); i++) {
+            long key = keys.getLong(i);
+            tasks.add(ForkJoinTask.adapt(() -> this.scanSection(snapshot, key, approxPlaceable)));
+         }
+
+         ForkJoinTask.invokeAll(tasks);
+         List<SchematicDiff.Section> scanned = new ArrayList<>();
+
+         for (ForkJoinTask<SchematicDiff.Section> task : tasks) {
+            if (task.join() != null) {
+               scanned.add(task.join());
+            }
+         }
+
+         return scanned;
+      }, PlacementPlanner.POOL);
+   }
+
+   // null if the chunk isn't loaded
+   private SchematicDiff.Section scanSection(WorldSnapshot snapshot, long key, List<BlockState> approxPlaceable) {
+      int minX = SectionPos.x(key) << 4;
+      int minY = SectionPos.y(key) << 4;
+      int minZ = SectionPos.z(key) << 4;
+      BlockState[] current = new BlockState[4096];
+      if (this.closed || !snapshot.getSection(minX, minY, minZ, current)) {
+         return null;
+      } else {
+         BlockState[] desired = current.clone();
+         this.schematic.fillSection(minX - this.originX, minY - this.originY, minZ - this.originZ, desired, approxPlaceable);
+         SchematicDiff.Section section = new SchematicDiff.Section(key);
+         BlockState last = null;
+         short lastId = 0;
+
+         for (int i = 0; i < 4096; i++) {
+            if (desired[i] != null) {
+               if (desired[i] != last) {
+                  last = desired[i];
+                  lastId = this.paletteId(last);
+               }
+
+               section.kinds[i] = this.classify(current[i], desired[i]);
+               section.desired[i] = lastId;
+               section.inside++;
+            }
+         }
+
+         return section;
+      }
+   }
+
+   private void onBlockChange(int x, int y, int z) {
+      if (x >= this.originX
+         && y >= this.originY
+         && z >= this.originZ
+         && x < this.originX + this.schematic.widthX()
+         && y < this.originY + this.schematic.heightY()
+         && z < this.originZ + this.schematic.lengthZ()) {
+         synchronized (this.changed) {
+            this.changed.add(BlockPos.asLong(x, y, z));
+         }
+      }
+   }
+
+   private void recheck(int x, int y, int z) {
+      SchematicDiff.Section section = this.sections.get(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+      if (section != null) {
+         int index = (y & 15) << 8 | (z & 15) << 4 | x & 15;
+         BlockState current = this.level.getBlockState(new BlockPos(x, y, z));
+         int rx = x - this.originX;
+         int ry = y - this.originY;
+         int rz = z - this.originZ;
+         BlockState desired = this.schematic.inSchematic(rx, ry, rz, current)
+            ? this.schematic.desiredState(rx, ry, rz, current, this.approxPlaceable.get())
+            : null;
+         byte kind = desired == null ? OUTSIDE : this.classify(current, desired);
+         short id = desired == null ? 0 : this.paletteId(desired);
+         synchronized (this) {
+            this.count(section.kinds[index], section.desired[index], -1);
+            section.kinds[index] = kind;
+            section.desired[index] = id;
+            this.count(kind, id, 1);
+         }
+      }
+   }
+
+   private byte classify(BlockState current, BlockState desired) {
+      if (this.valid.test(current, desired)) {
+         return CORRECT;
+      } else if (desired.isAir()) {
+         return BREAK;
+      } else {
+         return !current.isAir() && !current.canBeReplaced() ? REPLACE : PLACE;
+      }
+   }
+
+   private short paletteId(BlockState state) {
+      synchronized (this.paletteIds) {
+         int id = this.paletteIds.getInt(state);
+         if (id == 0) {
+            id = this.palette.size();
+            this.palette.add(state);
+            this.paletteIds.put(state, id);
+         }
+
+         return (short)id;
+      }
+   }
+
+   private void count(byte kind, short id, int delta) {
+      switch (kind) {
+         case CORRECT:
+            this.correct += delta;
+            break;
+         case PLACE:
+            this.toPlace += delta;
+            break;
+         case BREAK:
+            this.toBreak += delta;
+            break;
+         case REPLACE:
+            this.toReplace += delta;
+            break;
+         default:
+            return;
+      }
+
+      if (id >= this.totalById.length) {
+         this.totalById = Arrays.copyOf(this.totalById, Math.max(id + 1, this.totalById.length * 2));
+         this.remainingById = Arrays.copyOf(this.remainingById, this.totalById.length);
+      }
+
+      this.totalById[id] += delta;
+      if (kind == PLACE || kind == REPLACE) {
+         this.remainingById[id] += delta;
+      }
+   }
+
+   private Map<BlockState, Integer> byState(int[] counts) {
+      int[] ids = new int[counts.length];
+      int size = 0;
+
+      for (int id = 1; id < counts.length; id++) {
+         if (counts[id] > 0) {
+            ids[size++] = id;
+         }
+      }
+
+      IntArrays.quickSort(ids, 0, size, (a, b) -> Integer.compare(counts[b], counts[a]));
+      Map<BlockState, Integer> result = new LinkedHashMap<>();
+      synchronized (this.paletteIds) {
+         for (int i = 0; i < size; i++) {
+            result.put(this.palette.get(ids[i]), counts[ids[i]]);
+         }
+      }
+
+      return result;
+   }
+
+   private static final class Section {
+      final long key;
+      final byte[] kinds = new byte[4096];
+      // Palette ids of the desired states
+      final short[] desired = new short[4096];
+      int inside;
+
+      Section(long key) {
+         this.key = key;
+      }
+   }
+}
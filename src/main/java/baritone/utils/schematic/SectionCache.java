@@ -0,0 +1,139 @@
+package baritone.utils.schematic;
+
+import baritone.utils.BlockChangeTracker;
+import baritone.utils.accessor.ServerChunkManagerAccessor;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Copies of the chunk sections a builder works in, shared by its {@link PlacementPlanner} and {@link SchematicDiff}.
+ * <p>
+ * Sections are copied a few at a time in {@link #tick()} and kept until a block in them changes, so planning the next
+ * layer or diffing again only copies what changed since. A request completes with a {@link WorldSnapshot} of the
+ * sections it asked for once they are all copied, leaving out the ones in chunks that aren't loaded. Server thread
+ * only, the snapshots can be read from anywhere.
+ */
+public final class SectionCache {
+   private static final int COPIES_PER_TICK = 64;
+   private final Level level;
+   private final BlockChangeTracker.Listener listener = (x, y, z) -> this.invalidate(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+   // Copied sections, null for the ones that only hold air. Copies are never changed, snapshots share them.
+   private final Long2ObjectOpenHashMap<PalettedContainer<BlockState>> copies = new Long2ObjectOpenHashMap<>();
+   private final ArrayDeque<SectionCache.Request> requests = new ArrayDeque<>();
+
+   public SectionCache(Level level) {
+      this.level = level;
+      BlockChangeTracker.register(level, this.listener);
+   }
+
+   public Level getLevel() {
+      return this.level;
+   }
+
+   /**
+    * Copies sections for the oldest requests, at most {@link #COPIES_PER_TICK} of them.
+    */
+   public void tick() {
+      int budget = COPIES_PER_TICK;
+
+      while (budget > 0 && !this.requests.isEmpty()) {
+         SectionCache.Request request = this.requests.peek();
+
+         while (budget > 0 && request.next < request.keys.length && !request.result.isDone()) {
+            long key = request.keys[request.next++];
+            if (!this.copies.containsKey(key) && this.copy(key)) {
+               budget--;
+            }
+         }
+
+         if (request.result.isDone()) {
+            // Cancelled by whoever asked
+            this.requests.poll();
+         } else if (request.next == request.keys.length) {
+            this.requests.poll();
+            request.result.complete(this.snapshot(request.keys));
+         }
+      }
+   }
+
+   /**
+    * Stops following block changes and drops every copy and request.
+    */
+   public void close() {
+      BlockChangeTracker.unregister(this.level, this.listener);
+
+      for (SectionCache.Request request : this.requests) {
+         request.result.cancel(false);
+      }
+
+      this.requests.clear();
+      this.copies.clear();
+   }
+
+   /**
+    * Cancelling the returned future drops the request.
+    */
+   CompletableFuture<WorldSnapshot> request(LongCollection keys) {
+      SectionCache.Request request = new SectionCache.Request(keys.toLongArray());
+      this.requests.add(request);
+      return request.result;
+   }
+
+   /**
+    * Copies this section again the next time it's asked for, for changes that weren't reported.
+    */
+   void invalidate(long key) {
+      this.copies.remove(key);
+   }
+
+   // Sections that changed after they were copied for this request are copied again right away, there are only a few
+   private WorldSnapshot snapshot(long[] keys) {
+      Long2ObjectOpenHashMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>(keys.length);
+
+      for (long key : keys) {
+         if (this.copies.containsKey(key) || this.copy(key)) {
+            sections.put(key, this.copies.get(key));
+         }
+      }
+
+      return new WorldSnapshot(sections, this.level.getMinBuildHeight(), this.level.getMaxBuildHeight());
+   }
+
+   // false if the chunk isn't loaded
+   private boolean copy(long key) {
+      LevelChunk chunk = ((ServerChunkManagerAccessor)this.level.getChunkSource()).automatone$getChunkNow(SectionPos.x(key), SectionPos.z(key));
+      if (chunk != null && !chunk.isEmpty()) {
+         int sy = SectionPos.y(key);
+         PalettedContainer<BlockState> states = null;
+         if (sy >= this.level.getMinSection() && sy < this.level.getMaxSection()) {
+            LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sy));
+            if (!section.hasOnlyAir()) {
+               states = section.getStates().copy();
+            }
+         }
+
+         this.copies.put(key, states);
+         return true;
+      } else {
+         return false;
+      }
+   }
+
+   private static final class Request {
+      final long[] keys;
+      final CompletableFuture<WorldSnapshot> result = new CompletableFuture<>();
+      int next;
+
+      Request(long[] keys) {
+         this.keys = keys;
+      }
+   }
+}
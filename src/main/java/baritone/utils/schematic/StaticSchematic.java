@@ -6,20 +6,59 @@ import java.util.List;
 import net.minecraft.world.level.block.state.BlockState;
 
 public class StaticSchematic extends AbstractSchematic implements IStaticSchematic {
-   protected BlockState[][][] states;
+   protected PalettedBlockStorage states;
+
+   @Override
+   public boolean inSchematic(int x, int y, int z, BlockState currentState) {
+      return super.inSchematic(x, y, z, currentState) && this.states.get(x, y, z) != null;
+   }
+
+   @Override
+   public boolean mayContainAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      if (!super.mayContainAny(minX, minY, minZ, maxX, maxY, maxZ)) {
+         return false;
+      } else if (this.states.getDefaultState() != null) {
+         return true;
+      } else {
+         // Empty sections only hold positions outside of the schematic
+         for (int sy = Math.max(minY, 0) >> 4; sy <= Math.min(maxY, this.y - 1) >> 4; sy++) {
+            for (int sz = Math.max(minZ, 0) >> 4; sz <= Math.min(maxZ, this.z - 1) >> 4; sz++) {
+               for (int sx = Math.max(minX, 0) >> 4; sx <= Math.min(maxX, this.x - 1) >> 4; sx++) {
+                  if (!this.states.isSectionEmpty(sx, sy, sz)) {
+                     return true;
+                  }
+               }
+            }
+         }
+
+         return false;
+      }
+   }
+
+   @Override
+   public void fillSection(int minX, int minY, int minZ, BlockState[] states, List<BlockState> approxPlaceable) {
+      this.states.fill(minX, minY, minZ, states);
+   }
 
    @Override
    public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
-      return this.states[x][z][y];
+      return this.states.get(x, y, z);
    }
 
    @Override
    public BlockState getDirect(int x, int y, int z) {
-      return this.states[x][z][y];
+      return this.states.get(x, y, z);
    }
 
-   @Override
-   public BlockState[] getColumn(int x, int z) {
-      return this.states[x][z];
+   /**
+    * @return Whether this 16x16x16 section (in section coordinates, relative to the schematic) holds nothing but air
+    * or positions outside of the schematic, so callers can skip it as a whole.
+    */
+   public boolean isSectionEmpty(int sectionX, int sectionY, int sectionZ) {
+      return this.states.isSectionEmpty(sectionX, sectionY, sectionZ);
+   }
+
+   public PalettedBlockStorage getStorage() {
+      return this.states;
    }
 }
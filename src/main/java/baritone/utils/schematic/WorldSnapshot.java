@@ -0,0 +1,59 @@
+package baritone.utils.schematic;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Copies of some chunk sections, readable from any thread. Made by a {@link SectionCache}.
+ */
+final class WorldSnapshot {
+   private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+   // null for sections that only hold air, missing for the ones that weren't copied (chunk not loaded or not asked for)
+   private final Long2ObjectOpenHashMap<PalettedContainer<BlockState>> sections;
+   private final int minBuildHeight;
+   private final int maxBuildHeight;
+
+   WorldSnapshot(Long2ObjectOpenHashMap<PalettedContainer<BlockState>> sections, int minBuildHeight, int maxBuildHeight) {
+      this.sections = sections;
+      this.minBuildHeight = minBuildHeight;
+      this.maxBuildHeight = maxBuildHeight;
+   }
+
+   // null if the section wasn't copied
+   BlockState get(int x, int y, int z) {
+      if (y < this.minBuildHeight || y >= this.maxBuildHeight) {
+         return AIR;
+      } else {
+         long key = SectionPos.asLong(x >> 4, y >> 4, z >> 4);
+         if (!this.sections.containsKey(key)) {
+            return null;
+         } else {
+            PalettedContainer<BlockState> section = this.sections.get(key);
+            return section == null ? AIR : section.get(x & 15, y & 15, z & 15);
+         }
+      }
+   }
+
+   /**
+    * Fills a whole section at once, index (y << 8 | z << 4 | x).
+    *
+    * @return false (and nothing filled) if the section wasn't copied.
+    */
+   boolean getSection(int minX, int minY, int minZ, BlockState[] states) {
+      long key = SectionPos.asLong(minX >> 4, minY >> 4, minZ >> 4);
+      if (!this.sections.containsKey(key)) {
+         return false;
+      } else {
+         PalettedContainer<BlockState> section = this.sections.get(key);
+
+         for (int i = 0; i < 4096; i++) {
+            states[i] = section == null ? AIR : section.get(i & 15, i >> 8, i >> 4 & 15);
+         }
+
+         return true;
+      }
+   }
+}
@@ -2,6 +2,7 @@ package baritone.utils.schematic.format;
 
 import baritone.api.schematic.IStaticSchematic;
 import baritone.api.schematic.format.ISchematicFormat;
+import baritone.utils.schematic.format.defaults.LitematicaSchematic;
 import baritone.utils.schematic.format.defaults.MCEditSchematic;
 import baritone.utils.schematic.format.defaults.SpongeSchematic;
 import java.io.File;
@@ -31,6 +32,18 @@ public enum DefaultSchematicFormats implements ISchematicFormat {
                throw new UnsupportedOperationException("Unsupported Version of a Sponge Schematic");
          }
       }
+   },
+   LITEMATICA("litematic") {
+      @Override
+      public IStaticSchematic parse(InputStream input) throws IOException {
+         CompoundTag nbt = NbtIo.readCompressed(input);
+         int version = nbt.getInt("Version");
+         if (version >= 4 && version <= 6) {
+            return new LitematicaSchematic(nbt);
+         } else {
+            throw new UnsupportedOperationException("Unsupported Version of a Litematica Schematic");
+         }
+      }
    };
 
    private final String extension;
@@ -0,0 +1,121 @@
+package baritone.utils.schematic.format.defaults;
+
+import baritone.utils.schematic.PalettedBlockStorage;
+import baritone.utils.schematic.StaticSchematic;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.block.Blocks;
+
+/**
+ * A Litematica schematic, with every region merged into one box. Positions that no region covers are not part of the
+ * schematic.
+ * <p>
+ * Regions store their blocks the same way we do (a palette and bit-packed ids), except entries may straddle two
+ * {@code long}s, so ids are copied over without building a {@code BlockState} per block.
+ */
+public final class LitematicaSchematic extends StaticSchematic {
+   public LitematicaSchematic(CompoundTag nbt) {
+      CompoundTag regions = nbt.getCompound("Regions");
+      if (regions.isEmpty()) {
+         throw new IllegalArgumentException("Litematic has no regions");
+      }
+
+      int minX = Integer.MAX_VALUE;
+      int minY = Integer.MAX_VALUE;
+      int minZ = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE;
+      int maxY = Integer.MIN_VALUE;
+      int maxZ = Integer.MIN_VALUE;
+
+      for (String name : regions.getAllKeys()) {
+         LitematicaSchematic.Region region = new LitematicaSchematic.Region(regions.getCompound(name));
+         minX = Math.min(minX, region.minX);
+         minY = Math.min(minY, region.minY);
+         minZ = Math.min(minZ, region.minZ);
+         maxX = Math.max(maxX, region.minX + region.sizeX);
+         maxY = Math.max(maxY, region.minY + region.sizeY);
+         maxZ = Math.max(maxZ, region.minZ + region.sizeZ);
+      }
+
+      this.x = maxX - minX;
+      this.y = maxY - minY;
+      this.z = maxZ - minZ;
+      // A single region covers the whole box, so it can default to air and skip empty sections
+      this.states = new PalettedBlockStorage(this.x, this.y, this.z, regions.size() == 1 ? Blocks.AIR.defaultBlockState() : null, 0);
+
+      for (String name : regions.getAllKeys()) {
+         CompoundTag tag = regions.getCompound(name);
+         this.readRegion(tag, new LitematicaSchematic.Region(tag), minX, minY, minZ);
+      }
+   }
+
+   private void readRegion(CompoundTag tag, LitematicaSchematic.Region region, int minX, int minY, int minZ) {
+      ListTag paletteTag = tag.getList("BlockStatePalette", Tag.TAG_COMPOUND);
+      int[] palette = new int[paletteTag.size()];
+
+      for (int i = 0; i < palette.length; i++) {
+         palette[i] = this.states.register(NbtUtils.readBlockState(BuiltInRegistries.BLOCK.asLookup(), paletteTag.getCompound(i)));
+      }
+
+      long[] data = tag.getLongArray("BlockStates");
+      int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(palette.length - 1));
+      long mask = (1L << bits) - 1L;
+      int offsetX = region.minX - minX;
+      int offsetY = region.minY - minY;
+      int offsetZ = region.minZ - minZ;
+      long bitIndex = 0L;
+
+      for (int y = 0; y < region.sizeY; y++) {
+         for (int z = 0; z < region.sizeZ; z++) {
+            for (int x = 0; x < region.sizeX; x++, bitIndex += bits) {
+               int cell = (int)(bitIndex >> 6);
+               int start = (int)(bitIndex & 63L);
+               int end = start + bits;
+               if (cell >= data.length || end > 64 && cell + 1 >= data.length) {
+                  throw new IllegalArgumentException("BlockStates is too short for the region size");
+               }
+
+               int value;
+               if (end <= 64) {
+                  value = (int)(data[cell] >>> start & mask);
+               } else {
+                  value = (int)((data[cell] >>> start | data[cell + 1] << 64 - start) & mask);
+               }
+
+               if (value >= palette.length) {
+                  throw new IllegalArgumentException("Invalid Palette Index " + value);
+               }
+
+               this.states.setId(x + offsetX, y + offsetY, z + offsetZ, palette[value]);
+            }
+         }
+      }
+   }
+
+   private static final class Region {
+      private final int minX;
+      private final int minY;
+      private final int minZ;
+      private final int sizeX;
+      private final int sizeY;
+      private final int sizeZ;
+
+      private Region(CompoundTag tag) {
+         CompoundTag position = tag.getCompound("Position");
+         CompoundTag size = tag.getCompound("Size");
+         int sx = size.getInt("x");
+         int sy = size.getInt("y");
+         int sz = size.getInt("z");
+         // A negative size means the region extends from its position towards negative coordinates
+         this.minX = position.getInt("x") + (sx < 0 ? sx + 1 : 0);
+         this.minY = position.getInt("y") + (sy < 0 ? sy + 1 : 0);
+         this.minZ = position.getInt("z") + (sz < 0 ? sz + 1 : 0);
+         this.sizeX = Math.abs(sx);
+         this.sizeY = Math.abs(sy);
+         this.sizeZ = Math.abs(sz);
+      }
+   }
+}
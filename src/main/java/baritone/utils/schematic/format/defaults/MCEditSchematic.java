@@ -1,11 +1,14 @@
 package baritone.utils.schematic.format.defaults;
 
+import baritone.utils.schematic.PalettedBlockStorage;
 import baritone.utils.schematic.StaticSchematic;
+import java.util.Arrays;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.datafix.fixes.ItemIdFix;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
 public final class MCEditSchematic extends StaticSchematic {
@@ -18,30 +21,31 @@ public final class MCEditSchematic extends StaticSchematic {
          this.y = schematic.getInt("Height");
          this.z = schematic.getInt("Length");
          byte[] blocks = schematic.getByteArray("Blocks");
-         byte[] additional = null;
-         if (schematic.contains("AddBlocks")) {
-            byte[] addBlocks = schematic.getByteArray("AddBlocks");
-            additional = new byte[addBlocks.length * 2];
-
-            for (int i = 0; i < addBlocks.length; i++) {
-               additional[i * 2 + 0] = (byte)(addBlocks[i] >> 4 & 15);
-               additional[i * 2 + 1] = (byte)(addBlocks[i] >> 0 & 15);
-            }
-         }
-
-         this.states = new BlockState[this.x][this.z][this.y];
+         // Two 4 bit extensions per byte, read in place instead of being unpacked to their own array
+         byte[] addBlocks = schematic.contains("AddBlocks") ? schematic.getByteArray("AddBlocks") : null;
+         this.states = new PalettedBlockStorage(this.x, this.y, this.z, Blocks.AIR.defaultBlockState(), 0);
+         // Legacy id -> palette id, resolved the first time the id shows up
+         int[] ids = new int[4096];
+         Arrays.fill(ids, -1);
 
          for (int y = 0; y < this.y; y++) {
             for (int z = 0; z < this.z; z++) {
                for (int x = 0; x < this.x; x++) {
                   int blockInd = (y * this.z + z) * this.x + x;
                   int blockID = blocks[blockInd] & 255;
-                  if (additional != null) {
-                     blockID |= additional[blockInd] << 8;
+                  if (addBlocks != null && blockInd >> 1 < addBlocks.length) {
+                     int add = addBlocks[blockInd >> 1];
+                     blockID |= ((blockInd & 1) == 0 ? add >> 4 & 15 : add & 15) << 8;
+                  }
+
+                  int id = ids[blockID];
+                  if (id == -1) {
+                     Block block = (Block)BuiltInRegistries.BLOCK.get(ResourceLocation.tryParse(ItemIdFix.getItem(blockID)));
+                     id = this.states.register(block.defaultBlockState());
+                     ids[blockID] = id;
                   }
 
-                  Block block = (Block)BuiltInRegistries.BLOCK.get(ResourceLocation.tryParse(ItemIdFix.getItem(blockID)));
-                  this.states[x][z][y] = block.defaultBlockState();
+                  this.states.setId(x, y, z, id);
                }
             }
          }
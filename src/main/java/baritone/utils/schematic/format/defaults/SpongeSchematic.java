@@ -1,9 +1,9 @@
 package baritone.utils.schematic.format.defaults;
 
 import baritone.PlayerEngine;
+import baritone.utils.schematic.PalettedBlockStorage;
 import baritone.utils.schematic.StaticSchematic;
-import baritone.utils.type.VarInt;
-import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -13,6 +13,7 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.Property;
 
@@ -21,9 +22,11 @@ public final class SpongeSchematic extends StaticSchematic {
       this.x = nbt.getInt("Width");
       this.y = nbt.getInt("Height");
       this.z = nbt.getInt("Length");
-      this.states = new BlockState[this.x][this.z][this.y];
-      Int2ObjectArrayMap<BlockState> palette = new Int2ObjectArrayMap();
       CompoundTag paletteTag = nbt.getCompound("Palette");
+      this.states = new PalettedBlockStorage(this.x, this.y, this.z, Blocks.AIR.defaultBlockState(), paletteTag.size());
+      // Sponge palette index -> our palette id
+      Int2IntOpenHashMap palette = new Int2IntOpenHashMap();
+      palette.defaultReturnValue(-1);
 
       for (String tag : paletteTag.getAllKeys()) {
          int index = paletteTag.getInt(tag);
@@ -37,33 +40,38 @@ public final class SpongeSchematic extends StaticSchematic {
             throw new IllegalArgumentException("Unable to deserialize palette tag");
          }
 
-         palette.put(index, state);
+         palette.put(index, this.states.register(state));
       }
 
+      // Blocks are stored y, z, x as varints, decoded straight into the storage
       byte[] rawBlockData = nbt.getByteArray("BlockData");
-      int[] blockData = new int[this.x * this.y * this.z];
       int offset = 0;
 
-      for (int i = 0; i < blockData.length; i++) {
-         if (offset >= rawBlockData.length) {
-            throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
-         }
-
-         VarInt varInt = VarInt.read(rawBlockData, offset);
-         blockData[i] = varInt.getValue();
-         offset += varInt.getSize();
-      }
-
       for (int y = 0; y < this.y; y++) {
          for (int z = 0; z < this.z; z++) {
             for (int x = 0; x < this.x; x++) {
-               int indexx = (y * this.z + z) * this.x + x;
-               BlockState state = (BlockState)palette.get(blockData[indexx]);
-               if (state == null) {
-                  throw new IllegalArgumentException("Invalid Palette Index " + indexx);
+               int value = 0;
+               int size = 0;
+
+               byte b;
+               do {
+                  if (offset >= rawBlockData.length) {
+                     throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
+                  }
+
+                  b = rawBlockData[offset++];
+                  value |= (b & 127) << size++ * 7;
+                  if (size > 5) {
+                     throw new IllegalArgumentException("VarInt size cannot exceed 5 bytes");
+                  }
+               } while ((b & 128) != 0);
+
+               int id = palette.get(value);
+               if (id == -1) {
+                  throw new IllegalArgumentException("Invalid Palette Index " + ((y * this.z + z) * this.x + x));
                }
 
-               this.states[x][z][y] = state;
+               this.states.setId(x, y, z, id);
             }
          }
       }
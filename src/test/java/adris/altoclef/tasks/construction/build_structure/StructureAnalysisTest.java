@@ -0,0 +1,45 @@
+package adris.altoclef.tasks.construction.build_structure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StructureAnalysisTest {
+    private static StructureAnalysis analyze(String code) {
+        return StructureAnalysis.analyze(StructureFromCode.compile(code));
+    }
+
+    @Test
+    void countedLoopIsBounded() {
+        StructureAnalysis analysis = analyze("for (let i = 0; i < 10; i = i + 1) { setBlock(i, 64, 0, \"stone\"); }");
+        assertTrue(analysis.isBlockCountBounded());
+        assertEquals(10L, analysis.getMaxBlocks());
+        assertEquals(10L, (long) analysis.getMaxBlocksPerType().get("stone"));
+        assertFalse(analysis.mayFail());
+    }
+
+    @Test
+    void boxCoversEverySetBlock() {
+        StructureAnalysis analysis = analyze("let y = 64; for (let i = 0; i < 10; i = i + 1) { setBlock(i, y, -i, \"stone\"); }"
+                + " setBlock(3, y + 5, 0, \"glass\");");
+        assertTrue(analysis.hasBounds());
+        assertEquals(0, analysis.getMinX());
+        assertEquals(9, analysis.getMaxX());
+        assertEquals(64, analysis.getMinY());
+        assertEquals(69, analysis.getMaxY());
+        assertEquals(-9, analysis.getMinZ());
+        assertEquals(0, analysis.getMaxZ());
+    }
+
+    @Test
+    void boundReadingTheCounterIsNotCounted() {
+        StructureAnalysis analysis = analyze(
+                "let i = 0; while (i < i + 10) { setBlock(i, 64, 0, \"stone\"); i = i + 1; }");
+        assertFalse(analysis.isBlockCountBounded());
+        assertTrue(analysis.mayFail());
+        assertFalse(analysis.isSafeWithin(StructureFromCode.DEFAULT_MAX_INSTRUCTIONS,
+                StructureFromCode.DEFAULT_MAX_BLOCKS));
+    }
+}